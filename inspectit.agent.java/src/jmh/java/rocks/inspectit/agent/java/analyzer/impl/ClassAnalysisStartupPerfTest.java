@@ -0,0 +1,221 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+
+import com.google.common.io.ByteStreams;
+
+import rocks.inspectit.agent.java.Agent;
+import rocks.inspectit.agent.java.IAgent;
+import rocks.inspectit.agent.java.connection.IConnection;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.instrumentation.RetransformManager;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+
+/**
+ * Startup time benchmark for the class analysis in the blocking and deferred mode. Classes of the
+ * spring context jar are passed to the {@link ByteCodeAnalyzer} as they would be on the application
+ * start, while the connection simulates the round trip to the CMR with the given latency.
+ * <p>
+ * The {@link #blocking()} and {@link #deferred()} benchmarks measure the time class loading
+ * threads spend in the analyzer. The {@link #deferredWithAnalysis()} additionally includes sending
+ * all types in batches to the CMR.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ClassAnalysisStartupPerfTest {
+
+	/**
+	 * Amount of classes loaded.
+	 */
+	@Param({ "1000" })
+	private int classes;
+
+	/**
+	 * Simulated latency of one call to the CMR in microseconds.
+	 */
+	@Param({ "200", "1000" })
+	private long latencyMicros;
+
+	private List<String> classNames;
+
+	private List<byte[]> byteCodes;
+
+	private ExecutorService executorService;
+
+	private IConnection connection;
+
+	private ByteCodeAnalyzer byteCodeAnalyzer;
+
+	private DeferredClassAnalyzer deferredClassAnalyzer;
+
+	@Setup(Level.Trial)
+	public void init() throws Exception {
+		classNames = new ArrayList<String>(classes);
+		byteCodes = new ArrayList<byte[]>(classes);
+		File jar = new File(ApplicationContext.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		JarFile jarFile = new JarFile(jar);
+		try {
+			Enumeration<JarEntry> entries = jarFile.entries();
+			while (entries.hasMoreElements() && (classNames.size() < classes)) {
+				JarEntry entry = entries.nextElement();
+				String name = entry.getName();
+				if (name.endsWith(".class")) {
+					classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+					byteCodes.add(read(jarFile.getInputStream(entry)));
+				}
+			}
+		} finally {
+			jarFile.close();
+		}
+
+		executorService = Executors.newCachedThreadPool();
+
+		IAgent agent = mock(IAgent.class);
+		when(agent.isUsingRetransformation()).thenReturn(true);
+		Agent.agent = agent;
+
+		IPlatformManager platformManager = mock(IPlatformManager.class);
+		when(platformManager.getPlatformId()).thenReturn(1L);
+
+		connection = mock(IConnection.class);
+		when(connection.isConnected()).thenReturn(true);
+		doAnswer(new Answer<InstrumentationDefinition>() {
+			@Override
+			public InstrumentationDefinition answer(InvocationOnMock invocation) throws Throwable {
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+				return null;
+			}
+		}).when(connection).analyze(anyLong(), anyString(), Matchers.<Type> any());
+		doAnswer(new Answer<Object>() {
+			@Override
+			public Object answer(InvocationOnMock invocation) throws Throwable {
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+				return Collections.emptyMap();
+			}
+		}).when(connection).analyze(anyLong(), anyMapOf(String.class, Type.class));
+
+		byteCodeAnalyzer = new ByteCodeAnalyzer();
+		byteCodeAnalyzer.log = LoggerFactory.getLogger(ByteCodeAnalyzer.class);
+		inject(byteCodeAnalyzer, "platformManager", platformManager);
+		inject(byteCodeAnalyzer, "connection", connection);
+		inject(byteCodeAnalyzer, "executorService", executorService);
+
+		deferredClassAnalyzer = new DeferredClassAnalyzer();
+		deferredClassAnalyzer.log = LoggerFactory.getLogger(DeferredClassAnalyzer.class);
+		inject(deferredClassAnalyzer, "platformManager", platformManager);
+		inject(deferredClassAnalyzer, "connection", connection);
+		inject(deferredClassAnalyzer, "retransformManager", mock(RetransformManager.class));
+		inject(byteCodeAnalyzer, "deferredClassAnalyzer", deferredClassAnalyzer);
+	}
+
+	/**
+	 * Every invocation simulates the start of the application with no classes known.
+	 */
+	@Setup(Level.Invocation)
+	public void reset() throws Exception {
+		// clear types left by the deferred benchmark
+		deferredClassAnalyzer.run();
+		ClassHashHelper classHashHelper = new ClassHashHelper();
+		inject(byteCodeAnalyzer, "classHashHelper", classHashHelper);
+		inject(deferredClassAnalyzer, "classHashHelper", classHashHelper);
+	}
+
+	@TearDown(Level.Trial)
+	public void shutdown() {
+		executorService.shutdownNow();
+	}
+
+	@Benchmark
+	public int blocking() {
+		deferredClassAnalyzer.activated = false;
+		return loadClasses();
+	}
+
+	@Benchmark
+	public int deferred() {
+		deferredClassAnalyzer.activated = true;
+		return loadClasses();
+	}
+
+	@Benchmark
+	public int deferredWithAnalysis() {
+		deferredClassAnalyzer.activated = true;
+		int result = loadClasses();
+		deferredClassAnalyzer.run();
+		return result;
+	}
+
+	/**
+	 * Passes all classes to the analyzer.
+	 *
+	 * @return Amount of instrumented classes.
+	 */
+	private int loadClasses() {
+		ClassLoader classLoader = ApplicationContext.class.getClassLoader();
+		int instrumented = 0;
+		for (int i = 0; i < classNames.size(); i++) {
+			if (null != byteCodeAnalyzer.analyzeAndInstrument(byteCodes.get(i), classNames.get(i), classLoader)) {
+				instrumented++;
+			}
+		}
+		return instrumented;
+	}
+
+	private static byte[] read(InputStream is) throws IOException {
+		try {
+			return ByteStreams.toByteArray(is);
+		} finally {
+			is.close();
+		}
+	}
+
+	private static void inject(Object target, String fieldName, Object value) throws Exception {
+		Field field = target.getClass().getDeclaredField(fieldName);
+		field.setAccessible(true);
+		field.set(target, value);
+	}
+}
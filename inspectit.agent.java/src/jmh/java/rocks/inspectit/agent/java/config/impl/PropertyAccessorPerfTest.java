@@ -0,0 +1,158 @@
+package rocks.inspectit.agent.java.config.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import rocks.inspectit.agent.java.config.PropertyAccessException;
+import rocks.inspectit.shared.all.communication.data.ParameterContentData;
+import rocks.inspectit.shared.all.communication.data.ParameterContentType;
+import rocks.inspectit.shared.all.instrumentation.config.impl.PropertyPath;
+import rocks.inspectit.shared.all.instrumentation.config.impl.PropertyPathStart;
+
+/**
+ * Performance test for the capturing of the parameters, fields and return values with the
+ * {@link PropertyAccessor}. The {@link #parameterToString()} benchmark captures the parameter
+ * without any path to follow and is the baseline for the other benchmarks. Run the benchmark on
+ * the versions before and after a change of the {@link PropertyAccessor} to compare the capture
+ * cost per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class PropertyAccessorPerfTest {
+
+	private PropertyAccessor propertyAccessor;
+
+	private Object[] parameters;
+
+	private Object returnValue;
+
+	private PropertyPathStart parameter;
+
+	private PropertyPathStart parameterField;
+
+	private PropertyPathStart parameterNestedFields;
+
+	private PropertyPathStart returnValueSize;
+
+	private List<PropertyPathStart> allPaths;
+
+	@Setup(Level.Trial)
+	public void init() {
+		propertyAccessor = new PropertyAccessor();
+		propertyAccessor.log = LoggerFactory.getLogger(PropertyAccessor.class);
+
+		Order order = new Order();
+		order.id = "order-1";
+		order.customer = new Customer();
+		order.customer.address = new Address();
+		order.customer.address.city = "Stuttgart";
+		parameters = new Object[] { "request", order };
+
+		List<String> items = new ArrayList<String>();
+		items.add("item");
+		returnValue = items;
+
+		parameter = start("request", ParameterContentType.PARAM, 0);
+		parameterField = start("orderId", ParameterContentType.PARAM, 1, "id");
+		parameterNestedFields = start("city", ParameterContentType.PARAM, 1, "customer", "address", "city");
+		returnValueSize = start("items", ParameterContentType.RETURN, 0, "size()");
+
+		allPaths = new CopyOnWriteArrayList<PropertyPathStart>();
+		allPaths.add(parameter);
+		allPaths.add(parameterField);
+		allPaths.add(parameterNestedFields);
+		allPaths.add(returnValueSize);
+	}
+
+	@Benchmark
+	public String parameterToString() throws PropertyAccessException {
+		return propertyAccessor.getPropertyContent(parameter, null, parameters, returnValue, false);
+	}
+
+	@Benchmark
+	public String parameterField() throws PropertyAccessException {
+		return propertyAccessor.getPropertyContent(parameterField, null, parameters, returnValue, false);
+	}
+
+	@Benchmark
+	public String parameterNestedFields() throws PropertyAccessException {
+		return propertyAccessor.getPropertyContent(parameterNestedFields, null, parameters, returnValue, false);
+	}
+
+	@Benchmark
+	public String returnValueMethod() throws PropertyAccessException {
+		return propertyAccessor.getPropertyContent(returnValueSize, null, parameters, returnValue, false);
+	}
+
+	@Benchmark
+	public List<ParameterContentData> allPaths() {
+		return propertyAccessor.getParameterContentData(allPaths, null, parameters, returnValue, false);
+	}
+
+	private PropertyPathStart start(String name, ParameterContentType contentType, int signaturePosition, String... pathNames) {
+		PropertyPathStart start = new PropertyPathStart();
+		start.setName(name);
+		start.setContentType(contentType);
+		start.setSignaturePosition(signaturePosition);
+		PropertyPath current = start;
+		for (String pathName : pathNames) {
+			PropertyPath path = new PropertyPath(pathName);
+			current.setPathToContinue(path);
+			current = path;
+		}
+		return start;
+	}
+
+	@SuppressWarnings("unused")
+	private static class Entity {
+
+		private long version;
+
+	}
+
+	@SuppressWarnings("unused")
+	private static class Order extends Entity {
+
+		private String id;
+
+		private Customer customer;
+
+	}
+
+	@SuppressWarnings("unused")
+	private static class Customer extends Entity {
+
+		private String name;
+
+		private Address address;
+
+	}
+
+	@SuppressWarnings("unused")
+	private static class Address extends Entity {
+
+		private String street;
+
+		private String city;
+
+	}
+}
@@ -0,0 +1,267 @@
+package rocks.inspectit.agent.java.connection;
+
+import java.lang.reflect.Field;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.ParameterContentData;
+import rocks.inspectit.shared.all.communication.data.ParameterContentType;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.serializer.schema.ClassSchemaManager;
+import rocks.inspectit.shared.all.util.KryoNetNetwork;
+
+/**
+ * Performance test for the compression of the batches sent over the KryoNet connection. A batch
+ * of invocation sequences with timer and SQL data is serialized with and without the LZ4
+ * compression used by the connection. The bytes on the wire are reported by the auxiliary counters
+ * (bytes per operation), the CPU cost of the compression is the difference between the
+ * benchmarks with and without compression.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class KryoNetCompressionPerfTest {
+
+	/**
+	 * Amount of invocation sequences in the batch.
+	 */
+	@Param({ "1", "10", "100" })
+	private int invocations;
+
+	/**
+	 * Serialization manager.
+	 */
+	private SerializationManager serializationManager;
+
+	/**
+	 * Batch to send.
+	 */
+	private List<DefaultData> batch;
+
+	/**
+	 * Output to serialize to.
+	 */
+	private Output output;
+
+	/**
+	 * Array for the compression.
+	 */
+	private byte[] compressed;
+
+	/**
+	 * Compressed batch.
+	 */
+	private byte[] compressedBatch;
+
+	/**
+	 * Uncompressed batch.
+	 */
+	private byte[] uncompressedBatch;
+
+	/**
+	 * Array for the decompression.
+	 */
+	private byte[] decompressed;
+
+	/**
+	 * Compressor, same as used by the connection.
+	 */
+	private final LZ4Compressor compressor = LZ4Factory.fastestJavaInstance().fastCompressor();
+
+	/**
+	 * Decompressor, same as used by the connection.
+	 */
+	private final LZ4SafeDecompressor decompressor = LZ4Factory.safeInstance().safeDecompressor();
+
+	/**
+	 * Bytes on the wire, reported per operation.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters
+	public static class WireBytes {
+
+		/**
+		 * Bytes written.
+		 */
+		public long bytes;
+
+		/**
+		 * Reset on each iteration.
+		 */
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+		}
+	}
+
+	@Setup
+	public void init() throws Exception {
+		ClassSchemaManager schemaManager = new ClassSchemaManager();
+		Field logField = ClassSchemaManager.class.getDeclaredField("log");
+		logField.setAccessible(true);
+		logField.set(schemaManager, LoggerFactory.getLogger(ClassSchemaManager.class));
+		schemaManager.setSchemaListFile(new ClassPathResource(ClassSchemaManager.SCHEMA_DIR + "/" + ClassSchemaManager.SCHEMA_LIST_FILE, ClassSchemaManager.class.getClassLoader()));
+		schemaManager.loadSchemasFromLocations();
+
+		serializationManager = new SerializationManager();
+		serializationManager.setSchemaManager(schemaManager);
+		serializationManager.setKryoNetNetwork(new KryoNetNetwork());
+		serializationManager.initKryo();
+
+		Random random = new Random(1);
+		batch = new ArrayList<DefaultData>();
+		for (int i = 0; i < invocations; i++) {
+			batch.add(createInvocation(random));
+		}
+
+		output = new Output(1024, -1);
+		serializationManager.serialize(batch, output);
+		uncompressedBatch = output.toBytes();
+
+		compressed = new byte[compressor.maxCompressedLength(uncompressedBatch.length)];
+		int compressedLength = compressor.compress(uncompressedBatch, 0, uncompressedBatch.length, compressed, 0, compressed.length);
+		compressedBatch = Arrays.copyOf(compressed, compressedLength);
+		decompressed = new byte[uncompressedBatch.length];
+	}
+
+	@Benchmark
+	public int serialize(WireBytes wireBytes) throws Exception {
+		output.clear();
+		serializationManager.serialize(batch, output);
+		int length = output.position();
+		wireBytes.bytes += length;
+		return length;
+	}
+
+	@Benchmark
+	public int serializeCompressed(WireBytes wireBytes) throws Exception {
+		output.clear();
+		serializationManager.serialize(batch, output);
+		int length = compressor.compress(output.getBuffer(), 0, output.position(), compressed, 0, compressed.length);
+		wireBytes.bytes += length;
+		return length;
+	}
+
+	@Benchmark
+	public Object deserialize() throws Exception {
+		return serializationManager.deserialize(new Input(uncompressedBatch));
+	}
+
+	@Benchmark
+	public Object deserializeCompressed() throws Exception {
+		int length = decompressor.decompress(compressedBatch, 0, compressedBatch.length, decompressed, 0, decompressed.length);
+		return serializationManager.deserialize(new Input(decompressed, 0, length));
+	}
+
+	/**
+	 * Creates the invocation sequence with three levels of nested children holding timer and SQL
+	 * data, similar to a typical request of a web application.
+	 *
+	 * @param random
+	 *            Random to use.
+	 * @return Invocation sequence.
+	 */
+	private InvocationSequenceData createInvocation(Random random) {
+		Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+		InvocationSequenceData root = new InvocationSequenceData(timestamp, 1L, 2L, 100L);
+		root.setDuration(random.nextDouble() * 1000);
+		List<InvocationSequenceData> children = new ArrayList<InvocationSequenceData>();
+		for (int i = 0; i < 10; i++) {
+			InvocationSequenceData child = new InvocationSequenceData(timestamp, 1L, 2L, 200L + i);
+			child.setDuration(random.nextDouble() * 100);
+			child.setParentSequence(root);
+			child.setTimerData(createTimerData(timestamp, 200L + i, random));
+
+			List<InvocationSequenceData> grandChildren = new ArrayList<InvocationSequenceData>();
+			for (int j = 0; j < 5; j++) {
+				InvocationSequenceData grandChild = new InvocationSequenceData(timestamp, 1L, 3L, 300L + j);
+				grandChild.setDuration(random.nextDouble() * 10);
+				grandChild.setParentSequence(child);
+				if (0 == (j % 2)) {
+					SqlStatementData sql = new SqlStatementData(timestamp, 1L, 4L, 300L + j, "SELECT id, name, price, description FROM product WHERE category_id = ? AND price < ? ORDER BY name");
+					sql.setPreparedStatement(true);
+					sql.setParameterValues(Arrays.asList(String.valueOf(random.nextInt(100)), String.valueOf(random.nextInt(1000))));
+					sql.setDuration(random.nextDouble() * 10);
+					sql.setCount(1L);
+					grandChild.setSqlStatementData(sql);
+				} else {
+					grandChild.setTimerData(createTimerData(timestamp, 300L + j, random));
+				}
+				grandChildren.add(grandChild);
+			}
+			child.setNestedSequences(grandChildren);
+			child.setChildCount(grandChildren.size());
+			children.add(child);
+		}
+		root.setNestedSequences(children);
+		root.setChildCount(children.size() * 6);
+
+		ParameterContentData parameter = new ParameterContentData();
+		parameter.setName("userId");
+		parameter.setContent(String.valueOf(random.nextInt(10000)));
+		parameter.setContentType(ParameterContentType.PARAM);
+		parameter.setSignaturePosition(0);
+		root.setParameterContentData(Collections.singleton(parameter));
+		return root;
+	}
+
+	/**
+	 * Creates timer data with random values.
+	 *
+	 * @param timestamp
+	 *            Time stamp.
+	 * @param methodIdent
+	 *            Method ident.
+	 * @param random
+	 *            Random to use.
+	 * @return Timer data.
+	 */
+	private TimerData createTimerData(Timestamp timestamp, long methodIdent, Random random) {
+		TimerData timerData = new TimerData(timestamp, 1L, 5L, methodIdent);
+		double duration = random.nextDouble() * 100;
+		timerData.setCount(1L);
+		timerData.setDuration(duration);
+		timerData.calculateMin(duration);
+		timerData.calculateMax(duration);
+		timerData.setCpuDuration(duration / 2);
+		timerData.calculateCpuMin(duration / 2);
+		timerData.calculateCpuMax(duration / 2);
+		return timerData;
+	}
+
+}
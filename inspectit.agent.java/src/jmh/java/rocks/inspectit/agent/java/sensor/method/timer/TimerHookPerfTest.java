@@ -0,0 +1,129 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import static org.mockito.Mockito.mock;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.agent.java.config.IPropertyAccessor;
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IObjectStorage;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.core.impl.CoreService;
+import rocks.inspectit.agent.java.util.Timer;
+
+/**
+ * Performance test for the {@link TimerHook#secondAfterBody} call including the object storage
+ * look-up in the {@link CoreService}. Run with <code>-prof gc</code> to get the allocation rate
+ * per call.
+ * <p>
+ * The {@link #stringKeyLookup()} benchmark reproduces the string key building and look-up that was
+ * executed in the {@link CoreService} for every call, so that the difference can be compared to the
+ * {@link #coreServiceLookup()} benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class TimerHookPerfTest {
+
+	private static final long SENSOR_TYPE_ID = 1L;
+
+	private static final long METHOD_ID = 2L;
+
+	/**
+	 * Amount of methods the calls are spread over.
+	 */
+	@Param({ "1", "100" })
+	private int methods;
+
+	/**
+	 * Counter of the calls for selecting the method id.
+	 */
+	private long calls;
+
+	private TimerHook timerHook;
+
+	private ICoreService coreService;
+
+	private RegisteredSensorConfig rsc;
+
+	private Map<String, IObjectStorage> stringKeyStorages;
+
+	@Setup(Level.Trial)
+	public void init() {
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put("mode", "optimized");
+		timerHook = new TimerHook(new Timer(), mock(IPlatformManager.class), mock(IPropertyAccessor.class), parameters, ManagementFactory.getThreadMXBean());
+		coreService = new CoreService();
+		rsc = new RegisteredSensorConfig();
+		rsc.setSettings(Collections.<String, Object> emptyMap());
+
+		stringKeyStorages = new ConcurrentHashMap<String, IObjectStorage>();
+		for (long i = 0; i < methods; i++) {
+			ITimerStorage storage = TimerStorageFactory.getFactory().newStorage(null, 0, SENSOR_TYPE_ID, METHOD_ID + i, null, false);
+			coreService.addObjectStorage(SENSOR_TYPE_ID, METHOD_ID + i, null, storage);
+			stringKeyStorages.put(getStringKey(SENSOR_TYPE_ID, METHOD_ID + i), storage);
+		}
+	}
+
+	/**
+	 * Complete timer hook invocation with already existing storage.
+	 */
+	@Benchmark
+	public void secondAfterBody() {
+		long methodId = nextMethodId();
+		timerHook.beforeBody(methodId, SENSOR_TYPE_ID, this, null, rsc);
+		timerHook.firstAfterBody(methodId, SENSOR_TYPE_ID, this, null, null, false, rsc);
+		timerHook.secondAfterBody(coreService, methodId, SENSOR_TYPE_ID, this, null, null, false, rsc);
+	}
+
+	/**
+	 * Object storage look-up only.
+	 */
+	@Benchmark
+	public IObjectStorage coreServiceLookup() {
+		return coreService.getObjectStorage(SENSOR_TYPE_ID, nextMethodId(), null);
+	}
+
+	/**
+	 * Object storage look-up with the string key as it was done before.
+	 */
+	@Benchmark
+	public IObjectStorage stringKeyLookup() {
+		return stringKeyStorages.get(getStringKey(SENSOR_TYPE_ID, nextMethodId()));
+	}
+
+	private long nextMethodId() {
+		return METHOD_ID + (calls++ % methods);
+	}
+
+	private String getStringKey(long sensorTypeIdent, long methodIdent) {
+		StringBuilder builder = new StringBuilder();
+		builder.append(methodIdent);
+		builder.append('.');
+		builder.append(sensorTypeIdent);
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,93 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance test for the concurrent updates of one timer storage, comparing the
+ * {@link StripedTimerStorage} with the {@link OptimizedTimerStorage} used before. All threads
+ * update the same storage, as done when a hot method is executed by many application threads.
+ * Note that the optimized storage is not thread safe and loses updates under contention, so its
+ * throughput is an upper bound of what an unguarded storage can reach.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class TimerStoragePerfTest {
+
+	/**
+	 * Timer storage mode as defined in the {@link TimerStorageFactory}.
+	 */
+	@Param({ "optimized", "striped" })
+	private String mode;
+
+	/**
+	 * If the histogram for the percentile calculation is filled.
+	 */
+	@Param({ "false", "true" })
+	private boolean percentiles;
+
+	private ITimerStorage storage;
+
+	@Setup(Level.Iteration)
+	public void init() {
+		if ("striped".equals(mode)) {
+			storage = new StripedTimerStorage(null, 0, 1L, 2L, null, false, percentiles);
+		} else {
+			storage = new OptimizedTimerStorage(null, 0, 1L, 2L, null, false, percentiles);
+		}
+	}
+
+	/**
+	 * Update from one thread.
+	 */
+	@Benchmark
+	@Threads(1)
+	public void addData1() {
+		storage.addData(1.0d, 0.5d);
+	}
+
+	/**
+	 * Update from 8 threads.
+	 */
+	@Benchmark
+	@Threads(8)
+	public void addData8() {
+		storage.addData(1.0d, 0.5d);
+	}
+
+	/**
+	 * Update from 64 threads.
+	 */
+	@Benchmark
+	@Threads(64)
+	public void addData64() {
+		storage.addData(1.0d, 0.5d);
+	}
+
+	/**
+	 * Update from 128 threads.
+	 */
+	@Benchmark
+	@Threads(128)
+	public void addData128() {
+		storage.addData(1.0d, 0.5d);
+	}
+
+}
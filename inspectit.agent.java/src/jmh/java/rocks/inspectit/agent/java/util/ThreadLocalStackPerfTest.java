@@ -0,0 +1,123 @@
+package rocks.inspectit.agent.java.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance test comparing the boxed {@link ThreadLocalStack} with the primitive
+ * {@link ThreadLocalDoubleStack} as used by the method hooks. The depth simulates nested calls of
+ * instrumented methods, the recursive benchmarks simulate a recursive instrumented method. Run
+ * with <code>-prof gc</code> to see the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ThreadLocalStackPerfTest {
+
+	@Param({ "1", "10", "100" })
+	private int depth;
+
+	private final ThreadLocalStack<Double> boxedTimeStack = new ThreadLocalStack<Double>();
+
+	private final ThreadLocalStack<Long> boxedCpuTimeStack = new ThreadLocalStack<Long>();
+
+	private final ThreadLocalDoubleStack timeStack = new ThreadLocalDoubleStack();
+
+	private final ThreadLocalDoubleStack cpuTimeStack = new ThreadLocalDoubleStack();
+
+	/**
+	 * Nested calls with boxed stacks, each call pushes before and after body values.
+	 */
+	@Benchmark
+	public double nestedBoxed() {
+		double result = 0;
+		for (int i = 0; i < depth; i++) {
+			boxedTimeStack.push(new Double(System.nanoTime()));
+			boxedCpuTimeStack.push(Long.valueOf(System.nanoTime()));
+		}
+		for (int i = 0; i < depth; i++) {
+			boxedTimeStack.push(new Double(System.nanoTime()));
+			boxedCpuTimeStack.push(Long.valueOf(System.nanoTime()));
+			result += boxedTimeStack.pop().doubleValue() - boxedTimeStack.pop().doubleValue();
+			result += boxedCpuTimeStack.pop().longValue() - boxedCpuTimeStack.pop().longValue();
+		}
+		return result;
+	}
+
+	/**
+	 * Nested calls with primitive stacks, each call pushes before and after body values.
+	 */
+	@Benchmark
+	public double nestedPrimitive() {
+		double result = 0;
+		for (int i = 0; i < depth; i++) {
+			timeStack.push(System.nanoTime());
+			cpuTimeStack.push(System.nanoTime());
+		}
+		for (int i = 0; i < depth; i++) {
+			timeStack.push(System.nanoTime());
+			cpuTimeStack.push(System.nanoTime());
+			result += timeStack.pop() - timeStack.pop();
+			result += cpuTimeStack.pop() - cpuTimeStack.pop();
+		}
+		return result;
+	}
+
+	/**
+	 * Recursive calls with boxed stacks.
+	 */
+	@Benchmark
+	public double recursiveBoxed() {
+		return recursiveBoxed(depth);
+	}
+
+	/**
+	 * Recursive calls with primitive stacks.
+	 */
+	@Benchmark
+	public double recursivePrimitive() {
+		return recursivePrimitive(depth);
+	}
+
+	private double recursiveBoxed(int level) {
+		boxedTimeStack.push(new Double(System.nanoTime()));
+		boxedCpuTimeStack.push(Long.valueOf(System.nanoTime()));
+		double result = 0;
+		if (level > 1) {
+			result = recursiveBoxed(level - 1);
+		}
+		boxedTimeStack.push(new Double(System.nanoTime()));
+		boxedCpuTimeStack.push(Long.valueOf(System.nanoTime()));
+		result += boxedTimeStack.pop().doubleValue() - boxedTimeStack.pop().doubleValue();
+		result += boxedCpuTimeStack.pop().longValue() - boxedCpuTimeStack.pop().longValue();
+		return result;
+	}
+
+	private double recursivePrimitive(int level) {
+		timeStack.push(System.nanoTime());
+		cpuTimeStack.push(System.nanoTime());
+		double result = 0;
+		if (level > 1) {
+			result = recursivePrimitive(level - 1);
+		}
+		timeStack.push(System.nanoTime());
+		cpuTimeStack.push(System.nanoTime());
+		result += timeStack.pop() - timeStack.pop();
+		result += cpuTimeStack.pop() - cpuTimeStack.pop();
+		return result;
+	}
+
+}
@@ -101,6 +101,12 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	@Autowired
 	private ClassHashHelper classHashHelper;
 
+	/**
+	 * {@link DeferredClassAnalyzer} for the non-blocking analysis.
+	 */
+	@Autowired
+	private DeferredClassAnalyzer deferredClassAnalyzer;
+
 	/**
 	 * Core-service executor service.
 	 */
@@ -173,8 +179,9 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 				// if sent load instrumentation result from the class hash helper
 				instrumentationResult = classHashHelper.getInstrumentationDefinition(className);
 			} else {
-				// if not sent we go for the sending
-				if (!connection.isConnected()) {
+				// if not sent we go for the sending or defer the analysis
+				boolean deferAnalysis = deferredClassAnalyzer.isEnabled();
+				if (!deferAnalysis && !connection.isConnected()) {
 					// we will not do anything else if there is no connection
 					if (log.isDebugEnabled()) {
 						log.debug("Not parsing and sending data for " + className + " as connection to server does not exist.");
@@ -191,26 +198,40 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 				// analyze all necessary depending classes before
 				analyzeDependingTypes(type, classLoader);
 
-				// try connecting to server
-				Callable<InstrumentationDefinition> analyzeCallable = new AnalyzeCallable(connection, platformManager.getPlatformId(), hash, type);
-				try {
-					instrumentationResult = executorService.submit(analyzeCallable).get(ANALYZE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
-				} catch (InterruptedException e) {
-					isInterrupted = true;
-					if (log.isWarnEnabled()) {
-						log.warn("Error occurred instrumenting the byte code of class " + className + ". Thread loading the class was interrupted during communication with the server.", e);
+				if (deferAnalysis) {
+					// class is retransformed when the CMR answers
+					if (!deferredClassAnalyzer.defer(className, hash, type) && log.isDebugEnabled()) {
+						log.debug("Analysis of " + className + " can not be deferred as too many classes are waiting for the analysis.");
 					}
-					return null;
-				} catch (TimeoutException e) {
-					if (log.isWarnEnabled()) {
-						log.warn("Error occurred instrumenting the byte code of class " + className + ". Sending the class structure to the CMR resulted in a time-out.", e);
+
+					// until then use the definition cached from the last run or load uninstrumented
+					instrumentationResult = classHashHelper.getCachedInstrumentationDefinition(hash);
+					if (null == instrumentationResult) {
+						return null;
+					}
+					classHashHelper.registerInstrumentationDefinition(className, instrumentationResult);
+				} else {
+					// try connecting to server
+					Callable<InstrumentationDefinition> analyzeCallable = new AnalyzeCallable(connection, platformManager.getPlatformId(), hash, type);
+					try {
+						instrumentationResult = executorService.submit(analyzeCallable).get(ANALYZE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+					} catch (InterruptedException e) {
+						isInterrupted = true;
+						if (log.isWarnEnabled()) {
+							log.warn("Error occurred instrumenting the byte code of class " + className + ". Thread loading the class was interrupted during communication with the server.", e);
+						}
+						return null;
+					} catch (TimeoutException e) {
+						if (log.isWarnEnabled()) {
+							log.warn("Error occurred instrumenting the byte code of class " + className + ". Sending the class structure to the CMR resulted in a time-out.", e);
+						}
+						return null;
 					}
-					return null;
-				}
 
-				// register type as sent
-				classHashHelper.registerSent(className, hash);
-				classHashHelper.registerInstrumentationDefinition(className, instrumentationResult);
+					// register type as sent
+					classHashHelper.registerSent(className, hash);
+					classHashHelper.registerInstrumentationDefinition(className, instrumentationResult);
+				}
 			}
 
 			// execute instrumentation if needed
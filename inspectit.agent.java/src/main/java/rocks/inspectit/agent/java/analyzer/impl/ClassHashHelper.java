@@ -1,18 +1,29 @@
 package rocks.inspectit.agent.java.analyzer.impl;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
 
 import org.apache.commons.collections.MapUtils;
 import org.slf4j.Logger;
@@ -38,6 +49,12 @@ import rocks.inspectit.shared.all.spring.logger.Log;
  * Implementation of the {@link IClassHashHelper} that holds all data in one concurrent map. Keys in
  * this map are class FQNs, while entries are {@link ClassEntry}s and they define answers to all the
  * provided questions.
+ * <p>
+ * Classes are persisted in an append-only journal. Every record holds the class hashes and the
+ * last {@link InstrumentationDefinition} with the configuration revision it was created with, and
+ * is protected with a checksum. Changed classes are appended periodically, while the journal is
+ * compacted by writing a temporary file that replaces the journal only when complete, thus a crash
+ * can at most lose the last appended changes.
  *
  * @author Ivan Senic
  *
@@ -48,6 +65,32 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 @DependsOn("platformManager")
 public class ClassHashHelper implements InitializingBean, DisposableBean {
 
+	/**
+	 * Magic number at the start of the journal file.
+	 */
+	private static final int JOURNAL_MAGIC = 0x49434843;
+
+	/**
+	 * Version of the journal format.
+	 */
+	private static final int JOURNAL_VERSION = 1;
+
+	/**
+	 * Max length of one record, longer ones are considered as corrupted.
+	 */
+	private static final int MAX_RECORD_LENGTH = 16 * 1024 * 1024;
+
+	/**
+	 * Amount of records the journal can have above the double amount of classes before it's
+	 * compacted.
+	 */
+	private static final int COMPACTION_SLACK = 1024;
+
+	/**
+	 * Period of appending the changed classes to the journal in seconds.
+	 */
+	private static final long SAVE_PERIOD_SECONDS = 10L;
+
 	/**
 	 * Logger for the class.
 	 */
@@ -91,6 +134,32 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	 */
 	private final ConcurrentHashMap<String, ClassEntry> fqnToClassEntryMap = new ConcurrentHashMap<String, ClassEntry>(4096);
 
+	/**
+	 * Instrumentation definitions loaded from disk for classes that must be sent to the CMR again.
+	 * Key is class hash.
+	 */
+	private final ConcurrentHashMap<String, InstrumentationDefinition> localDefinitions = new ConcurrentHashMap<String, InstrumentationDefinition>();
+
+	/**
+	 * FQNs of the classes changed since the last save.
+	 */
+	private final ConcurrentLinkedQueue<String> dirtyClasses = new ConcurrentLinkedQueue<String>();
+
+	/**
+	 * Current configuration revision.
+	 */
+	private String configurationRevision;
+
+	/**
+	 * If the journal on disk can be appended to.
+	 */
+	private volatile boolean journalValid;
+
+	/**
+	 * Amount of records in the journal on disk.
+	 */
+	private volatile int journalRecords;
+
 	/**
 	 * Registers that the given class was analyzed.
 	 *
@@ -99,7 +168,10 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	 *
 	 */
 	public void registerAnalyzed(String fqn) {
-		getOrCreateEntry(fqn);
+		ClassEntry entry = fqnToClassEntryMap.get(fqn);
+		if (null == entry) {
+			markDirty(fqn, getOrCreateEntry(fqn));
+		}
 	}
 
 	/**
@@ -125,7 +197,10 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	 */
 	public void registerSent(String fqn, String hash) {
 		ClassEntry entry = getOrCreateEntry(fqn);
-		entry.addHash(hash);
+		if (entry.addHash(hash)) {
+			markDirty(fqn, entry);
+		}
+		localDefinitions.remove(hash);
 	}
 
 	/**
@@ -160,6 +235,8 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		} else {
 			entry.setInstrumentationResult(null); // NOPMD
 		}
+		entry.setRevision(configurationRevision);
+		markDirty(fqn, entry);
 	}
 
 	/**
@@ -177,6 +254,20 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		return entry != null ? entry.getInstrumentationResult() : null;
 	}
 
+	/**
+	 * Returns the {@link InstrumentationDefinition} cached on disk from the last run for the class
+	 * with the given hash. Only definitions created with the current configuration revision for
+	 * classes not yet sent to the CMR again are available.
+	 *
+	 * @param hash
+	 *            Class hash
+	 * @return {@link InstrumentationDefinition} or <code>null</code> if none is cached for given
+	 *         hash.
+	 */
+	public InstrumentationDefinition getCachedInstrumentationDefinition(String hash) {
+		return localDefinitions.get(hash);
+	}
+
 	/**
 	 * Creates new entry in the map in the atomic fashion.
 	 *
@@ -208,19 +299,16 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	/**
 	 * {@inheritDoc}
 	 * <P>
-	 * Loads the possible existing class cache from the disk if CMR reports to know classes from
-	 * this agent.
+	 * Loads the possible existing class cache from the disk. Hashes are only considered as sent if
+	 * CMR reports to know classes from this agent, otherwise only the instrumentation definitions
+	 * created with the current configuration revision are kept as locally cached ones.
 	 */
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		serializationManager = prototypesProvider.createSerializer();
+		configurationRevision = configurationStorage.getConfigurationRevision();
 
-		// only load if configuration says that the class cache exists on the CMR
-		if (configurationStorage.isClassCacheExistsOnCmr()) {
-			loadCacheFromDisk();
-		} else {
-			deleteCacheFromDisk();
-		}
+		loadCacheFromDisk(configurationStorage.isClassCacheExistsOnCmr());
 
 		// check if there are any initial instrumentation points in configuration
 		Map<Collection<String>, InstrumentationDefinition> initInstrumentations = configurationStorage.getInitialInstrumentationResults();
@@ -241,7 +329,7 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 				saveCacheToDisk();
 			}
 		};
-		executorService.scheduleAtFixedRate(saveCacheToDiskRunnable, 30, 300, TimeUnit.SECONDS);
+		executorService.scheduleAtFixedRate(saveCacheToDiskRunnable, SAVE_PERIOD_SECONDS, SAVE_PERIOD_SECONDS, TimeUnit.SECONDS);
 	}
 
 	/**
@@ -249,93 +337,274 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	 */
 	@Override
 	public void destroy() throws Exception {
-		// save when bean is destroyed, ensure save is always done on finishing
-		saveCacheToDisk();
+		// compact when bean is destroyed, ensure save is always done on finishing
+		compactCacheOnDisk();
 
 		fqnToClassEntryMap.clear();
+		localDefinitions.clear();
 	}
 
 	/**
-	 * Load sent classes from disk.
+	 * Loads the class cache journal from disk. Reading stops at the first incomplete or corrupted
+	 * record, as such a record can only be the result of the crash during appending.
+	 *
+	 * @param classCacheExistsOnCmr
+	 *            If CMR knows the classes sent by this agent.
 	 */
-	@SuppressWarnings("unchecked")
-	private void loadCacheFromDisk() {
+	private void loadCacheFromDisk(boolean classCacheExistsOnCmr) {
 		File file = fileResolver.getClassHashCacheFile().getAbsoluteFile();
+		File tmpFile = getTmpFile(file);
+
+		if (tmpFile.exists()) {
+			if (!file.exists()) {
+				// crash after the old journal was deleted, compacted one is complete
+				if (!tmpFile.renameTo(file)) {
+					log.warn("Unable to rename the compacted class cache file: " + tmpFile.getAbsolutePath());
+				}
+			} else if (!tmpFile.delete()) {
+				// crash during compaction, journal is still valid
+				log.warn("Unable to delete the incomplete class cache file: " + tmpFile.getAbsolutePath());
+			}
+		}
+
+		journalValid = false;
+		journalRecords = 0;
+		if (!file.exists()) {
+			return;
+		}
+
+		// last record of a class wins
+		Map<String, JournalRecord> records = new LinkedHashMap<String, JournalRecord>();
+		DataInputStream inputStream = null;
+		try {
+			inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if ((JOURNAL_MAGIC != inputStream.readInt()) || (JOURNAL_VERSION != inputStream.readInt())) {
+				log.info("Class cache file has unknown format and will be rewritten: " + file.getAbsolutePath());
+				return;
+			}
+
+			journalValid = true;
+			CRC32 crc = new CRC32();
+			while (true) {
+				JournalRecord record = readRecord(inputStream, crc);
+				if (null == record) {
+					break;
+				}
+				records.put(record.fqn, record);
+				journalRecords++;
+			}
+		} catch (IOException e) {
+			// incomplete or corrupted record at the end
+			journalValid = false;
+			if (log.isDebugEnabled()) {
+				log.debug("Reading of the class cache file stopped.", e);
+			}
+		} catch (Throwable t) { // NOPMD
+			journalValid = false;
+			log.warn("Unable to load sending classes cache from disk.", t);
+		} finally {
+			if (null != inputStream) {
+				try {
+					inputStream.close();
+				} catch (IOException e) { // NOPMD //NOCHK
+					// ignore
+				}
+			}
+		}
 
-		if (file.exists()) {
-			FileInputStream fileInputStream = null;
-			try {
-				fileInputStream = new FileInputStream(file);
-				Input input = new Input(fileInputStream);
-
-				Map<String, Collection<String>> fqnWithHashes = (Map<String, Collection<String>>) serializationManager.deserialize(input);
-				for (Entry<String, Collection<String>> entry : fqnWithHashes.entrySet()) {
-					ClassEntry classEntry = getOrCreateEntry(entry.getKey());
-					for (String hash : entry.getValue()) {
-						classEntry.addHash(hash);
-					}
+		if (!journalValid && log.isInfoEnabled()) {
+			log.info("Class cache file is incomplete, " + journalRecords + " record(s) could be loaded.");
+		}
+
+		for (JournalRecord record : records.values()) {
+			InstrumentationDefinition instrumentationDefinition = null;
+			if ((null != configurationRevision) && configurationRevision.equals(record.revision)) {
+				instrumentationDefinition = deserializeDefinition(record);
+			}
+
+			if (classCacheExistsOnCmr) {
+				ClassEntry entry = getOrCreateEntry(record.fqn);
+				for (String hash : record.hashes) {
+					entry.addHash(hash);
+				}
+				if (null != instrumentationDefinition) {
+					entry.setInstrumentationResult(instrumentationDefinition);
+					entry.setRevision(record.revision);
 				}
-			} catch (Throwable t) { // NOPMD
-				log.warn("Unable to load sending classes cache from disk.", t);
-			} finally {
-				if (null != fileInputStream) {
-					try {
-						fileInputStream.close();
-					} catch (IOException e) { // NOPMD //NOCHK
-						// ignore
-					}
+			} else if (null != instrumentationDefinition) {
+				// hashes must be sent again, but definition can be used until CMR answers
+				for (String hash : record.hashes) {
+					localDefinitions.put(hash, instrumentationDefinition);
 				}
 			}
 		}
+
+		if (!classCacheExistsOnCmr) {
+			// rewrite the journal with the classes known from now on
+			journalValid = false;
+		}
 	}
 
 	/**
-	 * Deletes the current cache file from disk.
+	 * Reads one record from the journal.
+	 *
+	 * @param inputStream
+	 *            Stream to read from.
+	 * @param crc
+	 *            {@link CRC32} to check the record payload with.
+	 * @return Read record or <code>null</code> if the end of the journal is reached.
+	 * @throws IOException
+	 *             If record is incomplete or corrupted.
 	 */
-	private void deleteCacheFromDisk() {
-		File file = fileResolver.getClassHashCacheFile().getAbsoluteFile();
+	private JournalRecord readRecord(DataInputStream inputStream, CRC32 crc) throws IOException {
+		int length = inputStream.read();
+		if (length < 0) {
+			return null;
+		}
+		length = (length << 24) | (inputStream.readUnsignedByte() << 16) | (inputStream.readUnsignedByte() << 8) | inputStream.readUnsignedByte();
+		if ((length <= 0) || (length > MAX_RECORD_LENGTH)) {
+			throw new IOException("Invalid record length " + length + ".");
+		}
+		int checksum = inputStream.readInt();
+		byte[] payload = new byte[length];
+		inputStream.readFully(payload);
+
+		crc.reset();
+		crc.update(payload, 0, length);
+		if (checksum != (int) crc.getValue()) {
+			throw new IOException("Record checksum does not match.");
+		}
 
-		if (file.exists()) {
-			if (!file.delete()) {
-				log.warn("Unable to delete the existing class cache file: " + file.getAbsolutePath());
-			}
+		DataInputStream payloadStream = new DataInputStream(new ByteArrayInputStream(payload));
+		String fqn = payloadStream.readUTF();
+		int hashCount = payloadStream.readInt();
+		List<String> hashes = new ArrayList<String>(hashCount);
+		for (int i = 0; i < hashCount; i++) {
+			hashes.add(payloadStream.readUTF());
+		}
+		String revision = payloadStream.readBoolean() ? payloadStream.readUTF() : null;
+		byte[] definition = null;
+		int definitionLength = payloadStream.readInt();
+		if (definitionLength >= 0) {
+			definition = new byte[definitionLength];
+			payloadStream.readFully(definition);
+		}
+		return new JournalRecord(fqn, hashes, revision, definition);
+	}
+
+	/**
+	 * De-serializes the instrumentation definition of the record.
+	 *
+	 * @param record
+	 *            Journal record.
+	 * @return {@link InstrumentationDefinition} or <code>null</code> if record has none or it can
+	 *         not be de-serialized.
+	 */
+	private InstrumentationDefinition deserializeDefinition(JournalRecord record) {
+		if (null == record.definition) {
+			return null;
 		}
 
+		try {
+			Object object = serializationManager.deserialize(new Input(record.definition));
+			if (object instanceof InstrumentationDefinition) {
+				return (InstrumentationDefinition) object;
+			}
+		} catch (Throwable t) { // NOPMD
+			if (log.isDebugEnabled()) {
+				log.debug("Unable to load cached instrumentation definition of the class " + record.fqn + ".", t);
+			}
+		}
+		return null;
 	}
 
 	/**
-	 * Save cache to disk.
+	 * Save cache to disk. Changed classes are appended to the journal, while the complete journal
+	 * is rewritten only if it's not valid or grew too large.
 	 */
-	private void saveCacheToDisk() {
-		File file = fileResolver.getClassHashCacheFile().getAbsoluteFile();
+	private synchronized void saveCacheToDisk() {
+		if (!journalValid || (journalRecords > ((2 * fqnToClassEntryMap.size()) + COMPACTION_SLACK))) {
+			compactCacheOnDisk();
+			return;
+		}
 
-		if (file.exists()) {
-			if (!file.delete()) {
-				log.warn("Unable to delete the existing class cache file: " + file.getAbsolutePath());
+		if (dirtyClasses.isEmpty()) {
+			return;
+		}
+
+		File file = fileResolver.getClassHashCacheFile().getAbsoluteFile();
+		FileOutputStream fileOutputStream = null;
+		try {
+			fileOutputStream = new FileOutputStream(file, true);
+			DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(fileOutputStream));
+			CRC32 crc = new CRC32();
+
+			String fqn;
+			while (null != (fqn = dirtyClasses.poll())) {
+				ClassEntry entry = fqnToClassEntryMap.get(fqn);
+				if (null != entry) {
+					entry.clearDirty();
+					writeRecord(outputStream, fqn, entry, crc);
+					journalRecords++;
+				}
 			}
-		} else {
-			File parentDir = file.getParentFile();
-			if (!parentDir.exists()) {
-				if (!parentDir.mkdirs()) {
-					log.warn("Unable to create needed directory for the cache file: " + file.getParentFile().getAbsolutePath());
+
+			outputStream.flush();
+			fileOutputStream.getFD().sync();
+		} catch (Throwable t) { // NOPMD
+			// partially appended record is ignored on loading, compaction will write all again
+			journalValid = false;
+			log.warn("Unable to save sending classes cache to disk.", t);
+		} finally {
+			if (null != fileOutputStream) {
+				try {
+					fileOutputStream.close();
+				} catch (IOException e) { // NOPMD //NOCHK
+					// ignore
 				}
 			}
 		}
+	}
+
+	/**
+	 * Writes all classes to the temporary file and replaces the journal with it. Journal is never
+	 * left in an incomplete state, as the temporary file is renamed only after it's completely
+	 * written.
+	 */
+	private synchronized void compactCacheOnDisk() {
+		File file = fileResolver.getClassHashCacheFile().getAbsoluteFile();
+		File tmpFile = getTmpFile(file);
+
+		File parentDir = file.getParentFile();
+		if (!parentDir.exists()) {
+			if (!parentDir.mkdirs()) {
+				log.warn("Unable to create needed directory for the cache file: " + file.getParentFile().getAbsolutePath());
+			}
+		}
 
+		// all classes are written, changes done from now on are appended later on
+		dirtyClasses.clear();
+
+		int records = 0;
 		FileOutputStream fileOutputStream = null;
 		try {
-			fileOutputStream = new FileOutputStream(file);
-			Output output = new Output(fileOutputStream);
+			fileOutputStream = new FileOutputStream(tmpFile);
+			DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(fileOutputStream));
+			CRC32 crc = new CRC32();
 
-			// save only the ones being set to the CMR
-			Map<String, Collection<String>> fqnWithHashes = new HashMap<String, Collection<String>>();
+			outputStream.writeInt(JOURNAL_MAGIC);
+			outputStream.writeInt(JOURNAL_VERSION);
 			for (Entry<String, ClassEntry> entry : fqnToClassEntryMap.entrySet()) {
-				fqnWithHashes.put(entry.getKey(), entry.getValue().getHashes());
+				entry.getValue().clearDirty();
+				writeRecord(outputStream, entry.getKey(), entry.getValue(), crc);
+				records++;
 			}
 
-			serializationManager.serialize(fqnWithHashes, output);
+			outputStream.flush();
+			fileOutputStream.getFD().sync();
 		} catch (Throwable t) { // NOPMD
 			log.warn("Unable to save sending classes cache to disk.", t);
+			return;
 		} finally {
 			if (null != fileOutputStream) {
 				try {
@@ -345,6 +614,134 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 				}
 			}
 		}
+
+		// rename does not replace existing files on all platforms
+		if (!tmpFile.renameTo(file) && (!file.delete() || !tmpFile.renameTo(file))) {
+			log.warn("Unable to replace the class cache file: " + file.getAbsolutePath());
+			return;
+		}
+
+		journalRecords = records;
+		journalValid = true;
+	}
+
+	/**
+	 * Writes one record to the journal.
+	 *
+	 * @param outputStream
+	 *            Stream to write to.
+	 * @param fqn
+	 *            Class fully qualified name.
+	 * @param entry
+	 *            {@link ClassEntry} of the class.
+	 * @param crc
+	 *            {@link CRC32} to create the record checksum with.
+	 * @throws IOException
+	 *             If writing fails.
+	 */
+	private void writeRecord(DataOutputStream outputStream, String fqn, ClassEntry entry, CRC32 crc) throws IOException {
+		// read both first, definition is only stored with its revision
+		InstrumentationDefinition instrumentationDefinition = entry.getInstrumentationResult();
+		String revision = entry.getRevision();
+		Collection<String> hashes = entry.getHashes();
+
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+		DataOutputStream payloadStream = new DataOutputStream(payload);
+		payloadStream.writeUTF(fqn);
+		payloadStream.writeInt(hashes.size());
+		for (String hash : hashes) {
+			payloadStream.writeUTF(hash);
+		}
+		payloadStream.writeBoolean(null != revision);
+		if (null != revision) {
+			payloadStream.writeUTF(revision);
+		}
+		if ((null != instrumentationDefinition) && (null != revision)) {
+			ByteArrayOutputStream definition = new ByteArrayOutputStream(512);
+			serializationManager.serialize(instrumentationDefinition, new Output(definition));
+			payloadStream.writeInt(definition.size());
+			definition.writeTo(payloadStream);
+		} else {
+			payloadStream.writeInt(-1);
+		}
+		payloadStream.flush();
+
+		byte[] bytes = payload.toByteArray();
+		crc.reset();
+		crc.update(bytes, 0, bytes.length);
+		outputStream.writeInt(bytes.length);
+		outputStream.writeInt((int) crc.getValue());
+		outputStream.write(bytes);
+	}
+
+	/**
+	 * Returns the temporary file used for the compaction of the given journal file.
+	 *
+	 * @param file
+	 *            Journal file.
+	 * @return Temporary file.
+	 */
+	private File getTmpFile(File file) {
+		return new File(file.getPath() + ".tmp");
+	}
+
+	/**
+	 * Marks the entry as changed, so that it's appended to the journal on the next save.
+	 *
+	 * @param fqn
+	 *            Class fqn.
+	 * @param entry
+	 *            {@link ClassEntry} of the class.
+	 */
+	private void markDirty(String fqn, ClassEntry entry) {
+		if (entry.markDirty()) {
+			dirtyClasses.add(fqn);
+		}
+	}
+
+	/**
+	 * Class as stored in one journal record.
+	 */
+	private static class JournalRecord {
+
+		/**
+		 * Class fully qualified name.
+		 */
+		private final String fqn;
+
+		/**
+		 * Hashes sent to the CMR.
+		 */
+		private final List<String> hashes;
+
+		/**
+		 * Configuration revision the definition was created with.
+		 */
+		private final String revision;
+
+		/**
+		 * Serialized {@link InstrumentationDefinition}, <code>null</code> if one does not exist.
+		 */
+		private final byte[] definition;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param fqn
+		 *            Class fully qualified name.
+		 * @param hashes
+		 *            Hashes sent to the CMR.
+		 * @param revision
+		 *            Configuration revision the definition was created with.
+		 * @param definition
+		 *            Serialized {@link InstrumentationDefinition}.
+		 */
+		JournalRecord(String fqn, List<String> hashes, String revision, byte[] definition) {
+			this.fqn = fqn;
+			this.hashes = hashes;
+			this.revision = revision;
+			this.definition = definition;
+		}
 	}
 
 	/**
@@ -361,6 +758,16 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		 */
 		private volatile InstrumentationDefinition instrumentationResult;
 
+		/**
+		 * Configuration revision the {@link #instrumentationResult} was created with.
+		 */
+		private volatile String revision;
+
+		/**
+		 * If entry was changed since the last save.
+		 */
+		private final AtomicBoolean dirty = new AtomicBoolean();
+
 		/**
 		 * Known hashes for this class.
 		 */
@@ -385,16 +792,53 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 			this.instrumentationResult = instrumentationResult;
 		}
 
+		/**
+		 * Gets {@link #revision}.
+		 *
+		 * @return {@link #revision}
+		 */
+		public String getRevision() {
+			return revision;
+		}
+
+		/**
+		 * Sets {@link #revision}.
+		 *
+		 * @param revision
+		 *            New value for {@link #revision}
+		 */
+		public void setRevision(String revision) {
+			this.revision = revision;
+		}
+
+		/**
+		 * Marks entry as changed.
+		 *
+		 * @return <code>true</code> if entry was not marked before.
+		 */
+		public boolean markDirty() {
+			return !dirty.get() && dirty.compareAndSet(false, true);
+		}
+
+		/**
+		 * Clears the changed mark, must be called before the entry is saved.
+		 */
+		public void clearDirty() {
+			dirty.set(false);
+		}
+
 		/**
 		 * Adds hash to the {@link #hashes} if it does not exist.
 		 *
 		 * @param hash
 		 *            of the class
+		 * @return <code>true</code> if hash was added.
 		 */
-		public void addHash(String hash) {
+		public boolean addHash(String hash) {
 			if (null != hash) {
-				hashes.addIfAbsent(hash);
+				return hashes.addIfAbsent(hash);
 			}
+			return false;
 		}
 
 		/**
@@ -0,0 +1,292 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.agent.java.Agent;
+import rocks.inspectit.agent.java.connection.IConnection;
+import rocks.inspectit.agent.java.connection.ServerUnavailableException;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.instrumentation.RetransformManager;
+import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Collects the types that are not known to the CMR and sends them in batches to the CMR in the
+ * background, so that the class loading threads do not have to wait for the analysis. Classes
+ * are loaded uninstrumented and retransformed with the help of the {@link RetransformManager} as
+ * soon as the instrumentation definitions arrive.
+ * <p>
+ * The deferred analysis is activated with the system property
+ * <code>-Dinspectit.analysis.deferred=true</code> and only works if the retransformation is used
+ * by the agent.
+ */
+@Component
+public class DeferredClassAnalyzer implements Runnable {
+
+	/**
+	 * System property activating the deferred analysis.
+	 */
+	static final String DEFERRED_ANALYSIS_PROPERTY = "inspectit.analysis.deferred";
+
+	/**
+	 * Max amount of types sent with one call to the CMR.
+	 */
+	static final int BATCH_SIZE = 500;
+
+	/**
+	 * Max amount of types waiting for the analysis. Types above this limit are not deferred.
+	 */
+	static final int MAX_PENDING_TYPES = 65536;
+
+	/**
+	 * Delay between two sending runs in milliseconds.
+	 */
+	private static final long SEND_DELAY_MILLIS = 250L;
+
+	/**
+	 * Log for the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Platform manager.
+	 */
+	@Autowired
+	private IPlatformManager platformManager;
+
+	/**
+	 * {@link IConnection}.
+	 */
+	@Autowired
+	private IConnection connection;
+
+	/**
+	 * {@link ClassHashHelper}.
+	 */
+	@Autowired
+	private ClassHashHelper classHashHelper;
+
+	/**
+	 * {@link RetransformManager} for the retransformation of the analyzed classes.
+	 */
+	@Autowired
+	private RetransformManager retransformManager;
+
+	/**
+	 * Core-service executor service.
+	 */
+	@Autowired
+	@Qualifier("coreServiceExecutorService")
+	private ScheduledExecutorService executorService;
+
+	/**
+	 * If deferred analysis is activated. Package-private for the tests.
+	 */
+	boolean activated = Boolean.getBoolean(DEFERRED_ANALYSIS_PROPERTY);
+
+	/**
+	 * Types waiting to be sent to the CMR in the order they were deferred.
+	 */
+	private final LinkedBlockingQueue<PendingType> pendingTypes = new LinkedBlockingQueue<PendingType>(MAX_PENDING_TYPES);
+
+	/**
+	 * Hashes of the types in the {@link #pendingTypes}, used to defer each type only once.
+	 */
+	private final Set<String> pendingHashes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * Returns if the analysis of unknown types should be deferred.
+	 *
+	 * @return Returns if the analysis of unknown types should be deferred.
+	 */
+	public boolean isEnabled() {
+		return activated && Agent.agent.isUsingRetransformation();
+	}
+
+	/**
+	 * Defers the analysis of the given type. The class should be loaded without instrumentation
+	 * if the type has been deferred.
+	 *
+	 * @param fqn
+	 *            Class fully qualified name.
+	 * @param hash
+	 *            Class hash.
+	 * @param type
+	 *            Parsed {@link Type}.
+	 * @return <code>true</code> if type is deferred or was already deferred before,
+	 *         <code>false</code> if the type could not be deferred as too many types are pending.
+	 */
+	public boolean defer(String fqn, String hash, Type type) {
+		if (!pendingHashes.add(hash)) {
+			return true;
+		}
+
+		if (!pendingTypes.offer(new PendingType(fqn, hash, type))) {
+			pendingHashes.remove(hash);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the amount of types waiting for the analysis.
+	 *
+	 * @return Returns the amount of types waiting for the analysis.
+	 */
+	public int getPendingCount() {
+		return pendingTypes.size();
+	}
+
+	/**
+	 * Schedules the sending if deferred analysis is activated.
+	 */
+	@PostConstruct
+	public void postConstruct() {
+		if (activated) {
+			executorService.scheduleWithFixedDelay(this, SEND_DELAY_MILLIS, SEND_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Sends all pending types in batches as long as the connection is available.
+	 */
+	@Override
+	public void run() {
+		List<PendingType> batch = new ArrayList<PendingType>(BATCH_SIZE);
+		try {
+			while (connection.isConnected() && (pendingTypes.drainTo(batch, BATCH_SIZE) > 0)) {
+				if (!analyzeBatch(batch)) {
+					return;
+				}
+				batch.clear();
+			}
+		} catch (Exception e) {
+			// types of the failed batch are not pending anymore, so they can be deferred again
+			for (PendingType pendingType : batch) {
+				pendingHashes.remove(pendingType.hash);
+			}
+			if (log.isWarnEnabled()) {
+				log.warn("An unexpected exception occurred during the deferred class analysis. " + batch.size() + " class(es) might not be instrumented.", e);
+			}
+		}
+	}
+
+	/**
+	 * Sends one batch of types to the CMR, registers the results with the {@link ClassHashHelper}
+	 * and retransforms the classes that should be instrumented.
+	 *
+	 * @param batch
+	 *            Types to analyze.
+	 * @return <code>false</code> if server is not available and sending should be stopped.
+	 */
+	private boolean analyzeBatch(List<PendingType> batch) {
+		// keep the order so that depending types are analyzed first
+		Map<String, Type> hashAndTypes = new LinkedHashMap<String, Type>(batch.size() * 2);
+		for (PendingType pendingType : batch) {
+			hashAndTypes.put(pendingType.hash, pendingType.type);
+		}
+
+		Map<String, InstrumentationDefinition> instrumentationDefinitions;
+		try {
+			instrumentationDefinitions = connection.analyze(platformManager.getPlatformId(), hashAndTypes);
+		} catch (ServerUnavailableException e) {
+			// keep the types for the next run
+			for (PendingType pendingType : batch) {
+				if (!pendingTypes.offer(pendingType)) {
+					pendingHashes.remove(pendingType.hash);
+				}
+			}
+			if (log.isDebugEnabled()) {
+				log.debug("Deferred types could not be sent to the CMR. Server not available.", e);
+			}
+			return false;
+		} catch (BusinessException e) {
+			for (PendingType pendingType : batch) {
+				pendingHashes.remove(pendingType.hash);
+			}
+			log.warn("Deferred types could not be analyzed by the CMR. " + batch.size() + " class(es) will not be instrumented.", e);
+			return true;
+		}
+
+		List<InstrumentationDefinition> toRetransform = new ArrayList<InstrumentationDefinition>();
+		for (PendingType pendingType : batch) {
+			InstrumentationDefinition instrumentationDefinition = instrumentationDefinitions.get(pendingType.hash);
+			// class might be instrumented with the locally cached definition
+			InstrumentationDefinition previousDefinition = classHashHelper.getInstrumentationDefinition(pendingType.fqn);
+			classHashHelper.registerSent(pendingType.fqn, pendingType.hash);
+			classHashHelper.registerInstrumentationDefinition(pendingType.fqn, instrumentationDefinition);
+			pendingHashes.remove(pendingType.hash);
+
+			if ((null != instrumentationDefinition) && !instrumentationDefinition.isEmpty()) {
+				toRetransform.add(instrumentationDefinition);
+			} else if (null != previousDefinition) {
+				// remove the instrumentation that is not valid anymore
+				toRetransform.add(new InstrumentationDefinition(pendingType.fqn));
+			}
+		}
+
+		if (!toRetransform.isEmpty()) {
+			retransformManager.retransform(toRetransform);
+		}
+		return true;
+	}
+
+	/**
+	 * Type waiting for the analysis.
+	 */
+	private static class PendingType {
+
+		/**
+		 * Class fully qualified name.
+		 */
+		private final String fqn;
+
+		/**
+		 * Class hash.
+		 */
+		private final String hash;
+
+		/**
+		 * Parsed type.
+		 */
+		private final Type type;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param fqn
+		 *            Class fully qualified name.
+		 * @param hash
+		 *            Class hash.
+		 * @param type
+		 *            Parsed type.
+		 */
+		PendingType(String fqn, String hash, Type type) {
+			this.fqn = fqn;
+			this.hash = hash;
+			this.type = type;
+		}
+	}
+
+}
@@ -4,6 +4,7 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
 
 /**
  * Abstract class for all {@link IBufferStrategy} for correct initialization with Spring.
@@ -20,6 +21,11 @@ public abstract class AbstractBufferStrategy<E> implements InitializingBean, IBu
 	@Autowired
 	private IConfigurationStorage configurationStorage;
 
+	/**
+	 * Last load reported by the CMR.
+	 */
+	private volatile CmrLoad cmrLoad = CmrLoad.NORMAL;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -27,4 +33,41 @@ public abstract class AbstractBufferStrategy<E> implements InitializingBean, IBu
 	public void afterPropertiesSet() throws Exception {
 		this.init(configurationStorage.getBufferStrategyConfig().getSettings());
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void updateCmrLoad(CmrLoad cmrLoad) {
+		this.cmrLoad = cmrLoad;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Strategy does not count the dropped elements by default.
+	 */
+	@Override
+	public long getDroppedCount() {
+		return 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Strategy does not aggregate elements by default.
+	 */
+	@Override
+	public long getAggregatedCount() {
+		return 0;
+	}
+
+	/**
+	 * Gets {@link #cmrLoad}.
+	 *
+	 * @return {@link #cmrLoad}
+	 */
+	protected CmrLoad getCmrLoad() {
+		return cmrLoad;
+	}
 }
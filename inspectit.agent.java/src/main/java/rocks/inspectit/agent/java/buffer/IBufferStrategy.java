@@ -4,6 +4,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
+
 /**
  * A BufferStrategy is used to define the behavior of the value objects once a connection problem
  * appears.
@@ -32,4 +34,27 @@ public interface IBufferStrategy<E> extends Iterator<List<E>> {
 	 */
 	void init(Map<String, String> settings);
 
+	/**
+	 * Informs the strategy about the load reported by the CMR. Strategies can reduce the amount of
+	 * buffered data when the CMR is under load.
+	 *
+	 * @param cmrLoad
+	 *            Load reported by the CMR.
+	 */
+	void updateCmrLoad(CmrLoad cmrLoad);
+
+	/**
+	 * Returns the total amount of elements dropped by the strategy.
+	 *
+	 * @return Returns the total amount of elements dropped by the strategy.
+	 */
+	long getDroppedCount();
+
+	/**
+	 * Returns the total amount of elements aggregated by the strategy in order not to drop them.
+	 *
+	 * @return Returns the total amount of elements aggregated by the strategy.
+	 */
+	long getAggregatedCount();
+
 }
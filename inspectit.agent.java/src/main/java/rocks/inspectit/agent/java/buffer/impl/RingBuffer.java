@@ -0,0 +1,151 @@
+package rocks.inspectit.agent.java.buffer.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer ring buffer. Each slot holds a sequence number
+ * that tells producers and consumers if the slot is free for the given position, so that
+ * {@link #offer(Object)} and {@link #poll()} need only one compare-and-set on the position counter
+ * in the non contended case. The capacity is always rounded up to the next power of two.
+ *
+ * @param <E>
+ *            Type of the elements.
+ */
+public class RingBuffer<E> {
+
+	/**
+	 * Elements.
+	 */
+	private final AtomicReferenceArray<E> elements;
+
+	/**
+	 * Sequence number of each slot.
+	 */
+	private final AtomicLongArray sequences;
+
+	/**
+	 * Mask for the index calculation.
+	 */
+	private final int mask;
+
+	/**
+	 * Next position to write to.
+	 */
+	private final AtomicLong enqueuePosition = new AtomicLong();
+
+	/**
+	 * Next position to read from.
+	 */
+	private final AtomicLong dequeuePosition = new AtomicLong();
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param capacity
+	 *            Minimum capacity of the buffer, will be rounded up to the next power of two.
+	 */
+	public RingBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity of the ring buffer must be positive.");
+		}
+		int size = 1;
+		while (size < capacity) {
+			size <<= 1;
+		}
+		elements = new AtomicReferenceArray<E>(size);
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+		mask = size - 1;
+	}
+
+	/**
+	 * Adds the element to the buffer if there is free space.
+	 *
+	 * @param element
+	 *            Element to add, must not be <code>null</code>.
+	 * @return <code>true</code> if element was added, <code>false</code> if buffer is full.
+	 */
+	public boolean offer(E element) {
+		if (null == element) {
+			throw new IllegalArgumentException("Element cannot be null!");
+		}
+
+		while (true) {
+			long position = enqueuePosition.get();
+			int index = (int) position & mask;
+			long difference = sequences.get(index) - position;
+			if (0 == difference) {
+				if (enqueuePosition.compareAndSet(position, position + 1)) {
+					elements.lazySet(index, element);
+					sequences.set(index, position + 1);
+					return true;
+				}
+			} else if (difference < 0) {
+				// slot still holds the element of the previous round
+				return false;
+			}
+			// otherwise another producer was faster, retry
+		}
+	}
+
+	/**
+	 * Removes the oldest element from the buffer.
+	 *
+	 * @return Oldest element or <code>null</code> if buffer is empty.
+	 */
+	public E poll() {
+		while (true) {
+			long position = dequeuePosition.get();
+			int index = (int) position & mask;
+			long difference = sequences.get(index) - (position + 1);
+			if (0 == difference) {
+				if (dequeuePosition.compareAndSet(position, position + 1)) {
+					E element = elements.get(index);
+					elements.lazySet(index, null);
+					sequences.set(index, position + mask + 1);
+					return element;
+				}
+			} else if (difference < 0) {
+				// slot not yet written
+				return null;
+			}
+			// otherwise another consumer was faster, retry
+		}
+	}
+
+	/**
+	 * Returns the approximate amount of elements in the buffer.
+	 *
+	 * @return Returns the approximate amount of elements in the buffer.
+	 */
+	public int size() {
+		long size = enqueuePosition.get() - dequeuePosition.get();
+		if (size < 0) {
+			return 0;
+		}
+		return (int) Math.min(size, getCapacity());
+	}
+
+	/**
+	 * Returns if the buffer is empty.
+	 *
+	 * @return Returns if the buffer is empty.
+	 */
+	public boolean isEmpty() {
+		return 0 == size();
+	}
+
+	/**
+	 * Returns the capacity of the buffer.
+	 *
+	 * @return Returns the capacity of the buffer.
+	 */
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+}
@@ -0,0 +1,467 @@
+package rocks.inspectit.agent.java.buffer.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+
+import rocks.inspectit.agent.java.buffer.AbstractBufferStrategy;
+import rocks.inspectit.agent.java.buffer.IBufferStrategy;
+import rocks.inspectit.agent.java.util.ApproximateObjectSizes;
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ParameterContentData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Buffer strategy that keeps the single measurements in a bounded {@link RingBuffer}. In contrast
+ * to the {@link SimpleBufferStrategy} and {@link SizeBufferStrategy} the data is not kept as lists
+ * given by the preparing thread, but the batches returned by {@link #next()} are created on demand
+ * and limited by the estimated amount of bytes.
+ * <p>
+ * When the buffer is full the configured {@link OverflowPolicy} is applied. The amount of dropped
+ * and aggregated elements is counted and logged when a batch is created.
+ * <p>
+ * The load reported by the CMR is respected independently of the overflow policy. Under
+ * {@link CmrLoad#HIGH} load the {@link TimerData} objects are aggregated already when added, thus
+ * only one aggregated object per method and parameter content is sent per batch. Under
+ * {@link CmrLoad#OVERLOADED} load additionally only every n-th element of the data that can not be
+ * aggregated is accepted.
+ */
+public class RingBufferStrategy extends AbstractBufferStrategy<DefaultData> implements IBufferStrategy<DefaultData> {
+
+	/**
+	 * Policies applied when the buffer is full.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Oldest elements are removed from the buffer to give space to the new ones.
+		 */
+		DROP_OLDEST,
+
+		/**
+		 * New elements are dropped.
+		 */
+		DROP_NEWEST,
+
+		/**
+		 * When the buffer is more than half full only every n-th new element is accepted. New
+		 * elements are dropped when buffer is full.
+		 */
+		SAMPLE,
+
+		/**
+		 * {@link TimerData} elements that do not fit are aggregated per method and parameter
+		 * content and added to the next batch. All other elements are dropped.
+		 */
+		AGGREGATE;
+	}
+
+	/**
+	 * Default capacity of the buffer.
+	 */
+	private static final int DEFAULT_CAPACITY = 10000;
+
+	/**
+	 * Default sample rate.
+	 */
+	private static final int DEFAULT_SAMPLE_RATE = 10;
+
+	/**
+	 * Default maximum amount of bytes in one batch.
+	 */
+	private static final long DEFAULT_MAX_BATCH_BYTES = 1024 * 1024;
+
+	/**
+	 * The logger of the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Object sizes used to estimate the size of the batch.
+	 */
+	private final IObjectSizes objectSizes = new ApproximateObjectSizes();
+
+	/**
+	 * Counter of the dropped elements.
+	 */
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	/**
+	 * Counter of the elements aggregated due to the overflow.
+	 */
+	private final AtomicLong aggregatedCount = new AtomicLong();
+
+	/**
+	 * Counter used for sampling.
+	 */
+	private final AtomicLong sampleCounter = new AtomicLong();
+
+	/**
+	 * Timer data aggregated due to the overflow. Access is synchronized on the map itself.
+	 */
+	private final Map<AggregationKey, TimerData> overflowAggregation = new HashMap<AggregationKey, TimerData>();
+
+	/**
+	 * The buffer.
+	 */
+	private volatile RingBuffer<DefaultData> ringBuffer;
+
+	/**
+	 * Active overflow policy.
+	 */
+	private volatile OverflowPolicy overflowPolicy;
+
+	/**
+	 * Sample rate for the {@link OverflowPolicy#SAMPLE}.
+	 */
+	private int sampleRate;
+
+	/**
+	 * Maximum amount of estimated bytes in one batch.
+	 */
+	private long maxBatchBytes;
+
+	/**
+	 * Dropped count at the time of the last reporting.
+	 */
+	private long lastReportedDroppedCount;
+
+	/**
+	 * Creates the strategy with default settings.
+	 */
+	public RingBufferStrategy() {
+		this(DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST, DEFAULT_SAMPLE_RATE, DEFAULT_MAX_BATCH_BYTES);
+	}
+
+	/**
+	 * Creates the strategy with given settings.
+	 *
+	 * @param capacity
+	 *            Capacity of the buffer.
+	 * @param overflowPolicy
+	 *            Policy applied when buffer is full.
+	 * @param sampleRate
+	 *            Every n-th element is accepted with the {@link OverflowPolicy#SAMPLE} policy.
+	 * @param maxBatchBytes
+	 *            Maximum amount of estimated bytes in one batch.
+	 */
+	public RingBufferStrategy(int capacity, OverflowPolicy overflowPolicy, int sampleRate, long maxBatchBytes) {
+		this.ringBuffer = new RingBuffer<DefaultData>(capacity);
+		this.overflowPolicy = overflowPolicy;
+		this.sampleRate = sampleRate;
+		this.maxBatchBytes = maxBatchBytes;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addMeasurements(List<DefaultData> measurements) {
+		if (null == measurements) {
+			throw new IllegalArgumentException("Measurements cannot be null!");
+		}
+
+		for (DefaultData data : measurements) {
+			add(data);
+		}
+	}
+
+	/**
+	 * Adds one element by respecting the overflow policy.
+	 *
+	 * @param data
+	 *            Element to add.
+	 */
+	private void add(DefaultData data) {
+		CmrLoad cmrLoad = getCmrLoad();
+		if (CmrLoad.NORMAL != cmrLoad) {
+			if (TimerData.class == data.getClass()) {
+				aggregate(data);
+				return;
+			} else if ((CmrLoad.OVERLOADED == cmrLoad) && (0 != (sampleCounter.incrementAndGet() % sampleRate))) {
+				droppedCount.incrementAndGet();
+				return;
+			}
+		}
+
+		switch (overflowPolicy) {
+		case DROP_OLDEST:
+			while (!ringBuffer.offer(data)) {
+				if (null != ringBuffer.poll()) {
+					droppedCount.incrementAndGet();
+				}
+			}
+			break;
+		case SAMPLE:
+			if ((ringBuffer.size() > (ringBuffer.getCapacity() >> 1)) && (0 != (sampleCounter.incrementAndGet() % sampleRate))) {
+				droppedCount.incrementAndGet();
+			} else if (!ringBuffer.offer(data)) {
+				droppedCount.incrementAndGet();
+			}
+			break;
+		case AGGREGATE:
+			if (!ringBuffer.offer(data)) {
+				aggregate(data);
+			}
+			break;
+		case DROP_NEWEST:
+		default:
+			if (!ringBuffer.offer(data)) {
+				droppedCount.incrementAndGet();
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Aggregates the data that did not fit into the buffer or that is added while CMR is under
+	 * load. Only {@link TimerData} objects are aggregated, sub-classes and other data are dropped.
+	 *
+	 * @param data
+	 *            Data to aggregate.
+	 */
+	private void aggregate(DefaultData data) {
+		if (TimerData.class != data.getClass()) {
+			droppedCount.incrementAndGet();
+			return;
+		}
+
+		TimerData timerData = (TimerData) data;
+		AggregationKey key = new AggregationKey(timerData);
+		synchronized (overflowAggregation) {
+			TimerData aggregated = overflowAggregation.get(key);
+			if (null == aggregated) {
+				aggregated = new TimerData(timerData.getTimeStamp(), timerData.getPlatformIdent(), timerData.getSensorTypeIdent(), timerData.getMethodIdent());
+				aggregated.setParameterContentData(timerData.getParameterContentData());
+				overflowAggregation.put(key, aggregated);
+			}
+			aggregated.aggregateTimerData(timerData);
+		}
+		aggregatedCount.incrementAndGet();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasNext() {
+		if (!ringBuffer.isEmpty()) {
+			return true;
+		}
+		synchronized (overflowAggregation) {
+			return !overflowAggregation.isEmpty();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Returns as many elements as fit into the configured maximum amount of bytes, but at least
+	 * one.
+	 */
+	@Override
+	public List<DefaultData> next() {
+		List<DefaultData> batch = new ArrayList<DefaultData>();
+		long batchBytes = 0;
+
+		synchronized (overflowAggregation) {
+			if (!overflowAggregation.isEmpty()) {
+				for (TimerData timerData : overflowAggregation.values()) {
+					batch.add(timerData);
+					batchBytes += objectSizes.getSizeOf(timerData);
+				}
+				overflowAggregation.clear();
+			}
+		}
+
+		while (batchBytes < maxBatchBytes) {
+			DefaultData data = ringBuffer.poll();
+			if (null == data) {
+				break;
+			}
+			batch.add(data);
+			batchBytes += objectSizes.getSizeOf(data);
+		}
+
+		if (batch.isEmpty()) {
+			throw new NoSuchElementException();
+		}
+
+		reportDropped();
+		return batch;
+	}
+
+	/**
+	 * Logs the amount of dropped elements if it changed since the last report.
+	 */
+	private void reportDropped() {
+		long dropped = droppedCount.get();
+		if (dropped != lastReportedDroppedCount) {
+			log.info("Possible data loss due to the excessive data creation on the Agent! " + (dropped - lastReportedDroppedCount) + " elements dropped by the " + overflowPolicy
+					+ " policy and the " + getCmrLoad() + " CMR load (total dropped: " + dropped + ", total aggregated: " + aggregatedCount.get() + ").");
+			lastReportedDroppedCount = dropped;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void init(Map<String, String> settings) {
+		if (settings.containsKey("capacity")) {
+			this.ringBuffer = new RingBuffer<DefaultData>(Integer.parseInt(settings.get("capacity")));
+		}
+		if (settings.containsKey("overflowPolicy")) {
+			this.overflowPolicy = OverflowPolicy.valueOf(settings.get("overflowPolicy"));
+		}
+		if (settings.containsKey("sampleRate")) {
+			this.sampleRate = Math.max(1, Integer.parseInt(settings.get("sampleRate")));
+		}
+		if (settings.containsKey("maxBatchBytes")) {
+			this.maxBatchBytes = Long.parseLong(settings.get("maxBatchBytes"));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getAggregatedCount() {
+		return aggregatedCount.get();
+	}
+
+	/**
+	 * Returns the approximate amount of elements in the buffer.
+	 *
+	 * @return Returns the approximate amount of elements in the buffer.
+	 */
+	public int getSize() {
+		return ringBuffer.size();
+	}
+
+	/**
+	 * Returns the capacity of the buffer.
+	 *
+	 * @return Returns the capacity of the buffer.
+	 */
+	public int getCapacity() {
+		return ringBuffer.getCapacity();
+	}
+
+	/**
+	 * Gets {@link #overflowPolicy}.
+	 *
+	 * @return {@link #overflowPolicy}
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * Key for the aggregation of the overflowing timer data.
+	 */
+	private static final class AggregationKey {
+
+		/**
+		 * Platform ident.
+		 */
+		private final long platformIdent;
+
+		/**
+		 * Sensor type ident.
+		 */
+		private final long sensorTypeIdent;
+
+		/**
+		 * Method ident.
+		 */
+		private final long methodIdent;
+
+		/**
+		 * Parameter content data, can be <code>null</code>.
+		 */
+		private final Set<ParameterContentData> parameterContentData;
+
+		/**
+		 * Creates the key for the timer data.
+		 *
+		 * @param timerData
+		 *            Timer data.
+		 */
+		AggregationKey(TimerData timerData) {
+			this.platformIdent = timerData.getPlatformIdent();
+			this.sensorTypeIdent = timerData.getSensorTypeIdent();
+			this.methodIdent = timerData.getMethodIdent();
+			this.parameterContentData = timerData.getParameterContentData();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + (int) (platformIdent ^ (platformIdent >>> 32));
+			result = (prime * result) + (int) (sensorTypeIdent ^ (sensorTypeIdent >>> 32));
+			result = (prime * result) + (int) (methodIdent ^ (methodIdent >>> 32));
+			result = (prime * result) + ((parameterContentData == null) ? 0 : parameterContentData.hashCode());
+			return result;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null) {
+				return false;
+			}
+			if (getClass() != obj.getClass()) {
+				return false;
+			}
+			AggregationKey other = (AggregationKey) obj;
+			if ((platformIdent != other.platformIdent) || (sensorTypeIdent != other.sensorTypeIdent) || (methodIdent != other.methodIdent)) {
+				return false;
+			}
+			if (parameterContentData == null) {
+				if (other.parameterContentData != null) {
+					return false;
+				}
+			} else if (!parameterContentData.equals(other.parameterContentData)) {
+				return false;
+			}
+			return true;
+		}
+	}
+
+}
@@ -182,6 +182,16 @@ public interface IConfigurationStorage {
 	 */
 	Map<Collection<String>, InstrumentationDefinition> getInitialInstrumentationResults() throws StorageException;
 
+	/**
+	 * Returns the revision of the configuration on the CMR. Locally cached instrumentation
+	 * definitions are only valid if they were created with the same revision.
+	 *
+	 * @return Returns the revision of the configuration on the CMR.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	String getConfigurationRevision() throws StorageException;
+
 	/**
 	 * Returns the {@link RetransformationStrategy} specified by the current environment.
 	 * 
@@ -353,6 +353,16 @@ public class ConfigurationStorage implements IConfigurationStorage, Initializing
 		return agentConfiguration.getInitialInstrumentationResults();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getConfigurationRevision() throws StorageException {
+		ensureConfigurationExists();
+
+		return agentConfiguration.getConfigurationRevision();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
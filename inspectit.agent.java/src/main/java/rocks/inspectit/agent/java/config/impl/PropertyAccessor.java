@@ -1,15 +1,22 @@
 package rocks.inspectit.agent.java.config.impl;
 
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 import rocks.inspectit.agent.java.config.IPropertyAccessor;
 import rocks.inspectit.agent.java.config.PropertyAccessException;
 import rocks.inspectit.shared.all.communication.data.ParameterContentData;
@@ -51,6 +58,20 @@ public class PropertyAccessor implements IPropertyAccessor {
 	 */
 	private static final String[] ALLOWED_METHODS = new String[] { "size", "length" };
 
+	/**
+	 * Cache of the resolved fields and methods. Key is the class the path element is resolved in,
+	 * value is the map of the path element names (method names including the brackets) to the
+	 * resolved {@link Field} or {@link Method}. As the fields and methods reference the key class,
+	 * the values are soft so that the classes of the not used class loaders can be collected.
+	 */
+	private final LoadingCache<Class<?>, ConcurrentMap<String, AccessibleObject>> accessorCache = CacheBuilder.newBuilder().weakKeys().softValues()
+			.build(new CacheLoader<Class<?>, ConcurrentMap<String, AccessibleObject>>() {
+				@Override
+				public ConcurrentMap<String, AccessibleObject> load(Class<?> key) {
+					return new ConcurrentHashMap<String, AccessibleObject>();
+				}
+			});
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -174,73 +195,132 @@ public class PropertyAccessor implements IPropertyAccessor {
 					throw new PropertyAccessException("Trying to access the length() method for a non array type");
 				}
 			}
+		}
 
-			do {
-				// we are iterating using getDeclaredMethods as this call will
-				// also provide the default access and protected methods which
-				// the
-				// call to getMethods() will not
-				Method[] methods = c.getDeclaredMethods();
-				for (Method method : methods) {
-					if (methodName.equals(method.getName())) {
-
-						// We are only calling methods that do not take an
-						// argument
-						if (method.getParameterTypes().length != 0) {
-							if (log.isDebugEnabled()) {
-								log.debug("Skipping matching method " + method.getName() + " as it is not a no argument method");
-							}
-							continue;
-						}
+		AccessibleObject accessor = getAccessor(c, propertyPath);
+		if (null == accessor) {
+			throw new PropertyAccessException("Property or method " + propertyPath.getName() + " cannot be found in class " + object.getClass() + "!");
+		}
 
-						try {
-							Object result = method.invoke(object, (Object[]) null);
-							return getPropertyContent(propertyPath.getPathToContinue(), result);
-						} catch (IllegalArgumentException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("Illegal Argument Exception!", e);
-						} catch (IllegalAccessException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("IllegalAccessException!", e);
-						} catch (InvocationTargetException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("InvocationTargetException!", e);
-						}
+		if (accessor instanceof Method) {
+			try {
+				Object result = ((Method) accessor).invoke(object, (Object[]) null);
+				return getPropertyContent(propertyPath.getPathToContinue(), result);
+			} catch (IllegalArgumentException e) {
+				log.error(e.getMessage());
+				throw new PropertyAccessException("Illegal Argument Exception!", e);
+			} catch (IllegalAccessException e) {
+				log.error(e.getMessage());
+				throw new PropertyAccessException("IllegalAccessException!", e);
+			} catch (InvocationTargetException e) {
+				log.error(e.getMessage());
+				throw new PropertyAccessException("InvocationTargetException!", e);
+			}
+		} else {
+			try {
+				Object fieldObject = ((Field) accessor).get(object);
+				return getPropertyContent(propertyPath.getPathToContinue(), fieldObject);
+			} catch (IllegalArgumentException e) {
+				log.error(e.getMessage());
+				throw new PropertyAccessException("Illegal Argument Exception!", e);
+			} catch (IllegalAccessException e) {
+				log.error(e.getMessage());
+				throw new PropertyAccessException("Illegal Access Exception!", e);
+			}
+		}
+	}
 
-					}
-				}
+	/**
+	 * Returns the field or the method the path element resolves to in the given class. The result
+	 * is cached, so that the class hierarchy is searched only once for every class and path
+	 * element.
+	 *
+	 * @param c
+	 *            Class to resolve the path element in.
+	 * @param propertyPath
+	 *            Path element.
+	 * @return {@link Field} or {@link Method} or <code>null</code> if the path element can not be
+	 *         resolved in the class.
+	 * @throws PropertyAccessException
+	 *             If the field can not be made accessible.
+	 */
+	private AccessibleObject getAccessor(Class<?> c, PropertyPath propertyPath) throws PropertyAccessException {
+		ConcurrentMap<String, AccessibleObject> classAccessors = accessorCache.getUnchecked(c);
+		AccessibleObject accessor = classAccessors.get(propertyPath.getName());
+		if (null == accessor) {
+			if (propertyPath.isMethodCall()) {
+				// strip the "()" from the path to find the method
+				accessor = resolveMethod(c, propertyPath.getName().substring(0, propertyPath.getName().length() - 2));
+			} else {
+				accessor = resolveField(c, propertyPath.getName());
+			}
 
-				c = c.getSuperclass();
-			} while (c != Object.class);
-
-		} else { // We are dealing with a property navigation and not an method
-			// call
-			do {
-				Field[] fields = c.getDeclaredFields();
-				for (Field field : fields) {
-					if (propertyPath.getName().equals(field.getName())) {
-						try {
-							field.setAccessible(true);
-							Object fieldObject = field.get(object);
-							return getPropertyContent(propertyPath.getPathToContinue(), fieldObject);
-						} catch (SecurityException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("Security Exception was thrown while accessing a field!", e);
-						} catch (IllegalArgumentException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("Illegal Argument Exception!", e);
-						} catch (IllegalAccessException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("Illegal Access Exception!", e);
+			if (null != accessor) {
+				classAccessors.put(propertyPath.getName(), accessor);
+			}
+		}
+		return accessor;
+	}
+
+	/**
+	 * Searches for the no argument method with the given name in the class hierarchy.
+	 *
+	 * @param clazz
+	 *            Class to start the search in.
+	 * @param methodName
+	 *            Name of the method.
+	 * @return {@link Method} or <code>null</code> if the method does not exist.
+	 */
+	private Method resolveMethod(Class<?> clazz, String methodName) {
+		Class<?> c = clazz;
+		while ((null != c) && (c != Object.class)) {
+			// we are iterating using getDeclaredMethods as this call will also provide the default
+			// access and protected methods which the call to getMethods() will not
+			for (Method method : c.getDeclaredMethods()) {
+				if (methodName.equals(method.getName())) {
+					// We are only calling methods that do not take an argument
+					if (method.getParameterTypes().length != 0) {
+						if (log.isDebugEnabled()) {
+							log.debug("Skipping matching method " + method.getName() + " as it is not a no argument method");
 						}
+						continue;
 					}
+					return method;
 				}
-
-				c = c.getSuperclass();
-			} while (c != Object.class);
+			}
+			c = c.getSuperclass();
 		}
+		return null;
+	}
 
-		throw new PropertyAccessException("Property or method " + propertyPath.getName() + " cannot be found in class " + object.getClass() + "!");
+	/**
+	 * Searches for the field with the given name in the class hierarchy and makes it accessible.
+	 *
+	 * @param clazz
+	 *            Class to start the search in.
+	 * @param fieldName
+	 *            Name of the field.
+	 * @return {@link Field} or <code>null</code> if the field does not exist.
+	 * @throws PropertyAccessException
+	 *             If the field can not be made accessible.
+	 */
+	private Field resolveField(Class<?> clazz, String fieldName) throws PropertyAccessException {
+		Class<?> c = clazz;
+		while ((null != c) && (c != Object.class)) {
+			for (Field field : c.getDeclaredFields()) {
+				if (fieldName.equals(field.getName())) {
+					try {
+						field.setAccessible(true);
+					} catch (SecurityException e) {
+						log.error(e.getMessage());
+						throw new PropertyAccessException("Security Exception was thrown while accessing a field!", e);
+					}
+					return field;
+				}
+			}
+			c = c.getSuperclass();
+		}
+		return null;
 	}
 
 	/**
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
@@ -54,6 +55,15 @@ public interface IConnection {
 	 */
 	boolean isConnected();
 
+	/**
+	 * Returns how many times the connection to the server was established, thus it increases with
+	 * every successful connect and reconnect. Can be used to detect that the server might have
+	 * lost the state kept for this agent.
+	 *
+	 * @return Number of established connections.
+	 */
+	int getConnectionCount();
+
 	/**
 	 * Sends a keep-alive signal to give a sign of life.
 	 *
@@ -69,10 +79,11 @@ public interface IConnection {
 	 *
 	 * @param dataObjects
 	 *            The measurements to send.
+	 * @return The last load reported by the server.
 	 * @throws ServerUnavailableException
 	 *             If server to send the request to is unavailable.
 	 */
-	void sendDataObjects(List<? extends DefaultData> dataObjects) throws ServerUnavailableException;
+	CmrLoad sendDataObjects(List<? extends DefaultData> dataObjects) throws ServerUnavailableException;
 
 	/**
 	 * Registers the agent with the CMR. The CMR will answer with the {@link AgentConfig} containing
@@ -126,6 +137,23 @@ public interface IConnection {
 	 */
 	InstrumentationDefinition analyze(long platformIdent, String hash, Type type) throws ServerUnavailableException, BusinessException;
 
+	/**
+	 * Analyzes the given types with one call to the server.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashAndTypes
+	 *            Map of class hash codes to the types that have been parsed from the byte-code.
+	 *            Types are analyzed in the iteration order of the map.
+	 * @return Map of class hash codes to the instrumentation definitions. Types that should not be
+	 *         instrumented are not contained in the map.
+	 * @throws ServerUnavailableException
+	 *             If server to send the request to is unavailable.
+	 * @throws BusinessException
+	 *             If {@link BusinessException} is thrown on the server.
+	 */
+	Map<String, InstrumentationDefinition> analyze(long platformIdent, Map<String, Type> hashAndTypes) throws ServerUnavailableException, BusinessException;
+
 	/**
 	 * Informs the CMR that the methods have been instrumented on the agent.
 	 *
@@ -138,6 +166,20 @@ public interface IConnection {
 	 */
 	void instrumentationApplied(long platformIdent, Map<Long, long[]> methodToSensorMap) throws ServerUnavailableException;
 
+	/**
+	 * Informs the CMR that data has been dropped or aggregated due to the overflow of the buffer.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param droppedCount
+	 *            Amount of data objects dropped since the last report.
+	 * @param aggregatedCount
+	 *            Amount of data objects aggregated since the last report.
+	 * @throws ServerUnavailableException
+	 *             If server to send the request to is unavailable.
+	 */
+	void reportDroppedData(long platformIdent, long droppedCount, long aggregatedCount) throws ServerUnavailableException;
+
 	/**
 	 * Sends the given {@link JmxAttributeDescriptor} to the CMR, returning the ones that will be
 	 * monitored, based on the current configuration on the server.
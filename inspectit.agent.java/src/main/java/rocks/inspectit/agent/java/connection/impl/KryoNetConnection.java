@@ -19,6 +19,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.esotericsoftware.kryonet.rmi.RemoteObject;
+import com.esotericsoftware.kryonet.rmi.TimeoutException;
 
 import rocks.inspectit.agent.java.connection.FailFastRemoteMethodCall;
 import rocks.inspectit.agent.java.connection.IConnection;
@@ -29,6 +30,7 @@ import rocks.inspectit.shared.all.cmr.service.IAgentStorageService;
 import rocks.inspectit.shared.all.cmr.service.IKeepAliveService;
 import rocks.inspectit.shared.all.cmr.service.ServiceInterface;
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
@@ -66,6 +68,17 @@ public class KryoNetConnection implements IConnection {
 	 */
 	private IAgentStorageService agentStorageService;
 
+	/**
+	 * Id of the response to the last sending of the data objects, <code>null</code> if the
+	 * response was already received.
+	 */
+	private Byte pendingLoadResponseId;
+
+	/**
+	 * Last load reported by the CMR.
+	 */
+	private CmrLoad cmrLoad = CmrLoad.NORMAL;
+
 	/**
 	 * Agent service.
 	 */
@@ -92,6 +105,11 @@ public class KryoNetConnection implements IConnection {
 	 */
 	private final Object reconnectionMonitor = new Object();
 
+	/**
+	 * Number of established connections, only updated by the thread (re)connecting.
+	 */
+	private volatile int connectionCount;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -104,6 +122,7 @@ public class KryoNetConnection implements IConnection {
 				}
 
 				startClient(host, port);
+				connectionCount++;
 
 				log.info("KryoNet: Connection established!");
 				connectionException = false;
@@ -131,6 +150,7 @@ public class KryoNetConnection implements IConnection {
 		if ((null != client) && !isConnected()) {
 			try {
 				reconnectClient();
+				connectionCount++;
 
 				log.info("KryoNet: Reconnection successful!");
 				connectionException = false;
@@ -156,6 +176,7 @@ public class KryoNetConnection implements IConnection {
 		stopClient();
 
 		agentStorageService = null; // NOPMD
+		pendingLoadResponseId = null; // NOPMD
 		agentService = null; // NOPMD
 		keepAliveService = null; // NOPMD
 	}
@@ -218,7 +239,8 @@ public class KryoNetConnection implements IConnection {
 			int agentStorageServiceId = IAgentStorageService.class.getAnnotation(ServiceInterface.class).serviceId();
 			agentStorageService = ObjectSpace.getRemoteObject(client, agentStorageServiceId, IAgentStorageService.class);
 			((RemoteObject) agentStorageService).setNonBlocking(true);
-			((RemoteObject) agentStorageService).setTransmitReturnValue(false);
+			((RemoteObject) agentStorageService).setTransmitReturnValue(true);
+			pendingLoadResponseId = null; // NOPMD
 
 			int agentServiceServiceId = IAgentService.class.getAnnotation(ServiceInterface.class).serviceId();
 			agentService = ObjectSpace.getRemoteObject(client, agentServiceServiceId, IAgentService.class);
@@ -352,17 +374,24 @@ public class KryoNetConnection implements IConnection {
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * The data is sent without waiting for the CMR to process it, but before sending the next
+	 * data objects the response to the previous sending is awaited. Thus, only one list of data
+	 * objects is in flight and the sending slows down to the speed the CMR accepts the data. The
+	 * returned load is the one reported in the response to the previous sending.
 	 */
 	@Override
-	public void sendDataObjects(List<? extends DefaultData> measurements) throws ServerUnavailableException {
+	public CmrLoad sendDataObjects(List<? extends DefaultData> measurements) throws ServerUnavailableException {
 		if (!isConnected()) {
 			throw new ServerUnavailableException();
 		}
 
 		if ((null != measurements) && !measurements.isEmpty()) {
+			awaitLoadResponse();
 			try {
 				AddDataObjects remote = new AddDataObjects(agentStorageService, measurements);
 				remote.makeCall();
+				pendingLoadResponseId = ((RemoteObject) agentStorageService).getLastResponseID();
 			} catch (ExecutionException executionException) {
 				// there should be no execution exception
 				log.error("Could not send data objects", executionException);
@@ -373,6 +402,34 @@ public class KryoNetConnection implements IConnection {
 				throw e;
 			}
 		}
+		return cmrLoad;
+	}
+
+	/**
+	 * Waits for the response to the last sending of the data objects and updates the
+	 * {@link #cmrLoad}. If the response is not received in the response timeout the CMR is
+	 * considered to be overloaded.
+	 */
+	private void awaitLoadResponse() {
+		if (null == pendingLoadResponseId) {
+			return;
+		}
+
+		try {
+			Object response = ((RemoteObject) agentStorageService).waitForResponse(pendingLoadResponseId.byteValue());
+			// CMRs not reporting the load return nothing
+			if (response instanceof CmrLoad) {
+				cmrLoad = (CmrLoad) response;
+			}
+		} catch (TimeoutException e) {
+			// late response is discarded by the object space
+			cmrLoad = CmrLoad.OVERLOADED;
+		} catch (RuntimeException e) {
+			// thrown when interrupted while waiting, keep the last known load
+			log.warn("Waiting for the response to the previous sending of the data objects failed.", e);
+		} finally {
+			pendingLoadResponseId = null; // NOPMD
+		}
 	}
 
 	/**
@@ -415,6 +472,46 @@ public class KryoNetConnection implements IConnection {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, InstrumentationDefinition> analyze(final long platformIdent, final Map<String, Type> hashAndTypes) throws ServerUnavailableException, BusinessException {
+		if (!isConnected()) {
+			throw new ServerUnavailableException();
+		}
+
+		// make call
+		FailFastRemoteMethodCall<IAgentService, Map<String, InstrumentationDefinition>> call = new FailFastRemoteMethodCall<IAgentService, Map<String, InstrumentationDefinition>>(agentService) {
+			@Override
+			protected Map<String, InstrumentationDefinition> performRemoteCall(IAgentService service) throws Exception {
+				return agentService.analyze(platformIdent, hashAndTypes);
+			}
+		};
+
+		try {
+			return call.makeCall();
+		} catch (ExecutionException executionException) {
+			if (log.isTraceEnabled()) {
+				log.trace("analyze(long,Map)", executionException);
+			}
+
+			// check for business exception
+			if (executionException.getCause() instanceof BusinessException) {
+				throw ((BusinessException) executionException.getCause()); // NOPMD
+			}
+
+			// otherwise we log and return empty map as it's unexpected exception for us
+			log.error("Could not get instrumentation results", executionException);
+			return Collections.emptyMap();
+		} catch (ServerUnavailableException e) {
+			if (!e.isServerTimeout()) {
+				disconnectClient();
+			}
+			throw e;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -441,6 +538,29 @@ public class KryoNetConnection implements IConnection {
 
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reportDroppedData(long platformIdent, long droppedCount, long aggregatedCount) throws ServerUnavailableException {
+		if (!isConnected()) {
+			throw new ServerUnavailableException();
+		}
+
+		try {
+			ReportDroppedDataCall call = new ReportDroppedDataCall(agentService, platformIdent, droppedCount, aggregatedCount);
+			call.makeCall();
+		} catch (ExecutionException executionException) {
+			// there should be no execution exception
+			log.error("Could not report the dropped data", executionException);
+		} catch (ServerUnavailableException e) {
+			if (!e.isServerTimeout()) {
+				disconnectClient();
+			}
+			throw e;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -543,6 +663,14 @@ public class KryoNetConnection implements IConnection {
 		return (null != client) && client.isConnected();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getConnectionCount() {
+		return connectionCount;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
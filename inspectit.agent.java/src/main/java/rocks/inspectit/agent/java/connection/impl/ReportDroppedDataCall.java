@@ -0,0 +1,54 @@
+package rocks.inspectit.agent.java.connection.impl;
+
+import rocks.inspectit.agent.java.connection.AbstractRemoteMethodCall;
+import rocks.inspectit.shared.all.cmr.service.IAgentService;
+
+/**
+ * {@link AbstractRemoteMethodCall} for the {@link IAgentService#reportDroppedData(long, long, long)}.
+ */
+public class ReportDroppedDataCall extends AbstractRemoteMethodCall<IAgentService, Void> {
+
+	/**
+	 * Platform id.
+	 */
+	private final long platformIdent;
+
+	/**
+	 * Amount of data objects dropped since the last report.
+	 */
+	private final long droppedCount;
+
+	/**
+	 * Amount of data objects aggregated since the last report.
+	 */
+	private final long aggregatedCount;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param remoteObject
+	 *            {@link IAgentService} object
+	 * @param platformIdent
+	 *            Platform id.
+	 * @param droppedCount
+	 *            Amount of data objects dropped since the last report.
+	 * @param aggregatedCount
+	 *            Amount of data objects aggregated since the last report.
+	 */
+	public ReportDroppedDataCall(IAgentService remoteObject, long platformIdent, long droppedCount, long aggregatedCount) {
+		super(remoteObject);
+		this.platformIdent = platformIdent;
+		this.droppedCount = droppedCount;
+		this.aggregatedCount = aggregatedCount;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Void performRemoteCall(IAgentService remoteObject) throws Exception {
+		remoteObject.reportDroppedData(platformIdent, droppedCount, aggregatedCount);
+		return null;
+	}
+
+}
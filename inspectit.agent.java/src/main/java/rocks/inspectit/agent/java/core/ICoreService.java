@@ -142,6 +142,26 @@ public interface ICoreService {
 	 */
 	IObjectStorage getObjectStorage(long sensorTypeIdent, long methodIdent, String prefix);
 
+	/**
+	 * Marks the beginning of an update of the measurements done by the calling thread. All data
+	 * objects and object storages retrieved from the core service until the matching
+	 * {@link #endUpdate(int)} call can be safely changed, as they will not be prepared for sending
+	 * in the meantime. The call never blocks the calling thread.
+	 * <p>
+	 * Must be followed by {@link #endUpdate(int)} in the finally block.
+	 *
+	 * @return Token that must be passed to the {@link #endUpdate(int)}.
+	 */
+	int beginUpdate();
+
+	/**
+	 * Marks the end of the update started with {@link #beginUpdate()}.
+	 *
+	 * @param updateToken
+	 *            Token returned by the {@link #beginUpdate()}.
+	 */
+	void endUpdate(int updateToken);
+
 	/**
 	 * Adds a new list listener.
 	 *
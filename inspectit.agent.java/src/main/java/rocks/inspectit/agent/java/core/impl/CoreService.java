@@ -8,6 +8,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
@@ -36,6 +37,7 @@ import rocks.inspectit.shared.all.communication.MethodSensorData;
 import rocks.inspectit.shared.all.communication.SystemSensorData;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
 import rocks.inspectit.shared.all.communication.data.JmxSensorValueData;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
 import rocks.inspectit.shared.all.communication.data.eum.AbstractEUMData;
 import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.all.util.ExecutorServiceUtils;
@@ -110,34 +112,25 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	IThreadTransformHelper threadTransformHelper;
 
 	/**
-	 * Already used data objects which can be used directly on the CMR to persist.
+	 * The two measurement buffers. The one bound to the current epoch of the {@link #epochGuard} is
+	 * filled by the sensors, while the other one is prepared for sending.
 	 */
-	private Map<String, DefaultData> sensorDataObjects = new ConcurrentHashMap<String, DefaultData>();
+	private final MeasurementBuffer[] measurementBuffers = new MeasurementBuffer[] { new MeasurementBuffer(), new MeasurementBuffer() };
 
 	/**
-	 * Contains object storage instances which will be initialized when sending.
+	 * Guard that ensures that no data is added to the buffer being prepared for sending.
 	 */
-	private Map<String, IObjectStorage> objectStorages = new ConcurrentHashMap<String, IObjectStorage>();
+	private final EpochGuard epochGuard = new EpochGuard();
 
 	/**
-	 * Used as second hash table for the measurements when processed before sending.
-	 */
-	private Map<String, DefaultData> measurementsProcessing = new ConcurrentHashMap<String, DefaultData>();
-
-	/**
-	 * Used as second hash table for the object storages when processed before sending.
-	 */
-	private Map<String, IObjectStorage> objectStoragesProcessing = new ConcurrentHashMap<String, IObjectStorage>();
-
-	/**
-	 * Temporary Map to switch the references of the active hash table with the processed one.
+	 * The registered list listeners.
 	 */
-	private Map<String, ?> temp;
+	private final List<ListListener<?>> listListeners = new ArrayList<ListListener<?>>();
 
 	/**
-	 * The registered list listeners.
+	 * Last load reported by the CMR. Only accessed by the sending thread.
 	 */
-	private final List<ListListener<?>> listListeners = new ArrayList<ListListener<?>>();
+	private CmrLoad cmrLoad = CmrLoad.NORMAL;
 
 	/**
 	 * The default refresh time.
@@ -172,6 +165,16 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	private boolean sendingExceptionNotice = false;
 
+	/**
+	 * Dropped count of the buffer strategy that was already reported to the CMR.
+	 */
+	private long reportedDroppedCount;
+
+	/**
+	 * Aggregated count of the buffer strategy that was already reported to the CMR.
+	 */
+	private long reportedAggregatedCount;
+
 	/**
 	 * Counter which is used by collision of data adding.
 	 */
@@ -207,13 +210,9 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 			strategy.stop();
 		}
 
-		synchronized (preparingThread) {
-			preparingThread.interrupt();
-		}
-
-		synchronized (sendingThread) {
-			sendingThread.interrupt();
-		}
+		// interrupting also unparks the threads
+		preparingThread.interrupt();
+		sendingThread.interrupt();
 
 		Thread temp = sensorRefresher;
 		sensorRefresher = null; // NOPMD
@@ -229,11 +228,9 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public void sendData() {
-		// notify the sending thread. if it is currently sending something,
-		// nothing should happen
-		synchronized (preparingThread) {
-			preparingThread.notifyAll();
-		}
+		// unpark the preparing thread. if it is currently preparing, the permit is kept and the
+		// thread will run once more right after, thus no request can be lost
+		LockSupport.unpark(preparingThread);
 	}
 
 	/**
@@ -250,7 +247,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 		builder.append('.');
 		// Added timestamp to be able to send multiple objects to cmr.
 		builder.append(jmxSensorValueData.getTimeStamp().getTime());
-		sensorDataObjects.put(builder.toString(), jmxSensorValueData);
+		int epoch = epochGuard.enter();
+		try {
+			getBuffer(epoch).sensorDataObjects.put(builder.toString(), jmxSensorValueData);
+		} finally {
+			epochGuard.exit(epoch);
+		}
 		notifyListListeners();
 	}
 
@@ -259,19 +261,17 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public void addMethodSensorData(long sensorTypeIdent, long methodIdent, String prefix, MethodSensorData methodSensorData) {
-		StringBuilder builder = new StringBuilder();
-		if (null != prefix) {
-			builder.append(prefix);
-			builder.append('.');
-		}
-		builder.append(methodIdent);
-		builder.append('.');
-		builder.append(sensorTypeIdent);
-		DefaultData existingData = sensorDataObjects.put(builder.toString(), methodSensorData);
+		int epoch = epochGuard.enter();
+		try {
+			MeasurementBuffer buffer = getBuffer(epoch);
+			MethodSensorData existingData = buffer.methodSensorDataObjects.put(sensorTypeIdent, methodIdent, prefix, methodSensorData);
 
-		// put existing data back into the map
-		if (existingData != null) {
-			sensorDataObjects.put(String.valueOf(counter.incrementAndGet()), existingData);
+			// put existing data back into the map
+			if (existingData != null) {
+				buffer.sensorDataObjects.put(String.valueOf(counter.incrementAndGet()), existingData);
+			}
+		} finally {
+			epochGuard.exit(epoch);
 		}
 
 		notifyListListeners();
@@ -282,15 +282,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public MethodSensorData getMethodSensorData(long sensorTypeIdent, long methodIdent, String prefix) {
-		StringBuilder builder = new StringBuilder();
-		if (null != prefix) {
-			builder.append(prefix);
-			builder.append('.');
+		int epoch = epochGuard.enter();
+		try {
+			return getBuffer(epoch).methodSensorDataObjects.get(sensorTypeIdent, methodIdent, prefix);
+		} finally {
+			epochGuard.exit(epoch);
 		}
-		builder.append(methodIdent);
-		builder.append('.');
-		builder.append(sensorTypeIdent);
-		return (MethodSensorData) sensorDataObjects.get(builder.toString());
 	}
 
 	/**
@@ -298,7 +295,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public void addEUMData(AbstractEUMData eumData) {
-		sensorDataObjects.put(String.valueOf(counter.incrementAndGet()), eumData);
+		int epoch = epochGuard.enter();
+		try {
+			getBuffer(epoch).sensorDataObjects.put(String.valueOf(counter.incrementAndGet()), eumData);
+		} finally {
+			epochGuard.exit(epoch);
+		}
 		notifyListListeners();
 	}
 
@@ -307,7 +309,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public void addPlatformSensorData(long sensorTypeIdent, SystemSensorData systemSensorData) {
-		sensorDataObjects.put(Long.toString(sensorTypeIdent), systemSensorData);
+		int epoch = epochGuard.enter();
+		try {
+			getBuffer(epoch).sensorDataObjects.put(Long.toString(sensorTypeIdent), systemSensorData);
+		} finally {
+			epochGuard.exit(epoch);
+		}
 		notifyListListeners();
 	}
 
@@ -327,7 +334,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 		if (exceptionSensorData.getExceptionEvent().equals(ExceptionEvent.CREATED)) {
 			// if a data object with the same hash code was already created, then it has to be For
 			// us only the last-most data object is relevant
-			sensorDataObjects.put(key, exceptionSensorData);
+			int epoch = epochGuard.enter();
+			try {
+				getBuffer(epoch).sensorDataObjects.put(key, exceptionSensorData);
+			} finally {
+				epochGuard.exit(epoch);
+			}
 			notifyListListeners();
 		}
 	}
@@ -342,7 +354,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 		builder.append("::");
 		builder.append(throwableIdentityHashCode);
 
-		return (ExceptionSensorData) sensorDataObjects.get(builder.toString());
+		int epoch = epochGuard.enter();
+		try {
+			return (ExceptionSensorData) getBuffer(epoch).sensorDataObjects.get(builder.toString());
+		} finally {
+			epochGuard.exit(epoch);
+		}
 	}
 
 	/**
@@ -350,15 +367,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public void addObjectStorage(long sensorTypeIdent, long methodIdent, String prefix, IObjectStorage objectStorage) {
-		StringBuilder builder = new StringBuilder();
-		if (null != prefix) {
-			builder.append(prefix);
-			builder.append('.');
+		int epoch = epochGuard.enter();
+		try {
+			getBuffer(epoch).objectStorages.put(sensorTypeIdent, methodIdent, prefix, objectStorage);
+		} finally {
+			epochGuard.exit(epoch);
 		}
-		builder.append(methodIdent);
-		builder.append('.');
-		builder.append(sensorTypeIdent);
-		objectStorages.put(builder.toString(), objectStorage);
 		notifyListListeners();
 	}
 
@@ -367,15 +381,39 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public IObjectStorage getObjectStorage(long sensorTypeIdent, long methodIdent, String prefix) {
-		StringBuilder builder = new StringBuilder();
-		if (null != prefix) {
-			builder.append(prefix);
-			builder.append('.');
+		int epoch = epochGuard.enter();
+		try {
+			return getBuffer(epoch).objectStorages.get(sensorTypeIdent, methodIdent, prefix);
+		} finally {
+			epochGuard.exit(epoch);
 		}
-		builder.append(methodIdent);
-		builder.append('.');
-		builder.append(sensorTypeIdent);
-		return objectStorages.get(builder.toString());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int beginUpdate() {
+		return epochGuard.enter();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void endUpdate(int updateToken) {
+		epochGuard.exit(updateToken);
+	}
+
+	/**
+	 * Returns the measurement buffer bound to the given epoch.
+	 *
+	 * @param epoch
+	 *            Epoch received from the {@link #epochGuard}.
+	 * @return {@link MeasurementBuffer}
+	 */
+	private MeasurementBuffer getBuffer(int epoch) {
+		return measurementBuffers[epoch & 1];
 	}
 
 	/**
@@ -401,7 +439,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	private void notifyListListeners() {
 		if (!listListeners.isEmpty()) {
-			int elementCount = sensorDataObjects.size() + objectStorages.size();
+			int elementCount = getBuffer(epochGuard.getEpoch()).size();
 			for (ListListener<?> listListener : listListeners) {
 				listListener.contentChanged(elementCount);
 			}
@@ -530,6 +568,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 *
 	 * Get all the value objects from the object storages and generate a list containing all the
 	 * value objects.
+	 * <p>
+	 * The epoch is advanced first, so that all new data is stored in the other buffer. The
+	 * {@link EpochGuard#advance()} returns only when no sensor is updating the data in the buffer
+	 * of the previous epoch any more, thus the buffer can be drained and the object storages
+	 * finalized without losing or sending incomplete measurements. The sensors are never blocked
+	 * by this process.
 	 *
 	 * <b> WARNING: This code is supposed to be run single-threaded! We ensure single-threaded
 	 * invocation by only calling this method within the single <code>PreparingThread</code>. During
@@ -538,32 +582,15 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 *
 	 * @return <code>true</code> if new data were prepared, else <code>false</code>
 	 */
-	@SuppressWarnings("unchecked")
 	private boolean prepareData() {
 		// check if measurements are added in the last interval, if not nothing needs to be sent.
-		if (sensorDataObjects.isEmpty() && objectStorages.isEmpty()) {
+		if (getBuffer(epochGuard.getEpoch()).isEmpty()) {
 			return false;
 		}
 
-		// switch the references so that new data is stored while sending
-		temp = sensorDataObjects;
-		sensorDataObjects = measurementsProcessing;
-		measurementsProcessing = (Map<String, DefaultData>) temp;
-
-		temp = objectStorages;
-		objectStorages = objectStoragesProcessing;
-		objectStoragesProcessing = (Map<String, IObjectStorage>) temp;
-
-		// copy the measurements values to a new list
-		List<DefaultData> tempList = new ArrayList<DefaultData>(measurementsProcessing.values());
-		measurementsProcessing.clear();
-
-		// iterate the object storages and get the value objects which will be stored in the same
-		// list.
-		for (IObjectStorage objectStorage : objectStoragesProcessing.values()) {
-			tempList.add(objectStorage.finalizeDataObject());
-		}
-		objectStoragesProcessing.clear();
+		// switch the epoch so that new data is stored while sending
+		int previousEpoch = epochGuard.advance();
+		List<DefaultData> tempList = getBuffer(previousEpoch).drain();
 
 		// Now give the strategy the list
 		bufferStrategy.addMeasurements(tempList);
@@ -588,9 +615,13 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 				}
 
 				List<DefaultData> dataToSend = bufferStrategy.next();
-				connection.sendDataObjects(dataToSend);
+				updateCmrLoad(connection.sendDataObjects(dataToSend));
 				sendingExceptionNotice = false;
 			}
+
+			if (connection.isConnected()) {
+				reportDroppedData();
+			}
 		} catch (ServerUnavailableException serverUnavailableException) {
 			if (serverUnavailableException.isServerTimeout()) {
 				log.warn("Timeout on server when sending actual data. Data might be lost!", serverUnavailableException);
@@ -608,6 +639,42 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 		}
 	}
 
+	/**
+	 * Reports the elements dropped and aggregated by the buffer strategy since the last report to
+	 * the CMR, so that the data loss on the agent is visible to the user.
+	 *
+	 * @throws ServerUnavailableException
+	 *             If the CMR is not available.
+	 */
+	private void reportDroppedData() throws ServerUnavailableException {
+		long droppedCount = bufferStrategy.getDroppedCount();
+		long aggregatedCount = bufferStrategy.getAggregatedCount();
+		if (((droppedCount != reportedDroppedCount) || (aggregatedCount != reportedAggregatedCount)) && platformManager.isPlatformRegistered()) {
+			connection.reportDroppedData(platformManager.getPlatformId(), droppedCount - reportedDroppedCount, aggregatedCount - reportedAggregatedCount);
+			reportedDroppedCount = droppedCount;
+			reportedAggregatedCount = aggregatedCount;
+		}
+	}
+
+	/**
+	 * Propagates the load reported by the CMR to the sending and buffer strategies if it changed.
+	 *
+	 * @param reportedLoad
+	 *            Load reported by the CMR, can be <code>null</code>.
+	 */
+	private void updateCmrLoad(CmrLoad reportedLoad) {
+		if ((null == reportedLoad) || (cmrLoad == reportedLoad)) {
+			return;
+		}
+
+		log.info("CMR reported the " + reportedLoad + " load, adapting the sending of the data.");
+		cmrLoad = reportedLoad;
+		for (ISendingStrategy strategy : sendingStrategies) {
+			strategy.updateCmrLoad(reportedLoad);
+		}
+		bufferStrategy.updateCmrLoad(reportedLoad);
+	}
+
 	/**
 	 * This implementation of a {@link Thread} is used to prepare the data and value objects that
 	 * have to be sent to the CMR. Prepared data is put into {@link IBufferStrategy}.
@@ -640,15 +707,10 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 
 			while (!isInterrupted()) {
 				// wait for activation
-				synchronized (this) {
-					try {
-						if (!isInterrupted()) {
-							wait();
-						}
-					} catch (InterruptedException e) {
-						log.error("Preparing thread interrupted and shutting down!");
-						break; // we were interrupted during waiting and close ourself down.
-					}
+				LockSupport.park(this);
+				if (isInterrupted()) {
+					log.error("Preparing thread interrupted and shutting down!");
+					break; // we were interrupted during waiting and close ourself down.
 				}
 
 				// We got a request from one of the send strategies.
@@ -656,9 +718,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 				boolean newDataAvailable = prepareData();
 				if (newDataAvailable) {
 					// Notify sending thread
-					synchronized (sendingThread) {
-						sendingThread.notifyAll();
-					}
+					LockSupport.unpark(sendingThread);
 				}
 			}
 		}
@@ -696,15 +756,10 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 			while (!isInterrupted()) {
 				// wait for activation if there is nothing to send
 				if (!bufferStrategy.hasNext()) {
-					synchronized (this) {
-						try {
-							if (!isInterrupted()) {
-								wait();
-							}
-						} catch (InterruptedException e) {
-							log.error("Sending thread interrupted and shuting down!");
-							break; // we were interrupted during waiting and close ourself down.
-						}
+					LockSupport.park(this);
+					if (isInterrupted()) {
+						log.error("Sending thread interrupted and shuting down!");
+						break; // we were interrupted during waiting and close ourself down.
 					}
 				}
 
@@ -782,6 +837,69 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 		}
 	}
 
+	/**
+	 * Buffer holding all the data objects and object storages added in one epoch.
+	 */
+	private static class MeasurementBuffer {
+
+		/**
+		 * Already used data objects which can be used directly on the CMR to persist.
+		 */
+		private final Map<String, DefaultData> sensorDataObjects = new ConcurrentHashMap<String, DefaultData>();
+
+		/**
+		 * Method sensor data objects keyed by sensor type, method and prefix.
+		 */
+		private final MethodSensorMap<MethodSensorData> methodSensorDataObjects = new MethodSensorMap<MethodSensorData>();
+
+		/**
+		 * Contains object storage instances which will be initialized when sending.
+		 */
+		private final MethodSensorMap<IObjectStorage> objectStorages = new MethodSensorMap<IObjectStorage>();
+
+		/**
+		 * Returns if buffer is empty.
+		 *
+		 * @return Returns if buffer is empty.
+		 */
+		boolean isEmpty() {
+			return sensorDataObjects.isEmpty() && methodSensorDataObjects.isEmpty() && objectStorages.isEmpty();
+		}
+
+		/**
+		 * Returns amount of elements in the buffer.
+		 *
+		 * @return Returns amount of elements in the buffer.
+		 */
+		int size() {
+			return sensorDataObjects.size() + methodSensorDataObjects.size() + objectStorages.size();
+		}
+
+		/**
+		 * Collects all data objects and finalizes all object storages in the buffer. Buffer is
+		 * empty after this call. Must only be called when no sensor can add data to this buffer.
+		 *
+		 * @return List of all data objects.
+		 */
+		List<DefaultData> drain() {
+			List<DefaultData> dataList = new ArrayList<DefaultData>(size());
+			dataList.addAll(sensorDataObjects.values());
+			sensorDataObjects.clear();
+			methodSensorDataObjects.addValuesTo(dataList);
+			methodSensorDataObjects.clear();
+
+			// iterate the object storages and get the value objects which will be stored in the
+			// same list.
+			List<IObjectStorage> storageList = new ArrayList<IObjectStorage>();
+			objectStorages.addValuesTo(storageList);
+			objectStorages.clear();
+			for (IObjectStorage objectStorage : storageList) {
+				dataList.add(objectStorage.finalizeDataObject());
+			}
+			return dataList;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,149 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Guard that separates the threads updating the measurements (writers) from the single thread that
+ * prepares the measurements for sending (preparer). The guard defines the current epoch, where
+ * each epoch is bound to one of the two measurement buffers of the {@link CoreService} by its
+ * parity.
+ * <p>
+ * A writer enters the guard with {@link #enter()} and receives the epoch it is pinned to. The
+ * writer is never blocked, it at most retries the entering if the epoch advanced in the meantime.
+ * The preparer calls {@link #advance()} that switches to the next epoch and waits until all writers
+ * pinned to the previous epoch have left the guard with {@link #exit(int)}. After that the buffer
+ * of the previous epoch can not be changed by any writer and can be safely drained.
+ * <p>
+ * Each writer thread publishes its pinned epoch in its own slot, so entering costs one volatile
+ * write and no shared counter is updated. Entering is reentrant, nested enters of the same thread
+ * return the epoch of the outermost enter without touching the slot.
+ */
+public class EpochGuard {
+
+	/**
+	 * Value of the slot of the writer that is not pinned to any epoch.
+	 */
+	private static final int IDLE = -1;
+
+	/**
+	 * Current epoch, never negative. Written only by the preparer.
+	 */
+	private volatile int epoch;
+
+	/**
+	 * Slots of all writer threads that entered the guard.
+	 */
+	private final Queue<WriterSlot> writerSlots = new ConcurrentLinkedQueue<WriterSlot>();
+
+	/**
+	 * Slot of the current thread, registered on the first enter.
+	 */
+	private final ThreadLocal<WriterSlot> writerSlot = new ThreadLocal<WriterSlot>() {
+		@Override
+		protected WriterSlot initialValue() {
+			WriterSlot slot = new WriterSlot(Thread.currentThread());
+			writerSlots.add(slot);
+			return slot;
+		}
+	};
+
+	/**
+	 * Pins the calling thread to the current epoch. Must be followed by the {@link #exit(int)} with
+	 * the returned epoch, preferably in the finally block.
+	 *
+	 * @return Epoch the thread is pinned to.
+	 */
+	public int enter() {
+		WriterSlot slot = writerSlot.get();
+		if (slot.depth++ > 0) {
+			return slot.pinnedEpoch;
+		}
+
+		while (true) {
+			int current = epoch;
+			slot.pinnedEpoch = current;
+			if (current == epoch) {
+				return current;
+			}
+			// epoch advanced in meantime, the preparer might not see us, so try again
+		}
+	}
+
+	/**
+	 * Releases the calling thread from the given epoch.
+	 *
+	 * @param pinnedEpoch
+	 *            Epoch returned by the {@link #enter()}.
+	 */
+	public void exit(int pinnedEpoch) {
+		WriterSlot slot = writerSlot.get();
+		if (--slot.depth == 0) {
+			slot.pinnedEpoch = IDLE;
+		}
+	}
+
+	/**
+	 * Returns the current epoch.
+	 *
+	 * @return Returns the current epoch.
+	 */
+	public int getEpoch() {
+		return epoch;
+	}
+
+	/**
+	 * Advances to the next epoch and waits until all writers pinned to the previous one have
+	 * exited. Must only be called by one thread at a time.
+	 *
+	 * @return The previous epoch that has no writers anymore.
+	 */
+	public int advance() {
+		int previous = epoch;
+		epoch = (previous + 1) & Integer.MAX_VALUE;
+
+		for (Iterator<WriterSlot> it = writerSlots.iterator(); it.hasNext();) {
+			WriterSlot slot = it.next();
+			while (slot.pinnedEpoch == previous) {
+				Thread.yield();
+			}
+			if (!slot.thread.isAlive()) {
+				it.remove();
+			}
+		}
+		return previous;
+	}
+
+	/**
+	 * Slot of one writer thread.
+	 */
+	private static class WriterSlot {
+
+		/**
+		 * Thread owning the slot.
+		 */
+		private final Thread thread;
+
+		/**
+		 * Epoch the thread is pinned to or {@link EpochGuard#IDLE}.
+		 */
+		private volatile int pinnedEpoch = IDLE;
+
+		/**
+		 * Depth of the nested enters, only accessed by the owning thread.
+		 */
+		private int depth;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param thread
+		 *            Thread owning the slot.
+		 */
+		WriterSlot(Thread thread) {
+			this.thread = thread;
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
+
+/**
+ * Concurrent map that stores values under the composite key of sensor type ident, method ident and
+ * an optional prefix. Used by the {@link CoreService} to keep the method sensor data and object
+ * storages.
+ * <p>
+ * Values without a prefix (the common case) are kept in two levels of
+ * {@link NonBlockingHashMapLong}, first by sensor type ident and then by method ident. Thus the
+ * {@link #get(long, long, String)} and the update of an existing key are executed without creating
+ * any objects. Only values with the prefix are stored with the string key built from all three key
+ * parts.
+ *
+ * @param <V>
+ *            Type of values in the map.
+ */
+public class MethodSensorMap<V> {
+
+	/**
+	 * Values without prefix. Not using the {@link java.util.Map} interface on purpose, in order to
+	 * use put/get methods with primitive longs.
+	 */
+	private final NonBlockingHashMapLong<NonBlockingHashMapLong<V>> noPrefixValues = new NonBlockingHashMapLong<NonBlockingHashMapLong<V>>();
+
+	/**
+	 * Values with prefix.
+	 */
+	private final Map<String, V> prefixValues = new ConcurrentHashMap<String, V>();
+
+	/**
+	 * Puts the value to the map.
+	 *
+	 * @param sensorTypeIdent
+	 *            Sensor type ident.
+	 * @param methodIdent
+	 *            Method ident.
+	 * @param prefix
+	 *            Prefix, can be <code>null</code>.
+	 * @param value
+	 *            Value to put. Must not be <code>null</code>.
+	 * @return Value previously stored under same key or <code>null</code> if one does not exist.
+	 */
+	public V put(long sensorTypeIdent, long methodIdent, String prefix, V value) {
+		if (null != prefix) {
+			return prefixValues.put(getPrefixKey(sensorTypeIdent, methodIdent, prefix), value);
+		}
+
+		NonBlockingHashMapLong<V> methodValues = noPrefixValues.get(sensorTypeIdent);
+		if (null == methodValues) {
+			methodValues = new NonBlockingHashMapLong<V>();
+			NonBlockingHashMapLong<V> existing = noPrefixValues.putIfAbsent(sensorTypeIdent, methodValues);
+			if (null != existing) {
+				methodValues = existing;
+			}
+		}
+		return methodValues.put(methodIdent, value);
+	}
+
+	/**
+	 * Returns the value stored under the given key.
+	 *
+	 * @param sensorTypeIdent
+	 *            Sensor type ident.
+	 * @param methodIdent
+	 *            Method ident.
+	 * @param prefix
+	 *            Prefix, can be <code>null</code>.
+	 * @return Value or <code>null</code> if one does not exist.
+	 */
+	public V get(long sensorTypeIdent, long methodIdent, String prefix) {
+		if (null != prefix) {
+			return prefixValues.get(getPrefixKey(sensorTypeIdent, methodIdent, prefix));
+		}
+
+		NonBlockingHashMapLong<V> methodValues = noPrefixValues.get(sensorTypeIdent);
+		if (null == methodValues) {
+			return null;
+		}
+		return methodValues.get(methodIdent);
+	}
+
+	/**
+	 * Returns if the map is empty.
+	 *
+	 * @return Returns if the map is empty.
+	 */
+	public boolean isEmpty() {
+		if (!prefixValues.isEmpty()) {
+			return false;
+		}
+		for (NonBlockingHashMapLong<V> methodValues : noPrefixValues.values()) {
+			if (!methodValues.isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns amount of values in the map.
+	 *
+	 * @return Returns amount of values in the map.
+	 */
+	public int size() {
+		int size = prefixValues.size();
+		for (NonBlockingHashMapLong<V> methodValues : noPrefixValues.values()) {
+			size += methodValues.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Adds all values from this map to the given collection.
+	 *
+	 * @param collection
+	 *            Collection to add values to.
+	 */
+	public void addValuesTo(Collection<? super V> collection) {
+		for (NonBlockingHashMapLong<V> methodValues : noPrefixValues.values()) {
+			collection.addAll(methodValues.values());
+		}
+		collection.addAll(prefixValues.values());
+	}
+
+	/**
+	 * Clears the map. Note that the maps per sensor type ident are kept, as the same sensor types
+	 * will most likely be used again.
+	 */
+	public void clear() {
+		for (NonBlockingHashMapLong<V> methodValues : noPrefixValues.values()) {
+			methodValues.clear();
+		}
+		prefixValues.clear();
+	}
+
+	/**
+	 * Builds the string key for the values with the prefix.
+	 *
+	 * @param sensorTypeIdent
+	 *            Sensor type ident.
+	 * @param methodIdent
+	 *            Method ident.
+	 * @param prefix
+	 *            Prefix.
+	 * @return String key.
+	 */
+	private String getPrefixKey(long sensorTypeIdent, long methodIdent, String prefix) {
+		StringBuilder builder = new StringBuilder(prefix.length() + 24);
+		builder.append(prefix);
+		builder.append('.');
+		builder.append(methodIdent);
+		builder.append('.');
+		builder.append(sensorTypeIdent);
+		return builder.toString();
+	}
+
+}
@@ -103,6 +103,27 @@ public class RetransformManager implements ApplicationListener<AgentMessagesRece
 		processInstrumentationDefinitions(cleanedInstrumentationDefinitions);
 	}
 
+	/**
+	 * Retransforms the loaded classes the given {@link InstrumentationDefinition}s belong to. Used
+	 * when the instrumentation definitions of the classes are known only after the classes have
+	 * been loaded without instrumentation.
+	 *
+	 * @param instrumentationDefinitions
+	 *            {@link Collection} of {@link InstrumentationDefinition}
+	 * @return <code>true</code> if the retransformation has been triggered, <code>false</code> if
+	 *         retransformation is not available.
+	 */
+	public boolean retransform(Collection<InstrumentationDefinition> instrumentationDefinitions) {
+		if ((null == instrumentation) || !Agent.agent.isUsingRetransformation()) {
+			return false;
+		}
+
+		if (CollectionUtils.isNotEmpty(instrumentationDefinitions)) {
+			processInstrumentationDefinitions(instrumentationDefinitions);
+		}
+		return true;
+	}
+
 	/**
 	 * Returns a {@link Collection} containing all received {@link InstrumentationDefinition} which
 	 * are contained in the given {@link IAgentMessage}s.
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
 
 /**
  * Every send strategy has to extend this abstract class. The first method that is called after
@@ -28,6 +29,11 @@ public abstract class AbstractSendingStrategy implements ISendingStrategy, Initi
 	@Autowired
 	private IConfigurationStorage configurationStorage;
 
+	/**
+	 * Last load reported by the CMR.
+	 */
+	private volatile CmrLoad cmrLoad = CmrLoad.NORMAL;
+
 	/**
 	 * Send the data to the server.
 	 */
@@ -65,6 +71,24 @@ public abstract class AbstractSendingStrategy implements ISendingStrategy, Initi
 		return coreService;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void updateCmrLoad(CmrLoad cmrLoad) {
+		this.cmrLoad = cmrLoad;
+	}
+
+	/**
+	 * Returns the factor by which the strategy should prolong its sending interval based on the
+	 * last load reported by the CMR.
+	 *
+	 * @return Slow down factor, <code>1</code> when the CMR is not under load.
+	 */
+	protected final int getSlowDownFactor() {
+		return cmrLoad.getSlowDownFactor();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
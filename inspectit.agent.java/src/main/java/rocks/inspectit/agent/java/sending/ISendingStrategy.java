@@ -3,6 +3,7 @@ package rocks.inspectit.agent.java.sending;
 import java.util.Map;
 
 import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
 
 /**
  * All sending strategies are first initialized via the {@link #init(Map)} method. Afterwards, the
@@ -36,4 +37,13 @@ public interface ISendingStrategy {
 	 */
 	void init(Map<String, String> settings);
 
+	/**
+	 * Informs the strategy about the load reported by the CMR. Strategies should send less often
+	 * when the CMR is under load.
+	 *
+	 * @param cmrLoad
+	 *            Load reported by the CMR.
+	 */
+	void updateCmrLoad(CmrLoad cmrLoad);
+
 }
\ No newline at end of file
@@ -9,7 +9,8 @@ import rocks.inspectit.shared.all.communication.DefaultData;
 
 /**
  * A simple implementation which checks the size of the list of the current value objects. If the
- * size of the list is greater than the defined one, {@link #sendNow()} is called.
+ * size of the list is greater than the defined one multiplied by the slow down factor of the load
+ * reported by the CMR, {@link #sendNow()} is called.
  *
  * @author Patrice Bouillet
  *
@@ -47,7 +48,7 @@ public class ListSizeStrategy extends AbstractSendingStrategy implements ListLis
 	 */
 	@Override
 	public void contentChanged(int elementCount) {
-		if (elementCount > size) {
+		if (elementCount > (size * getSlowDownFactor())) {
 			sendNow();
 		}
 	}
@@ -10,7 +10,7 @@ import rocks.inspectit.agent.java.util.AgentAwareThread;
 
 /**
  * Implements a strategy to wait a specific (user-defined) time and then executes the sending of the
- * data.
+ * data. The wait time is prolonged by the slow down factor of the load reported by the CMR.
  *
  * @author Patrice Bouillet
  *
@@ -96,7 +96,7 @@ public class TimeStrategy extends AbstractSendingStrategy {
 			while (trigger == thisThread) { // NOPMD
 				try {
 					synchronized (this) {
-						wait(time);
+						wait(time * getSlowDownFactor());
 					}
 
 					if (allowSending) {
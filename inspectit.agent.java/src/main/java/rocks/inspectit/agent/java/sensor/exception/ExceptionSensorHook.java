@@ -4,12 +4,22 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.util.StringConstraint;
@@ -31,11 +41,28 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 	 */
 	private static final Logger LOG = LoggerFactory.getLogger(ExceptionSensorHook.class);
 
+	/**
+	 * Minutes after which an already sent stack trace is sent again. Ensures that the CMR gets the
+	 * stack trace again in case the data holding it was dropped on the agent. The loss of the stack
+	 * traces on the CMR side (restart) is handled on the reconnection.
+	 */
+	private static final int RESEND_STACK_TRACE_MINUTES = 10;
+
+	/**
+	 * Maximum amount of causes included in the stack trace fingerprint.
+	 */
+	private static final int MAX_CAUSE_DEPTH = 32;
+
 	/**
 	 * The Platform manager.
 	 */
 	private final IPlatformManager platformManager;
 
+	/**
+	 * The connection to the CMR.
+	 */
+	private final IConnection connection;
+
 	/**
 	 * The thread local containing the {@link IdentityHashToDataObject} object.
 	 */
@@ -51,17 +78,66 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 	 */
 	private final StringConstraint strConstraint;
 
+	/**
+	 * Maximum amount of throwable objects per throwable type and second for which the data is
+	 * created. Value of <code>0</code> means no limit.
+	 */
+	private final int maxPerTypePerSecond;
+
+	/**
+	 * Stack traces already sent with the data. The key of the first occurrence is kept, thus the
+	 * stack frames of the same stack trace are held in memory only once.
+	 */
+	private final Cache<StackTraceKey, Boolean> sentStackTraces = CacheBuilder.newBuilder().maximumSize(ExceptionSensorData.MAX_SENT_STACK_TRACES)
+			.expireAfterWrite(RESEND_STACK_TRACE_MINUTES, TimeUnit.MINUTES).build();
+
+	/**
+	 * Connection count of the {@link #connection} the {@link #sentStackTraces} relate to.
+	 */
+	private volatile int sentStackTracesConnectionCount;
+
+	/**
+	 * Rate windows per throwable type, only used if {@link #maxPerTypePerSecond} is set.
+	 */
+	private final ConcurrentMap<String, RateWindow> rateWindows = new ConcurrentHashMap<String, RateWindow>();
+
 	/**
 	 * The default constructor which needs one parameter for initialization.
 	 *
 	 * @param platformManager
 	 *            The Platform manager.
+	 * @param connection
+	 *            The connection to the CMR.
 	 * @param parameter
 	 *            Additional parameters.
 	 */
-	public ExceptionSensorHook(IPlatformManager platformManager, Map<String, Object> parameter) {
+	public ExceptionSensorHook(IPlatformManager platformManager, IConnection connection, Map<String, Object> parameter) {
 		this.platformManager = platformManager;
+		this.connection = connection;
 		this.strConstraint = new StringConstraint(parameter);
+		this.maxPerTypePerSecond = getMaxPerTypePerSecond(parameter);
+	}
+
+	/**
+	 * Reads the maximum amount of created throwable objects per type and second from the
+	 * parameters.
+	 *
+	 * @param parameter
+	 *            Additional parameters.
+	 * @return Maximum amount or <code>0</code> if not defined.
+	 */
+	private static int getMaxPerTypePerSecond(Map<String, Object> parameter) {
+		String value = (String) parameter.get("maxPerTypePerSecond");
+		if (null != value) {
+			try {
+				return Math.max(0, Integer.parseInt(value));
+			} catch (NumberFormatException e) {
+				if (LOG.isWarnEnabled()) {
+					LOG.warn("Property 'maxPerTypePerSecond' is not defined correctly. Exceptions will not be rate limited.");
+				}
+			}
+		}
+		return 0;
 	}
 
 	/**
@@ -82,6 +158,13 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 		String throwableClass = object.getClass().getName();
 		String rscTragetClassname = rsc.getTargetClassFqn();
 		if (throwableClass.equals(rscTragetClassname)) {
+			if (isRateLimited(throwableClass)) {
+				// too many objects of this type, we also don't want to follow this object
+				exceptionHandlerId.set(null);
+				exceptionDataHolder.set(null);
+				return;
+			}
+
 			long platformId = platformManager.getPlatformId();
 			Timestamp timestamp = new Timestamp(System.currentTimeMillis());
 			Long identityHash = Long.valueOf(System.identityHashCode(object));
@@ -152,6 +235,11 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 				exceptionDataHolder.set(mappingObject);
 			} else {
 				// it's a new Throwable object, that we didn't recognize earlier
+				if (isRateLimited(data.getThrowableType())) {
+					// too many objects of this type, we also don't want to follow this object
+					exceptionDataHolder.set(null);
+					return;
+				}
 				data.setExceptionEvent(ExceptionEvent.UNREGISTERED_PASSED);
 				setStaticInformation(data, throwable);
 
@@ -200,6 +288,11 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 				exceptionDataHolder.set(mappingObject);
 			} else {
 				// it's a Throwable object, that we didn't recognize earlier
+				if (isRateLimited(data.getThrowableType())) {
+					// too many objects of this type, we also don't want to follow this object
+					exceptionDataHolder.set(null);
+					return;
+				}
 				data.setExceptionEvent(ExceptionEvent.UNREGISTERED_PASSED);
 				setStaticInformation(data, throwable);
 
@@ -249,7 +342,14 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 		}
 
 		try {
-			exceptionSensorData.setStackTrace(strConstraint.crop(stackTraceToString(throwable)));
+			// the string is rendered only if the same stack trace was already sent to the CMR
+			boolean sentStackTracesValid = isSentStackTracesValid();
+			StackTraceKey stackTraceKey = new StackTraceKey(throwable);
+			exceptionSensorData.setStackTraceFingerprint(stackTraceKey.getFingerprint());
+			if (!sentStackTracesValid || (null == sentStackTraces.getIfPresent(stackTraceKey))) {
+				exceptionSensorData.setStackTrace(strConstraint.crop(stackTraceToString(throwable)));
+				sentStackTraces.put(stackTraceKey, Boolean.TRUE);
+			}
 		} catch (Exception e) {
 			if (LOG.isDebugEnabled()) {
 				LOG.debug("It was not possible to retrieve the stack trace from " + throwable.getClass().getName(), e);
@@ -257,6 +357,27 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 		}
 	}
 
+	/**
+	 * Checks if the CMR knows the {@link #sentStackTraces}. This is not the case if the agent is
+	 * not connected, as the CMR might be restarted meanwhile, or if the agent reconnected since the
+	 * stack traces were sent, in which case the sent stack traces are forgotten.
+	 *
+	 * @return <code>true</code> if the stack traces in the {@link #sentStackTraces} can be sent
+	 *         only as the fingerprint.
+	 */
+	private boolean isSentStackTracesValid() {
+		if (!connection.isConnected()) {
+			return false;
+		}
+
+		int connectionCount = connection.getConnectionCount();
+		if (connectionCount != sentStackTracesConnectionCount) {
+			sentStackTraces.invalidateAll();
+			sentStackTracesConnectionCount = connectionCount;
+		}
+		return true;
+	}
+
 	/**
 	 * Gets the stack trace from the {@link Throwable} object and returns it as a string.
 	 *
@@ -270,4 +391,199 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 		throwable.printStackTrace(writer);
 		return result.toString();
 	}
+
+	/**
+	 * Checks if the data for the throwable of the given type should not be created as the
+	 * {@link #maxPerTypePerSecond} is reached.
+	 *
+	 * @param throwableType
+	 *            Throwable class name.
+	 * @return <code>true</code> if no data should be created.
+	 */
+	private boolean isRateLimited(String throwableType) {
+		if (maxPerTypePerSecond <= 0) {
+			return false;
+		}
+
+		RateWindow rateWindow = rateWindows.get(throwableType);
+		if (null == rateWindow) {
+			rateWindow = new RateWindow();
+			RateWindow existing = rateWindows.putIfAbsent(throwableType, rateWindow);
+			if (null != existing) {
+				rateWindow = existing;
+			}
+		}
+		return !rateWindow.tryAcquire(System.currentTimeMillis() / 1000, maxPerTypePerSecond);
+	}
+
+	/**
+	 * Counter of the created throwable objects of one type in the current second.
+	 */
+	private static final class RateWindow {
+
+		/**
+		 * Second the {@link #count} relates to.
+		 */
+		private long second;
+
+		/**
+		 * Amount of acquires in the {@link #second}.
+		 */
+		private int count;
+
+		/**
+		 * Acquires one place in the window.
+		 *
+		 * @param currentSecond
+		 *            Current second.
+		 * @param max
+		 *            Maximum amount per second.
+		 * @return <code>true</code> if the place was acquired, <code>false</code> if the maximum
+		 *         is reached for the current second.
+		 */
+		synchronized boolean tryAcquire(long currentSecond, int max) {
+			if (currentSecond != second) {
+				second = currentSecond;
+				count = 0;
+			}
+			if (count >= max) {
+				return false;
+			}
+			count++;
+			return true;
+		}
+	}
+
+	/**
+	 * Key of a stack trace consisting of the throwable types and the stack frames of the throwable
+	 * and its causes. Messages are not part of the key. The {@link #fingerprint} is a 64-bit hash of
+	 * the key that is sent to the CMR instead of the complete stack trace.
+	 */
+	static final class StackTraceKey {
+
+		/**
+		 * FNV-1a 64-bit offset basis.
+		 */
+		private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+		/**
+		 * FNV-1a 64-bit prime.
+		 */
+		private static final long FNV_PRIME = 0x100000001b3L;
+
+		/**
+		 * Class names of the throwable and its causes.
+		 */
+		private final String[] types;
+
+		/**
+		 * Stack frames of the throwable and its causes.
+		 */
+		private final StackTraceElement[][] frames;
+
+		/**
+		 * Fingerprint of the key.
+		 */
+		private final long fingerprint;
+
+		/**
+		 * Creates the key for the current stack trace of the throwable.
+		 *
+		 * @param throwable
+		 *            Throwable.
+		 */
+		StackTraceKey(Throwable throwable) {
+			List<Throwable> chain = new ArrayList<Throwable>(2);
+			for (Throwable current = throwable; (null != current) && (chain.size() < MAX_CAUSE_DEPTH) && !containsIdentical(chain, current); current = current.getCause()) {
+				chain.add(current);
+			}
+
+			types = new String[chain.size()];
+			frames = new StackTraceElement[chain.size()][];
+			long hash = FNV_OFFSET_BASIS;
+			for (int i = 0; i < chain.size(); i++) {
+				types[i] = chain.get(i).getClass().getName();
+				frames[i] = chain.get(i).getStackTrace();
+				hash = hash(hash, types[i]);
+				for (StackTraceElement frame : frames[i]) {
+					hash = hash(hash, frame.getClassName());
+					hash = hash(hash, frame.getMethodName());
+					hash = hash(hash, frame.getFileName());
+					hash = (hash ^ frame.getLineNumber()) * FNV_PRIME;
+				}
+			}
+			// zero denotes no fingerprint in the data
+			fingerprint = (0 != hash) ? hash : 1;
+		}
+
+		/**
+		 * Checks if the list contains the exactly same object.
+		 *
+		 * @param chain
+		 *            List of throwables.
+		 * @param throwable
+		 *            Throwable to check.
+		 * @return <code>true</code> if the object is already in the list.
+		 */
+		private static boolean containsIdentical(List<Throwable> chain, Throwable throwable) {
+			for (Throwable inChain : chain) {
+				if (inChain == throwable) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Adds the string to the FNV-1a hash.
+		 *
+		 * @param hash
+		 *            Current hash.
+		 * @param value
+		 *            String, can be <code>null</code>.
+		 * @return New hash.
+		 */
+		private static long hash(long hash, String value) {
+			long result = hash;
+			if (null != value) {
+				for (int i = 0; i < value.length(); i++) {
+					result = (result ^ value.charAt(i)) * FNV_PRIME;
+				}
+			}
+			// separator, so that the values can not be shifted between the fields
+			return (result ^ 0xffff) * FNV_PRIME;
+		}
+
+		/**
+		 * Gets {@link #fingerprint}.
+		 *
+		 * @return {@link #fingerprint}
+		 */
+		long getFingerprint() {
+			return fingerprint;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			return (int) (fingerprint ^ (fingerprint >>> 32));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((null == obj) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			StackTraceKey other = (StackTraceKey) obj;
+			return (fingerprint == other.fingerprint) && Arrays.equals(types, other.types) && Arrays.deepEquals(frames, other.frames);
+		}
+	}
 }
@@ -12,14 +12,14 @@ import rocks.inspectit.agent.java.core.impl.CoreService;
 import rocks.inspectit.agent.java.hooking.IConstructorHook;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
 import rocks.inspectit.agent.java.util.StringConstraint;
-import rocks.inspectit.agent.java.util.ThreadLocalStack;
+import rocks.inspectit.agent.java.util.ThreadLocalDoubleStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.data.ParameterContentData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
 
 /**
- * The hook implementation for the average timer sensor. It uses the {@link ThreadLocalStack} class
- * to save the time when the method was called. After the complete original method was executed, it
+ * The hook implementation for the average timer sensor. It uses the
+ * {@link ThreadLocalDoubleStack} class to save the time when the method was called. After the complete original method was executed, it
  * computes the how long the method took to finish. Afterwards, the measurement is added to the
  * {@link CoreService}.
  *
@@ -31,7 +31,7 @@ public class AverageTimerHook implements IMethodHook, IConstructorHook {
 	/**
 	 * The stack containing the start time values.
 	 */
-	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
+	private final ThreadLocalDoubleStack timeStack = new ThreadLocalDoubleStack();
 
 	/**
 	 * The timer used for accurate measuring.
@@ -77,7 +77,7 @@ public class AverageTimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void beforeBody(long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentTime());
 	}
 
 	/**
@@ -85,7 +85,7 @@ public class AverageTimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void firstAfterBody(long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentTime());
 	}
 
 	/**
@@ -93,8 +93,8 @@ public class AverageTimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) { // NOCHK:8-params
-		double endTime = timeStack.pop().doubleValue();
-		double startTime = timeStack.pop().doubleValue();
+		double endTime = timeStack.pop();
+		double startTime = timeStack.pop();
 		double duration = endTime - startTime;
 
 		List<ParameterContentData> parameterContentData = null;
@@ -111,27 +111,32 @@ public class AverageTimerHook implements IMethodHook, IConstructorHook {
 			}
 		}
 
-		TimerData timerData = (TimerData) coreService.getMethodSensorData(sensorTypeId, methodId, prefix);
+		int updateToken = coreService.beginUpdate();
+		try {
+			TimerData timerData = (TimerData) coreService.getMethodSensorData(sensorTypeId, methodId, prefix);
 
-		if (null == timerData) {
-			long platformId = platformManager.getPlatformId();
+			if (null == timerData) {
+				long platformId = platformManager.getPlatformId();
 
-			Timestamp timestamp = new Timestamp(System.currentTimeMillis() - Math.round(duration));
+				Timestamp timestamp = new Timestamp(System.currentTimeMillis() - Math.round(duration));
 
-			timerData = new TimerData(timestamp, platformId, sensorTypeId, methodId, parameterContentData);
-			timerData.increaseCount();
-			timerData.addDuration(duration);
-			timerData.calculateMin(duration);
-			timerData.calculateMax(duration);
+				timerData = new TimerData(timestamp, platformId, sensorTypeId, methodId, parameterContentData);
+				timerData.increaseCount();
+				timerData.addDuration(duration);
+				timerData.calculateMin(duration);
+				timerData.calculateMax(duration);
 
-			coreService.addMethodSensorData(sensorTypeId, methodId, prefix, timerData);
-		} else {
-			timerData.increaseCount();
-			timerData.addDuration(duration);
+				coreService.addMethodSensorData(sensorTypeId, methodId, prefix, timerData);
+			} else {
+				timerData.increaseCount();
+				timerData.addDuration(duration);
 
-			timerData.calculateMin(duration);
-			timerData.calculateMax(duration);
+				timerData.calculateMin(duration);
+				timerData.calculateMax(duration);
 
+			}
+		} finally {
+			coreService.endUpdate(updateToken);
 		}
 	}
 
@@ -140,7 +145,7 @@ public class AverageTimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void beforeConstructor(long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentTime());
 	}
 
 	/**
@@ -148,7 +153,7 @@ public class AverageTimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void afterConstructor(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentTime());
 		secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, null, false, rsc);
 	}
 
@@ -15,7 +15,7 @@ import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.hooking.IConstructorHook;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
 import rocks.inspectit.agent.java.util.StringConstraint;
-import rocks.inspectit.agent.java.util.ThreadLocalStack;
+import rocks.inspectit.agent.java.util.ThreadLocalDoubleStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.data.SqlStatementData;
 
@@ -40,7 +40,7 @@ public class PreparedStatementHook implements IMethodHook, IConstructorHook {
 	/**
 	 * The stack containing the start time values.
 	 */
-	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
+	private final ThreadLocalDoubleStack timeStack = new ThreadLocalDoubleStack();
 
 	/**
 	 * The timer used for accurate measuring.
@@ -116,7 +116,7 @@ public class PreparedStatementHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void beforeBody(long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentTime());
 		threadLast.set(Boolean.TRUE);
 	}
 
@@ -125,7 +125,7 @@ public class PreparedStatementHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void firstAfterBody(long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentTime());
 	}
 
 	/**
@@ -133,8 +133,8 @@ public class PreparedStatementHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) { // NOCHK:8-params
-		double endTime = timeStack.pop().doubleValue();
-		double startTime = timeStack.pop().doubleValue();
+		double endTime = timeStack.pop();
+		double startTime = timeStack.pop();
 
 		if (threadLast.get().booleanValue()) {
 			threadLast.set(Boolean.FALSE);
@@ -142,31 +142,36 @@ public class PreparedStatementHook implements IMethodHook, IConstructorHook {
 			String sql = statementStorage.getPreparedStatement(object);
 			if (null != sql) {
 				double duration = endTime - startTime;
-				SqlStatementData sqlData = (SqlStatementData) coreService.getMethodSensorData(sensorTypeId, methodId, sql);
-				if (null == sqlData) {
-					Timestamp timestamp = new Timestamp(System.currentTimeMillis() - Math.round(duration));
-					List<String> params = statementStorage.getParameters(object);
-					long platformId = platformManager.getPlatformId();
-
-					sqlData = new SqlStatementData(timestamp, platformId, sensorTypeId, methodId);
-					sqlData.setPreparedStatement(true);
-					sqlData.setSql(strConstraint.crop(sql));
-					sqlData.setDuration(duration);
-					sqlData.calculateMin(duration);
-					sqlData.calculateMax(duration);
-					sqlData.setCount(1L);
-					sqlData.setParameterValues(params);
-
-					// populate the connection meta data.
-					connectionMetaDataStorage.populate(sqlData, statementReflectionCache.getConnection(object.getClass(), object));
-
-					coreService.addMethodSensorData(sensorTypeId, methodId, sql, sqlData);
-				} else {
-					sqlData.increaseCount();
-					sqlData.addDuration(duration);
-
-					sqlData.calculateMin(duration);
-					sqlData.calculateMax(duration);
+				int updateToken = coreService.beginUpdate();
+				try {
+					SqlStatementData sqlData = (SqlStatementData) coreService.getMethodSensorData(sensorTypeId, methodId, sql);
+					if (null == sqlData) {
+						Timestamp timestamp = new Timestamp(System.currentTimeMillis() - Math.round(duration));
+						List<String> params = statementStorage.getParameters(object);
+						long platformId = platformManager.getPlatformId();
+
+						sqlData = new SqlStatementData(timestamp, platformId, sensorTypeId, methodId);
+						sqlData.setPreparedStatement(true);
+						sqlData.setSql(strConstraint.crop(sql));
+						sqlData.setDuration(duration);
+						sqlData.calculateMin(duration);
+						sqlData.calculateMax(duration);
+						sqlData.setCount(1L);
+						sqlData.setParameterValues(params);
+
+						// populate the connection meta data.
+						connectionMetaDataStorage.populate(sqlData, statementReflectionCache.getConnection(object.getClass(), object));
+
+						coreService.addMethodSensorData(sensorTypeId, methodId, sql, sqlData);
+					} else {
+						sqlData.increaseCount();
+						sqlData.addDuration(duration);
+
+						sqlData.calculateMin(duration);
+						sqlData.calculateMax(duration);
+					}
+				} finally {
+					coreService.endUpdate(updateToken);
 				}
 			} else {
 				// the sql was not found, we'll try again
@@ -9,16 +9,16 @@ import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.impl.CoreService;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
 import rocks.inspectit.agent.java.util.StringConstraint;
-import rocks.inspectit.agent.java.util.ThreadLocalStack;
+import rocks.inspectit.agent.java.util.ThreadLocalDoubleStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.data.SqlStatementData;
 
 /**
- * The hook implementation for the statement sensor. It uses the {@link ThreadLocalStack} class to
- * know if some execute methods call each other which would result in multiple data objects for only
- * one query. After the complete SQL method was executed, it computes how long the method took to
- * finish and saves the executed SQL Statement String. Afterwards, the measurement is added to the
- * {@link CoreService}.
+ * The hook implementation for the statement sensor. It uses the {@link ThreadLocalDoubleStack}
+ * class to know if some execute methods call each other which would result in multiple data
+ * objects for only one query. After the complete SQL method was executed, it computes how long the
+ * method took to finish and saves the executed SQL Statement String. Afterwards, the measurement is
+ * added to the {@link CoreService}.
  *
  * @author Christian Herzog
  * @author Patrice Bouillet
@@ -29,7 +29,7 @@ public class StatementHook implements IMethodHook {
 	/**
 	 * The stack containing the start time values.
 	 */
-	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
+	private final ThreadLocalDoubleStack timeStack = new ThreadLocalDoubleStack();
 
 	/**
 	 * The timer used for accurate measuring.
@@ -90,7 +90,7 @@ public class StatementHook implements IMethodHook {
 	 */
 	@Override
 	public void beforeBody(long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentTime());
 		threadLast.set(Boolean.TRUE);
 	}
 
@@ -99,7 +99,7 @@ public class StatementHook implements IMethodHook {
 	 */
 	@Override
 	public void firstAfterBody(long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentTime());
 	}
 
 	/**
@@ -107,37 +107,42 @@ public class StatementHook implements IMethodHook {
 	 */
 	@Override
 	public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) { // NOCHK:8-params
-		double endTime = timeStack.pop().doubleValue();
-		double startTime = timeStack.pop().doubleValue();
+		double endTime = timeStack.pop();
+		double startTime = timeStack.pop();
 
 		if (threadLast.get().booleanValue()) {
 			threadLast.set(Boolean.FALSE);
 
 			double duration = endTime - startTime;
 			String sql = parameters[0].toString();
-			SqlStatementData sqlData = (SqlStatementData) coreService.getMethodSensorData(sensorTypeId, methodId, sql);
-
-			if (null == sqlData) {
-				Timestamp timestamp = new Timestamp(System.currentTimeMillis() - Math.round(duration));
-				long platformId = platformManager.getPlatformId();
-
-				sqlData = new SqlStatementData(timestamp, platformId, sensorTypeId, methodId);
-				sqlData.setPreparedStatement(false);
-				sqlData.setSql(strConstraint.crop(sql));
-				sqlData.setDuration(duration);
-				sqlData.calculateMin(duration);
-				sqlData.calculateMax(duration);
-				sqlData.setCount(1L);
-
-				// populate the connection meta data.
-				connectionMetaDataStorage.populate(sqlData, statementReflectionCache.getConnection(object.getClass(), object));
-				coreService.addMethodSensorData(sensorTypeId, methodId, sql, sqlData);
-			} else {
-				sqlData.increaseCount();
-				sqlData.addDuration(duration);
-
-				sqlData.calculateMin(duration);
-				sqlData.calculateMax(duration);
+			int updateToken = coreService.beginUpdate();
+			try {
+				SqlStatementData sqlData = (SqlStatementData) coreService.getMethodSensorData(sensorTypeId, methodId, sql);
+
+				if (null == sqlData) {
+					Timestamp timestamp = new Timestamp(System.currentTimeMillis() - Math.round(duration));
+					long platformId = platformManager.getPlatformId();
+
+					sqlData = new SqlStatementData(timestamp, platformId, sensorTypeId, methodId);
+					sqlData.setPreparedStatement(false);
+					sqlData.setSql(strConstraint.crop(sql));
+					sqlData.setDuration(duration);
+					sqlData.calculateMin(duration);
+					sqlData.calculateMax(duration);
+					sqlData.setCount(1L);
+
+					// populate the connection meta data.
+					connectionMetaDataStorage.populate(sqlData, statementReflectionCache.getConnection(object.getClass(), object));
+					coreService.addMethodSensorData(sensorTypeId, methodId, sql, sqlData);
+				} else {
+					sqlData.increaseCount();
+					sqlData.addDuration(duration);
+
+					sqlData.calculateMin(duration);
+					sqlData.calculateMax(duration);
+				}
+			} finally {
+				coreService.endUpdate(updateToken);
 			}
 		}
 	}
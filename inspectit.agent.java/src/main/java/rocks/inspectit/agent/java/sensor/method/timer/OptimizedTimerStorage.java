@@ -6,6 +6,7 @@ import java.util.List;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.ParameterContentData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.communication.data.TimerHistogram;
 
 /**
  * The optimized timer storage instantly computes the new values and saves them in the
@@ -21,6 +22,11 @@ public class OptimizedTimerStorage implements ITimerStorage {
 	 */
 	private TimerData timerData;
 
+	/**
+	 * Histogram of the durations, <code>null</code> if percentiles are not collected.
+	 */
+	private TimerHistogram histogram;
+
 	/**
 	 * Default constructor which initializes a {@link TimerData} object.
 	 *
@@ -38,8 +44,35 @@ public class OptimizedTimerStorage implements ITimerStorage {
 	 *            If TimerData's charting should be set or not.
 	 */
 	public OptimizedTimerStorage(Timestamp timeStamp, long platformIdent, long sensorTypeIdent, long methodIdent, List<ParameterContentData> parameterContentData, boolean charting) {
+		this(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting, false);
+	}
+
+	/**
+	 * Constructor which initializes a {@link TimerData} object and optionally the histogram for the
+	 * percentile calculation.
+	 *
+	 * @param timeStamp
+	 *            The time stamp.
+	 * @param platformIdent
+	 *            The platform ID.
+	 * @param sensorTypeIdent
+	 *            The sensor type ID.
+	 * @param methodIdent
+	 *            The method ID.
+	 * @param parameterContentData
+	 *            The content of the parameter/fields.
+	 * @param charting
+	 *            If TimerData's charting should be set or not.
+	 * @param percentiles
+	 *            If the histogram for the percentile calculation should be filled.
+	 */
+	public OptimizedTimerStorage(Timestamp timeStamp, long platformIdent, long sensorTypeIdent, long methodIdent, List<ParameterContentData> parameterContentData, boolean charting, boolean percentiles) { // NOCHK:7-params
 		timerData = new TimerData(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData);
 		timerData.setCharting(charting);
+		if (percentiles) {
+			histogram = new TimerHistogram();
+			timerData.setHistogram(histogram);
+		}
 	}
 
 	/**
@@ -53,6 +86,10 @@ public class OptimizedTimerStorage implements ITimerStorage {
 		timerData.calculateMax(time);
 		timerData.calculateMin(time);
 
+		if (null != histogram) {
+			histogram.recordValue(time);
+		}
+
 		// only add the cpu time if it greater than zero
 		if (cpuTime >= 0) {
 			timerData.addCpuDuration(cpuTime);
@@ -0,0 +1,361 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ParameterContentData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.communication.data.TimerHistogram;
+
+/**
+ * Timer storage that can be updated by many threads concurrently without losing updates. Same as
+ * the {@link OptimizedTimerStorage} it keeps only the aggregated values, but the values are
+ * accumulated in cells selected by the id of the calling thread. Cells are updated with
+ * compare-and-set operations only, no locks are used. The cells are created lazily, thus a method
+ * executed by only one thread needs only one cell. On {@link #finalizeDataObject()} all cells are
+ * merged into the {@link TimerData}.
+ *
+ * @see TimerStorageFactory#STRIPED
+ */
+public class StripedTimerStorage implements ITimerStorage {
+
+	/**
+	 * Maximum amount of cells per storage.
+	 */
+	private static final int MAX_CELLS = 64;
+
+	/**
+	 * Amount of cells, power of two based on available processors.
+	 */
+	private static final int CELLS;
+
+	static {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int cells = 1;
+		while ((cells < processors) && (cells < MAX_CELLS)) {
+			cells <<= 1;
+		}
+		CELLS = cells;
+	}
+
+	/**
+	 * The used {@link TimerData}.
+	 */
+	private final TimerData timerData;
+
+	/**
+	 * Accumulating cells.
+	 */
+	private final AtomicReferenceArray<TimerCell> cells = new AtomicReferenceArray<TimerCell>(CELLS);
+
+	/**
+	 * If the histogram for the percentile calculation is filled.
+	 */
+	private final boolean percentiles;
+
+	/**
+	 * Default constructor which initializes a {@link TimerData} object.
+	 *
+	 * @param timeStamp
+	 *            The time stamp.
+	 * @param platformIdent
+	 *            The platform ID.
+	 * @param sensorTypeIdent
+	 *            The sensor type ID.
+	 * @param methodIdent
+	 *            The method ID.
+	 * @param parameterContentData
+	 *            The content of the parameter/fields.
+	 * @param charting
+	 *            If TimerData's charting should be set or not.
+	 */
+	public StripedTimerStorage(Timestamp timeStamp, long platformIdent, long sensorTypeIdent, long methodIdent, List<ParameterContentData> parameterContentData, boolean charting) {
+		this(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting, false);
+	}
+
+	/**
+	 * Constructor which initializes a {@link TimerData} object and optionally defines that the
+	 * histogram for the percentile calculation is filled.
+	 *
+	 * @param timeStamp
+	 *            The time stamp.
+	 * @param platformIdent
+	 *            The platform ID.
+	 * @param sensorTypeIdent
+	 *            The sensor type ID.
+	 * @param methodIdent
+	 *            The method ID.
+	 * @param parameterContentData
+	 *            The content of the parameter/fields.
+	 * @param charting
+	 *            If TimerData's charting should be set or not.
+	 * @param percentiles
+	 *            If the histogram for the percentile calculation should be filled.
+	 */
+	public StripedTimerStorage(Timestamp timeStamp, long platformIdent, long sensorTypeIdent, long methodIdent, List<ParameterContentData> parameterContentData, boolean charting, boolean percentiles) { // NOCHK:7-params
+		timerData = new TimerData(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData);
+		timerData.setCharting(charting);
+		this.percentiles = percentiles;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addData(double time, double cpuTime) {
+		int index = (int) Thread.currentThread().getId() & (CELLS - 1);
+		TimerCell cell = cells.get(index);
+		if (null == cell) {
+			cells.compareAndSet(index, null, new TimerCell(percentiles));
+			cell = cells.get(index);
+		}
+		cell.add(time, cpuTime);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Merges all cells into the {@link TimerData}. Must be called only once when no more data is
+	 * added.
+	 */
+	@Override
+	public DefaultData finalizeDataObject() {
+		TimerHistogram histogram = null;
+		if (percentiles) {
+			histogram = new TimerHistogram();
+			timerData.setHistogram(histogram);
+		}
+
+		for (int i = 0; i < CELLS; i++) {
+			TimerCell cell = cells.get(i);
+			if ((null == cell) || (0 == cell.count)) {
+				continue;
+			}
+
+			timerData.setCount(timerData.getCount() + cell.count);
+			timerData.addDuration(Double.longBitsToDouble(cell.duration));
+			timerData.calculateMin(Double.longBitsToDouble(cell.min));
+			timerData.calculateMax(Double.longBitsToDouble(cell.max));
+
+			if (cell.cpuCount > 0) {
+				timerData.addCpuDuration(Double.longBitsToDouble(cell.cpuDuration));
+				timerData.calculateCpuMin(Double.longBitsToDouble(cell.cpuMin));
+				timerData.calculateCpuMax(Double.longBitsToDouble(cell.cpuMax));
+			}
+
+			if (null != histogram) {
+				for (int j = 0; j < TimerHistogram.BUCKET_COUNT; j++) {
+					long count = cell.histogramCounts.get(j);
+					if (0 != count) {
+						histogram.addCountAtIndex(j, count);
+					}
+				}
+			}
+		}
+		return timerData;
+	}
+
+	/**
+	 * One accumulating cell. Double values are kept as raw long bits so that they can be updated
+	 * with the {@link AtomicLongFieldUpdater}.
+	 */
+	private static class TimerCell {
+
+		/**
+		 * Updater for {@link #count}.
+		 */
+		private static final AtomicLongFieldUpdater<TimerCell> COUNT = AtomicLongFieldUpdater.newUpdater(TimerCell.class, "count");
+
+		/**
+		 * Updater for {@link #duration}.
+		 */
+		private static final AtomicLongFieldUpdater<TimerCell> DURATION = AtomicLongFieldUpdater.newUpdater(TimerCell.class, "duration");
+
+		/**
+		 * Updater for {@link #min}.
+		 */
+		private static final AtomicLongFieldUpdater<TimerCell> MIN = AtomicLongFieldUpdater.newUpdater(TimerCell.class, "min");
+
+		/**
+		 * Updater for {@link #max}.
+		 */
+		private static final AtomicLongFieldUpdater<TimerCell> MAX = AtomicLongFieldUpdater.newUpdater(TimerCell.class, "max");
+
+		/**
+		 * Updater for {@link #cpuCount}.
+		 */
+		private static final AtomicLongFieldUpdater<TimerCell> CPU_COUNT = AtomicLongFieldUpdater.newUpdater(TimerCell.class, "cpuCount");
+
+		/**
+		 * Updater for {@link #cpuDuration}.
+		 */
+		private static final AtomicLongFieldUpdater<TimerCell> CPU_DURATION = AtomicLongFieldUpdater.newUpdater(TimerCell.class, "cpuDuration");
+
+		/**
+		 * Updater for {@link #cpuMin}.
+		 */
+		private static final AtomicLongFieldUpdater<TimerCell> CPU_MIN = AtomicLongFieldUpdater.newUpdater(TimerCell.class, "cpuMin");
+
+		/**
+		 * Updater for {@link #cpuMax}.
+		 */
+		private static final AtomicLongFieldUpdater<TimerCell> CPU_MAX = AtomicLongFieldUpdater.newUpdater(TimerCell.class, "cpuMax");
+
+		/**
+		 * Raw bits of the positive infinity used as initial minimum.
+		 */
+		private static final long INITIAL_MIN = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+
+		/**
+		 * Raw bits of the negative infinity used as initial maximum.
+		 */
+		private static final long INITIAL_MAX = Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY);
+
+		/**
+		 * Count.
+		 */
+		volatile long count;
+
+		/**
+		 * Duration sum bits.
+		 */
+		volatile long duration;
+
+		/**
+		 * Minimum duration bits.
+		 */
+		volatile long min = INITIAL_MIN;
+
+		/**
+		 * Maximum duration bits.
+		 */
+		volatile long max = INITIAL_MAX;
+
+		/**
+		 * Count of the cpu durations.
+		 */
+		volatile long cpuCount;
+
+		/**
+		 * Cpu duration sum bits.
+		 */
+		volatile long cpuDuration;
+
+		/**
+		 * Minimum cpu duration bits.
+		 */
+		volatile long cpuMin = INITIAL_MIN;
+
+		/**
+		 * Maximum cpu duration bits.
+		 */
+		volatile long cpuMax = INITIAL_MAX;
+
+		/**
+		 * Counts of the histogram buckets, <code>null</code> if percentiles are not collected.
+		 */
+		final AtomicLongArray histogramCounts;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param percentiles
+		 *            If the histogram counts should be collected.
+		 */
+		TimerCell(boolean percentiles) {
+			histogramCounts = percentiles ? new AtomicLongArray(TimerHistogram.BUCKET_COUNT) : null;
+		}
+
+		/**
+		 * Adds the time and cpu time to the cell.
+		 *
+		 * @param time
+		 *            The time value.
+		 * @param cpuTime
+		 *            The cpu time value, only added if greater or equal to zero.
+		 */
+		void add(double time, double cpuTime) {
+			add(DURATION, time);
+			updateMin(MIN, time);
+			updateMax(MAX, time);
+
+			if (null != histogramCounts) {
+				histogramCounts.incrementAndGet(TimerHistogram.getBucketIndex(time));
+			}
+
+			// only add the cpu time if it greater than zero
+			if (cpuTime >= 0) {
+				add(CPU_DURATION, cpuTime);
+				updateMin(CPU_MIN, cpuTime);
+				updateMax(CPU_MAX, cpuTime);
+				CPU_COUNT.incrementAndGet(this);
+			}
+
+			// count last so that finalization never sees a count without the values
+			COUNT.incrementAndGet(this);
+		}
+
+		/**
+		 * Adds the value to the double field.
+		 *
+		 * @param updater
+		 *            Field updater.
+		 * @param value
+		 *            Value to add.
+		 */
+		private void add(AtomicLongFieldUpdater<TimerCell> updater, double value) {
+			while (true) {
+				long current = updater.get(this);
+				long updated = Double.doubleToRawLongBits(Double.longBitsToDouble(current) + value);
+				if (updater.compareAndSet(this, current, updated)) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Sets the value to the double field if it's smaller than current one.
+		 *
+		 * @param updater
+		 *            Field updater.
+		 * @param value
+		 *            Value.
+		 */
+		private void updateMin(AtomicLongFieldUpdater<TimerCell> updater, double value) {
+			while (true) {
+				long current = updater.get(this);
+				if (Double.longBitsToDouble(current) <= value) {
+					return;
+				}
+				if (updater.compareAndSet(this, current, Double.doubleToRawLongBits(value))) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Sets the value to the double field if it's bigger than current one.
+		 *
+		 * @param updater
+		 *            Field updater.
+		 * @param value
+		 *            Value.
+		 */
+		private void updateMax(AtomicLongFieldUpdater<TimerCell> updater, double value) {
+			while (true) {
+				long current = updater.get(this);
+				if (Double.longBitsToDouble(current) >= value) {
+					return;
+				}
+				if (updater.compareAndSet(this, current, Double.doubleToRawLongBits(value))) {
+					return;
+				}
+			}
+		}
+	}
+
+}
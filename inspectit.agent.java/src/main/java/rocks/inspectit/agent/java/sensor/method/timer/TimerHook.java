@@ -16,13 +16,13 @@ import rocks.inspectit.agent.java.hooking.IConstructorHook;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
 import rocks.inspectit.agent.java.sensor.method.averagetimer.AverageTimerHook;
 import rocks.inspectit.agent.java.util.StringConstraint;
-import rocks.inspectit.agent.java.util.ThreadLocalStack;
+import rocks.inspectit.agent.java.util.ThreadLocalDoubleStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.data.ParameterContentData;
 
 /**
- * The hook implementation for the timer sensor. It uses the {@link ThreadLocalStack} class to save
- * the time when the method was called.
+ * The hook implementation for the timer sensor. It uses the {@link ThreadLocalDoubleStack} class to
+ * save the time when the method was called.
  * <p>
  * The difference to the {@link AverageTimerHook} is that it's using {@link ITimerStorage} objects
  * to save the values. The {@link ITimerStorage} is responsible for the actual data saving, so
@@ -41,7 +41,7 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	/**
 	 * The stack containing the start time values.
 	 */
-	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
+	private final ThreadLocalDoubleStack timeStack = new ThreadLocalDoubleStack();
 
 	/**
 	 * The timer used for accurate measuring.
@@ -87,7 +87,7 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	/**
 	 * The stack containing the start time values.
 	 */
-	private final ThreadLocalStack<Long> threadCpuTimeStack = new ThreadLocalStack<Long>();
+	private final ThreadLocalDoubleStack threadCpuTimeStack = new ThreadLocalDoubleStack();
 
 	/**
 	 * The only constructor which needs the used {@link ICoreService} implementation and the used
@@ -139,9 +139,9 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void beforeBody(long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentTime());
 		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+			threadCpuTimeStack.push(threadMXBean.getCurrentThreadCpuTime());
 		}
 	}
 
@@ -150,9 +150,9 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void firstAfterBody(long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentTime());
 		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+			threadCpuTimeStack.push(threadMXBean.getCurrentThreadCpuTime());
 		}
 	}
 
@@ -161,15 +161,15 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) { // NOCHK:8-params
-		double endTime = timeStack.pop().doubleValue();
-		double startTime = timeStack.pop().doubleValue();
+		double endTime = timeStack.pop();
+		double startTime = timeStack.pop();
 		double duration = endTime - startTime;
 
 		// default setting to a negative number
 		double cpuDuration = -1.0d;
 		if (enabled) {
-			long cpuEndTime = threadCpuTimeStack.pop().longValue();
-			long cpuStartTime = threadCpuTimeStack.pop().longValue();
+			double cpuEndTime = threadCpuTimeStack.pop();
+			double cpuStartTime = threadCpuTimeStack.pop();
 			cpuDuration = (cpuEndTime - cpuStartTime) / 1000000.0d;
 		}
 
@@ -186,21 +186,27 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 			}
 		}
 
-		ITimerStorage storage = (ITimerStorage) coreService.getObjectStorage(sensorTypeId, methodId, prefix);
+		int updateToken = coreService.beginUpdate();
+		try {
+			ITimerStorage storage = (ITimerStorage) coreService.getObjectStorage(sensorTypeId, methodId, prefix);
 
-		if (null == storage) {
-			long platformId = platformManager.getPlatformId();
+			if (null == storage) {
+				long platformId = platformManager.getPlatformId();
 
-			Timestamp timestamp = new Timestamp(System.currentTimeMillis() - Math.round(duration));
+				Timestamp timestamp = new Timestamp(System.currentTimeMillis() - Math.round(duration));
 
-			boolean charting = Boolean.TRUE.equals(rsc.getSettings().get("charting"));
+				boolean charting = Boolean.TRUE.equals(rsc.getSettings().get("charting"));
+				boolean percentiles = Boolean.TRUE.equals(rsc.getSettings().get("percentiles"));
 
-			storage = timerStorageFactory.newStorage(timestamp, platformId, sensorTypeId, methodId, parameterContentData, charting);
-			storage.addData(duration, cpuDuration);
+				storage = timerStorageFactory.newStorage(timestamp, platformId, sensorTypeId, methodId, parameterContentData, charting, percentiles);
+				storage.addData(duration, cpuDuration);
 
-			coreService.addObjectStorage(sensorTypeId, methodId, prefix, storage);
-		} else {
-			storage.addData(duration, cpuDuration);
+				coreService.addObjectStorage(sensorTypeId, methodId, prefix, storage);
+			} else {
+				storage.addData(duration, cpuDuration);
+			}
+		} finally {
+			coreService.endUpdate(updateToken);
 		}
 	}
 
@@ -209,9 +215,9 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void beforeConstructor(long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentTime());
 		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+			threadCpuTimeStack.push(threadMXBean.getCurrentThreadCpuTime());
 		}
 	}
 
@@ -220,9 +226,9 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void afterConstructor(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentTime());
 		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+			threadCpuTimeStack.push(threadMXBean.getCurrentThreadCpuTime());
 		}
 		// just call the second after body method directly
 		secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, null, false, rsc);
@@ -35,6 +35,11 @@ public final class TimerStorageFactory {
 	 */
 	public static final int OPTIMIZED = 2;
 
+	/**
+	 * Optimized mode with the storage that can be updated concurrently from many threads.
+	 */
+	public static final int STRIPED = 3;
+
 	/**
 	 * The default mode.
 	 */
@@ -69,7 +74,7 @@ public final class TimerStorageFactory {
 
 	/**
 	 * If given {@link Map} contains a key named <b>mode</b>, it is checked against the keywords
-	 * <b>raw</b>, <b>aggregate</b> and <b>optimized</b>.
+	 * <b>raw</b>, <b>aggregate</b>, <b>optimized</b> and <b>striped</b>.
 	 *
 	 * @param parameters
 	 *            The parameters.
@@ -84,6 +89,8 @@ public final class TimerStorageFactory {
 				setMode(AGGREGATE_BEFORE_SEND);
 			} else if ("optimized".equals(mode)) {
 				setMode(OPTIMIZED);
+			} else if ("striped".equals(mode)) {
+				setMode(STRIPED);
 			}
 		}
 	}
@@ -92,7 +99,8 @@ public final class TimerStorageFactory {
 	 * Sets the mode for this factory. It can be one of the following: <br>
 	 * <b>RAW_DATA_TRANSMISSION</b> <br>
 	 * <b>AGGREGATE_BEFORE_SEND</b> <br>
-	 * <b>OPTIMIZED</b>
+	 * <b>OPTIMIZED</b> <br>
+	 * <b>STRIPED</b>
 	 *
 	 * @param mode
 	 *            The mode to set.
@@ -120,15 +128,43 @@ public final class TimerStorageFactory {
 	 * @return A new {@link ITimerStorage} implementation object.
 	 */
 	public ITimerStorage newStorage(Timestamp timeStamp, long platformIdent, long sensorTypeIdent, long methodIdent, List<ParameterContentData> parameterContentData, boolean charting) {
+		return newStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting, false);
+	}
+
+	/**
+	 * Returns a new implementation of the {@link ITimerStorage} interface. Depends on the current
+	 * mode which is set through {@link #setMode(int)}. The histogram for the percentile calculation
+	 * is only filled in the <b>OPTIMIZED</b> and <b>STRIPED</b> mode, as in the other modes the
+	 * values are sent anyway.
+	 *
+	 * @param timeStamp
+	 *            The time stamp.
+	 * @param platformIdent
+	 *            The id of the current platform.
+	 * @param sensorTypeIdent
+	 *            The id of the sensor type.
+	 * @param methodIdent
+	 *            The id of the method.
+	 * @param parameterContentData
+	 *            The contents of some additional parameters. Can be <code>null</code>.
+	 * @param charting
+	 *            If TimerData's charting should be set or not.
+	 * @param percentiles
+	 *            If the histogram for the percentile calculation should be filled.
+	 * @return A new {@link ITimerStorage} implementation object.
+	 */
+	public ITimerStorage newStorage(Timestamp timeStamp, long platformIdent, long sensorTypeIdent, long methodIdent, List<ParameterContentData> parameterContentData, boolean charting, boolean percentiles) { // NOCHK:7-params
 		switch (mode) {
 		case RAW_DATA_TRANSMISSION:
 			return new PlainTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
 		case AGGREGATE_BEFORE_SEND:
 			return new AggregateTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
 		case OPTIMIZED:
-			return new OptimizedTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
+			return new OptimizedTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting, percentiles);
+		case STRIPED:
+			return new StripedTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting, percentiles);
 		default:
-			return new OptimizedTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
+			return new OptimizedTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting, percentiles);
 		}
 	}
 
@@ -46,6 +46,12 @@ import rocks.inspectit.shared.all.kryonet.IExtendedSerialization;
 @ComponentScan("rocks.inspectit")
 public class SpringConfiguration implements BeanDefinitionRegistryPostProcessor {
 
+	/**
+	 * JVM property that can be set to <code>false</code> in order to decline the compression
+	 * offered by the CMR.
+	 */
+	private static final String COMPRESSION_PROPERTY = "inspectit.kryonet.compression";
+
 	/**
 	 * Registry to add bean definitions to.
 	 */
@@ -140,7 +146,10 @@ public class SpringConfiguration implements BeanDefinitionRegistryPostProcessor
 	@Autowired
 	public Client getClient(PrototypesProvider prototypesProvider, IThreadTransformHelper threadTransformHelper) {
 		IExtendedSerialization serialization = new ExtendedSerializationImpl(prototypesProvider);
-		return new AgentAwareClient(serialization, prototypesProvider, threadTransformHelper);
+		Client client = new AgentAwareClient(serialization, prototypesProvider, threadTransformHelper);
+		// accept compression if offered by the CMR, unless explicitly declined
+		client.setCompressionEnabled(!"false".equalsIgnoreCase(System.getProperty(COMPRESSION_PROPERTY)));
+		return client;
 	}
 
 	/**
@@ -0,0 +1,347 @@
+package rocks.inspectit.agent.java.util;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.Sizeable;
+
+/**
+ * Light-weight {@link IObjectSizes} implementation for the agent. The sizes are approximated for a
+ * 64-bit VM with compressed oops and are not as exact as the ones calculated on the CMR, but good
+ * enough to estimate how many bytes a list of data objects will need when sent. The class is
+ * stateless apart from the expansion rate and can be shared between threads.
+ */
+public class ApproximateObjectSizes implements IObjectSizes {
+
+	/**
+	 * Size of the primitive types.
+	 */
+	private static final long BOOLEAN_SIZE = 1, CHAR_SIZE = 2, INT_SIZE = 4, FLOAT_SIZE = 4, LONG_SIZE = 8, DOUBLE_SIZE = 8;
+
+	/**
+	 * Reference size with compressed oops.
+	 */
+	private static final long REFERENCE_SIZE = 4;
+
+	/**
+	 * Object header size with compressed oops.
+	 */
+	private static final long OBJECT_HEADER_SIZE = 12;
+
+	/**
+	 * Array header size with compressed oops.
+	 */
+	private static final long ARRAY_HEADER_SIZE = 16;
+
+	/**
+	 * Default capacity of array list.
+	 */
+	private static final int ARRAY_LIST_INITIAL_CAPACITY = 10;
+
+	/**
+	 * Default capacity of the maps.
+	 */
+	private static final int MAP_INITIAL_CAPACITY = 16;
+
+	/**
+	 * The percentage of size expansion for each object.
+	 */
+	private volatile float objectSecurityExpansionRate = 0f;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getReferenceSize() {
+		return REFERENCE_SIZE;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfObjectHeader() {
+		return OBJECT_HEADER_SIZE;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOf(Sizeable sizeable) {
+		if (null == sizeable) {
+			return 0;
+		}
+		return sizeable.getObjectSize(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOf(String str) {
+		if (null == str) {
+			return 0;
+		}
+		long size = alignTo8Bytes(OBJECT_HEADER_SIZE + getPrimitiveTypesSize(1, 0, 2, 0, 0, 0));
+		size += getSizeOfPrimitiveArray(str.length(), CHAR_SIZE);
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOf(String... strings) {
+		long size = 0;
+		for (String str : strings) {
+			size += getSizeOf(str);
+		}
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOf(Timestamp timestamp) {
+		if (null == timestamp) {
+			return 0;
+		}
+		return alignTo8Bytes(OBJECT_HEADER_SIZE + getPrimitiveTypesSize(1, 0, 1, 0, 1, 0));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOf(List<?> arrayList) {
+		return getSizeOf(arrayList, ARRAY_LIST_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOf(List<?> arrayList, int initialCapacity) {
+		if (null == arrayList) {
+			return 0;
+		}
+		long size = alignTo8Bytes(OBJECT_HEADER_SIZE + getPrimitiveTypesSize(1, 0, 2, 0, 0, 0));
+		size += getSizeOfArray(Math.max(arrayList.size(), initialCapacity));
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfHashSet(int hashSetSize) {
+		return getSizeOfHashSet(hashSetSize, MAP_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfHashSet(int hashSetSize, int initialCapacity) {
+		return alignTo8Bytes(OBJECT_HEADER_SIZE + REFERENCE_SIZE) + getSizeOfHashMap(hashSetSize, initialCapacity);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfHashMap(int hashMapSize) {
+		return getSizeOfHashMap(hashMapSize, MAP_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfHashMap(int hashMapSize, int initialCapacity) {
+		long size = alignTo8Bytes(OBJECT_HEADER_SIZE + getPrimitiveTypesSize(3, 0, 4, 1, 0, 0));
+		size += getSizeOfArray(getTableSize(hashMapSize, initialCapacity));
+		size += hashMapSize * getSizeOfMapEntry();
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfHashMapKeyEntrySet() {
+		return alignTo8Bytes(OBJECT_HEADER_SIZE + REFERENCE_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfConcurrentHashMap(int mapSize) {
+		long size = alignTo8Bytes(OBJECT_HEADER_SIZE + getPrimitiveTypesSize(6, 0, 2, 0, 1, 0));
+		size += getSizeOfArray(getTableSize(mapSize, MAP_INITIAL_CAPACITY));
+		size += mapSize * getSizeOfMapEntry();
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfNonBlockingHashMapLong(int mapSize) {
+		long size = alignTo8Bytes(OBJECT_HEADER_SIZE + getPrimitiveTypesSize(5, 1, 0, 0, 1, 0));
+		int tableSize = getTableSize(mapSize, MAP_INITIAL_CAPACITY);
+		size += getSizeOfPrimitiveArray(tableSize, LONG_SIZE);
+		size += getSizeOfArray(tableSize);
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfObjectObject() {
+		return alignTo8Bytes(OBJECT_HEADER_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfLongObject() {
+		return alignTo8Bytes(OBJECT_HEADER_SIZE + LONG_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfIntegerObject() {
+		return alignTo8Bytes(OBJECT_HEADER_SIZE + INT_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfShortObject() {
+		return alignTo8Bytes(OBJECT_HEADER_SIZE + CHAR_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfCharacterObject() {
+		return alignTo8Bytes(OBJECT_HEADER_SIZE + CHAR_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfBooleanObject() {
+		return alignTo8Bytes(OBJECT_HEADER_SIZE + BOOLEAN_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getPrimitiveTypesSize(int referenceCount, int booleanCount, int intCount, int floatCount, int longCount, int doubleCount) {
+		return (referenceCount * REFERENCE_SIZE) + (booleanCount * BOOLEAN_SIZE) + (intCount * INT_SIZE) + (floatCount * FLOAT_SIZE) + (longCount * LONG_SIZE) + (doubleCount * DOUBLE_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long alignTo8Bytes(long size) {
+		return (size + 7) & ~7L;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public float getObjectSecurityExpansionRate() {
+		return objectSecurityExpansionRate;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setObjectSecurityExpansionRate(float objectSecurityExpansionRate) {
+		this.objectSecurityExpansionRate = objectSecurityExpansionRate;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfArray(int arraySize) {
+		return getSizeOfPrimitiveArray(arraySize, REFERENCE_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfConcurrentSkipListSet(int setSize) {
+		long nodeSize = alignTo8Bytes(OBJECT_HEADER_SIZE + getPrimitiveTypesSize(3, 0, 0, 0, 0, 0));
+		long size = alignTo8Bytes(OBJECT_HEADER_SIZE + getPrimitiveTypesSize(1, 0, 0, 0, 0, 0));
+		size += alignTo8Bytes(OBJECT_HEADER_SIZE + getPrimitiveTypesSize(6, 0, 0, 0, 0, 0));
+		size += alignTo8Bytes(OBJECT_HEADER_SIZE + getPrimitiveTypesSize(3, 0, 1, 0, 0, 0));
+		size += nodeSize;
+		size += (setSize + (setSize / 3)) * nodeSize;
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfCustomWeakReference() {
+		return alignTo8Bytes(OBJECT_HEADER_SIZE + getPrimitiveTypesSize(5, 0, 0, 0, 1, 0));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfPrimitiveArray(int arraySize, long primitiveSize) {
+		return alignTo8Bytes(ARRAY_HEADER_SIZE + (arraySize * primitiveSize));
+	}
+
+	/**
+	 * Returns the size of one map entry object.
+	 *
+	 * @return Size in bytes.
+	 */
+	private long getSizeOfMapEntry() {
+		return alignTo8Bytes(OBJECT_HEADER_SIZE + getPrimitiveTypesSize(3, 0, 1, 0, 0, 0));
+	}
+
+	/**
+	 * Returns the table size of the hash map holding the given amount of elements.
+	 *
+	 * @param mapSize
+	 *            Amount of elements.
+	 * @param initialCapacity
+	 *            Initial capacity.
+	 * @return Size of the table, power of two.
+	 */
+	private int getTableSize(int mapSize, int initialCapacity) {
+		int required = Math.max((int) (mapSize / 0.75f) + 1, initialCapacity);
+		int tableSize = 1;
+		while (tableSize < required) {
+			tableSize <<= 1;
+		}
+		return tableSize;
+	}
+
+}
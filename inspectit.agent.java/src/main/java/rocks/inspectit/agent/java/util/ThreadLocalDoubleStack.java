@@ -0,0 +1,129 @@
+package rocks.inspectit.agent.java.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Thread local stack of primitive <code>double</code> values. Same as {@link ThreadLocalStack}, but
+ * values are kept in a growing array of primitives per thread, so that pushing and popping does
+ * not create any objects once the array has the needed capacity.
+ * <p>
+ * Also used for the thread CPU times in nanoseconds, as a <code>double</code> represents them
+ * exactly up to 2<sup>53</sup> nanoseconds (more than 100 days of CPU time).
+ */
+public class ThreadLocalDoubleStack extends ThreadLocal<ThreadLocalDoubleStack.DoubleStack> {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected DoubleStack initialValue() {
+		return new DoubleStack();
+	}
+
+	/**
+	 * Pushes the specified value onto the stack.
+	 *
+	 * @param value
+	 *            the value to push onto the stack.
+	 */
+	public void push(double value) {
+		super.get().push(value);
+	}
+
+	/**
+	 * Returns the last pushed value.
+	 *
+	 * @return The last pushed value.
+	 * @throws NoSuchElementException
+	 *             If the stack is empty.
+	 */
+	public double pop() {
+		return super.get().pop();
+	}
+
+	/**
+	 * Returns the last pushed value without removing it.
+	 *
+	 * @return The last pushed value.
+	 * @throws NoSuchElementException
+	 *             If the stack is empty.
+	 */
+	public double getLast() {
+		return super.get().getLast();
+	}
+
+	/**
+	 * Stack of the primitive double values. Not thread safe.
+	 */
+	public static class DoubleStack {
+
+		/**
+		 * Initial capacity of the stack.
+		 */
+		private static final int INITIAL_CAPACITY = 16;
+
+		/**
+		 * Values.
+		 */
+		private double[] values = new double[INITIAL_CAPACITY];
+
+		/**
+		 * Amount of values in the stack.
+		 */
+		private int size;
+
+		/**
+		 * Pushes the specified value onto the stack.
+		 *
+		 * @param value
+		 *            the value to push onto the stack.
+		 */
+		public void push(double value) {
+			if (size == values.length) {
+				double[] newValues = new double[values.length << 1];
+				System.arraycopy(values, 0, newValues, 0, size);
+				values = newValues;
+			}
+			values[size++] = value;
+		}
+
+		/**
+		 * Returns and removes the last pushed value.
+		 *
+		 * @return The last pushed value.
+		 * @throws NoSuchElementException
+		 *             If the stack is empty.
+		 */
+		public double pop() {
+			if (0 == size) {
+				throw new NoSuchElementException();
+			}
+			return values[--size];
+		}
+
+		/**
+		 * Returns the last pushed value without removing it.
+		 *
+		 * @return The last pushed value.
+		 * @throws NoSuchElementException
+		 *             If the stack is empty.
+		 */
+		public double getLast() {
+			if (0 == size) {
+				throw new NoSuchElementException();
+			}
+			return values[size - 1];
+		}
+
+		/**
+		 * Returns the amount of values in the stack.
+		 *
+		 * @return Returns the amount of values in the stack.
+		 */
+		public int size() {
+			return size;
+		}
+
+	}
+
+}
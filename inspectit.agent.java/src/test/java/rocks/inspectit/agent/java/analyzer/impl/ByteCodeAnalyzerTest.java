@@ -103,6 +103,9 @@ public class ByteCodeAnalyzerTest extends TestBase {
 	@Mock
 	ClassHashHelper classHashHelper;
 
+	@Mock
+	DeferredClassAnalyzer deferredClassAnalyzer;
+
 	@Mock
 	InstrumenterFactory instrumenterFactory;
 
@@ -364,6 +367,70 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verifyZeroInteractions(platformManager, connection, hookDispatcherMapper);
 		}
 
+		@Test
+		public void deferredAnalysis() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(deferredClassAnalyzer.isEnabled()).thenReturn(true);
+			when(deferredClassAnalyzer.defer(anyString(), anyString(), Matchers.<ClassType> any())).thenReturn(true);
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			// class is loaded uninstrumented and not sent from the loading thread
+			assertThat(instrumentedByteCode, is(nullValue()));
+			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			verify(deferredClassAnalyzer, times(1)).defer(eq(className), eq(hashCaptor.getValue()), classCaptor.capture());
+			assertThat(classCaptor.getValue().getFQN(), is(className));
+			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
+			verify(classHashHelper, times(0)).registerSent(anyString(), anyString());
+			verifyZeroInteractions(connection, executorService, hookDispatcherMapper);
+		}
+
+		@Test
+		public void deferredAnalysisLocallyCachedInstrumentation() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			when(methodInstrumentationConfig.getTargetClassFqn()).thenReturn(className);
+			when(methodInstrumentationConfig.getTargetMethodName()).thenReturn("<init>");
+			when(methodInstrumentationConfig.getReturnType()).thenReturn("void");
+			when(methodInstrumentationConfig.getParameterTypes()).thenReturn(Collections.<String> emptyList());
+			when(methodInstrumentationConfig.getSensorInstrumentationPoint()).thenReturn(sensorInstrumentationPoint);
+			when(methodInstrumentationConfig.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sensorInstrumentationPoint));
+			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
+			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
+			when(sensorInstrumentationPoint.getId()).thenReturn(13L);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(new long[] { 17L });
+			when(sensorInstrumentationPoint.getPropertyAccessorList()).thenReturn(Collections.<PropertyPathStart> emptyList());
+			when(methodSensorTypeConfig.getId()).thenReturn(17L);
+
+			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			when(classHashHelper.isSent(eq(className), hashCaptor.capture())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(classHashHelper.getCachedInstrumentationDefinition(anyString())).thenReturn(instrumentationResult);
+			when(deferredClassAnalyzer.isEnabled()).thenReturn(true);
+			when(deferredClassAnalyzer.defer(anyString(), anyString(), Matchers.<ClassType> any())).thenReturn(true);
+
+			byteCodeAnalyzer.afterPropertiesSet();
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			// instrumented right away with the cached definition, but still sent later on
+			assertThat(instrumentedByteCode, is(not(nullValue())));
+			verify(deferredClassAnalyzer, times(1)).defer(eq(className), eq(hashCaptor.getValue()), Matchers.<ClassType> any());
+			verify(classHashHelper, times(1)).getCachedInstrumentationDefinition(hashCaptor.getValue());
+			verify(classHashHelper, times(1)).registerInstrumentationDefinition(className, instrumentationResult);
+			verify(classHashHelper, times(0)).registerSent(anyString(), anyString());
+			verify(hookDispatcherMapper, times(1)).addMapping(eq(13L), Matchers.<RegisteredSensorConfig> any());
+			verifyZeroInteractions(executorService);
+		}
+
 		@Test
 		public void notToBeSentCachedInstrumentation() throws Exception {
 			String className = TestClass.class.getName();
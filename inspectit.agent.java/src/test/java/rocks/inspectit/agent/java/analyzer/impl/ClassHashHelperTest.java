@@ -3,6 +3,7 @@ package rocks.inspectit.agent.java.analyzer.impl;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -12,21 +13,27 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.google.common.io.Files;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.io.FileResolver;
@@ -41,6 +48,10 @@ public class ClassHashHelperTest extends TestBase {
 
 	protected static final String TEST_CACHE_FILE = "test.cache";
 
+	protected static final String TEST_CACHE_TMP_FILE = TEST_CACHE_FILE + ".tmp";
+
+	protected static final String TEST_CACHE_BACKUP_FILE = TEST_CACHE_FILE + ".backup";
+
 	@InjectMocks
 	ClassHashHelper helper;
 
@@ -71,12 +82,44 @@ public class ClassHashHelperTest extends TestBase {
 
 	@AfterMethod
 	public void delete() {
-		File file = new File(TEST_CACHE_FILE);
-		if (file.exists()) {
-			assertThat(file.delete(), is(true));
+		for (String name : new String[] { TEST_CACHE_FILE, TEST_CACHE_TMP_FILE, TEST_CACHE_BACKUP_FILE }) {
+			File file = new File(name);
+			if (file.exists()) {
+				assertThat(file.delete(), is(true));
+			}
 		}
 	}
 
+	/**
+	 * Simulates the agent restart.
+	 */
+	protected void restart() throws Exception {
+		helper.destroy();
+		helper.afterPropertiesSet();
+	}
+
+	/**
+	 * Simulates the agent crash, journal is not compacted on destroy.
+	 */
+	protected void crashAndRestart() throws Exception {
+		File file = new File(TEST_CACHE_FILE);
+		File backup = new File(TEST_CACHE_BACKUP_FILE);
+		Files.copy(file, backup);
+		helper.destroy();
+		assertThat(file.delete(), is(true));
+		assertThat(backup.renameTo(file), is(true));
+		helper.afterPropertiesSet();
+	}
+
+	/**
+	 * Runs the periodic save that appends the changes to the journal.
+	 */
+	protected void runPeriodicSave() {
+		ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+		verify(executorService, Mockito.atLeastOnce()).scheduleAtFixedRate(captor.capture(), anyLong(), anyLong(), Matchers.<TimeUnit> any());
+		captor.getValue().run();
+	}
+
 	public class AfterPropertiesSet extends ClassHashHelperTest {
 
 		@Test
@@ -94,44 +137,186 @@ public class ClassHashHelperTest extends TestBase {
 		@Test
 		public void cacheFileExists() throws Exception {
 			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
-			new File(TEST_CACHE_FILE).createNewFile();
-			Object hashes = Collections.singletonMap("fqn", Collections.singleton("hash"));
-			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(hashes);
-
 			helper.afterPropertiesSet();
+			helper.registerSent("fqn", "hash");
 
-			verify(prototypesProvider, times(1)).createSerializer();
-			verify(serializationManager, times(1)).deserialize(Matchers.<Input> any());
-			verify(executorService, times(1)).scheduleAtFixedRate(Matchers.<Runnable> any(), anyLong(), anyLong(), Matchers.<TimeUnit> any());
+			restart();
+
+			verify(prototypesProvider, times(2)).createSerializer();
+			verify(executorService, times(2)).scheduleAtFixedRate(Matchers.<Runnable> any(), anyLong(), anyLong(), Matchers.<TimeUnit> any());
 			assertThat(helper.isEmpty(), is(false));
+			assertThat(helper.isSent("fqn", "hash"), is(true));
 		}
 
 		@Test
-		public void cacheFileExistsException() throws Exception {
+		public void cacheFileUnknownFormat() throws Exception {
 			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
-			new File(TEST_CACHE_FILE).createNewFile();
-			when(serializationManager.deserialize(Matchers.<Input> any())).thenThrow(new SerializationException());
+			FileOutputStream outputStream = new FileOutputStream(TEST_CACHE_FILE);
+			outputStream.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 });
+			outputStream.close();
 
 			helper.afterPropertiesSet();
 
-			verify(prototypesProvider, times(1)).createSerializer();
-			verify(executorService, times(1)).scheduleAtFixedRate(Matchers.<Runnable> any(), anyLong(), anyLong(), Matchers.<TimeUnit> any());
+			verifyZeroInteractions(serializationManager);
 			assertThat(helper.isEmpty(), is(true));
 		}
 
 		@Test
 		public void cacheFileExistsCacheOnCmrNot() throws Exception {
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn", "hash");
 			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
-			new File(TEST_CACHE_FILE).createNewFile();
-			Object hashes = Collections.singleton("hash");
-			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(hashes);
 
-			helper.afterPropertiesSet();
+			restart();
 
-			verify(executorService, times(1)).scheduleAtFixedRate(Matchers.<Runnable> any(), anyLong(), anyLong(), Matchers.<TimeUnit> any());
+			verify(executorService, times(2)).scheduleAtFixedRate(Matchers.<Runnable> any(), anyLong(), anyLong(), Matchers.<TimeUnit> any());
 			assertThat(helper.isEmpty(), is(true));
-			assertThat(new File(TEST_CACHE_FILE).exists(), is(false));
-			verifyZeroInteractions(serializationManager);
+			assertThat(helper.isSent("fqn", "hash"), is(false));
+		}
+
+		@Test
+		public void appendedChanges() throws Exception {
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn1", "hash1");
+			// first save writes complete journal
+			runPeriodicSave();
+			helper.registerSent("fqn2", "hash2");
+			runPeriodicSave();
+			long length = new File(TEST_CACHE_FILE).length();
+
+			helper.registerSent("fqn2", "hash3");
+			runPeriodicSave();
+
+			assertThat(new File(TEST_CACHE_FILE).length() > length, is(true));
+			crashAndRestart();
+
+			assertThat(helper.isSent("fqn1", "hash1"), is(true));
+			assertThat(helper.isSent("fqn2", "hash2"), is(true));
+			assertThat(helper.isSent("fqn2", "hash3"), is(true));
+		}
+
+		@Test
+		public void truncatedRecordIgnored() throws Exception {
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn1", "hash1");
+			runPeriodicSave();
+			helper.registerSent("fqn2", "hash2");
+			runPeriodicSave();
+			RandomAccessFile file = new RandomAccessFile(TEST_CACHE_FILE, "rw");
+			file.setLength(file.length() - 3);
+			file.close();
+
+			crashAndRestart();
+
+			assertThat(helper.isSent("fqn1", "hash1"), is(true));
+			assertThat(helper.isSent("fqn2", "hash2"), is(false));
+		}
+
+		@Test
+		public void corruptedRecordIgnored() throws Exception {
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn1", "hash1");
+			runPeriodicSave();
+			helper.registerSent("fqn2", "hash2");
+			runPeriodicSave();
+			RandomAccessFile file = new RandomAccessFile(TEST_CACHE_FILE, "rw");
+			file.seek(file.length() - 1);
+			int last = file.read();
+			file.seek(file.length() - 1);
+			file.write(last + 1);
+			file.close();
+
+			crashAndRestart();
+
+			assertThat(helper.isSent("fqn1", "hash1"), is(true));
+			assertThat(helper.isSent("fqn2", "hash2"), is(false));
+		}
+
+		@Test
+		public void compactedFileRecovered() throws Exception {
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn", "hash");
+			helper.destroy();
+			// crash after deleting the journal and before renaming the compacted file
+			assertThat(new File(TEST_CACHE_FILE).renameTo(new File(TEST_CACHE_TMP_FILE)), is(true));
+
+			helper.afterPropertiesSet();
+
+			assertThat(helper.isSent("fqn", "hash"), is(true));
+			assertThat(new File(TEST_CACHE_FILE).exists(), is(true));
+			assertThat(new File(TEST_CACHE_TMP_FILE).exists(), is(false));
+		}
+
+		@Test
+		public void incompleteCompactedFileDeleted() throws Exception {
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn", "hash");
+			helper.destroy();
+			FileOutputStream outputStream = new FileOutputStream(TEST_CACHE_TMP_FILE);
+			outputStream.write(new byte[] { 1, 2, 3 });
+			outputStream.close();
+
+			helper.afterPropertiesSet();
+
+			assertThat(helper.isSent("fqn", "hash"), is(true));
+			assertThat(new File(TEST_CACHE_TMP_FILE).exists(), is(false));
+		}
+
+		@Test
+		public void definitionSameRevision() throws Exception {
+			InstrumentationDefinition definition = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("rev");
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(definition);
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn", "hash");
+			helper.registerInstrumentationDefinition("fqn", definition);
+
+			restart();
+
+			verify(serializationManager).serialize(Matchers.eq(definition), any(Output.class));
+			assertThat(helper.isSent("fqn", "hash"), is(true));
+			assertThat(helper.getInstrumentationDefinition("fqn"), is(definition));
+		}
+
+		@Test
+		public void definitionOtherRevision() throws Exception {
+			InstrumentationDefinition definition = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("rev");
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(definition);
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn", "hash");
+			helper.registerInstrumentationDefinition("fqn", definition);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("otherRev");
+
+			restart();
+
+			verify(serializationManager, times(0)).deserialize(Matchers.<Input> any());
+			assertThat(helper.isSent("fqn", "hash"), is(true));
+			assertThat(helper.getInstrumentationDefinition("fqn"), is(nullValue()));
+		}
+
+		@Test
+		public void definitionException() throws Exception {
+			InstrumentationDefinition definition = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("rev");
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenThrow(new SerializationException());
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn", "hash");
+			helper.registerInstrumentationDefinition("fqn", definition);
+
+			restart();
+
+			assertThat(helper.isSent("fqn", "hash"), is(true));
+			assertThat(helper.getInstrumentationDefinition("fqn"), is(nullValue()));
 		}
 
 		@Test
@@ -192,10 +377,9 @@ public class ClassHashHelperTest extends TestBase {
 		public void load() throws Exception {
 			String fqn = "fqn";
 			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
-			new File(TEST_CACHE_FILE).createNewFile();
-			Object hashes = Collections.singletonMap(fqn, Collections.emptyList());
-			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(hashes);
 			helper.afterPropertiesSet();
+			helper.registerAnalyzed(fqn);
+			restart();
 
 			boolean analyzed = helper.isAnalyzed(fqn);
 
@@ -245,6 +429,64 @@ public class ClassHashHelperTest extends TestBase {
 		}
 	}
 
+	public class GetCachedInstrumentationDefinition extends ClassHashHelperTest {
+
+		@Test
+		public void notCached() throws Exception {
+			helper.afterPropertiesSet();
+
+			InstrumentationDefinition definition = helper.getCachedInstrumentationDefinition("hash");
+
+			assertThat(definition, is(nullValue()));
+		}
+
+		@Test
+		public void cachedWhenCacheOnCmrNot() throws Exception {
+			InstrumentationDefinition definition = mock(InstrumentationDefinition.class);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("rev");
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(definition);
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn", "hash");
+			helper.registerInstrumentationDefinition("fqn", definition);
+
+			restart();
+
+			assertThat(helper.isSent("fqn", "hash"), is(false));
+			assertThat(helper.getInstrumentationDefinition("fqn"), is(nullValue()));
+			assertThat(helper.getCachedInstrumentationDefinition("hash"), is(definition));
+		}
+
+		@Test
+		public void removedWhenSent() throws Exception {
+			InstrumentationDefinition definition = mock(InstrumentationDefinition.class);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("rev");
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(definition);
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn", "hash");
+			helper.registerInstrumentationDefinition("fqn", definition);
+			restart();
+
+			helper.registerSent("fqn", "hash");
+
+			assertThat(helper.getCachedInstrumentationDefinition("hash"), is(nullValue()));
+		}
+
+		@Test
+		public void otherRevision() throws Exception {
+			InstrumentationDefinition definition = mock(InstrumentationDefinition.class);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("rev");
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(definition);
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn", "hash");
+			helper.registerInstrumentationDefinition("fqn", definition);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("otherRev");
+
+			restart();
+
+			assertThat(helper.getCachedInstrumentationDefinition("hash"), is(nullValue()));
+		}
+	}
+
 	public class RegisterSent extends ClassHashHelperTest {
 
 		@Test
@@ -279,10 +521,9 @@ public class ClassHashHelperTest extends TestBase {
 			String fqn = "fqn";
 			String hash = "hash";
 			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
-			new File(TEST_CACHE_FILE).createNewFile();
-			Object hashes = Collections.singletonMap(fqn, Collections.singleton(hash));
-			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(hashes);
 			helper.afterPropertiesSet();
+			helper.registerSent(fqn, hash);
+			restart();
 
 			boolean sent = helper.isSent(fqn, hash);
 
@@ -0,0 +1,262 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.Agent;
+import rocks.inspectit.agent.java.IAgent;
+import rocks.inspectit.agent.java.connection.IConnection;
+import rocks.inspectit.agent.java.connection.ServerUnavailableException;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.instrumentation.RetransformManager;
+import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings({ "PMD", "unchecked", "rawtypes" })
+public class DeferredClassAnalyzerTest extends TestBase {
+
+	@InjectMocks
+	DeferredClassAnalyzer deferredClassAnalyzer;
+
+	@Mock
+	Logger log;
+
+	@Mock
+	IPlatformManager platformManager;
+
+	@Mock
+	IConnection connection;
+
+	@Mock
+	ClassHashHelper classHashHelper;
+
+	@Mock
+	RetransformManager retransformManager;
+
+	@Mock
+	IAgent agent;
+
+	@Mock
+	Type type1;
+
+	@Mock
+	Type type2;
+
+	@Mock
+	InstrumentationDefinition instrumentationDefinition;
+
+	@BeforeMethod
+	public void setup() {
+		Agent.agent = agent;
+		when(platformManager.getPlatformId()).thenReturn(10L);
+	}
+
+	public class IsEnabled extends DeferredClassAnalyzerTest {
+
+		@Test
+		public void enabled() {
+			deferredClassAnalyzer.activated = true;
+			when(agent.isUsingRetransformation()).thenReturn(true);
+
+			assertThat(deferredClassAnalyzer.isEnabled(), is(true));
+		}
+
+		@Test
+		public void notActivated() {
+			deferredClassAnalyzer.activated = false;
+			when(agent.isUsingRetransformation()).thenReturn(true);
+
+			assertThat(deferredClassAnalyzer.isEnabled(), is(false));
+		}
+
+		@Test
+		public void noRetransformation() {
+			deferredClassAnalyzer.activated = true;
+			when(agent.isUsingRetransformation()).thenReturn(false);
+
+			assertThat(deferredClassAnalyzer.isEnabled(), is(false));
+		}
+	}
+
+	public class Defer extends DeferredClassAnalyzerTest {
+
+		@Test
+		public void onlyOnce() {
+			assertThat(deferredClassAnalyzer.defer("fqn", "hash", type1), is(true));
+			assertThat(deferredClassAnalyzer.defer("fqn", "hash", type1), is(true));
+
+			assertThat(deferredClassAnalyzer.getPendingCount(), is(1));
+		}
+
+		@Test
+		public void limit() {
+			for (int i = 0; i < DeferredClassAnalyzer.MAX_PENDING_TYPES; i++) {
+				assertThat(deferredClassAnalyzer.defer("fqn", "hash" + i, type1), is(true));
+			}
+
+			assertThat(deferredClassAnalyzer.defer("fqn", "hash", type1), is(false));
+			assertThat(deferredClassAnalyzer.getPendingCount(), is(DeferredClassAnalyzer.MAX_PENDING_TYPES));
+		}
+	}
+
+	public class Run extends DeferredClassAnalyzerTest {
+
+		@Test
+		public void analyzeAndRetransform() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyze(eq(10L), any(Map.class))).thenReturn(Collections.singletonMap("hash2", instrumentationDefinition));
+			deferredClassAnalyzer.defer("fqn1", "hash1", type1);
+			deferredClassAnalyzer.defer("fqn2", "hash2", type2);
+
+			deferredClassAnalyzer.run();
+
+			ArgumentCaptor<Map> mapCaptor = ArgumentCaptor.forClass(Map.class);
+			verify(connection).analyze(eq(10L), mapCaptor.capture());
+			assertThat(((Map<String, Type>) mapCaptor.getValue()).keySet(), contains("hash1", "hash2"));
+			verify(classHashHelper).registerSent("fqn1", "hash1");
+			verify(classHashHelper).registerInstrumentationDefinition("fqn1", null);
+			verify(classHashHelper).registerSent("fqn2", "hash2");
+			verify(classHashHelper).registerInstrumentationDefinition("fqn2", instrumentationDefinition);
+			ArgumentCaptor<Collection> retransformCaptor = ArgumentCaptor.forClass(Collection.class);
+			verify(retransformManager).retransform(retransformCaptor.capture());
+			assertThat((Collection<InstrumentationDefinition>) retransformCaptor.getValue(), contains(instrumentationDefinition));
+			assertThat(deferredClassAnalyzer.getPendingCount(), is(0));
+		}
+
+		@Test
+		public void locallyCachedDefinitionRemoved() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyze(eq(10L), any(Map.class))).thenReturn(Collections.<String, InstrumentationDefinition> emptyMap());
+			when(classHashHelper.getInstrumentationDefinition("fqn1")).thenReturn(instrumentationDefinition);
+			deferredClassAnalyzer.defer("fqn1", "hash1", type1);
+
+			deferredClassAnalyzer.run();
+
+			verify(classHashHelper).registerSent("fqn1", "hash1");
+			verify(classHashHelper).registerInstrumentationDefinition("fqn1", null);
+			ArgumentCaptor<Collection> retransformCaptor = ArgumentCaptor.forClass(Collection.class);
+			verify(retransformManager).retransform(retransformCaptor.capture());
+			Collection<InstrumentationDefinition> retransformed = retransformCaptor.getValue();
+			assertThat(retransformed, hasSize(1));
+			InstrumentationDefinition emptyDefinition = retransformed.iterator().next();
+			assertThat(emptyDefinition.getClassName(), is("fqn1"));
+			assertThat(emptyDefinition.isEmpty(), is(true));
+		}
+
+		@Test
+		public void batches() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyze(eq(10L), any(Map.class))).thenReturn(Collections.<String, InstrumentationDefinition> emptyMap());
+			for (int i = 0; i < (DeferredClassAnalyzer.BATCH_SIZE + 1); i++) {
+				deferredClassAnalyzer.defer("fqn" + i, "hash" + i, type1);
+			}
+
+			deferredClassAnalyzer.run();
+
+			verify(connection, times(2)).analyze(eq(10L), any(Map.class));
+			verifyZeroInteractions(retransformManager);
+			assertThat(deferredClassAnalyzer.getPendingCount(), is(0));
+		}
+
+		@Test
+		public void notConnected() throws Exception {
+			when(connection.isConnected()).thenReturn(false);
+			deferredClassAnalyzer.defer("fqn1", "hash1", type1);
+
+			deferredClassAnalyzer.run();
+
+			verify(connection).isConnected();
+			verifyNoMoreInteractions(connection);
+			verifyZeroInteractions(classHashHelper, retransformManager);
+			assertThat(deferredClassAnalyzer.getPendingCount(), is(1));
+		}
+
+		@Test
+		public void serverUnavailable() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyze(anyLong(), any(Map.class))).thenThrow(new ServerUnavailableException());
+			deferredClassAnalyzer.defer("fqn1", "hash1", type1);
+
+			deferredClassAnalyzer.run();
+
+			verifyZeroInteractions(classHashHelper, retransformManager);
+			assertThat(deferredClassAnalyzer.getPendingCount(), is(1));
+		}
+
+		@Test
+		public void businessException() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyze(anyLong(), any(Map.class))).thenThrow(new BusinessException(null));
+			deferredClassAnalyzer.defer("fqn1", "hash1", type1);
+
+			deferredClassAnalyzer.run();
+
+			verifyZeroInteractions(classHashHelper);
+			verify(retransformManager, times(0)).retransform(anyCollection());
+			assertThat(deferredClassAnalyzer.getPendingCount(), is(0));
+			// can be deferred again
+			assertThat(deferredClassAnalyzer.defer("fqn1", "hash1", type1), is(true));
+			assertThat(deferredClassAnalyzer.getPendingCount(), is(1));
+		}
+
+		@Test
+		public void unexpectedException() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyze(anyLong(), any(Map.class))).thenReturn(Collections.singletonMap("hash1", instrumentationDefinition));
+			doThrow(new RuntimeException()).when(retransformManager).retransform(anyCollection());
+			deferredClassAnalyzer.defer("fqn1", "hash1", type1);
+			deferredClassAnalyzer.defer("fqn2", "hash2", type2);
+
+			deferredClassAnalyzer.run();
+
+			assertThat(deferredClassAnalyzer.getPendingCount(), is(0));
+			// can be deferred again
+			assertThat(deferredClassAnalyzer.defer("fqn1", "hash1", type1), is(true));
+			assertThat(deferredClassAnalyzer.defer("fqn2", "hash2", type2), is(true));
+			assertThat(deferredClassAnalyzer.getPendingCount(), is(2));
+		}
+
+		@Test
+		public void unexpectedExceptionDuringRegistration() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyze(anyLong(), any(Map.class))).thenReturn(Collections.<String, InstrumentationDefinition> emptyMap());
+			doThrow(new RuntimeException()).when(classHashHelper).registerSent("fqn1", "hash1");
+			deferredClassAnalyzer.defer("fqn1", "hash1", type1);
+			deferredClassAnalyzer.defer("fqn2", "hash2", type2);
+
+			deferredClassAnalyzer.run();
+
+			verifyZeroInteractions(retransformManager);
+			assertThat(deferredClassAnalyzer.getPendingCount(), is(0));
+			// can be deferred again
+			assertThat(deferredClassAnalyzer.defer("fqn1", "hash1", type1), is(true));
+			assertThat(deferredClassAnalyzer.defer("fqn2", "hash2", type2), is(true));
+			assertThat(deferredClassAnalyzer.getPendingCount(), is(2));
+		}
+	}
+}
@@ -0,0 +1,364 @@
+package rocks.inspectit.agent.java.buffer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.buffer.impl.RingBufferStrategy.OverflowPolicy;
+import rocks.inspectit.shared.all.cmr.service.IAgentStorageService;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class RingBufferStrategyTest extends TestBase {
+
+	RingBufferStrategy bufferStrategy;
+
+	void init(int capacity, OverflowPolicy overflowPolicy, long maxBatchBytes) {
+		bufferStrategy = new RingBufferStrategy(capacity, overflowPolicy, 2, maxBatchBytes);
+		bufferStrategy.log = LoggerFactory.getLogger(RingBufferStrategy.class);
+	}
+
+	static TimerData timerData(long methodIdent, double duration) {
+		TimerData timerData = new TimerData(new Timestamp(System.currentTimeMillis()), 1L, 2L, methodIdent);
+		timerData.setCount(1L);
+		timerData.setDuration(duration);
+		timerData.calculateMin(duration);
+		timerData.calculateMax(duration);
+		return timerData;
+	}
+
+	static List<DefaultData> list(DefaultData... data) {
+		List<DefaultData> list = new ArrayList<DefaultData>();
+		for (DefaultData defaultData : data) {
+			list.add(defaultData);
+		}
+		return list;
+	}
+
+	public class AddAndNext extends RingBufferStrategyTest {
+
+		@Test
+		public void keepsOrder() {
+			init(4, OverflowPolicy.DROP_NEWEST, Long.MAX_VALUE);
+			TimerData first = timerData(1L, 1d);
+			TimerData second = timerData(2L, 1d);
+
+			bufferStrategy.addMeasurements(list(first));
+			bufferStrategy.addMeasurements(list(second));
+
+			assertThat(bufferStrategy.hasNext(), is(true));
+			assertThat(bufferStrategy.next(), contains((DefaultData) first, second));
+			assertThat(bufferStrategy.hasNext(), is(false));
+		}
+
+		@Test
+		public void batchLimitedByBytes() {
+			init(16, OverflowPolicy.DROP_NEWEST, 1L);
+
+			bufferStrategy.addMeasurements(list(timerData(1L, 1d), timerData(2L, 1d), timerData(3L, 1d)));
+
+			assertThat(bufferStrategy.next(), hasSize(1));
+			assertThat(bufferStrategy.next(), hasSize(1));
+			assertThat(bufferStrategy.next(), hasSize(1));
+			assertThat(bufferStrategy.hasNext(), is(false));
+		}
+
+		@Test(expectedExceptions = NoSuchElementException.class)
+		public void empty() {
+			init(4, OverflowPolicy.DROP_NEWEST, Long.MAX_VALUE);
+
+			bufferStrategy.next();
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void nullMeasurements() {
+			init(4, OverflowPolicy.DROP_NEWEST, Long.MAX_VALUE);
+
+			bufferStrategy.addMeasurements(null);
+		}
+	}
+
+	public class Overflow extends RingBufferStrategyTest {
+
+		@Test
+		public void dropOldest() {
+			init(2, OverflowPolicy.DROP_OLDEST, Long.MAX_VALUE);
+			TimerData first = timerData(1L, 1d);
+			TimerData second = timerData(2L, 1d);
+			TimerData third = timerData(3L, 1d);
+
+			bufferStrategy.addMeasurements(list(first, second, third));
+
+			assertThat(bufferStrategy.next(), contains((DefaultData) second, third));
+			assertThat(bufferStrategy.getDroppedCount(), is(1L));
+		}
+
+		@Test
+		public void dropNewest() {
+			init(2, OverflowPolicy.DROP_NEWEST, Long.MAX_VALUE);
+			TimerData first = timerData(1L, 1d);
+			TimerData second = timerData(2L, 1d);
+			TimerData third = timerData(3L, 1d);
+
+			bufferStrategy.addMeasurements(list(first, second, third));
+
+			assertThat(bufferStrategy.next(), contains((DefaultData) first, second));
+			assertThat(bufferStrategy.getDroppedCount(), is(1L));
+		}
+
+		@Test
+		public void sample() {
+			init(8, OverflowPolicy.SAMPLE, Long.MAX_VALUE);
+			List<DefaultData> data = new ArrayList<DefaultData>();
+			for (int i = 0; i < 8; i++) {
+				data.add(timerData(i, 1d));
+			}
+
+			bufferStrategy.addMeasurements(data);
+
+			// first 5 are accepted as buffer is not more than half full, then every 2nd one
+			assertThat(bufferStrategy.getSize(), is(6));
+			assertThat(bufferStrategy.getDroppedCount(), is(2L));
+		}
+
+		@Test
+		public void aggregate() {
+			init(1, OverflowPolicy.AGGREGATE, Long.MAX_VALUE);
+			TimerData first = timerData(1L, 1d);
+
+			bufferStrategy.addMeasurements(list(first, timerData(2L, 1d), timerData(2L, 3d), new SqlStatementData()));
+
+			List<DefaultData> batch = bufferStrategy.next();
+			assertThat(batch, hasSize(2));
+			assertThat(batch.get(0), is(instanceOf(TimerData.class)));
+			TimerData aggregated = (TimerData) batch.get(0);
+			assertThat(aggregated.getMethodIdent(), is(2L));
+			assertThat(aggregated.getCount(), is(2L));
+			assertThat(aggregated.getDuration(), is(4d));
+			assertThat(aggregated.getMin(), is(1d));
+			assertThat(aggregated.getMax(), is(3d));
+			assertThat(batch.get(1), is((DefaultData) first));
+			assertThat(bufferStrategy.getAggregatedCount(), is(2L));
+			assertThat(bufferStrategy.getDroppedCount(), is(1L));
+			assertThat(bufferStrategy.hasNext(), is(false));
+		}
+	}
+
+	public class UpdateCmrLoad extends RingBufferStrategyTest {
+
+		@Test
+		public void highLoadAggregates() {
+			init(16, OverflowPolicy.DROP_NEWEST, Long.MAX_VALUE);
+			SqlStatementData sqlStatementData = new SqlStatementData();
+
+			bufferStrategy.updateCmrLoad(CmrLoad.HIGH);
+			bufferStrategy.addMeasurements(list(timerData(1L, 1d), timerData(1L, 3d), sqlStatementData));
+
+			List<DefaultData> batch = bufferStrategy.next();
+			assertThat(batch, hasSize(2));
+			TimerData aggregated = (TimerData) batch.get(0);
+			assertThat(aggregated.getCount(), is(2L));
+			assertThat(aggregated.getDuration(), is(4d));
+			assertThat(batch.get(1), is((DefaultData) sqlStatementData));
+			assertThat(bufferStrategy.getAggregatedCount(), is(2L));
+			assertThat(bufferStrategy.getDroppedCount(), is(0L));
+		}
+
+		@Test
+		public void overloadedSamples() {
+			init(16, OverflowPolicy.DROP_NEWEST, Long.MAX_VALUE);
+
+			bufferStrategy.updateCmrLoad(CmrLoad.OVERLOADED);
+			bufferStrategy.addMeasurements(list(timerData(1L, 1d), new SqlStatementData(), new SqlStatementData(), new SqlStatementData(), new SqlStatementData()));
+
+			// timer is aggregated, only every 2nd sql statement is accepted
+			assertThat(bufferStrategy.next(), hasSize(3));
+			assertThat(bufferStrategy.getDroppedCount(), is(2L));
+		}
+
+		@Test
+		public void normalLoadRestored() {
+			init(16, OverflowPolicy.DROP_NEWEST, Long.MAX_VALUE);
+
+			bufferStrategy.updateCmrLoad(CmrLoad.OVERLOADED);
+			bufferStrategy.updateCmrLoad(CmrLoad.NORMAL);
+			bufferStrategy.addMeasurements(list(timerData(1L, 1d), timerData(1L, 1d), new SqlStatementData(), new SqlStatementData()));
+
+			assertThat(bufferStrategy.next(), hasSize(4));
+			assertThat(bufferStrategy.getAggregatedCount(), is(0L));
+			assertThat(bufferStrategy.getDroppedCount(), is(0L));
+		}
+	}
+
+	/**
+	 * Load test that connects the buffer strategy to the {@link StandInCmr} processing less data
+	 * than the agent creates. Each tick the agent creates the measurements and sends the buffered
+	 * data if the sending interval of one tick prolonged by the slow down factor passed. The
+	 * reported load is passed to the buffer strategy only if the feedback is active.
+	 */
+	public class BackPressure extends RingBufferStrategyTest {
+
+		static final int PRODUCING_TICKS = 100;
+
+		static final int DRAIN_TICKS = 40;
+
+		static final int TIMERS_PER_TICK = 50;
+
+		static final int METHODS = 5;
+
+		static final int SQLS_PER_TICK = 5;
+
+		@Test
+		public void noLossWithFeedback() {
+			StandInCmr withFeedback = simulate(true, 0);
+			long agentDropped = bufferStrategy.getDroppedCount();
+			StandInCmr withoutFeedback = simulate(false, 0);
+
+			assertThat(withFeedback.droppedCount, is(0L));
+			assertThat(agentDropped, is(0L));
+			assertThat(withFeedback.processedTimerCount, is((long) PRODUCING_TICKS * TIMERS_PER_TICK));
+			assertThat(withoutFeedback.droppedCount, is(greaterThan(0L)));
+			assertThat(withoutFeedback.processedTimerCount, is(lessThan((long) PRODUCING_TICKS * TIMERS_PER_TICK)));
+		}
+
+		@Test
+		public void boundedLossWithStalledCmr() {
+			StandInCmr withFeedback = simulate(true, 20);
+			long lostWithFeedback = withFeedback.droppedCount + bufferStrategy.getDroppedCount();
+			StandInCmr withoutFeedback = simulate(false, 20);
+			long lostWithoutFeedback = withoutFeedback.droppedCount + bufferStrategy.getDroppedCount();
+
+			assertThat(lostWithFeedback, is(greaterThan(0L)));
+			assertThat(lostWithFeedback * 10, is(lessThan(lostWithoutFeedback)));
+			assertThat(withFeedback.processedTimerCount, is(greaterThan(withoutFeedback.processedTimerCount)));
+		}
+
+		StandInCmr simulate(boolean feedback, int stalledTicks) {
+			init(1024, OverflowPolicy.DROP_OLDEST, Long.MAX_VALUE);
+			StandInCmr cmr = new StandInCmr(100, 20, stalledTicks);
+			CmrLoad cmrLoad = CmrLoad.NORMAL;
+			for (int tick = 0; tick < (PRODUCING_TICKS + DRAIN_TICKS); tick++) {
+				if (tick < PRODUCING_TICKS) {
+					List<DefaultData> measurements = new ArrayList<DefaultData>();
+					for (int i = 0; i < TIMERS_PER_TICK; i++) {
+						measurements.add(timerData(i % METHODS, 1d));
+					}
+					for (int i = 0; i < SQLS_PER_TICK; i++) {
+						measurements.add(new SqlStatementData());
+					}
+					bufferStrategy.addMeasurements(measurements);
+				}
+
+				if ((0 == (tick % cmrLoad.getSlowDownFactor())) && bufferStrategy.hasNext()) {
+					CmrLoad reported = cmr.addDataObjects(bufferStrategy.next());
+					if (feedback) {
+						cmrLoad = reported;
+						bufferStrategy.updateCmrLoad(reported);
+					}
+				}
+				cmr.tick();
+			}
+			assertThat(cmr.queue.isEmpty(), is(true));
+			return cmr;
+		}
+	}
+
+	/**
+	 * Stand-in for the CMR that reports the load the same way as the agent storage service, but
+	 * bounds the queue by the amount of elements and processes a fixed amount of elements per
+	 * tick.
+	 */
+	static class StandInCmr implements IAgentStorageService {
+
+		/**
+		 * Ticks in which the load is reported as overloaded after the drop.
+		 */
+		static final int OVERLOAD_REPORT_TICKS = 2;
+
+		final int capacity;
+
+		final int processingRate;
+
+		final int stalledTicks;
+
+		final LinkedList<DefaultData> queue = new LinkedList<DefaultData>();
+
+		int tick;
+
+		int lastDropTick = -OVERLOAD_REPORT_TICKS;
+
+		long droppedCount;
+
+		long processedTimerCount;
+
+		StandInCmr(int capacity, int processingRate, int stalledTicks) {
+			this.capacity = capacity;
+			this.processingRate = processingRate;
+			this.stalledTicks = stalledTicks;
+		}
+
+		@Override
+		public CmrLoad addDataObjects(List<? extends DefaultData> dataObjects) {
+			if ((queue.size() + dataObjects.size()) > capacity) {
+				droppedCount += dataObjects.size();
+				lastDropTick = tick;
+			} else {
+				queue.addAll(dataObjects);
+			}
+
+			if ((tick - lastDropTick) < OVERLOAD_REPORT_TICKS) {
+				return CmrLoad.OVERLOADED;
+			} else if ((queue.size() * 2) >= capacity) {
+				return CmrLoad.HIGH;
+			}
+			return CmrLoad.NORMAL;
+		}
+
+		void tick() {
+			if (tick >= stalledTicks) {
+				for (int i = 0; (i < processingRate) && !queue.isEmpty(); i++) {
+					DefaultData data = queue.poll();
+					if (data instanceof TimerData) {
+						processedTimerCount += ((TimerData) data).getCount();
+					}
+				}
+			}
+			tick++;
+		}
+	}
+
+	public class Init extends RingBufferStrategyTest {
+
+		@Test
+		public void settings() {
+			init(4, OverflowPolicy.DROP_NEWEST, Long.MAX_VALUE);
+			Map<String, String> settings = new HashMap<String, String>();
+			settings.put("capacity", "100");
+			settings.put("overflowPolicy", "AGGREGATE");
+
+			bufferStrategy.init(settings);
+
+			assertThat(bufferStrategy.getCapacity(), is(128));
+			assertThat(bufferStrategy.getOverflowPolicy(), is(OverflowPolicy.AGGREGATE));
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package rocks.inspectit.agent.java.buffer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class RingBufferTest extends TestBase {
+
+	public class Constructor extends RingBufferTest {
+
+		@Test
+		public void roundsUpCapacity() {
+			RingBuffer<Object> ringBuffer = new RingBuffer<Object>(5);
+
+			assertThat(ringBuffer.getCapacity(), is(8));
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void zeroCapacity() {
+			new RingBuffer<Object>(0);
+		}
+	}
+
+	public class OfferAndPoll extends RingBufferTest {
+
+		@Test
+		public void fifo() {
+			RingBuffer<Integer> ringBuffer = new RingBuffer<Integer>(4);
+
+			ringBuffer.offer(1);
+			ringBuffer.offer(2);
+
+			assertThat(ringBuffer.size(), is(2));
+			assertThat(ringBuffer.poll(), is(1));
+			assertThat(ringBuffer.poll(), is(2));
+			assertThat(ringBuffer.poll(), is(nullValue()));
+			assertThat(ringBuffer.isEmpty(), is(true));
+		}
+
+		@Test
+		public void full() {
+			RingBuffer<Integer> ringBuffer = new RingBuffer<Integer>(2);
+
+			assertThat(ringBuffer.offer(1), is(true));
+			assertThat(ringBuffer.offer(2), is(true));
+			assertThat(ringBuffer.offer(3), is(false));
+			assertThat(ringBuffer.poll(), is(1));
+			assertThat(ringBuffer.offer(3), is(true));
+			assertThat(ringBuffer.poll(), is(2));
+			assertThat(ringBuffer.poll(), is(3));
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void nullElement() {
+			new RingBuffer<Object>(2).offer(null);
+		}
+
+		@Test
+		public void concurrentProducers() throws Exception {
+			final int producers = 4;
+			final int elementsPerProducer = 10000;
+			final RingBuffer<Integer> ringBuffer = new RingBuffer<Integer>(producers * elementsPerProducer);
+			final CountDownLatch start = new CountDownLatch(1);
+			ExecutorService executorService = Executors.newFixedThreadPool(producers);
+			try {
+				for (int p = 0; p < producers; p++) {
+					final int offset = p * elementsPerProducer;
+					executorService.execute(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								start.await();
+							} catch (InterruptedException e) {
+								return;
+							}
+							for (int i = 0; i < elementsPerProducer; i++) {
+								ringBuffer.offer(offset + i);
+							}
+						}
+					});
+				}
+				start.countDown();
+				executorService.shutdown();
+				assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS), is(true));
+			} finally {
+				executorService.shutdownNow();
+			}
+
+			Set<Integer> polled = new HashSet<Integer>();
+			Integer element;
+			while (null != (element = ringBuffer.poll())) {
+				polled.add(element);
+			}
+			assertThat(polled.size(), is(producers * elementsPerProducer));
+		}
+	}
+}
@@ -8,6 +8,7 @@ import static org.hamcrest.Matchers.notNullValue;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -318,6 +319,51 @@ public class PropertyAccessorTest extends AbstractLogSupport {
 		Mockito.verifyZeroInteractions(resultValueMock);
 	}
 
+	@Test
+	public void invokeListSizeMethodOnDifferentClasses() throws PropertyAccessException {
+		List<String> arrayList = new ArrayList<String>();
+		arrayList.add("blub");
+		List<String> linkedList = new LinkedList<String>();
+		linkedList.add("blub");
+		linkedList.add("blub2");
+
+		PropertyPathStart start = new PropertyPathStart();
+		start.setName("list");
+		start.setSignaturePosition(0);
+		start.setContentType(ParameterContentType.PARAM);
+
+		PropertyPath path = new PropertyPath();
+		path.setName("size()");
+		start.setPathToContinue(path);
+
+		String arrayListResult = propertyAccessor.getPropertyContent(start, null, new Object[] { arrayList }, resultValueMock, false);
+		String linkedListResult = propertyAccessor.getPropertyContent(start, null, new Object[] { linkedList }, resultValueMock, false);
+		assertThat(Integer.parseInt(arrayListResult), is(1));
+		assertThat(Integer.parseInt(linkedListResult), is(2));
+	}
+
+	@Test
+	public void readFieldPersonNameRepeatedly() throws PropertyAccessException {
+		Person person = new Person("Dirk");
+
+		PropertyPathStart start = new PropertyPathStart();
+		start.setName("this");
+		start.setContentType(ParameterContentType.FIELD);
+
+		PropertyPath path = new PropertyPath();
+		path.setName("name");
+		start.setPathToContinue(path);
+
+		String first = propertyAccessor.getPropertyContent(start, person, null, resultValueMock, false);
+		person.setName("Peter");
+		String second = propertyAccessor.getPropertyContent(start, person, null, resultValueMock, false);
+		String other = propertyAccessor.getPropertyContent(start, new Person("Hans"), null, resultValueMock, false);
+
+		assertThat(first, is("Dirk"));
+		assertThat(second, is("Peter"));
+		assertThat(other, is("Hans"));
+	}
+
 	@Test
 	public void analyzeReturnValueString() throws PropertyAccessException {
 		// valid
@@ -10,6 +10,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -26,12 +27,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.slf4j.Logger;
 import org.testng.annotations.Test;
 
+import com.esotericsoftware.kryonet.rmi.RemoteObject;
 import com.esotericsoftware.kryonet.rmi.TimeoutException;
 
 import rocks.inspectit.agent.java.connection.RetryStrategy;
@@ -41,6 +44,7 @@ import rocks.inspectit.shared.all.cmr.service.IAgentStorageService;
 import rocks.inspectit.shared.all.cmr.service.IKeepAliveService;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
@@ -63,7 +67,7 @@ public class KryoNetConnectionTest extends TestBase {
 	Client client;
 
 	@Mock
-	IAgentStorageService agentStorageService;
+	RemoteAgentStorageService agentStorageService;
 
 	@Mock
 	IAgentService agentService;
@@ -71,6 +75,12 @@ public class KryoNetConnectionTest extends TestBase {
 	@Mock
 	IKeepAliveService keepAliveService;
 
+	/**
+	 * Agent storage service as returned by the kryonet.
+	 */
+	interface RemoteAgentStorageService extends IAgentStorageService, RemoteObject {
+	}
+
 	public static class Connect extends KryoNetConnectionTest {
 
 		@Test
@@ -223,12 +233,91 @@ public class KryoNetConnectionTest extends TestBase {
 			List<DefaultData> measurements = new ArrayList<DefaultData>();
 			measurements.add(new TimerData());
 
-			connection.sendDataObjects(measurements);
+			CmrLoad load = connection.sendDataObjects(measurements);
 
+			assertThat(load, is(CmrLoad.NORMAL));
 			verify(agentStorageService, times(1)).addDataObjects(measurements);
+			verify(agentStorageService, times(1)).getLastResponseID();
 			verifyNoMoreInteractions(agentStorageService);
 		}
 
+		@Test
+		public void loadOfPreviousSending() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			byte responseId = 5;
+			when(agentStorageService.getLastResponseID()).thenReturn(responseId);
+			when(agentStorageService.waitForResponse(responseId)).thenReturn(CmrLoad.HIGH);
+			List<DefaultData> measurements = new ArrayList<DefaultData>();
+			measurements.add(new TimerData());
+
+			CmrLoad first = connection.sendDataObjects(measurements);
+			CmrLoad second = connection.sendDataObjects(measurements);
+
+			assertThat(first, is(CmrLoad.NORMAL));
+			assertThat(second, is(CmrLoad.HIGH));
+			InOrder inOrder = inOrder(agentStorageService);
+			inOrder.verify(agentStorageService).addDataObjects(measurements);
+			inOrder.verify(agentStorageService).getLastResponseID();
+			inOrder.verify(agentStorageService).waitForResponse(responseId);
+			inOrder.verify(agentStorageService).addDataObjects(measurements);
+		}
+
+		@Test
+		public void loadResponseTimeout() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			byte responseId = 5;
+			when(agentStorageService.getLastResponseID()).thenReturn(responseId);
+			doThrow(TimeoutException.class).when(agentStorageService).waitForResponse(responseId);
+			List<DefaultData> measurements = new ArrayList<DefaultData>();
+			measurements.add(new TimerData());
+
+			connection.sendDataObjects(measurements);
+			CmrLoad load = connection.sendDataObjects(measurements);
+
+			assertThat(load, is(CmrLoad.OVERLOADED));
+			verify(agentStorageService, times(2)).addDataObjects(measurements);
+		}
+
+		@Test
+		public void loadResponseTimeoutFollowedByLateResponse() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			byte timedOutResponseId = 5;
+			byte responseId = 6;
+			when(agentStorageService.getLastResponseID()).thenReturn(timedOutResponseId, responseId);
+			doThrow(TimeoutException.class).when(agentStorageService).waitForResponse(timedOutResponseId);
+			when(agentStorageService.waitForResponse(responseId)).thenReturn(CmrLoad.HIGH);
+			List<DefaultData> measurements = new ArrayList<DefaultData>();
+			measurements.add(new TimerData());
+
+			connection.sendDataObjects(measurements);
+			CmrLoad timedOut = connection.sendDataObjects(measurements);
+			CmrLoad load = connection.sendDataObjects(measurements);
+
+			assertThat(timedOut, is(CmrLoad.OVERLOADED));
+			assertThat(load, is(CmrLoad.HIGH));
+			// the timed out response is never awaited again
+			verify(agentStorageService, times(1)).waitForResponse(timedOutResponseId);
+			verify(agentStorageService, times(1)).waitForResponse(responseId);
+			verify(agentStorageService, times(3)).addDataObjects(measurements);
+		}
+
+		@Test
+		public void loadResponseInterrupted() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			byte responseId = 5;
+			when(agentStorageService.getLastResponseID()).thenReturn(responseId);
+			doThrow(RuntimeException.class).when(agentStorageService).waitForResponse(responseId);
+			List<DefaultData> measurements = new ArrayList<DefaultData>();
+			measurements.add(new TimerData());
+
+			connection.sendDataObjects(measurements);
+			CmrLoad load = connection.sendDataObjects(measurements);
+
+			assertThat(load, is(CmrLoad.NORMAL));
+			verify(agentStorageService, times(2)).addDataObjects(measurements);
+			verify(client, times(0)).close();
+		}
+
 		@Test(expectedExceptions = { ServerUnavailableException.class })
 		public void timeout() throws Exception {
 			when(client.isConnected()).thenReturn(true);
@@ -685,6 +774,33 @@ public class KryoNetConnectionTest extends TestBase {
 		}
 	}
 
+	/**
+	 * Tests the {@link KryoNetConnection#reportDroppedData(long, long, long)} method.
+	 */
+	public static class ReportDroppedData extends KryoNetConnectionTest {
+
+		@Test
+		public void reportDroppedData() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+
+			connection.reportDroppedData(7L, 5L, 3L);
+
+			verify(agentService, times(1)).reportDroppedData(7L, 5L, 3L);
+			verifyNoMoreInteractions(agentService);
+		}
+
+		@Test(expectedExceptions = { ServerUnavailableException.class })
+		public void notConnected() throws Exception {
+			when(client.isConnected()).thenReturn(false);
+
+			try {
+				connection.reportDroppedData(7L, 5L, 3L);
+			} finally {
+				verifyZeroInteractions(agentService);
+			}
+		}
+	}
+
 	/**
 	 * Tests the {@link KryoNetConnection#fetchAgentMessages(long)} method.
 	 */
@@ -0,0 +1,149 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class EpochGuardTest extends TestBase {
+
+	EpochGuard epochGuard;
+
+	ExecutorService executorService;
+
+	ExecutorService writerExecutorService;
+
+	@BeforeMethod
+	public void init() {
+		epochGuard = new EpochGuard();
+		executorService = Executors.newSingleThreadExecutor();
+		writerExecutorService = Executors.newSingleThreadExecutor();
+	}
+
+	@AfterMethod
+	public void shutdown() {
+		executorService.shutdownNow();
+		writerExecutorService.shutdownNow();
+	}
+
+	public class Enter extends EpochGuardTest {
+
+		@Test
+		public void currentEpoch() {
+			int epoch = epochGuard.enter();
+			epochGuard.exit(epoch);
+
+			assertThat(epoch, is(0));
+			assertThat(epochGuard.getEpoch(), is(0));
+		}
+
+		@Test
+		public void afterAdvance() {
+			epochGuard.advance();
+
+			int epoch = epochGuard.enter();
+			epochGuard.exit(epoch);
+
+			assertThat(epoch, is(1));
+		}
+
+		@Test
+		public void nested() {
+			int first = epochGuard.enter();
+			int second = epochGuard.enter();
+			epochGuard.exit(second);
+			epochGuard.exit(first);
+
+			int previous = epochGuard.advance();
+
+			assertThat(previous, is(0));
+			assertThat(epochGuard.getEpoch(), is(1));
+		}
+	}
+
+	public class Advance extends EpochGuardTest {
+
+		@Test
+		public void noWriters() {
+			int previous = epochGuard.advance();
+
+			assertThat(previous, is(0));
+			assertThat(epochGuard.getEpoch(), is(1));
+		}
+
+		@Test
+		public void waitsForWriters() throws Exception {
+			int epoch = epochGuard.enter();
+
+			Future<Integer> future = executorService.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					return epochGuard.advance();
+				}
+			});
+
+			try {
+				future.get(200, TimeUnit.MILLISECONDS);
+				throw new AssertionError("Advance must wait for the writer to exit.");
+			} catch (TimeoutException e) { // NOPMD
+				// expected
+			}
+
+			// writer entering now must be pinned to the new epoch
+			int newEpoch = writerExecutorService.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					int epoch = epochGuard.enter();
+					epochGuard.exit(epoch);
+					return epoch;
+				}
+			}).get(5, TimeUnit.SECONDS);
+			assertThat(newEpoch, is(1));
+
+			// nested enter of the pinned writer stays in the pinned epoch
+			int nestedEpoch = epochGuard.enter();
+			epochGuard.exit(nestedEpoch);
+			assertThat(nestedEpoch, is(0));
+			assertThat(future.isDone(), is(false));
+
+			epochGuard.exit(epoch);
+
+			assertThat(future.get(5, TimeUnit.SECONDS), is(0));
+		}
+
+		@Test
+		public void waitsForWritersOfOddEpoch() throws Exception {
+			epochGuard.advance();
+			int epoch = epochGuard.enter();
+
+			Future<Integer> future = executorService.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					return epochGuard.advance();
+				}
+			});
+
+			try {
+				future.get(200, TimeUnit.MILLISECONDS);
+				throw new AssertionError("Advance must wait for the writer to exit.");
+			} catch (TimeoutException e) { // NOPMD
+				// expected
+			}
+			epochGuard.exit(epoch);
+
+			assertThat(future.get(5, TimeUnit.SECONDS), is(1));
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class MethodSensorMapTest extends TestBase {
+
+	MethodSensorMap<String> map;
+
+	@BeforeMethod
+	public void init() {
+		map = new MethodSensorMap<String>();
+	}
+
+	public class Put extends MethodSensorMapTest {
+
+		@Test
+		public void noPrefix() {
+			String previous = map.put(1L, 2L, null, "value");
+
+			assertThat(previous, is(nullValue()));
+			assertThat(map.get(1L, 2L, null), is("value"));
+			assertThat(map.get(2L, 1L, null), is(nullValue()));
+			assertThat(map.get(1L, 2L, "prefix"), is(nullValue()));
+			assertThat(map.size(), is(1));
+			assertThat(map.isEmpty(), is(false));
+		}
+
+		@Test
+		public void withPrefix() {
+			String previous = map.put(1L, 2L, "prefix", "value");
+
+			assertThat(previous, is(nullValue()));
+			assertThat(map.get(1L, 2L, "prefix"), is("value"));
+			assertThat(map.get(1L, 2L, null), is(nullValue()));
+			assertThat(map.get(1L, 2L, "other"), is(nullValue()));
+			assertThat(map.size(), is(1));
+			assertThat(map.isEmpty(), is(false));
+		}
+
+		@Test
+		public void replace() {
+			map.put(1L, 2L, null, "first");
+			map.put(1L, 2L, "prefix", "first");
+
+			String previous = map.put(1L, 2L, null, "second");
+			String previousPrefix = map.put(1L, 2L, "prefix", "second");
+
+			assertThat(previous, is("first"));
+			assertThat(previousPrefix, is("first"));
+			assertThat(map.get(1L, 2L, null), is("second"));
+			assertThat(map.get(1L, 2L, "prefix"), is("second"));
+			assertThat(map.size(), is(2));
+		}
+
+		@Test
+		public void largeIdents() {
+			map.put(Long.MAX_VALUE, 1L, null, "first");
+			map.put(1L, Long.MAX_VALUE, null, "second");
+
+			assertThat(map.get(Long.MAX_VALUE, 1L, null), is("first"));
+			assertThat(map.get(1L, Long.MAX_VALUE, null), is("second"));
+			assertThat(map.size(), is(2));
+		}
+	}
+
+	public class AddValuesTo extends MethodSensorMapTest {
+
+		@Test
+		public void values() {
+			map.put(1L, 2L, null, "first");
+			map.put(3L, 2L, null, "second");
+			map.put(1L, 2L, "prefix", "third");
+			List<String> result = new ArrayList<String>();
+
+			map.addValuesTo(result);
+
+			assertThat(result, containsInAnyOrder("first", "second", "third"));
+		}
+
+		@Test
+		public void empty() {
+			List<String> result = new ArrayList<String>();
+
+			map.addValuesTo(result);
+
+			assertThat(result, is(empty()));
+		}
+	}
+
+	public class Clear extends MethodSensorMapTest {
+
+		@Test
+		public void clear() {
+			map.put(1L, 2L, null, "first");
+			map.put(1L, 2L, "prefix", "second");
+
+			map.clear();
+
+			assertThat(map.isEmpty(), is(true));
+			assertThat(map.size(), is(0));
+			assertThat(map.get(1L, 2L, null), is(nullValue()));
+			assertThat(map.get(1L, 2L, "prefix"), is(nullValue()));
+		}
+
+		@Test
+		public void putAfterClear() {
+			map.put(1L, 2L, null, "first");
+			map.clear();
+
+			map.put(1L, 2L, null, "second");
+			List<String> result = new ArrayList<String>();
+			map.addValuesTo(result);
+
+			assertThat(result, contains("second"));
+		}
+	}
+}
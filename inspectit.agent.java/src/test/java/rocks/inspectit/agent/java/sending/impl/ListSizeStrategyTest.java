@@ -1,6 +1,7 @@
 package rocks.inspectit.agent.java.sending.impl;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -15,6 +16,7 @@ import org.testng.annotations.Test;
 
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
 import rocks.inspectit.shared.all.testbase.TestBase;
 
 @SuppressWarnings("PMD")
@@ -77,4 +79,21 @@ public class ListSizeStrategyTest extends TestBase {
 		verify(coreService).sendData();
 	}
 
+	@Test
+	public void noSendingUnderCmrLoad() {
+		Map<String, String> settings = new HashMap<String, String>();
+		settings.put("size", "3");
+		sendingStrategy.init(settings);
+		sendingStrategy.start(coreService);
+		sendingStrategy.updateCmrLoad(CmrLoad.HIGH);
+
+		sendingStrategy.contentChanged(5);
+
+		verify(coreService, never()).sendData();
+
+		sendingStrategy.contentChanged(7);
+
+		verify(coreService).sendData();
+	}
+
 }
@@ -2,9 +2,18 @@ package rocks.inspectit.agent.java.sensor.exception;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -14,8 +23,10 @@ import static org.mockito.Mockito.when;
 import java.lang.reflect.Field;
 import java.sql.Timestamp;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.testng.annotations.BeforeMethod;
@@ -24,6 +35,7 @@ import org.testng.annotations.Test;
 import rocks.inspectit.agent.java.AbstractLogSupport;
 import rocks.inspectit.agent.java.analyzer.classes.MyTestException;
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.util.StringConstraint;
@@ -38,6 +50,9 @@ public class ExceptionSensorHookTest extends AbstractLogSupport {
 	@Mock
 	private ICoreService coreService;
 
+	@Mock
+	private IConnection connection;
+
 	@Mock
 	private RegisteredSensorConfig registeredSensorConfig;
 
@@ -52,7 +67,9 @@ public class ExceptionSensorHookTest extends AbstractLogSupport {
 		stringLength = 1000;
 		parameter = new HashMap<String, Object>();
 		parameter.put("stringLength", String.valueOf(stringLength));
-		exceptionHook = new ExceptionSensorHook(platformManager, parameter);
+		when(connection.isConnected()).thenReturn(true);
+		when(connection.getConnectionCount()).thenReturn(1);
+		exceptionHook = new ExceptionSensorHook(platformManager, connection, parameter);
 	}
 
 	@Test
@@ -240,6 +257,216 @@ public class ExceptionSensorHookTest extends AbstractLogSupport {
 		verifyNoMoreInteractions(platformManager);
 	}
 
+	@Test
+	public void sameStackTraceSentOnlyOnce() throws Exception {
+		long constructorId = 5L;
+		long sensorTypeId = 3L;
+		long platformId = 1L;
+
+		Object[] parameters = new Object[0];
+		MyTestException[] exceptionObjects = new MyTestException[2];
+		for (int i = 0; i < exceptionObjects.length; i++) {
+			exceptionObjects[i] = new MyTestException("message" + i);
+		}
+
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptionObjects[0], parameters, registeredSensorConfig);
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptionObjects[1], parameters, registeredSensorConfig);
+
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, times(2)).addExceptionSensorData(eq(sensorTypeId), anyLong(), captor.capture());
+		List<ExceptionSensorData> sent = captor.getAllValues();
+		assertThat(sent.get(0).getStackTrace(), is(notNullValue()));
+		assertThat(sent.get(0).getStackTraceFingerprint(), is(not(0L)));
+		assertThat(sent.get(1).getStackTrace(), is(nullValue()));
+		assertThat(sent.get(1).getStackTraceFingerprint(), is(sent.get(0).getStackTraceFingerprint()));
+		assertThat(sent.get(1).getErrorMessage(), is("message1"));
+	}
+
+	@Test
+	public void differentStackTraceSent() throws Exception {
+		long constructorId = 5L;
+		long sensorTypeId = 3L;
+		long platformId = 1L;
+
+		Object[] parameters = new Object[0];
+		MyTestException firstExceptionObject = new MyTestException();
+		MyTestException secondExceptionObject = new MyTestException();
+
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, firstExceptionObject, parameters, registeredSensorConfig);
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, secondExceptionObject, parameters, registeredSensorConfig);
+
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, times(2)).addExceptionSensorData(eq(sensorTypeId), anyLong(), captor.capture());
+		List<ExceptionSensorData> sent = captor.getAllValues();
+		assertThat(sent.get(0).getStackTrace(), is(notNullValue()));
+		assertThat(sent.get(1).getStackTrace(), is(notNullValue()));
+		assertThat(sent.get(1).getStackTraceFingerprint(), is(not(sent.get(0).getStackTraceFingerprint())));
+	}
+
+	@Test
+	public void stackTraceSentAgainAfterReconnect() throws Exception {
+		long constructorId = 5L;
+		long sensorTypeId = 3L;
+		long platformId = 1L;
+
+		Object[] parameters = new Object[0];
+		MyTestException[] exceptionObjects = new MyTestException[3];
+		for (int i = 0; i < exceptionObjects.length; i++) {
+			exceptionObjects[i] = new MyTestException("message" + i);
+		}
+
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptionObjects[0], parameters, registeredSensorConfig);
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptionObjects[1], parameters, registeredSensorConfig);
+		// CMR could be restarted and lost the stack traces
+		when(connection.getConnectionCount()).thenReturn(2);
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptionObjects[2], parameters, registeredSensorConfig);
+
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, times(3)).addExceptionSensorData(eq(sensorTypeId), anyLong(), captor.capture());
+		List<ExceptionSensorData> sent = captor.getAllValues();
+		assertThat(sent.get(0).getStackTrace(), is(notNullValue()));
+		assertThat(sent.get(1).getStackTrace(), is(nullValue()));
+		assertThat(sent.get(2).getStackTrace(), is(notNullValue()));
+		assertThat(sent.get(2).getStackTraceFingerprint(), is(sent.get(0).getStackTraceFingerprint()));
+	}
+
+	@Test
+	public void stackTraceSentWhenNotConnected() throws Exception {
+		long constructorId = 5L;
+		long sensorTypeId = 3L;
+		long platformId = 1L;
+
+		Object[] parameters = new Object[0];
+		MyTestException[] exceptionObjects = new MyTestException[2];
+		for (int i = 0; i < exceptionObjects.length; i++) {
+			exceptionObjects[i] = new MyTestException("message" + i);
+		}
+
+		when(connection.isConnected()).thenReturn(false);
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptionObjects[0], parameters, registeredSensorConfig);
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptionObjects[1], parameters, registeredSensorConfig);
+
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, times(2)).addExceptionSensorData(eq(sensorTypeId), anyLong(), captor.capture());
+		List<ExceptionSensorData> sent = captor.getAllValues();
+		assertThat(sent.get(0).getStackTrace(), is(notNullValue()));
+		assertThat(sent.get(1).getStackTrace(), is(notNullValue()));
+		assertThat(sent.get(1).getStackTraceFingerprint(), is(sent.get(0).getStackTraceFingerprint()));
+	}
+
+	@Test
+	public void rateLimitPerType() throws Exception {
+		long constructorId = 5L;
+		long sensorTypeId = 3L;
+		long platformId = 1L;
+
+		parameter.put("maxPerTypePerSecond", "1");
+		exceptionHook = new ExceptionSensorHook(platformManager, connection, parameter);
+
+		Object[] parameters = new Object[0];
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		for (int i = 0; i < 10; i++) {
+			MyTestException exceptionObject = new MyTestException();
+			exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptionObject, parameters, registeredSensorConfig);
+		}
+
+		// at most two as the second could have changed in between
+		verify(coreService, atLeast(1)).addExceptionSensorData(eq(sensorTypeId), anyLong(), any(ExceptionSensorData.class));
+		verify(coreService, atMost(2)).addExceptionSensorData(eq(sensorTypeId), anyLong(), any(ExceptionSensorData.class));
+	}
+
+	@Test
+	public void rateLimitedThrowableNotFollowed() throws Exception {
+		long methodId = 6L;
+		long constructorId = 5L;
+		long sensorTypeId = 3L;
+		long platformId = 1L;
+
+		parameter.put("maxPerTypePerSecond", "1");
+		exceptionHook = new ExceptionSensorHook(platformManager, connection, parameter);
+
+		Object[] parameters = new Object[0];
+		Object object = mock(Object.class);
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		MyTestException exceptionObject = null;
+		for (int i = 0; i < 10; i++) {
+			exceptionObject = new MyTestException();
+			exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptionObject, parameters, registeredSensorConfig);
+		}
+		exceptionHook.dispatchOnThrowInBody(coreService, methodId, sensorTypeId, object, exceptionObject, parameters, registeredSensorConfig);
+		exceptionHook.dispatchBeforeCatchBody(coreService, methodId, sensorTypeId, exceptionObject, registeredSensorConfig);
+
+		// only created events, the last object was limited and is not followed
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, atLeast(1)).addExceptionSensorData(eq(sensorTypeId), anyLong(), captor.capture());
+		for (ExceptionSensorData data : captor.getAllValues()) {
+			assertThat(data.getExceptionEvent(), is(ExceptionEvent.CREATED));
+		}
+	}
+
+	@Test
+	public void rateLimitedUnregisteredThrowableStackTraceNotRequested() throws Exception {
+		long methodId = 6L;
+		long constructorId = 5L;
+		long sensorTypeId = 3L;
+		long platformId = 1L;
+
+		parameter.put("maxPerTypePerSecond", "1");
+		exceptionHook = new ExceptionSensorHook(platformManager, connection, parameter);
+
+		Object[] parameters = new Object[0];
+		Object object = mock(Object.class);
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, new MyTestException(), parameters, registeredSensorConfig);
+		StackTraceCountingException[] exceptionObjects = new StackTraceCountingException[10];
+		for (int i = 0; i < exceptionObjects.length; i++) {
+			exceptionObjects[i] = new StackTraceCountingException();
+			exceptionHook.dispatchOnThrowInBody(coreService, methodId, sensorTypeId, object, exceptionObjects[i], parameters, registeredSensorConfig);
+		}
+
+		// at most two as the second could have changed in between
+		int requested = 0;
+		for (StackTraceCountingException exceptionObject : exceptionObjects) {
+			requested += exceptionObject.stackTraceRequests;
+		}
+		assertThat(requested, is(greaterThanOrEqualTo(1)));
+		assertThat(requested, is(lessThanOrEqualTo(2)));
+	}
+
+	/**
+	 * Exception counting the requests of the stack trace.
+	 */
+	private static class StackTraceCountingException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private int stackTraceRequests;
+
+		@Override
+		public StackTraceElement[] getStackTrace() {
+			stackTraceRequests++;
+			return super.getStackTrace();
+		}
+	}
+
 	private static class ExceptionSensorDataVerifier extends ArgumentMatcher<ExceptionSensorData> {
 		private final ExceptionSensorData exceptionSensorData;
 
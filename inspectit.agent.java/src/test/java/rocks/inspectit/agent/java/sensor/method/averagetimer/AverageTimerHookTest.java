@@ -3,6 +3,7 @@ package rocks.inspectit.agent.java.sensor.method.averagetimer;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -93,6 +94,8 @@ public class AverageTimerHookTest extends AbstractLogSupport {
 		timerData.calculateMin(secondTimerValue - firstTimerValue);
 		verify(coreService).addMethodSensorData(eq(sensorTypeId), eq(methodId), (String) eq(null), argThat(new TimerDataVerifier(timerData)));
 
+		verify(coreService).beginUpdate();
+		verify(coreService).endUpdate(anyInt());
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 		verifyZeroInteractions(propertyAccessor, object, result);
 	}
@@ -203,6 +206,8 @@ public class AverageTimerHookTest extends AbstractLogSupport {
 		assertThat(timerData.getMax(), is(equalTo(fourthTimerValue - thirdTimerValue)));
 		assertThat(timerData.getMin(), is(equalTo(secondTimerValue - firstTimerValue)));
 
+		verify(coreService, times(2)).beginUpdate();
+		verify(coreService, times(2)).endUpdate(anyInt());
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 		verifyZeroInteractions(propertyAccessor, object, result);
 	}
@@ -267,6 +272,8 @@ public class AverageTimerHookTest extends AbstractLogSupport {
 		assertThat(timerData.getMax(), is(equalTo(secondTimerValue - firstTimerValue)));
 		assertThat(timerData.getMin(), is(equalTo(fourthTimerValue - thirdTimerValue)));
 
+		verify(coreService, times(2)).beginUpdate();
+		verify(coreService, times(2)).endUpdate(anyInt());
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 		verifyZeroInteractions(propertyAccessor, object, result);
 	}
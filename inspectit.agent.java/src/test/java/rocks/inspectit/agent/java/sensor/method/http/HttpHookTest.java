@@ -3,6 +3,7 @@ package rocks.inspectit.agent.java.sensor.method.http;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.verify;
@@ -24,6 +25,7 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 import org.apache.commons.collections.MapUtils;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.testng.annotations.BeforeMethod;
@@ -152,6 +154,33 @@ public class HttpHookTest extends AbstractLogSupport {
 		verifyZeroInteractions(result);
 	}
 
+	@Test
+	public void oneRecordThatIsHttpPercentiles() {
+		Double firstTimerValue = 1000.453d;
+		Double secondTimerValue = 1323.675d;
+
+		Long firstCpuTimerValue = 5000L;
+		Long secondCpuTimerValue = 6872L;
+
+		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(threadMXBean.getCurrentThreadCpuTime()).thenReturn(firstCpuTimerValue).thenReturn(secondCpuTimerValue);
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(registeredSensorConfig.getSettings()).thenReturn(Collections.<String, Object> singletonMap("percentiles", Boolean.TRUE));
+
+		Object[] parameters = new Object[] { httpServletRequest, httpServletResponse };
+
+		httpHook.beforeBody(methodId, sensorTypeId, servlet, parameters, registeredSensorConfig);
+
+		httpHook.firstAfterBody(methodId, sensorTypeId, servlet, parameters, result, false, registeredSensorConfig);
+
+		httpHook.secondAfterBody(coreService, methodId, sensorTypeId, servlet, parameters, result, false, registeredSensorConfig);
+
+		ArgumentCaptor<HttpTimerData> captor = ArgumentCaptor.forClass(HttpTimerData.class);
+		verify(coreService).addMethodSensorData(eq(sensorTypeId), eq(methodId), eq(String.valueOf(firstTimerValue)), captor.capture());
+		assertThat(captor.getValue().isPercentiles(), is(true));
+		assertThat(captor.getValue().getHistogram(), is(nullValue()));
+	}
+
 	@Test
 	public void oneRecordThatIsHttpReadingDataNoCropping() {
 		final String uri = "URI";
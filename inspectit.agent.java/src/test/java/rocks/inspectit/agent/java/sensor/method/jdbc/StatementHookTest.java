@@ -1,5 +1,6 @@
 package rocks.inspectit.agent.java.sensor.method.jdbc;
 
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -96,6 +97,8 @@ public class StatementHookTest extends AbstractLogSupport {
 
 		verify(coreService).addMethodSensorData(eq(sensorTypeId), eq(methodId), (String) Matchers.anyObject(), (MethodSensorData) Matchers.anyObject());
 		verify(coreService).getMethodSensorData(eq(sensorTypeId), eq(methodId), (String) Matchers.anyObject());
+		verify(coreService).beginUpdate();
+		verify(coreService).endUpdate(anyInt());
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 	}
 
@@ -138,6 +141,8 @@ public class StatementHookTest extends AbstractLogSupport {
 
 		verify(coreService, times(2)).addMethodSensorData(eq(sensorTypeId), eq(methodId), (String) Matchers.anyObject(), (MethodSensorData) Matchers.anyObject());
 		verify(coreService, times(2)).getMethodSensorData(eq(sensorTypeId), eq(methodId), (String) Matchers.anyObject());
+		verify(coreService, times(2)).beginUpdate();
+		verify(coreService, times(2)).endUpdate(anyInt());
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 	}
 
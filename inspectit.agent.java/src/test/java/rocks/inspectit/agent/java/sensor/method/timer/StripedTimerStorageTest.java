@@ -0,0 +1,113 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class StripedTimerStorageTest extends TestBase {
+
+	StripedTimerStorage storage;
+
+	@BeforeMethod
+	public void init() {
+		storage = new StripedTimerStorage(new Timestamp(1L), 1L, 2L, 3L, null, true);
+	}
+
+	public class FinalizeDataObject extends StripedTimerStorageTest {
+
+		@Test
+		public void identification() {
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			assertThat(timerData.getPlatformIdent(), is(1L));
+			assertThat(timerData.getSensorTypeIdent(), is(2L));
+			assertThat(timerData.getMethodIdent(), is(3L));
+			assertThat(timerData.isCharting(), is(true));
+			assertThat(timerData.getCount(), is(0L));
+		}
+
+		@Test
+		public void values() {
+			storage.addData(10d, 1d);
+			storage.addData(30d, 3d);
+			storage.addData(20d, -1d);
+
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			assertThat(timerData.getCount(), is(3L));
+			assertThat(timerData.getDuration(), is(60d));
+			assertThat(timerData.getMin(), is(10d));
+			assertThat(timerData.getMax(), is(30d));
+			assertThat(timerData.getCpuDuration(), is(4d));
+			assertThat(timerData.getCpuMin(), is(1d));
+			assertThat(timerData.getCpuMax(), is(3d));
+		}
+
+		@Test
+		public void noCpuTime() {
+			storage.addData(10d, -1d);
+
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			assertThat(timerData.getCount(), is(1L));
+			assertThat(timerData.getCpuDuration(), is(0d));
+			assertThat(timerData.getCpuMin(), is(-1d));
+			assertThat(timerData.getCpuMax(), is(-1d));
+		}
+
+		@Test
+		public void concurrent() throws Exception {
+			final int threads = 16;
+			final int calls = 10000;
+			final CountDownLatch start = new CountDownLatch(1);
+			ExecutorService executorService = Executors.newFixedThreadPool(threads);
+			try {
+				List<Future<?>> futures = new ArrayList<Future<?>>();
+				for (int i = 0; i < threads; i++) {
+					final double value = i + 1;
+					futures.add(executorService.submit(new Callable<Void>() {
+						@Override
+						public Void call() throws Exception {
+							start.await();
+							for (int j = 0; j < calls; j++) {
+								storage.addData(value, value);
+							}
+							return null;
+						}
+					}));
+				}
+				start.countDown();
+				for (Future<?> future : futures) {
+					future.get();
+				}
+			} finally {
+				executorService.shutdownNow();
+			}
+
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			double expectedSum = ((threads * (threads + 1)) / 2d) * calls;
+			assertThat(timerData.getCount(), is((long) threads * calls));
+			assertThat(timerData.getDuration(), is(closeTo(expectedSum, 0.0001d)));
+			assertThat(timerData.getCpuDuration(), is(closeTo(expectedSum, 0.0001d)));
+			assertThat(timerData.getMin(), is(1d));
+			assertThat(timerData.getMax(), is((double) threads));
+		}
+	}
+}
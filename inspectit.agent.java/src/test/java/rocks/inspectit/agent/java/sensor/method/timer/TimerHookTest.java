@@ -4,6 +4,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
@@ -126,6 +127,8 @@ public class TimerHookTest extends AbstractLogSupport {
 		assertThat(timerRawVO.getData().get(0).getData()[0], is(equalTo(secondTimerValue - firstTimerValue)));
 		assertThat(timerRawVO.getData().get(0).getData()[1], is(equalTo(fourthTimerValue - thirdTimerValue)));
 
+		verify(coreService, times(2)).beginUpdate();
+		verify(coreService, times(2)).endUpdate(anyInt());
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 		verifyZeroInteractions(propertyAccessor, object, result);
 	}
@@ -281,6 +284,8 @@ public class TimerHookTest extends AbstractLogSupport {
 		aggregateTimerStorage.addData(secondTimerValue - firstTimerValue, -1.0d);
 		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodId), (String) eq(null), argThat(new AggregateTimerStorageVerifier(aggregateTimerStorage)));
 
+		verify(coreService).beginUpdate();
+		verify(coreService).endUpdate(anyInt());
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 		verifyZeroInteractions(propertyAccessor, object, result);
 	}
@@ -363,6 +368,8 @@ public class TimerHookTest extends AbstractLogSupport {
 		optimizedTimerStorage.addData(secondTimerValue - firstTimerValue, -1.0d);
 		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodId), (String) eq(null), argThat(new OptimizedTimerStorageVerifier(optimizedTimerStorage)));
 
+		verify(coreService).beginUpdate();
+		verify(coreService).endUpdate(anyInt());
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 		verifyZeroInteractions(propertyAccessor, object, result);
 	}
@@ -447,6 +454,8 @@ public class TimerHookTest extends AbstractLogSupport {
 		plainTimerStorage.addData(secondTimerValue - firstTimerValue, (secondCpuTimerValue - firstCpuTimerValue) / 1000000.0d);
 		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodId), (String) eq(null), argThat(new PlainTimerStorageVerifier(plainTimerStorage)));
 
+		verify(coreService).beginUpdate();
+		verify(coreService).endUpdate(anyInt());
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 		verifyZeroInteractions(propertyAccessor, object, result);
 	}
@@ -0,0 +1,66 @@
+package rocks.inspectit.agent.java.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.NoSuchElementException;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class ThreadLocalDoubleStackTest extends TestBase {
+
+	ThreadLocalDoubleStack stack;
+
+	@BeforeMethod
+	public void init() {
+		stack = new ThreadLocalDoubleStack();
+	}
+
+	public class Pop extends ThreadLocalDoubleStackTest {
+
+		@Test
+		public void oneValue() {
+			stack.push(1.5d);
+
+			assertThat(stack.getLast(), is(1.5d));
+			assertThat(stack.pop(), is(1.5d));
+			assertThat(stack.get().size(), is(0));
+		}
+
+		@Test
+		public void order() {
+			stack.push(1d);
+			stack.push(2d);
+			stack.push(3d);
+
+			assertThat(stack.pop(), is(3d));
+			assertThat(stack.pop(), is(2d));
+			assertThat(stack.pop(), is(1d));
+		}
+
+		@Test
+		public void growing() {
+			for (int i = 0; i < 1000; i++) {
+				stack.push(i);
+			}
+
+			for (int i = 999; i >= 0; i--) {
+				assertThat(stack.pop(), is((double) i));
+			}
+		}
+
+		@Test(expectedExceptions = NoSuchElementException.class)
+		public void empty() {
+			stack.pop();
+		}
+
+		@Test(expectedExceptions = NoSuchElementException.class)
+		public void emptyLast() {
+			stack.getLast();
+		}
+	}
+}
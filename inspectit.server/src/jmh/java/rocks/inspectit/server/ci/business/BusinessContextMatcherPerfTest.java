@@ -0,0 +1,210 @@
+package rocks.inspectit.server.ci.business;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.shared.all.cmr.model.MethodIdent;
+import rocks.inspectit.shared.all.cmr.service.ICachedDataService;
+import rocks.inspectit.shared.all.communication.data.HttpTimerData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.cs.ci.business.expression.AbstractExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.AndExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.OrExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.StringMatchingExpression;
+import rocks.inspectit.shared.cs.ci.business.impl.ApplicationDefinition;
+import rocks.inspectit.shared.cs.ci.business.impl.BusinessTransactionDefinition;
+import rocks.inspectit.shared.cs.ci.business.impl.IMatchingRuleProvider;
+import rocks.inspectit.shared.cs.ci.business.valuesource.PatternMatchingType;
+import rocks.inspectit.shared.cs.ci.business.valuesource.StringValueSource;
+import rocks.inspectit.shared.cs.ci.business.valuesource.impl.HttpRequestMethodValueSource;
+import rocks.inspectit.shared.cs.ci.business.valuesource.impl.HttpUriValueSource;
+import rocks.inspectit.shared.cs.ci.business.valuesource.impl.MethodSignatureValueSource;
+
+/**
+ * Compares the business context recognition with the interpreted expressions (as done by the
+ * {@link AbstractExpression#evaluate} methods) and with the {@link BusinessContextMatcher}. The
+ * invocation sequence matches the last application and business transaction, so that all rules
+ * have to be evaluated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class BusinessContextMatcherPerfTest {
+
+	/**
+	 * Number of application definitions.
+	 */
+	@Param({ "10" })
+	private int applications;
+
+	/**
+	 * Number of business transaction definitions per application.
+	 */
+	@Param({ "5" })
+	private int businessTransactions;
+
+	/**
+	 * Number of nested sequences in the trace.
+	 */
+	@Param({ "10", "100" })
+	private int nodes;
+
+	/**
+	 * Shape of the trace, <code>flat</code> for all nodes nested in the root, <code>deep</code>
+	 * for chain of nodes.
+	 */
+	@Param({ "flat", "deep" })
+	private String shape;
+
+	/**
+	 * Application definitions to match against.
+	 */
+	private List<ApplicationDefinition> applicationDefinitions;
+
+	/**
+	 * Compiled matcher for the {@link #applicationDefinitions}.
+	 */
+	private BusinessContextMatcher matcher;
+
+	/**
+	 * Cached data service returning the same method ident for all ids.
+	 */
+	private ICachedDataService cachedDataService;
+
+	/**
+	 * Invocation sequence to identify.
+	 */
+	private InvocationSequenceData invocationSequence;
+
+	/**
+	 * Creates the definitions and the invocation sequence.
+	 *
+	 * @throws BusinessException
+	 *             If business transaction can not be added.
+	 */
+	@Setup
+	public void init() throws BusinessException {
+		MethodIdent methodIdent = new MethodIdent();
+		methodIdent.setPackageName("rocks.inspectit.sample");
+		methodIdent.setClassName("Service");
+		methodIdent.setMethodName("handle");
+		cachedDataService = mock(ICachedDataService.class);
+		when(cachedDataService.getMethodIdentForId(anyLong())).thenReturn(methodIdent);
+
+		StringValueSource uriSource = new HttpUriValueSource();
+		StringValueSource requestMethodSource = new HttpRequestMethodValueSource();
+		StringValueSource methodSignatureSource = new MethodSignatureValueSource();
+
+		applicationDefinitions = new ArrayList<>();
+		for (int i = 0; i < applications; i++) {
+			StringMatchingExpression uriExpression = matching(uriSource, PatternMatchingType.STARTS_WITH, "/app" + i + "/", false);
+			StringMatchingExpression signatureExpression = matching(methodSignatureSource, PatternMatchingType.REGEX, ".*App" + i + "Controller.*", true);
+			ApplicationDefinition applicationDefinition = new ApplicationDefinition(i + 1, "app" + i, new OrExpression(signatureExpression, uriExpression));
+			for (int j = 0; j < businessTransactions; j++) {
+				StringMatchingExpression txExpression = matching(uriSource, PatternMatchingType.REGEX, "/app" + i + "/tx" + j + "/.*", false);
+				StringMatchingExpression getExpression = matching(requestMethodSource, PatternMatchingType.EQUALS, "GET", false);
+				applicationDefinition.addBusinessTransactionDefinition(new BusinessTransactionDefinition((i * businessTransactions) + j + 1, "tx" + j, new AndExpression(txExpression, getExpression)));
+			}
+			applicationDefinitions.add(applicationDefinition);
+		}
+		applicationDefinitions.add(ApplicationDefinition.DEFAULT_APPLICATION_DEFINITION);
+		matcher = BusinessContextMatcher.compile(applicationDefinitions);
+
+		HttpTimerData httpTimerData = new HttpTimerData();
+		httpTimerData.getHttpInfo().setUri("/app" + (applications - 1) + "/tx" + (businessTransactions - 1) + "/index.html");
+		httpTimerData.getHttpInfo().setRequestMethod("GET");
+		invocationSequence = new InvocationSequenceData();
+		invocationSequence.setTimerData(httpTimerData);
+		InvocationSequenceData parent = invocationSequence;
+		for (int i = 0; i < nodes; i++) {
+			InvocationSequenceData child = new InvocationSequenceData();
+			child.setMethodIdent(i);
+			parent.getNestedSequences().add(child);
+			if ("deep".equals(shape)) {
+				parent = child;
+			}
+		}
+	}
+
+	/**
+	 * Identifies the business transaction by evaluating the expressions of the definitions.
+	 *
+	 * @return Matching business transaction.
+	 */
+	@Benchmark
+	public BusinessTransactionDefinition interpreted() {
+		ApplicationDefinition applicationDefinition = identify(applicationDefinitions);
+		if (null == applicationDefinition) {
+			applicationDefinition = ApplicationDefinition.DEFAULT_APPLICATION_DEFINITION;
+		}
+		return identify(applicationDefinition.getBusinessTransactionDefinitions());
+	}
+
+	/**
+	 * Identifies the business transaction with the compiled matcher.
+	 *
+	 * @return Matching business transaction.
+	 */
+	@Benchmark
+	public BusinessTransactionDefinition compiled() {
+		EvaluationContext context = matcher.createContext(invocationSequence, cachedDataService);
+		return matcher.identifyApplication(context).identifyBusinessTransaction(context);
+	}
+
+	/**
+	 * Returns first rule provider which expression evaluates to true.
+	 *
+	 * @param ruleProviders
+	 *            Rule providers.
+	 * @return Matching rule provider or <code>null</code> if none matches.
+	 */
+	private <E extends IMatchingRuleProvider> E identify(List<E> ruleProviders) {
+		for (E ruleProvider : ruleProviders) {
+			if (ruleProvider.getMatchingRuleExpression().evaluate(invocationSequence, cachedDataService)) {
+				return ruleProvider;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Creates string matching expression.
+	 *
+	 * @param source
+	 *            Value source.
+	 * @param matchingType
+	 *            Matching type.
+	 * @param snippet
+	 *            Snippet.
+	 * @param searchInTrace
+	 *            If nodes in trace should be searched.
+	 * @return Expression.
+	 */
+	private static StringMatchingExpression matching(StringValueSource source, PatternMatchingType matchingType, String snippet, boolean searchInTrace) {
+		StringMatchingExpression expression = new StringMatchingExpression(matchingType, snippet);
+		expression.setStringValueSource(source);
+		expression.setSearchNodeInTrace(searchInTrace);
+		return expression;
+	}
+}
@@ -0,0 +1,119 @@
+package rocks.inspectit.server.dao.impl;
+
+import static org.mockito.Mockito.mock;
+
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import rocks.inspectit.shared.all.communication.data.TimerData;
+
+/**
+ * Measures the throughput of the {@link TimerDataAggregator} when 16 processing threads aggregate
+ * the timer data of the given amount of methods at the same time. The amount of methods is kept
+ * below the maximum amount of elements, so that no data is evicted and only the aggregation is
+ * measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class TimerDataAggregatorPerfTest {
+
+	/**
+	 * Number of different methods the timer data belongs to.
+	 */
+	@Param({ "1", "10", "150" })
+	private int methods;
+
+	/**
+	 * Aggregator shared by all threads.
+	 */
+	private TimerDataAggregator aggregator;
+
+	/**
+	 * Creates the aggregator.
+	 */
+	@Setup
+	public void init() {
+		aggregator = new TimerDataAggregator(mock(PlatformTransactionManager.class));
+		aggregator.aggregationPeriod = Long.MAX_VALUE;
+		aggregator.maxElements = 200;
+	}
+
+	/**
+	 * Aggregates one timer data.
+	 *
+	 * @param producer
+	 *            Per thread producer of the timer data.
+	 */
+	@Benchmark
+	public void processTimerData(Producer producer) {
+		aggregator.processTimerData(producer.next(methods));
+	}
+
+	/**
+	 * Timer data created by one thread, each for the next method.
+	 */
+	@State(Scope.Thread)
+	public static class Producer {
+
+		/**
+		 * Timer data objects, one per method.
+		 */
+		private TimerData[] timerData;
+
+		/**
+		 * Index of the next timer data.
+		 */
+		private int index;
+
+		/**
+		 * Creates the timer data.
+		 *
+		 * @param benchmark
+		 *            Benchmark state holding the amount of methods.
+		 */
+		@Setup
+		public void init(TimerDataAggregatorPerfTest benchmark) {
+			Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+			timerData = new TimerData[benchmark.methods];
+			for (int i = 0; i < timerData.length; i++) {
+				timerData[i] = new TimerData(timestamp, 1L, 2L, i);
+				timerData[i].setCount(1L);
+				timerData[i].setDuration(1d);
+				timerData[i].calculateMin(1d);
+				timerData[i].calculateMax(1d);
+			}
+		}
+
+		/**
+		 * Returns the timer data of the next method.
+		 *
+		 * @param methods
+		 *            Amount of methods.
+		 * @return Timer data.
+		 */
+		TimerData next(int methods) {
+			index = (index + 1) % methods;
+			return timerData[index];
+		}
+	}
+
+}
@@ -0,0 +1,203 @@
+package rocks.inspectit.server.storage;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.Input;
+
+import rocks.inspectit.shared.all.storage.nio.ByteBufferProvider;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
+import rocks.inspectit.shared.cs.indexing.storage.impl.StorageDescriptor;
+import rocks.inspectit.shared.cs.storage.IStorageData;
+import rocks.inspectit.shared.cs.storage.StorageManager;
+import rocks.inspectit.shared.cs.storage.nio.read.MappedChannelManager;
+import rocks.inspectit.shared.cs.storage.nio.read.MappedChannelManager.MappedRegion;
+import rocks.inspectit.shared.cs.storage.nio.read.ReadingChannelManager;
+import rocks.inspectit.shared.cs.storage.nio.stream.ExtendedByteBufferInputStream;
+
+/**
+ * Compares the throughput of reading a storage channel file with the asynchronous channels (as
+ * done by the {@link ExtendedByteBufferInputStream}) and with the memory mapped regions provided by
+ * the {@link MappedChannelManager}. The mapped segments are kept between the invocations, as they
+ * would be when the same local storage is analyzed repeatedly.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class StorageReadPerfTest {
+
+	/**
+	 * Id of the channel.
+	 */
+	private static final int CHANNEL_ID = 1;
+
+	/**
+	 * Size of the channel file in bytes.
+	 */
+	@Param({ "16777216", "268435456" })
+	private int fileSize;
+
+	/**
+	 * Size of one descriptor in bytes, must divide the file size.
+	 */
+	@Param({ "4096", "1048576" })
+	private int descriptorSize;
+
+	/**
+	 * Directory holding the channel file.
+	 */
+	private Path storageDir;
+
+	/**
+	 * Channel file.
+	 */
+	private Path channelPath;
+
+	/**
+	 * Descriptors covering the complete file.
+	 */
+	private List<IStorageDescriptor> descriptors;
+
+	/**
+	 * Storage data.
+	 */
+	private IStorageData storageData;
+
+	/**
+	 * Storage manager resolving the channel file.
+	 */
+	private StorageManager storageManager;
+
+	/**
+	 * Byte buffer provider for the stream.
+	 */
+	private ByteBufferProvider byteBufferProvider;
+
+	/**
+	 * Reading channel manager for the stream.
+	 */
+	private ReadingChannelManager readingChannelManager;
+
+	/**
+	 * Executor service for the channels and the stream.
+	 */
+	private ExecutorService executorService;
+
+	/**
+	 * Mapped channel manager.
+	 */
+	private MappedChannelManager mappedChannelManager;
+
+	@Setup
+	public void setup() throws Exception {
+		storageDir = Files.createTempDirectory("storageReadPerfTest");
+		channelPath = storageDir.resolve(CHANNEL_ID + ".itdata");
+		byte[] content = new byte[fileSize];
+		new Random().nextBytes(content);
+		Files.write(channelPath, content);
+
+		descriptors = new ArrayList<>(fileSize / descriptorSize);
+		for (long position = 0; position < fileSize; position += descriptorSize) {
+			StorageDescriptor descriptor = new StorageDescriptor(CHANNEL_ID);
+			descriptor.setPositionAndSize(position, descriptorSize);
+			descriptors.add(descriptor);
+		}
+
+		storageData = mock(IStorageData.class);
+		storageManager = mock(StorageManager.class);
+		when(storageManager.getChannelPath(any(IStorageData.class), any(IStorageDescriptor.class))).thenReturn(channelPath);
+
+		executorService = Executors.newFixedThreadPool(2);
+
+		byteBufferProvider = new ByteBufferProvider();
+		byteBufferProvider.setBufferSize(ByteBufferProvider.DEFAULT_BUFFER_CAPACITY);
+		byteBufferProvider.setPoolMinCapacity(ByteBufferProvider.DEFAULT_BUFFER_CAPACITY * 3L);
+		byteBufferProvider.setPoolMaxCapacity(ByteBufferProvider.DEFAULT_BUFFER_CAPACITY * 6L);
+		byteBufferProvider.setBufferPoolMinDirectMemoryOccupancy(0.3f);
+		byteBufferProvider.setBufferPoolMaxDirectMemoryOccupancy(0.6f);
+		byteBufferProvider.afterPropertiesSet();
+
+		readingChannelManager = new ReadingChannelManager();
+		readingChannelManager.setExecutorService(executorService);
+
+		mappedChannelManager = new MappedChannelManager();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		readingChannelManager.finalizeAllChannels();
+		mappedChannelManager.releaseAll();
+		executorService.shutdownNow();
+		Files.deleteIfExists(channelPath);
+		Files.deleteIfExists(storageDir);
+	}
+
+	@Benchmark
+	public long asyncChannel() throws IOException {
+		ExtendedByteBufferInputStream inputStream = new ExtendedByteBufferInputStream(storageData, descriptors, 3);
+		inputStream.setByteBufferProvider(byteBufferProvider);
+		inputStream.setReadingChannelManager(readingChannelManager);
+		inputStream.setStorageManager(storageManager);
+		inputStream.setExecutorService(executorService);
+		inputStream.prepare();
+		try {
+			return sum(new Input(inputStream));
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	@Benchmark
+	public long memoryMapped() throws IOException {
+		long sum = 0;
+		for (IStorageDescriptor descriptor : descriptors) {
+			try (MappedRegion region = mappedChannelManager.map(channelPath, descriptor.getPosition(), descriptor.getSize())) {
+				sum += sum(new ByteBufferInput(region.getBuffer()));
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Reads all longs from the input.
+	 *
+	 * @param input
+	 *            Input to read.
+	 * @return Sum of the longs, so that the reading is not eliminated.
+	 */
+	private long sum(Input input) {
+		long sum = 0;
+		while (!input.eof()) {
+			sum += input.readLong();
+		}
+		return sum;
+	}
+}
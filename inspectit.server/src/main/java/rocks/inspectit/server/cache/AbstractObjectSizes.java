@@ -180,7 +180,7 @@ public abstract class AbstractObjectSizes implements IObjectSizes {
 	@Override
 	public long getSizeOfCustomWeakReference() {
 		long size = this.getSizeOfObjectHeader();
-		size += this.getPrimitiveTypesSize(4, 0, 0, 0, 1, 0);
+		size += this.getPrimitiveTypesSize(4, 0, 0, 0, 2, 0);
 		return alignTo8Bytes(size);
 	}
 
@@ -310,6 +310,29 @@ public abstract class AbstractObjectSizes implements IObjectSizes {
 		return size;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfConcurrentSkipListSet(int setSize) {
+		long size = this.getSizeOfObjectHeader();
+		size += this.getPrimitiveTypesSize(1, 0, 0, 0, 0, 0);
+		size = alignTo8Bytes(size);
+
+		// backing map with the head index and the base header node
+		size += alignTo8Bytes(this.getSizeOfObjectHeader() + this.getPrimitiveTypesSize(6, 0, 0, 0, 0, 0));
+		size += alignTo8Bytes(this.getSizeOfObjectHeader() + this.getPrimitiveTypesSize(3, 0, 1, 0, 0, 0));
+		long nodeSize = alignTo8Bytes(this.getSizeOfObjectHeader() + this.getPrimitiveTypesSize(3, 0, 0, 0, 0, 0));
+		size += nodeSize;
+
+		// one node for each element, index nodes are created with probability 1/4 per level, thus
+		// expected 1/3 of the elements
+		size += setSize * nodeSize;
+		size += (setSize / 3) * nodeSize;
+
+		return size;
+	}
+
 	/**
 	 * Returns size of the CHM object used in the high scale lib NonBlockingHashMapLong.
 	 *
@@ -0,0 +1,275 @@
+package rocks.inspectit.server.ci.business;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import rocks.inspectit.shared.all.cmr.service.ICachedDataService;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.cs.ci.business.impl.ApplicationDefinition;
+import rocks.inspectit.shared.cs.ci.business.impl.BusinessTransactionDefinition;
+
+/**
+ * Matcher identifying the application and business transaction of the invocation sequences. The
+ * matching rule expressions of all application and business transaction definitions are compiled
+ * once when the matcher is created, thus the matcher should be recreated every time the business
+ * context definition changes.
+ * <p>
+ * The matcher is immutable and thread safe.
+ */
+public final class BusinessContextMatcher {
+
+	/**
+	 * Applications in the order of the definitions, without the ones that can never match.
+	 */
+	private final List<ApplicationMatcher> applicationMatchers;
+
+	/**
+	 * Matcher for the {@link ApplicationDefinition#DEFAULT_APPLICATION_DEFINITION}, used if no
+	 * application matches.
+	 */
+	private final ApplicationMatcher defaultApplicationMatcher;
+
+	/**
+	 * Amount of distinct value sources in the compiled expressions.
+	 */
+	private final int valueSourceCount;
+
+	/**
+	 * Ids of all application definitions the matcher was compiled from, in the order of the
+	 * definitions.
+	 */
+	private final int[] applicationDefinitionIds;
+
+	/**
+	 * Revisions of the application definitions at the time of the compilation, in the same order
+	 * as the {@link #applicationDefinitionIds}.
+	 */
+	private final int[] applicationDefinitionRevisions;
+
+	/**
+	 * Private constructor, use {@link #compile(List)}.
+	 *
+	 * @param applicationMatchers
+	 *            Applications in the order of the definitions.
+	 * @param defaultApplicationMatcher
+	 *            Matcher for the default application.
+	 * @param valueSourceCount
+	 *            Amount of distinct value sources in the compiled expressions.
+	 * @param applicationDefinitionIds
+	 *            Ids of all application definitions.
+	 * @param applicationDefinitionRevisions
+	 *            Revisions of all application definitions.
+	 */
+	private BusinessContextMatcher(List<ApplicationMatcher> applicationMatchers, ApplicationMatcher defaultApplicationMatcher, int valueSourceCount, int[] applicationDefinitionIds,
+			int[] applicationDefinitionRevisions) {
+		this.applicationMatchers = applicationMatchers;
+		this.defaultApplicationMatcher = defaultApplicationMatcher;
+		this.valueSourceCount = valueSourceCount;
+		this.applicationDefinitionIds = applicationDefinitionIds;
+		this.applicationDefinitionRevisions = applicationDefinitionRevisions;
+	}
+
+	/**
+	 * Compiles the matcher for the given application definitions.
+	 *
+	 * @param applicationDefinitions
+	 *            Application definitions in the order they should be evaluated.
+	 * @return Compiled matcher.
+	 */
+	public static BusinessContextMatcher compile(List<ApplicationDefinition> applicationDefinitions) {
+		ExpressionCompiler compiler = new ExpressionCompiler();
+		List<ApplicationMatcher> applicationMatchers = new ArrayList<>(applicationDefinitions.size());
+		int[] applicationDefinitionIds = new int[applicationDefinitions.size()];
+		int[] applicationDefinitionRevisions = new int[applicationDefinitions.size()];
+		int index = 0;
+		for (ApplicationDefinition applicationDefinition : applicationDefinitions) {
+			applicationDefinitionIds[index] = applicationDefinition.getId();
+			applicationDefinitionRevisions[index] = applicationDefinition.getRevision();
+			index++;
+
+			ApplicationMatcher applicationMatcher = compile(applicationDefinition, compiler);
+			if (ExpressionCompiler.FALSE != applicationMatcher.expression) {
+				applicationMatchers.add(applicationMatcher);
+			}
+		}
+		ApplicationMatcher defaultApplicationMatcher = compile(ApplicationDefinition.DEFAULT_APPLICATION_DEFINITION, compiler);
+		return new BusinessContextMatcher(Collections.unmodifiableList(applicationMatchers), defaultApplicationMatcher, compiler.getValueSourceCount(), applicationDefinitionIds,
+				applicationDefinitionRevisions);
+	}
+
+	/**
+	 * Compiles the application and its business transactions.
+	 *
+	 * @param applicationDefinition
+	 *            Application definition.
+	 * @param compiler
+	 *            Compiler to use.
+	 * @return Application matcher.
+	 */
+	private static ApplicationMatcher compile(ApplicationDefinition applicationDefinition, ExpressionCompiler compiler) {
+		List<BusinessTransactionDefinition> businessTransactionDefinitions = applicationDefinition.getBusinessTransactionDefinitions();
+		List<BusinessTransactionDefinition> definitions = new ArrayList<>(businessTransactionDefinitions.size());
+		List<CompiledExpression> expressions = new ArrayList<>(businessTransactionDefinitions.size());
+		for (BusinessTransactionDefinition businessTransactionDefinition : businessTransactionDefinitions) {
+			CompiledExpression expression = compiler.compile(businessTransactionDefinition.getMatchingRuleExpression());
+			if (ExpressionCompiler.FALSE != expression) {
+				definitions.add(businessTransactionDefinition);
+				expressions.add(expression);
+			}
+		}
+		return new ApplicationMatcher(applicationDefinition, compiler.compile(applicationDefinition.getMatchingRuleExpression()), definitions, expressions);
+	}
+
+	/**
+	 * Creates the context for the evaluation of one invocation sequence. The context should be
+	 * used for all matching of the invocation sequence, so that the values are extracted only
+	 * once.
+	 *
+	 * @param invocationSequence
+	 *            Invocation sequence.
+	 * @param cachedDataService
+	 *            Cached data service.
+	 * @return Evaluation context.
+	 */
+	public EvaluationContext createContext(InvocationSequenceData invocationSequence, ICachedDataService cachedDataService) {
+		return new EvaluationContext(invocationSequence, cachedDataService, valueSourceCount);
+	}
+
+	/**
+	 * Identifies the application of the invocation sequence.
+	 *
+	 * @param context
+	 *            Evaluation context of the invocation sequence.
+	 * @return Matcher of the first matching application or of the
+	 *         {@link ApplicationDefinition#DEFAULT_APPLICATION_DEFINITION} if none matches.
+	 */
+	public ApplicationMatcher identifyApplication(EvaluationContext context) {
+		for (ApplicationMatcher applicationMatcher : applicationMatchers) {
+			if (applicationMatcher.expression.evaluate(context)) {
+				return applicationMatcher;
+			}
+		}
+		return defaultApplicationMatcher;
+	}
+
+	/**
+	 * Returns the amount of application definitions this matcher was compiled from.
+	 *
+	 * @return Amount of application definitions.
+	 */
+	public int getApplicationDefinitionCount() {
+		return applicationDefinitionIds.length;
+	}
+
+	/**
+	 * Returns the length of the common prefix of the application definitions of this and the other
+	 * matcher. The definitions are equal if they have the same id and revision. An invocation
+	 * sequence identified by one of the matchers as the application from the common prefix is
+	 * identified as the same application and business transaction by the other matcher as well.
+	 *
+	 * @param other
+	 *            Other matcher.
+	 * @return Amount of the leading application definitions that are equal in both matchers.
+	 */
+	public int getCommonPrefixLength(BusinessContextMatcher other) {
+		int length = Math.min(applicationDefinitionIds.length, other.applicationDefinitionIds.length);
+		for (int i = 0; i < length; i++) {
+			if ((applicationDefinitionIds[i] != other.applicationDefinitionIds[i]) || (applicationDefinitionRevisions[i] != other.applicationDefinitionRevisions[i])) {
+				return i;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Returns the ids of the first application definitions.
+	 *
+	 * @param prefixLength
+	 *            Amount of the leading application definitions to return the ids for.
+	 * @return Set of application definition ids.
+	 */
+	public Set<Integer> getApplicationDefinitionIds(int prefixLength) {
+		Set<Integer> ids = new HashSet<>();
+		for (int i = 0; i < Math.min(prefixLength, applicationDefinitionIds.length); i++) {
+			ids.add(applicationDefinitionIds[i]);
+		}
+		return ids;
+	}
+
+	/**
+	 * Compiled application definition.
+	 */
+	public static final class ApplicationMatcher {
+
+		/**
+		 * Application definition.
+		 */
+		private final ApplicationDefinition applicationDefinition;
+
+		/**
+		 * Compiled matching rule of the application.
+		 */
+		private final CompiledExpression expression;
+
+		/**
+		 * Business transaction definitions that can match.
+		 */
+		private final List<BusinessTransactionDefinition> businessTransactionDefinitions;
+
+		/**
+		 * Compiled matching rules of the {@link #businessTransactionDefinitions}.
+		 */
+		private final List<CompiledExpression> businessTransactionExpressions;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param applicationDefinition
+		 *            Application definition.
+		 * @param expression
+		 *            Compiled matching rule of the application.
+		 * @param businessTransactionDefinitions
+		 *            Business transaction definitions that can match.
+		 * @param businessTransactionExpressions
+		 *            Compiled matching rules of the business transaction definitions.
+		 */
+		ApplicationMatcher(ApplicationDefinition applicationDefinition, CompiledExpression expression, List<BusinessTransactionDefinition> businessTransactionDefinitions,
+				List<CompiledExpression> businessTransactionExpressions) {
+			this.applicationDefinition = applicationDefinition;
+			this.expression = expression;
+			this.businessTransactionDefinitions = businessTransactionDefinitions;
+			this.businessTransactionExpressions = businessTransactionExpressions;
+		}
+
+		/**
+		 * Identifies the business transaction of the invocation sequence.
+		 *
+		 * @param context
+		 *            Evaluation context of the invocation sequence.
+		 * @return First matching business transaction definition or the
+		 *         {@link BusinessTransactionDefinition#DEFAULT_BUSINESS_TRANSACTION_DEFINITION} if
+		 *         none matches.
+		 */
+		public BusinessTransactionDefinition identifyBusinessTransaction(EvaluationContext context) {
+			for (int i = 0; i < businessTransactionExpressions.size(); i++) {
+				if (businessTransactionExpressions.get(i).evaluate(context)) {
+					return businessTransactionDefinitions.get(i);
+				}
+			}
+			return BusinessTransactionDefinition.DEFAULT_BUSINESS_TRANSACTION_DEFINITION;
+		}
+
+		/**
+		 * Gets {@link #applicationDefinition}.
+		 *
+		 * @return {@link #applicationDefinition}
+		 */
+		public ApplicationDefinition getApplicationDefinition() {
+			return applicationDefinition;
+		}
+
+	}
+}
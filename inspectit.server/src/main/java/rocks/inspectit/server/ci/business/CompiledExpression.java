@@ -0,0 +1,26 @@
+package rocks.inspectit.server.ci.business;
+
+/**
+ * Matching rule expression compiled by the {@link ExpressionCompiler}.
+ */
+interface CompiledExpression {
+
+	/**
+	 * Evaluates the expression for the invocation sequence of the given context.
+	 *
+	 * @param context
+	 *            Evaluation context.
+	 * @return <code>true</code> if the expression matches.
+	 */
+	boolean evaluate(EvaluationContext context);
+
+	/**
+	 * Returns the estimated cost of the evaluation. Operands of the and/or expressions are
+	 * evaluated in the order of the cost, so that cheap operands can short-circuit the evaluation
+	 * of the expensive ones.
+	 *
+	 * @return Estimated cost of the evaluation.
+	 */
+	int getCost();
+
+}
@@ -0,0 +1,103 @@
+package rocks.inspectit.server.ci.business;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import rocks.inspectit.shared.all.cmr.service.ICachedDataService;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.cs.ci.business.valuesource.StringValueSource;
+
+/**
+ * Context of the evaluation of the compiled expressions for one invocation sequence. The string
+ * values are extracted only once per value source and node of the trace, no matter how many
+ * expressions use the same value source.
+ * <p>
+ * The context is not thread safe and should be used for one invocation sequence only.
+ */
+public class EvaluationContext {
+
+	/**
+	 * Invocation sequence to evaluate.
+	 */
+	private final InvocationSequenceData invocationSequence;
+
+	/**
+	 * Cached data service for the value sources.
+	 */
+	private final ICachedDataService cachedDataService;
+
+	/**
+	 * Extracted values by the value source slot and node.
+	 */
+	private final List<Map<InvocationSequenceData, String[]>> values;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param invocationSequence
+	 *            Invocation sequence to evaluate.
+	 * @param cachedDataService
+	 *            Cached data service for the value sources.
+	 * @param valueSourceCount
+	 *            Amount of distinct value sources in the compiled expressions.
+	 */
+	EvaluationContext(InvocationSequenceData invocationSequence, ICachedDataService cachedDataService, int valueSourceCount) {
+		this.invocationSequence = invocationSequence;
+		this.cachedDataService = cachedDataService;
+		this.values = new ArrayList<>(valueSourceCount);
+		for (int i = 0; i < valueSourceCount; i++) {
+			values.add(null);
+		}
+	}
+
+	/**
+	 * Returns the string values of the value source for the given node. Values are extracted
+	 * only on the first call.
+	 *
+	 * @param slot
+	 *            Slot of the value source assigned during the compilation.
+	 * @param stringValueSource
+	 *            Value source.
+	 * @param node
+	 *            Node of the invocation sequence.
+	 * @return String values.
+	 */
+	String[] getStringValues(int slot, StringValueSource stringValueSource, InvocationSequenceData node) {
+		Map<InvocationSequenceData, String[]> nodeValues = values.get(slot);
+		if (null == nodeValues) {
+			nodeValues = new IdentityHashMap<>();
+			values.set(slot, nodeValues);
+		}
+
+		String[] result = nodeValues.get(node);
+		if (null == result) {
+			result = stringValueSource.getStringValues(node, cachedDataService);
+			if (null == result) {
+				result = new String[0];
+			}
+			nodeValues.put(node, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets {@link #invocationSequence}.
+	 *
+	 * @return {@link #invocationSequence}
+	 */
+	public InvocationSequenceData getInvocationSequence() {
+		return invocationSequence;
+	}
+
+	/**
+	 * Gets {@link #cachedDataService}.
+	 *
+	 * @return {@link #cachedDataService}
+	 */
+	public ICachedDataService getCachedDataService() {
+		return cachedDataService;
+	}
+
+}
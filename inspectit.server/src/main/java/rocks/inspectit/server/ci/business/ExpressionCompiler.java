@@ -0,0 +1,490 @@
+package rocks.inspectit.server.ci.business;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.cs.ci.business.expression.AbstractExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.AndExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.BooleanExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.NotExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.OrExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.StringMatchingExpression;
+import rocks.inspectit.shared.cs.ci.business.valuesource.StringValueSource;
+
+/**
+ * Compiles the matching rule {@link AbstractExpression}s to the {@link CompiledExpression}s. The
+ * compilation:
+ * <ul>
+ * <li>compiles the regular expressions only once,
+ * <li>folds the constant (boolean) operands of the and/or/not expressions,
+ * <li>orders the operands of the and/or expressions by the estimated evaluation cost,
+ * <li>assigns one slot to all equal {@link StringValueSource}s, so that values are extracted only
+ * once per node (see {@link EvaluationContext}).
+ * </ul>
+ * Expressions that can never be evaluated successfully (no value source, invalid regular
+ * expression, etc.) are compiled to the <code>false</code> constant.
+ * <p>
+ * One compiler instance should be used for all expressions evaluated with the same
+ * {@link EvaluationContext}.
+ */
+class ExpressionCompiler {
+
+	/**
+	 * Cost of the constant.
+	 */
+	private static final int CONSTANT_COST = 0;
+
+	/**
+	 * Cost of the string matching on one node.
+	 */
+	private static final int STRING_MATCHING_COST = 1;
+
+	/**
+	 * Cost of the regular expression matching on one node.
+	 */
+	private static final int REGEX_MATCHING_COST = 2;
+
+	/**
+	 * Cost factor for searching in the trace.
+	 */
+	private static final int SEARCH_IN_TRACE_FACTOR = 10;
+
+	/**
+	 * Cost of the not compiled expression types.
+	 */
+	private static final int NOT_COMPILED_COST = 100;
+
+	/**
+	 * Compiled constant <code>true</code>.
+	 */
+	static final CompiledExpression TRUE = new Constant(true);
+
+	/**
+	 * Compiled constant <code>false</code>.
+	 */
+	static final CompiledExpression FALSE = new Constant(false);
+
+	/**
+	 * Slots of the value sources.
+	 */
+	private final Map<StringValueSource, Integer> valueSourceSlots = new HashMap<>();
+
+	/**
+	 * Compiles the expression.
+	 *
+	 * @param expression
+	 *            Expression to compile. Can be <code>null</code>.
+	 * @return Compiled expression.
+	 */
+	CompiledExpression compile(AbstractExpression expression) {
+		if (null == expression) {
+			return FALSE;
+		} else if (expression instanceof BooleanExpression) {
+			return ((BooleanExpression) expression).isValue() ? TRUE : FALSE;
+		} else if (expression instanceof AndExpression) {
+			return compileJunction(((AndExpression) expression).getOperands(), true);
+		} else if (expression instanceof OrExpression) {
+			return compileJunction(((OrExpression) expression).getOperands(), false);
+		} else if (expression instanceof NotExpression) {
+			AbstractExpression operand = ((NotExpression) expression).getOperand();
+			if (null == operand) {
+				return FALSE;
+			}
+			CompiledExpression compiled = compile(operand);
+			if (TRUE == compiled) {
+				return FALSE;
+			} else if (FALSE == compiled) {
+				return TRUE;
+			}
+			return new Not(compiled);
+		} else if (expression instanceof StringMatchingExpression) {
+			return compileStringMatching((StringMatchingExpression) expression);
+		} else {
+			return new NotCompiled(expression);
+		}
+	}
+
+	/**
+	 * Returns the amount of distinct value sources in the compiled expressions.
+	 *
+	 * @return Returns the amount of distinct value sources in the compiled expressions.
+	 */
+	int getValueSourceCount() {
+		return valueSourceSlots.size();
+	}
+
+	/**
+	 * Compiles the and/or expression.
+	 *
+	 * @param operands
+	 *            Operands.
+	 * @param and
+	 *            <code>true</code> for and, <code>false</code> for or.
+	 * @return Compiled expression.
+	 */
+	private CompiledExpression compileJunction(List<AbstractExpression> operands, boolean and) {
+		// neutral element is true for and, false for or
+		CompiledExpression neutral = and ? TRUE : FALSE;
+		CompiledExpression dominant = and ? FALSE : TRUE;
+
+		List<CompiledExpression> compiledOperands = new ArrayList<>();
+		if (null != operands) {
+			for (AbstractExpression operand : operands) {
+				CompiledExpression compiled = compile(operand);
+				if (compiled == dominant) {
+					return dominant;
+				} else if (compiled != neutral) {
+					compiledOperands.add(compiled);
+				}
+			}
+		}
+
+		if (compiledOperands.isEmpty()) {
+			return neutral;
+		} else if (compiledOperands.size() == 1) {
+			return compiledOperands.get(0);
+		}
+
+		// stable sort keeps the configured order for operands with same cost
+		compiledOperands.sort(Comparator.comparingInt(CompiledExpression::getCost));
+		return new Junction(compiledOperands.toArray(new CompiledExpression[compiledOperands.size()]), and);
+	}
+
+	/**
+	 * Compiles the string matching expression.
+	 *
+	 * @param expression
+	 *            Expression.
+	 * @return Compiled expression.
+	 */
+	private CompiledExpression compileStringMatching(StringMatchingExpression expression) {
+		StringValueSource stringValueSource = expression.getStringValueSource();
+		String snippet = expression.getSnippet();
+		if ((null == stringValueSource) || (null == snippet) || (null == expression.getMatchingType())) {
+			return FALSE;
+		}
+
+		Predicate<String> predicate;
+		int cost = STRING_MATCHING_COST;
+		switch (expression.getMatchingType()) {
+		case CONTAINS:
+			predicate = value -> value.contains(snippet);
+			break;
+		case ENDS_WITH:
+			predicate = value -> value.endsWith(snippet);
+			break;
+		case STARTS_WITH:
+			predicate = value -> value.startsWith(snippet);
+			break;
+		case EQUALS:
+			predicate = snippet::equals;
+			break;
+		case REGEX:
+			Pattern pattern;
+			try {
+				pattern = Pattern.compile(snippet);
+			} catch (PatternSyntaxException e) {
+				return FALSE;
+			}
+			predicate = value -> pattern.matcher(value).matches();
+			cost = REGEX_MATCHING_COST;
+			break;
+		default:
+			return FALSE;
+		}
+
+		Integer slot = valueSourceSlots.get(stringValueSource);
+		if (null == slot) {
+			slot = Integer.valueOf(valueSourceSlots.size());
+			valueSourceSlots.put(stringValueSource, slot);
+		}
+
+		if (expression.isSearchNodeInTrace()) {
+			cost *= SEARCH_IN_TRACE_FACTOR;
+		}
+		return new StringMatching(slot.intValue(), stringValueSource, predicate, expression.isSearchNodeInTrace(), expression.getMaxSearchDepth(), cost);
+	}
+
+	/**
+	 * Constant.
+	 */
+	private static final class Constant implements CompiledExpression {
+
+		/**
+		 * Value.
+		 */
+		private final boolean value;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param value
+		 *            Value.
+		 */
+		Constant(boolean value) {
+			this.value = value;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean evaluate(EvaluationContext context) {
+			return value;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int getCost() {
+			return CONSTANT_COST;
+		}
+	}
+
+	/**
+	 * And or or of the operands.
+	 */
+	private static final class Junction implements CompiledExpression {
+
+		/**
+		 * Operands ordered by cost.
+		 */
+		private final CompiledExpression[] operands;
+
+		/**
+		 * <code>true</code> for and, <code>false</code> for or.
+		 */
+		private final boolean and;
+
+		/**
+		 * Summed cost of the operands.
+		 */
+		private final int cost;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param operands
+		 *            Operands ordered by cost.
+		 * @param and
+		 *            <code>true</code> for and, <code>false</code> for or.
+		 */
+		Junction(CompiledExpression[] operands, boolean and) {
+			this.operands = operands;
+			this.and = and;
+			int sum = 0;
+			for (CompiledExpression operand : operands) {
+				sum += operand.getCost();
+			}
+			this.cost = sum;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean evaluate(EvaluationContext context) {
+			for (CompiledExpression operand : operands) {
+				if (operand.evaluate(context) != and) {
+					return !and;
+				}
+			}
+			return and;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int getCost() {
+			return cost;
+		}
+	}
+
+	/**
+	 * Negation of the operand.
+	 */
+	private static final class Not implements CompiledExpression {
+
+		/**
+		 * Operand.
+		 */
+		private final CompiledExpression operand;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param operand
+		 *            Operand.
+		 */
+		Not(CompiledExpression operand) {
+			this.operand = operand;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean evaluate(EvaluationContext context) {
+			return !operand.evaluate(context);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int getCost() {
+			return operand.getCost();
+		}
+	}
+
+	/**
+	 * Matching of the string values with the precompiled predicate.
+	 */
+	private static final class StringMatching implements CompiledExpression {
+
+		/**
+		 * Slot of the value source.
+		 */
+		private final int slot;
+
+		/**
+		 * Value source.
+		 */
+		private final StringValueSource stringValueSource;
+
+		/**
+		 * Predicate matching the value.
+		 */
+		private final Predicate<String> predicate;
+
+		/**
+		 * If the nested sequences should be searched.
+		 */
+		private final boolean searchNodeInTrace;
+
+		/**
+		 * Max search depth, negative for no limit.
+		 */
+		private final int maxSearchDepth;
+
+		/**
+		 * Estimated cost.
+		 */
+		private final int cost;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param slot
+		 *            Slot of the value source.
+		 * @param stringValueSource
+		 *            Value source.
+		 * @param predicate
+		 *            Predicate matching the value.
+		 * @param searchNodeInTrace
+		 *            If the nested sequences should be searched.
+		 * @param maxSearchDepth
+		 *            Max search depth, negative for no limit.
+		 * @param cost
+		 *            Estimated cost.
+		 */
+		StringMatching(int slot, StringValueSource stringValueSource, Predicate<String> predicate, boolean searchNodeInTrace, int maxSearchDepth, int cost) {
+			this.slot = slot;
+			this.stringValueSource = stringValueSource;
+			this.predicate = predicate;
+			this.searchNodeInTrace = searchNodeInTrace;
+			this.maxSearchDepth = maxSearchDepth;
+			this.cost = cost;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean evaluate(EvaluationContext context) {
+			return evaluate(context, context.getInvocationSequence(), 0);
+		}
+
+		/**
+		 * Evaluates the node and if needed the nested sequences.
+		 *
+		 * @param context
+		 *            Evaluation context.
+		 * @param node
+		 *            Node to evaluate.
+		 * @param depth
+		 *            Depth of the node.
+		 * @return <code>true</code> if any value of the node or nested sequences matches.
+		 */
+		private boolean evaluate(EvaluationContext context, InvocationSequenceData node, int depth) {
+			for (String value : context.getStringValues(slot, stringValueSource, node)) {
+				if ((null != value) && predicate.test(value)) {
+					return true;
+				}
+			}
+
+			if (searchNodeInTrace && ((maxSearchDepth < 0) || (depth < maxSearchDepth)) && (null != node.getNestedSequences())) {
+				for (InvocationSequenceData child : node.getNestedSequences()) {
+					if (evaluate(context, child, depth + 1)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int getCost() {
+			return cost;
+		}
+	}
+
+	/**
+	 * Expression types without compiled representation are evaluated directly.
+	 */
+	private static final class NotCompiled implements CompiledExpression {
+
+		/**
+		 * Expression.
+		 */
+		private final AbstractExpression expression;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param expression
+		 *            Expression.
+		 */
+		NotCompiled(AbstractExpression expression) {
+			this.expression = expression;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean evaluate(EvaluationContext context) {
+			return expression.evaluate(context.getInvocationSequence(), context.getCachedDataService());
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int getCost() {
+			return NOT_COMPILED_COST;
+		}
+	}
+}
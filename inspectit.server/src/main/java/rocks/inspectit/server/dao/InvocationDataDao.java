@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
 
@@ -176,6 +177,26 @@ public interface InvocationDataDao {
 	 */
 	List<InvocationSequenceData> getInvocationSequenceDetail(long platformId, long methodId, int limit, Date fromDate, Date toDate, Comparator<? super InvocationSequenceData> comparator);
 
+	/**
+	 * Passes the {@link InvocationSequenceData} objects from the buffer to the given consumer in
+	 * chunks, one chunk for each leaf of the indexing tree. The chunks are passed in parallel from
+	 * the fork join tasks and the method returns when all chunks are processed. This method passes
+	 * the original {@link InvocationSequenceData} instances from the buffer and is intended to be
+	 * used only within the CMR for purposes of updating all elements in the buffer, as it avoids
+	 * collecting the complete result in one list.
+	 *
+	 * @param platformId
+	 *            The ID of the platform. If the zero value is passed, invocations of all platforms
+	 *            are processed.
+	 * @param fromDate
+	 *            Date include invocation from.
+	 * @param toDate
+	 *            Date include invocation to.
+	 * @param consumer
+	 *            Thread-safe consumer of the invocation sequence chunks.
+	 */
+	void processInvocationSequences(long platformId, Date fromDate, Date toDate, Consumer<List<InvocationSequenceData>> consumer);
+
 	/**
 	 * This method is used to get all the details of a specific invocation sequence.
 	 *
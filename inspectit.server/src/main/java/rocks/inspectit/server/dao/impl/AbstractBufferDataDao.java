@@ -5,6 +5,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -174,16 +175,29 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 	protected List<E> executeQuery(IIndexQuery indexQuery, IAggregator<E> aggregator, Comparator<? super E> comparator, int limit, boolean useForkJoin) {
 		List<E> data;
 
-		if (useForkJoin) {
+		if ((null == aggregator) && (null != comparator) && (limit > -1)) {
+			// only first elements are needed, let the tree keep only the limited amount
+			if (useForkJoin) {
+				return indexingTree.query(indexQuery, comparator, limit, forkJoinPool);
+			} else {
+				return indexingTree.query(indexQuery, comparator, limit);
+			}
+		}
+
+		if (null != aggregator) {
+			// aggregate in the tree, so that only aggregated objects are returned
+			if (useForkJoin) {
+				data = indexingTree.query(indexQuery, aggregator, forkJoinPool);
+			} else {
+				AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+				indexingTree.query(indexQuery, aggregationPerformer);
+				data = aggregationPerformer.getResultList();
+			}
+		} else if (useForkJoin) {
 			data = indexingTree.query(indexQuery, forkJoinPool);
 		} else {
 			data = indexingTree.query(indexQuery);
 		}
-		if (null != aggregator) {
-			AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
-			aggregationPerformer.processCollection(data);
-			data = aggregationPerformer.getResultList();
-		}
 
 		if (null != comparator) {
 			Collections.sort(data, comparator);
@@ -196,6 +210,19 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 		return data;
 	}
 
+	/**
+	 * Passes the elements fulfilling the query to the consumer, one list for each leaf of the
+	 * indexing tree. The leaves are processed in parallel with the fork join pool.
+	 *
+	 * @param indexQuery
+	 *            Index query to execute.
+	 * @param consumer
+	 *            Thread-safe consumer of the elements.
+	 */
+	protected void executeProcessing(IIndexQuery indexQuery, Consumer<List<E>> consumer) {
+		indexingTree.process(indexQuery, consumer, forkJoinPool);
+	}
+
 	/**
 	 * Gets {@link #indexingTree}.
 	 *
@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
@@ -66,9 +67,9 @@ public class BufferInvocationDataDaoImpl extends AbstractBufferDataDao<Invocatio
 		IIndexQuery query = invocationDataQueryFactory.getInvocationSequences(platformId, methodId, fromDate, toDate);
 		List<InvocationSequenceData> resultWithChildren;
 		if (null != comparator) {
-			resultWithChildren = super.executeQuery(query, comparator, limit, false);
+			resultWithChildren = super.executeQuery(query, comparator, limit, true);
 		} else {
-			resultWithChildren = super.executeQuery(query, DefaultDataComparatorEnum.TIMESTAMP, limit, false);
+			resultWithChildren = super.executeQuery(query, DefaultDataComparatorEnum.TIMESTAMP, limit, true);
 		}
 		List<InvocationSequenceData> realResults = new ArrayList<>(resultWithChildren.size());
 		for (InvocationSequenceData invocationSequenceData : resultWithChildren) {
@@ -86,9 +87,9 @@ public class BufferInvocationDataDaoImpl extends AbstractBufferDataDao<Invocatio
 		IIndexQuery query = invocationDataQueryFactory.getInvocationSequences(platformId, invocationIdCollection, limit);
 		List<InvocationSequenceData> resultWithChildren;
 		if (null != comparator) {
-			resultWithChildren = super.executeQuery(query, comparator, limit, false);
+			resultWithChildren = super.executeQuery(query, comparator, limit, true);
 		} else {
-			resultWithChildren = super.executeQuery(query, DefaultDataComparatorEnum.TIMESTAMP, limit, false);
+			resultWithChildren = super.executeQuery(query, DefaultDataComparatorEnum.TIMESTAMP, limit, true);
 		}
 		List<InvocationSequenceData> realResults = new ArrayList<>(resultWithChildren.size());
 		for (InvocationSequenceData invocationSequenceData : resultWithChildren) {
@@ -106,9 +107,9 @@ public class BufferInvocationDataDaoImpl extends AbstractBufferDataDao<Invocatio
 		IIndexQuery query = invocationDataQueryFactory.getInvocationSequences(platformId, fromDate, toDate, minId);
 		List<InvocationSequenceData> resultWithChildren;
 		if (null != comparator) {
-			resultWithChildren = super.executeQuery(query, comparator, limit, false);
+			resultWithChildren = super.executeQuery(query, comparator, limit, true);
 		} else {
-			resultWithChildren = super.executeQuery(query, DefaultDataComparatorEnum.TIMESTAMP, limit, false);
+			resultWithChildren = super.executeQuery(query, DefaultDataComparatorEnum.TIMESTAMP, limit, true);
 		}
 		List<InvocationSequenceData> realResults = new ArrayList<InvocationSequenceData>(resultWithChildren.size());
 		for (InvocationSequenceData invocationSequenceData : resultWithChildren) {
@@ -132,12 +133,21 @@ public class BufferInvocationDataDaoImpl extends AbstractBufferDataDao<Invocatio
 	public List<InvocationSequenceData> getInvocationSequenceDetail(long platformId, long methodId, int limit, Date fromDate, Date toDate, Comparator<? super InvocationSequenceData> comparator) {
 		IIndexQuery query = invocationDataQueryFactory.getInvocationSequences(platformId, methodId, fromDate, toDate);
 		if (null != comparator) {
-			return super.executeQuery(query, comparator, limit, false);
+			return super.executeQuery(query, comparator, limit, true);
 		} else {
-			return super.executeQuery(query, DefaultDataComparatorEnum.TIMESTAMP, limit, false);
+			return super.executeQuery(query, DefaultDataComparatorEnum.TIMESTAMP, limit, true);
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void processInvocationSequences(long platformId, Date fromDate, Date toDate, Consumer<List<InvocationSequenceData>> consumer) {
+		IIndexQuery query = invocationDataQueryFactory.getInvocationSequences(platformId, 0, fromDate, toDate);
+		super.executeProcessing(query, consumer);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -25,7 +25,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import rocks.inspectit.server.dao.DefaultDataDao;
-import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
+import rocks.inspectit.server.processor.CmrProcessorStage;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.MethodSensorData;
 import rocks.inspectit.shared.all.communication.data.HttpInfo;
@@ -50,12 +50,11 @@ public class DefaultDataDaoImpl implements DefaultDataDao {
 	Logger log;
 
 	/**
-	 * List of processors.
+	 * List of processor stages.
 	 */
 	@Autowired
-	@Resource(name = "cmrDataProcessorList")
-	// resource must be specified, otherwise all processor all plugged here
-	private List<AbstractCmrDataProcessor> cmrDataProcessors;
+	@Resource(name = "cmrProcessorStageList")
+	private List<CmrProcessorStage> cmrProcessorStages;
 
 	/**
 	 * Entity manager.
@@ -66,17 +65,14 @@ public class DefaultDataDaoImpl implements DefaultDataDao {
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * We must mark this as transactional cause it's running outside our services.
+	 * We must mark this as transactional cause it's running outside our services. The
+	 * asynchronous stages process the data in own transactions.
 	 */
 	@Override
 	@Transactional
 	public void saveAll(List<? extends DefaultData> defaultDataCollection) {
-		try {
-			for (AbstractCmrDataProcessor processor : cmrDataProcessors) {
-				processor.process(defaultDataCollection, entityManager);
-			}
-		} catch (Exception e) {
-			log.error("Error occurred trying to process the CMR data processors on the incoming data.", e);
+		for (CmrProcessorStage stage : cmrProcessorStages) {
+			stage.process(defaultDataCollection, entityManager);
 		}
 	}
 
@@ -1,9 +1,9 @@
 package rocks.inspectit.server.dao.impl;
 
 import java.sql.Timestamp;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -30,6 +30,12 @@ import rocks.inspectit.shared.all.communication.data.TimerData;
 @Repository
 public class TimerDataAggregator extends AbstractJpaDao<TimerData> {
 
+	/**
+	 * Amount of persisted objects after which the inserts are flushed. Matches the
+	 * <code>hibernate.jdbc.batch_size</code>.
+	 */
+	private static final int PERSIST_BATCH_SIZE = 50;
+
 	/**
 	 * Period of time in which all timer data should be aggregated. In milliseconds.
 	 */
@@ -55,14 +61,14 @@ public class TimerDataAggregator extends AbstractJpaDao<TimerData> {
 	private AtomicInteger elementCount;
 
 	/**
-	 * Map for caching.
+	 * Map for caching, keyed by the platform ident, method ident and aggregation time stamp.
 	 */
-	private Map<Integer, TimerData> map;
+	private ConcurrentMap<AggregationKey, AggregationEntry> map;
 
 	/**
 	 * Queue for knowing the order.
 	 */
-	private ConcurrentLinkedQueue<TimerData> queue;
+	private ConcurrentLinkedQueue<AggregationEntry> queue;
 
 	/**
 	 * List of objects that are out of the cache and need to be persisted.
@@ -70,9 +76,10 @@ public class TimerDataAggregator extends AbstractJpaDao<TimerData> {
 	private ConcurrentLinkedQueue<TimerData> persistList;
 
 	/**
-	 * Lock for persist all.
+	 * Lock for the eviction of the elements from the cache. Inserting threads only try to acquire
+	 * it, thus they never wait for the eviction.
 	 */
-	private ReentrantLock persistAllLock;
+	private ReentrantLock evictionLock;
 
 	/**
 	 * Cache cleaner.
@@ -94,10 +101,10 @@ public class TimerDataAggregator extends AbstractJpaDao<TimerData> {
 	public TimerDataAggregator(PlatformTransactionManager transactionManager) {
 		super(TimerData.class);
 		elementCount = new AtomicInteger(0);
-		map = new HashMap<>();
+		map = new ConcurrentHashMap<>();
 		queue = new ConcurrentLinkedQueue<>();
 		persistList = new ConcurrentLinkedQueue<>();
-		persistAllLock = new ReentrantLock();
+		evictionLock = new ReentrantLock();
 
 		this.tt = new TransactionTemplate(transactionManager);
 	}
@@ -105,43 +112,72 @@ public class TimerDataAggregator extends AbstractJpaDao<TimerData> {
 	/**
 	 * Aggregates the {@link TimerData} object and updates the cache. Note that the given object
 	 * will not be modified by this method.
+	 * <p>
+	 * The threads only synchronize on the aggregated object they update. If the object is evicted
+	 * from the cache in the meantime, the aggregation is repeated with a new object.
 	 *
 	 * @param timerData
 	 *            {@link TimerData} that holds values to be aggregated.
 	 */
 	public void processTimerData(TimerData timerData) {
 		long aggregationTimestamp = getAlteredTimestamp(timerData);
-		int cacheHash = getCacheHash(timerData.getPlatformIdent(), timerData.getMethodIdent(), aggregationTimestamp);
+		AggregationKey key = new AggregationKey(timerData.getPlatformIdent(), timerData.getMethodIdent(), aggregationTimestamp);
 
-		persistAllLock.lock();
-		try {
-			TimerData aggTimerData = map.get(cacheHash);
-			if (aggTimerData == null) {
+		while (true) {
+			AggregationEntry entry = map.get(key);
+			if (null == entry) {
 				// we create a DB aggregated timer data because we don't want to alter objects that
 				// are in the memory
-				aggTimerData = new DatabaseAggregatedTimerData(new Timestamp(aggregationTimestamp), timerData.getPlatformIdent(), timerData.getSensorTypeIdent(), timerData.getMethodIdent());
-				map.put(cacheHash, aggTimerData);
-				queue.add(aggTimerData);
+				TimerData aggTimerData = new DatabaseAggregatedTimerData(new Timestamp(aggregationTimestamp), timerData.getPlatformIdent(), timerData.getSensorTypeIdent(),
+						timerData.getMethodIdent());
+				AggregationEntry created = new AggregationEntry(key, aggTimerData);
+				entry = map.putIfAbsent(key, created);
+				if (null == entry) {
+					entry = created;
+					queue.add(created);
+
+					// set most recently in cleaner
+					if (null != timerDataAggregatorCacheCleaner) {
+						timerDataAggregatorCacheCleaner.setMostRecentlyAdded(aggTimerData);
+					}
 
-				// set most recently in cleaner
-				if (null != timerDataAggregatorCacheCleaner) {
-					timerDataAggregatorCacheCleaner.setMostRecentlyAdded(aggTimerData);
+					if (maxElements < elementCount.incrementAndGet()) {
+						evictOverflowingElements();
+					}
 				}
+			}
 
-				int count = elementCount.incrementAndGet();
-				// remove oldest as long as number of elements is higher than maximum
-				while (maxElements < count) {
-					TimerData oldest = queue.poll();
-					if (null != oldest) {
-						map.remove(getCacheHash(oldest.getPlatformIdent(), oldest.getMethodIdent(), oldest.getTimeStamp().getTime()));
-						persistList.add(oldest);
-						count = elementCount.decrementAndGet();
-					}
+			synchronized (entry) {
+				if (!entry.evicted) {
+					entry.timerData.aggregateTimerData(timerData);
+					return;
 				}
 			}
-			aggTimerData.aggregateTimerData(timerData);
+
+			// evicted in the meantime, make sure it's not in the map any more and try again
+			map.remove(key, entry);
+		}
+	}
+
+	/**
+	 * Moves the oldest elements to the persist list as long as number of elements is higher than
+	 * maximum. Returns immediately if another thread is already evicting.
+	 */
+	void evictOverflowingElements() {
+		if (!evictionLock.tryLock()) {
+			return;
+		}
+		try {
+			while (maxElements < elementCount.get()) {
+				AggregationEntry oldest = queue.poll();
+				if (null == oldest) {
+					break;
+				}
+				evict(oldest);
+				persistList.add(oldest.timerData);
+			}
 		} finally {
-			persistAllLock.unlock();
+			evictionLock.unlock();
 		}
 	}
 
@@ -150,23 +186,28 @@ public class TimerDataAggregator extends AbstractJpaDao<TimerData> {
 	 */
 	public void removeAndPersistAll() {
 		if (!queue.isEmpty()) {
-			persistAllLock.lock();
+			evictionLock.lock();
 			try {
 				tt.execute(new TransactionCallbackWithoutResult() {
 					@Override
 					protected void doInTransactionWithoutResult(TransactionStatus status) {
-						TimerData oldest = queue.poll();
+						// limit to the current elements, so that concurrent inserts don't keep us here
+						int remaining = elementCount.get();
+						int persisted = 0;
+						AggregationEntry oldest = queue.poll();
 						while (oldest != null) {
-							map.remove(getCacheHash(oldest.getPlatformIdent(), oldest.getMethodIdent(), oldest.getTimeStamp().getTime()));
-							TimerDataAggregator.super.create(oldest);
-							elementCount.decrementAndGet();
+							evict(oldest);
+							persist(oldest.timerData, ++persisted);
 
+							if (--remaining <= 0) {
+								break;
+							}
 							oldest = queue.poll();
 						}
 					}
 				});
 			} finally {
-				persistAllLock.unlock();
+				evictionLock.unlock();
 			}
 		}
 	}
@@ -179,10 +220,11 @@ public class TimerDataAggregator extends AbstractJpaDao<TimerData> {
 			tt.execute(new TransactionCallbackWithoutResult() {
 				@Override
 				protected void doInTransactionWithoutResult(TransactionStatus status) {
+					int persisted = 0;
 					TimerData last = persistList.poll();
 					while (last != null) {
 						TimerData data = (TimerData) last.finalizeData();
-						TimerDataAggregator.super.create(data);
+						persist(data, ++persisted);
 						last = persistList.poll();
 					}
 				}
@@ -191,23 +233,36 @@ public class TimerDataAggregator extends AbstractJpaDao<TimerData> {
 	}
 
 	/**
-	 * Returns the cache hash code.
+	 * Marks the entry as evicted and removes it from the cache. After this call no thread will
+	 * aggregate to the timer data of the entry any more.
+	 *
+	 * @param entry
+	 *            Entry to evict.
+	 */
+	private void evict(AggregationEntry entry) {
+		synchronized (entry) {
+			entry.evicted = true;
+		}
+		map.remove(entry.key, entry);
+		elementCount.decrementAndGet();
+	}
+
+	/**
+	 * Persists the timer data in the current transaction. After every {@link #PERSIST_BATCH_SIZE}
+	 * objects the inserts are flushed as one JDBC batch and the persistence context is cleared, so
+	 * that it does not grow with the amount of persisted objects.
 	 *
-	 * @param platformIdent
-	 *            Platform ident.
-	 * @param methodIdent
-	 *            Method ident.
-	 * @param timestampValue
-	 *            Time stamp value as long.
-	 * @return Cache hash for the given set of values.
+	 * @param timerData
+	 *            Data to persist.
+	 * @param persistedCount
+	 *            Amount of objects persisted in the current transaction including this one.
 	 */
-	private int getCacheHash(long platformIdent, long methodIdent, long timestampValue) {
-		final int prime = 31;
-		int result = 0;
-		result = (prime * result) + (int) (platformIdent ^ (platformIdent >>> 32));
-		result = (prime * result) + (int) (methodIdent ^ (methodIdent >>> 32));
-		result = (prime * result) + (int) (timestampValue ^ (timestampValue >>> 32));
-		return result;
+	private void persist(TimerData timerData, int persistedCount) {
+		super.create(timerData);
+		if (0 == (persistedCount % PERSIST_BATCH_SIZE)) {
+			getEntityManager().flush();
+			getEntityManager().clear();
+		}
 	}
 
 	/**
@@ -262,4 +317,104 @@ public class TimerDataAggregator extends AbstractJpaDao<TimerData> {
 		return elementCount.get();
 	}
 
+	/**
+	 * Key of the aggregated timer data.
+	 */
+	private static final class AggregationKey {
+
+		/**
+		 * Platform ident.
+		 */
+		private final long platformIdent;
+
+		/**
+		 * Method ident.
+		 */
+		private final long methodIdent;
+
+		/**
+		 * Aggregation time stamp.
+		 */
+		private final long timestamp;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param platformIdent
+		 *            Platform ident.
+		 * @param methodIdent
+		 *            Method ident.
+		 * @param timestamp
+		 *            Aggregation time stamp.
+		 */
+		AggregationKey(long platformIdent, long methodIdent, long timestamp) {
+			this.platformIdent = platformIdent;
+			this.methodIdent = methodIdent;
+			this.timestamp = timestamp;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + (int) (platformIdent ^ (platformIdent >>> 32));
+			result = (prime * result) + (int) (methodIdent ^ (methodIdent >>> 32));
+			result = (prime * result) + (int) (timestamp ^ (timestamp >>> 32));
+			return result;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			AggregationKey other = (AggregationKey) obj;
+			return (platformIdent == other.platformIdent) && (methodIdent == other.methodIdent) && (timestamp == other.timestamp);
+		}
+	}
+
+	/**
+	 * Cache entry holding the aggregated timer data. Aggregation and eviction synchronize on the
+	 * entry.
+	 */
+	private static final class AggregationEntry {
+
+		/**
+		 * Key of the entry.
+		 */
+		private final AggregationKey key;
+
+		/**
+		 * Aggregated timer data.
+		 */
+		private final TimerData timerData;
+
+		/**
+		 * If the entry was evicted from the cache.
+		 */
+		private boolean evicted;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param key
+		 *            Key of the entry.
+		 * @param timerData
+		 *            Aggregated timer data.
+		 */
+		AggregationEntry(AggregationKey key, TimerData timerData) {
+			this.key = key;
+			this.timerData = timerData;
+		}
+	}
+
 }
@@ -52,6 +52,7 @@ class TimerDataAggregatorCacheCleaner extends Thread {
 				}
 				lastChecked = timerData;
 			}
+			this.timerDataAggregator.evictOverflowingElements();
 			this.timerDataAggregator.saveAllInPersistList();
 			try {
 				Thread.sleep(this.timerDataAggregator.cacheCleanSleepingPeriod);
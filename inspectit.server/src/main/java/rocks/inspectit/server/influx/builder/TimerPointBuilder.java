@@ -65,6 +65,12 @@ public class TimerPointBuilder extends SinglePointBuilder<TimerData> {
 		builder.addField(Series.Methods.FIELD_CPU_TIME, data.getCpuAverage());
 		builder.addField(Series.Methods.FIELD_MAX_CPU_TIME, data.getCpuMax());
 		builder.addField(Series.Methods.FIELD_COUNT, data.getCount());
+
+		if (data.isPercentileDataAvailable()) {
+			builder.addField(Series.Methods.FIELD_P50_DURATION, data.getPercentile(50));
+			builder.addField(Series.Methods.FIELD_P95_DURATION, data.getPercentile(95));
+			builder.addField(Series.Methods.FIELD_P99_DURATION, data.getPercentile(99));
+		}
 	}
 
 }
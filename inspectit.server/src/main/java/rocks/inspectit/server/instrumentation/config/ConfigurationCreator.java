@@ -142,6 +142,9 @@ public class ConfigurationCreator {
 		// set configuration info
 		agentConfiguration.setConfigurationInfo(configurationResolver.getConfigurationInfo(environment));
 
+		// set revision, platform id included as sensor and method ids are registered per platform
+		agentConfiguration.setConfigurationRevision(platformId + "@" + configurationResolver.getConfigurationRevision(environment));
+
 		return agentConfiguration;
 	}
 
@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.TreeSet;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
@@ -286,6 +287,39 @@ public class ConfigurationResolver {
 		return stringBuilder.toString();
 	}
 
+	/**
+	 * Returns the revision of the configuration defined by the given {@link Environment}. The
+	 * revision consists of the environment revision and the revisions of all its profiles, thus it
+	 * changes whenever the environment or any of the profiles is updated.
+	 *
+	 * @param environment
+	 *            {@link Environment}.
+	 * @return Configuration revision or <code>null</code> if environment is <code>null</code>.
+	 */
+	public String getConfigurationRevision(Environment environment) {
+		if (null == environment) {
+			return null;
+		}
+
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append(environment.getId()).append(':').append(environment.getRevision());
+
+		// sorted so that the order of the profiles in the environment does not matter
+		for (String profileId : new TreeSet<>(environment.getProfileIds())) {
+			stringBuilder.append(';').append(profileId).append(':');
+			try {
+				Profile profile = configurationInterfaceManager.getProfile(profileId);
+				stringBuilder.append(profile.getRevision());
+			} catch (Exception e) {
+				if (log.isDebugEnabled()) {
+					log.debug("Profile with id " + profileId + " not found during configuration revision creation.", e);
+				}
+				stringBuilder.append('-');
+			}
+		}
+		return stringBuilder.toString();
+	}
+
 	/**
 	 * Tries to locate one {@link Environment} for the given agent name and IPs. If only one
 	 * {@link Environment} fits the agent by current mappings this one will be returned. Otherwise
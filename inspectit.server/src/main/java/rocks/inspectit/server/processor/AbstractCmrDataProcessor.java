@@ -64,4 +64,18 @@ public abstract class AbstractCmrDataProcessor {
 	 * @return True if data can be processed, false otherwise.
 	 */
 	public abstract boolean canBeProcessed(DefaultData defaultData);
+
+	/**
+	 * Returns if the objects of the given class can ever be processed by this processor. Used to
+	 * build the dispatch tables, thus the result must only depend on the class. Elements of the
+	 * classes for which this method returns <code>true</code> are still checked with the
+	 * {@link #canBeProcessed(DefaultData)}. Default implementation returns <code>true</code>.
+	 *
+	 * @param dataClass
+	 *            Class of the data.
+	 * @return True if the objects of the class can be processed, false otherwise.
+	 */
+	public boolean canProcessType(Class<? extends DefaultData> dataClass) {
+		return true;
+	}
 }
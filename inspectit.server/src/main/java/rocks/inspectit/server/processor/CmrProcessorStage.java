@@ -0,0 +1,385 @@
+package rocks.inspectit.server.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+
+import org.slf4j.Logger;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.cmr.ProcessorStageData;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * One stage of the CMR data processing pipeline. The stage holds the list of the processors that
+ * are executed in the given order, each processor on the complete batch passed to the stage before
+ * the next one. The processors that can process the element are resolved over the dispatch table
+ * keyed by the concrete class of the element, thus the processors that can never process an
+ * element are not consulted for it.
+ * <p>
+ * If the {@link #queueCapacity} is <code>0</code> the stage is processed synchronously in the
+ * thread passing the data. Otherwise the batches are queued and processed by the
+ * {@link #threadCount} stage threads, each batch in own transaction. Batches that do not fit into
+ * the queue are dropped if the stage is {@link #droppable}, otherwise the thread passing the data
+ * waits until there is space in the queue.
+ *
+ */
+public class CmrProcessorStage {
+
+	/**
+	 * Time in seconds to wait for the queued batches to be processed on shutdown.
+	 */
+	private static final long SHUTDOWN_WAIT_TIME = 10;
+
+	/**
+	 * Nanoseconds in one millisecond.
+	 */
+	private static final long NANOS_IN_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/**
+	 * Empty processor array for the classes no processor is interested in.
+	 */
+	private static final AbstractCmrDataProcessor[] NO_PROCESSORS = new AbstractCmrDataProcessor[0];
+
+	/**
+	 * Handler of the not droppable stages that waits for the space in the queue of the executor.
+	 */
+	private static final RejectedExecutionHandler WAIT_FOR_SPACE_POLICY = (runnable, executor) -> {
+		if (executor.isShutdown()) {
+			throw new RejectedExecutionException("Processor stage is shut down.");
+		}
+		try {
+			executor.getQueue().put(runnable);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted while waiting for the space in the processor stage queue.", e);
+		}
+	};
+
+	/**
+	 * The logger of this class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Name of the stage.
+	 */
+	private final String name;
+
+	/**
+	 * Processors of the stage in the order of execution.
+	 */
+	private final List<AbstractCmrDataProcessor> processors;
+
+	/**
+	 * Capacity of the queue in batches, <code>0</code> for synchronous processing.
+	 */
+	private int queueCapacity;
+
+	/**
+	 * Amount of threads processing the queued batches.
+	 */
+	private int threadCount = 1;
+
+	/**
+	 * If batches that do not fit into the queue can be dropped. Must only be set for the stages
+	 * whose results can be lost, the stages persisting the data must wait for the space instead.
+	 */
+	private boolean droppable;
+
+	/**
+	 * Transaction manager for the transactions of the stage threads.
+	 */
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * Dispatch table holding the processors to execute for each concrete data class.
+	 */
+	private final ConcurrentMap<Class<?>, AbstractCmrDataProcessor[]> dispatchTable = new ConcurrentHashMap<>();
+
+	/**
+	 * Executor of the stage, <code>null</code> for the synchronous stage.
+	 */
+	private ThreadPoolExecutor executor;
+
+	/**
+	 * Transaction template for the stage threads.
+	 */
+	private TransactionTemplate transactionTemplate;
+
+	/**
+	 * Amount of processed elements.
+	 */
+	private final AtomicLong processedCount = new AtomicLong();
+
+	/**
+	 * Amount of dropped elements.
+	 */
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	/**
+	 * Amount of processed batches.
+	 */
+	private final AtomicLong batchCount = new AtomicLong();
+
+	/**
+	 * Summed latency of all processed batches in nanoseconds.
+	 */
+	private final AtomicLong totalLatency = new AtomicLong();
+
+	/**
+	 * Maximum latency of the processed batches in nanoseconds.
+	 */
+	private final AtomicLong maxLatency = new AtomicLong();
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param name
+	 *            Name of the stage.
+	 * @param processors
+	 *            Processors of the stage in the order of execution.
+	 */
+	public CmrProcessorStage(String name, List<AbstractCmrDataProcessor> processors) {
+		this.name = name;
+		this.processors = processors;
+	}
+
+	/**
+	 * Processes the data with the processors of this stage. For the asynchronous stage the data is
+	 * only queued and the method returns immediately, or when there is space in the queue if the
+	 * stage is not {@link #droppable}.
+	 *
+	 * @param defaultDatas
+	 *            Data to process.
+	 * @param entityManager
+	 *            {@link EntityManager} to save data in DB if needed. For the asynchronous stage it
+	 *            must be the shared entity manager bound to the transaction of the current thread.
+	 */
+	public void process(final List<? extends DefaultData> defaultDatas, final EntityManager entityManager) {
+		final long submitTime = System.nanoTime();
+		if (null == executor) {
+			processBatch(defaultDatas, entityManager, submitTime);
+			return;
+		}
+
+		try {
+			executor.execute(() -> transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+				@Override
+				protected void doInTransactionWithoutResult(TransactionStatus status) {
+					processBatch(defaultDatas, entityManager, submitTime);
+				}
+			}));
+		} catch (RejectedExecutionException e) {
+			droppedCount.addAndGet(defaultDatas.size());
+			if (!droppable) {
+				log.warn("Processor stage " + name + " dropped " + defaultDatas.size() + " data objects.", e);
+			}
+		}
+	}
+
+	/**
+	 * Processes one batch processor by processor and updates the statistics.
+	 *
+	 * @param defaultDatas
+	 *            Data to process.
+	 * @param entityManager
+	 *            {@link EntityManager} to save data in DB if needed.
+	 * @param submitTime
+	 *            Time in nanoseconds when the batch was passed to the stage.
+	 */
+	private void processBatch(List<? extends DefaultData> defaultDatas, EntityManager entityManager, long submitTime) {
+		try {
+			DefaultData[] elements = defaultDatas.toArray(new DefaultData[defaultDatas.size()]);
+			AbstractCmrDataProcessor[][] dispatches = new AbstractCmrDataProcessor[elements.length][];
+			for (int i = 0; i < elements.length; i++) {
+				dispatches[i] = (null != elements[i]) ? getProcessors(elements[i].getClass()) : NO_PROCESSORS;
+			}
+			for (AbstractCmrDataProcessor processor : processors) {
+				for (int i = 0; i < elements.length; i++) {
+					if (contains(dispatches[i], processor)) {
+						processor.process(elements[i], entityManager);
+					}
+				}
+			}
+		} catch (Exception e) {
+			log.error("Error occurred trying to process the CMR data processors of the stage " + name + " on the incoming data.", e);
+		}
+
+		long latency = System.nanoTime() - submitTime;
+		processedCount.addAndGet(defaultDatas.size());
+		batchCount.incrementAndGet();
+		totalLatency.addAndGet(latency);
+		long max = maxLatency.get();
+		while ((latency > max) && !maxLatency.compareAndSet(max, latency)) {
+			max = maxLatency.get();
+		}
+	}
+
+	/**
+	 * Returns the processors to execute for the data class, creates the dispatch table entry if
+	 * it does not exist.
+	 *
+	 * @param dataClass
+	 *            Concrete class of the data.
+	 * @return Processors to execute in the order of execution.
+	 */
+	AbstractCmrDataProcessor[] getProcessors(Class<? extends DefaultData> dataClass) {
+		AbstractCmrDataProcessor[] dispatch = dispatchTable.get(dataClass);
+		if (null == dispatch) {
+			List<AbstractCmrDataProcessor> matching = new ArrayList<>(processors.size());
+			for (AbstractCmrDataProcessor processor : processors) {
+				if (processor.canProcessType(dataClass)) {
+					matching.add(processor);
+				}
+			}
+			dispatch = matching.isEmpty() ? NO_PROCESSORS : matching.toArray(new AbstractCmrDataProcessor[matching.size()]);
+			dispatchTable.put(dataClass, dispatch);
+		}
+		return dispatch;
+	}
+
+	/**
+	 * Returns if the processor is in the dispatch array. The arrays hold only few processors, thus
+	 * the linear search is fine.
+	 *
+	 * @param dispatch
+	 *            Processors to execute for one element.
+	 * @param processor
+	 *            Processor to check.
+	 * @return True if the processor is in the array.
+	 */
+	private static boolean contains(AbstractCmrDataProcessor[] dispatch, AbstractCmrDataProcessor processor) {
+		for (AbstractCmrDataProcessor dispatchProcessor : dispatch) {
+			if (dispatchProcessor == processor) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the current status of the stage.
+	 *
+	 * @return {@link ProcessorStageData}
+	 */
+	public ProcessorStageData getProcessorStageData() {
+		ProcessorStageData processorStageData = new ProcessorStageData();
+		processorStageData.setName(name);
+		processorStageData.setProcessedCount(processedCount.get());
+		processorStageData.setDroppedCount(droppedCount.get());
+		long batches = batchCount.get();
+		processorStageData.setBatchCount(batches);
+		if (batches > 0) {
+			processorStageData.setAverageLatency((totalLatency.get() / (double) batches) / NANOS_IN_MILLI);
+		}
+		processorStageData.setMaxLatency(maxLatency.get() / (double) NANOS_IN_MILLI);
+		if (null != executor) {
+			processorStageData.setThreadCount(threadCount);
+			processorStageData.setQueueSize(executor.getQueue().size());
+			processorStageData.setQueueCapacity(queueCapacity);
+		}
+		return processorStageData;
+	}
+
+	/**
+	 * Creates the executor for the asynchronous stage.
+	 */
+	@PostConstruct
+	public void init() {
+		if (queueCapacity > 0) {
+			transactionTemplate = new TransactionTemplate(transactionManager);
+			executor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueCapacity),
+					new ThreadFactoryBuilder().setNameFormat("cmr-processor-stage-" + name + "-%d").setDaemon(true).build(),
+					droppable ? new ThreadPoolExecutor.AbortPolicy() : WAIT_FOR_SPACE_POLICY);
+		}
+	}
+
+	/**
+	 * Shuts down the executor of the asynchronous stage, waiting for the queued batches to be
+	 * processed.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		if (null != executor) {
+			executor.shutdown();
+			try {
+				if (!executor.awaitTermination(SHUTDOWN_WAIT_TIME, TimeUnit.SECONDS)) {
+					log.warn("Processor stage " + name + " did not process all queued data before the shutdown.");
+					executor.shutdownNow();
+				}
+			} catch (InterruptedException e) {
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Gets {@link #name}.
+	 *
+	 * @return {@link #name}
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Sets {@link #queueCapacity}.
+	 *
+	 * @param queueCapacity
+	 *            New value for {@link #queueCapacity}
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Sets {@link #threadCount}.
+	 *
+	 * @param threadCount
+	 *            New value for {@link #threadCount}
+	 */
+	public void setThreadCount(int threadCount) {
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Sets {@link #droppable}.
+	 *
+	 * @param droppable
+	 *            New value for {@link #droppable}
+	 */
+	public void setDroppable(boolean droppable) {
+		this.droppable = droppable;
+	}
+
+	/**
+	 * Sets {@link #transactionManager}.
+	 *
+	 * @param transactionManager
+	 *            New value for {@link #transactionManager}
+	 */
+	public void setTransactionManager(PlatformTransactionManager transactionManager) {
+		this.transactionManager = transactionManager;
+	}
+
+}
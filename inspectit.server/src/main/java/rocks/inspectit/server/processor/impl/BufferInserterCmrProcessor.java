@@ -59,4 +59,12 @@ public class BufferInserterCmrProcessor extends AbstractCmrDataProcessor {
 		return true;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean canProcessType(Class<? extends DefaultData> dataClass) {
+		return MethodSensorData.class.isAssignableFrom(dataClass);
+	}
+
 }
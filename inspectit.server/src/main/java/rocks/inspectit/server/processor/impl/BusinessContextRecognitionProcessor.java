@@ -1,15 +1,20 @@
 package rocks.inspectit.server.processor.impl;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 
-import javax.annotation.Resource;
 import javax.persistence.EntityManager;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationListener;
 
+import rocks.inspectit.server.ci.business.BusinessContextMatcher;
+import rocks.inspectit.server.ci.business.BusinessContextMatcher.ApplicationMatcher;
+import rocks.inspectit.server.ci.business.EvaluationContext;
 import rocks.inspectit.server.ci.event.BusinessContextDefinitionUpdateEvent;
 import rocks.inspectit.server.dao.InvocationDataDao;
 import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
@@ -20,7 +25,6 @@ import rocks.inspectit.shared.all.communication.data.cmr.ApplicationData;
 import rocks.inspectit.shared.all.communication.data.cmr.BusinessTransactionData;
 import rocks.inspectit.shared.cs.ci.business.impl.ApplicationDefinition;
 import rocks.inspectit.shared.cs.ci.business.impl.BusinessTransactionDefinition;
-import rocks.inspectit.shared.cs.ci.business.impl.IMatchingRuleProvider;
 import rocks.inspectit.shared.cs.cmr.service.IBusinessContextRegistryService;
 import rocks.inspectit.shared.cs.cmr.service.IConfigurationInterfaceService;
 import rocks.inspectit.shared.cs.cmr.service.cache.CachedDataService;
@@ -35,6 +39,11 @@ import rocks.inspectit.shared.cs.cmr.service.cache.CachedDataService;
  */
 public class BusinessContextRecognitionProcessor extends AbstractCmrDataProcessor implements ApplicationListener<BusinessContextDefinitionUpdateEvent> {
 
+	/**
+	 * Amount of invocation sequences processed in one fork-join task during the re-assignment.
+	 */
+	private static final int REASSIGNMENT_CHUNK_SIZE = 1000;
+
 	/**
 	 * {@link CachedDataService} instance used to access method information (e.g. method names,
 	 * parameters, etc.).
@@ -61,11 +70,24 @@ public class BusinessContextRecognitionProcessor extends AbstractCmrDataProcesso
 	private InvocationDataDao invocationDataDao;
 
 	/**
-	 * {@link ExecutorService} for updating business context assignments.
+	 * {@link ForkJoinPool} for updating business context assignments of the invocation sequences in
+	 * the buffer.
 	 */
 	@Autowired
-	@Resource(name = "scheduledExecutorService")
-	ScheduledExecutorService executorService;
+	@Qualifier("indexingTreeForkJoinPool")
+	ForkJoinPool forkJoinPool;
+
+	/**
+	 * Matcher compiled from the current business context definition. Created on first use and
+	 * recreated on every {@link BusinessContextDefinitionUpdateEvent}.
+	 */
+	private volatile BusinessContextMatcher businessContextMatcher;
+
+	/**
+	 * Last started re-assignment of the invocation sequences in the buffer, <code>null</code> if
+	 * none was started yet.
+	 */
+	private volatile ReassignmentJob reassignmentJob;
 
 	/**
 	 * {@inheritDoc}
@@ -83,39 +105,38 @@ public class BusinessContextRecognitionProcessor extends AbstractCmrDataProcesso
 	 *            {@link InvocationSequenceData} instance to assign the business context for.
 	 */
 	private void assignBusinessContext(InvocationSequenceData invocSequence) {
-		List<ApplicationDefinition> applicationDefinitions = configurationInterfaceService.getApplicationDefinitions();
-		ApplicationDefinition appDefinition = identify(invocSequence, applicationDefinitions);
-		if (null == appDefinition) {
-			appDefinition = ApplicationDefinition.DEFAULT_APPLICATION_DEFINITION;
-		}
+		BusinessContextMatcher matcher = getBusinessContextMatcher();
+		EvaluationContext context = matcher.createContext(invocSequence, cachedDataService);
+
+		ApplicationMatcher applicationMatcher = matcher.identifyApplication(context);
+		ApplicationDefinition appDefinition = applicationMatcher.getApplicationDefinition();
 		ApplicationData application = businessContextRegistryService.registerApplication(appDefinition);
 		invocSequence.setApplicationId(application.getId());
 
-		BusinessTransactionDefinition businessTxDefinition = identify(invocSequence, appDefinition.getBusinessTransactionDefinitions());
+		BusinessTransactionDefinition businessTxDefinition = applicationMatcher.identifyBusinessTransaction(context);
 		String businessTxName = businessTxDefinition.determineBusinessTransactionName(invocSequence, cachedDataService);
 		BusinessTransactionData businessTransaction = businessContextRegistryService.registerBusinessTransaction(application, businessTxDefinition, businessTxName);
 		invocSequence.setBusinessTransactionId(businessTransaction.getId());
 	}
 
 	/**
-	 * Identifies a matching rule provider.
+	 * Returns the matcher for the current business context definition, compiling it if it does
+	 * not exist yet.
 	 *
-	 * @param invocSequence
-	 *            {@link InvocationSequenceData} instance providing the evaluation context.
-	 * @param ruleProviders
-	 *            list of provider candidates.
-	 * @param <E>
-	 *            the type of the {@link IMatchingRuleProvider} instance.
-	 * @return one selected rule provider if any matches, otherwise null.
-	 */
-	private <E extends IMatchingRuleProvider> E identify(InvocationSequenceData invocSequence, List<E> ruleProviders) {
-		for (E ruleProvider : ruleProviders) {
-			boolean ruleMatches = ruleProvider.getMatchingRuleExpression().evaluate(invocSequence, cachedDataService);
-			if (ruleMatches) {
-				return ruleProvider;
+	 * @return {@link BusinessContextMatcher}
+	 */
+	private BusinessContextMatcher getBusinessContextMatcher() {
+		BusinessContextMatcher matcher = businessContextMatcher;
+		if (null == matcher) {
+			synchronized (this) {
+				matcher = businessContextMatcher;
+				if (null == matcher) {
+					matcher = BusinessContextMatcher.compile(configurationInterfaceService.getApplicationDefinitions());
+					businessContextMatcher = matcher;
+				}
 			}
 		}
-		return null;
+		return matcher;
 	}
 
 	/**
@@ -123,16 +144,59 @@ public class BusinessContextRecognitionProcessor extends AbstractCmrDataProcesso
 	 */
 	@Override
 	public void onApplicationEvent(BusinessContextDefinitionUpdateEvent event) {
-		executorService.execute(new Runnable() {
-			@Override
-			public void run() {
-				// update business context for invocation sequences that are in the buffer
-				List<InvocationSequenceData> invocations = invocationDataDao.getInvocationSequenceDetail(0, 0, -1, null, null, null);
-				for (InvocationSequenceData invocation : invocations) {
-					assignBusinessContext(invocation);
-				}
+		ReassignmentJob job;
+		synchronized (this) {
+			BusinessContextMatcher previousMatcher = businessContextMatcher;
+			BusinessContextMatcher matcher = BusinessContextMatcher.compile(configurationInterfaceService.getApplicationDefinitions());
+			businessContextMatcher = matcher;
+
+			// invocations in the buffer are consistent with the consistent prefix of the definitions
+			// that were used to assign them, only the rest needs to be re-assigned
+			int unchangedPrefixLength;
+			if (null != reassignmentJob) {
+				int consistentPrefixLength = reassignmentJob.cancel();
+				unchangedPrefixLength = Math.min(consistentPrefixLength, reassignmentJob.matcher.getCommonPrefixLength(matcher));
+			} else if (null != previousMatcher) {
+				unchangedPrefixLength = previousMatcher.getCommonPrefixLength(matcher);
+			} else {
+				unchangedPrefixLength = 0;
 			}
-		});
+
+			if (unchangedPrefixLength >= matcher.getApplicationDefinitionCount()) {
+				// all invocations are consistent with the new definitions
+				return;
+			}
+
+			job = new ReassignmentJob(matcher, unchangedPrefixLength);
+			reassignmentJob = job;
+		}
+
+		forkJoinPool.execute(job);
+	}
+
+	/**
+	 * Returns the amount of invocation sequences processed by the last started business context
+	 * re-assignment.
+	 *
+	 * @return Amount of invocation sequences processed, <code>0</code> if no re-assignment was
+	 *         started.
+	 */
+	public long getReassignmentProcessedCount() {
+		ReassignmentJob job = reassignmentJob;
+		return (null != job) ? job.processed.get() : 0L;
+	}
+
+	/**
+	 * Returns the amount of invocation sequences to process by the last started business context
+	 * re-assignment. As the invocation sequences are loaded leaf by leaf from the indexing tree,
+	 * the amount grows until all leaves have been loaded.
+	 *
+	 * @return Amount of invocation sequences to process, <code>0</code> if no re-assignment was
+	 *         started.
+	 */
+	public long getReassignmentTotalCount() {
+		ReassignmentJob job = reassignmentJob;
+		return (null != job) ? job.total.get() : 0L;
 	}
 
 	/**
@@ -143,4 +207,211 @@ public class BusinessContextRecognitionProcessor extends AbstractCmrDataProcesso
 		return defaultData instanceof InvocationSequenceData;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean canProcessType(Class<? extends DefaultData> dataClass) {
+		return InvocationSequenceData.class.isAssignableFrom(dataClass);
+	}
+
+	/**
+	 * Re-assignment of the business context to the invocation sequences in the buffer after the
+	 * business context definition has changed. Invocation sequences assigned to the applications
+	 * from the unchanged prefix of the definitions are skipped, as the new definitions would assign
+	 * them to the same application and business transaction. The invocation sequences are loaded
+	 * from the indexing tree leaf by leaf and the invocations of each leaf are processed in chunks
+	 * in the fork-join pool.
+	 */
+	private class ReassignmentJob extends RecursiveAction {
+
+		/**
+		 * Generated UID.
+		 */
+		private static final long serialVersionUID = 2519408425730376414L;
+
+		/**
+		 * Matcher the re-assignment is done for.
+		 */
+		private final BusinessContextMatcher matcher;
+
+		/**
+		 * Amount of the leading application definitions of the {@link #matcher} that did not
+		 * change.
+		 */
+		private final int unchangedPrefixLength;
+
+		/**
+		 * Amount of invocation sequences processed.
+		 */
+		private final AtomicLong processed = new AtomicLong();
+
+		/**
+		 * Amount of invocation sequences loaded from the buffer so far.
+		 */
+		private final AtomicLong total = new AtomicLong();
+
+		/**
+		 * If the job has been cancelled.
+		 */
+		private volatile boolean cancelled;
+
+		/**
+		 * If the job has processed all invocation sequences.
+		 */
+		private volatile boolean completed;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param matcher
+		 *            Matcher the re-assignment is done for.
+		 * @param unchangedPrefixLength
+		 *            Amount of the leading application definitions that did not change.
+		 */
+		ReassignmentJob(BusinessContextMatcher matcher, int unchangedPrefixLength) {
+			this.matcher = matcher;
+			this.unchangedPrefixLength = unchangedPrefixLength;
+		}
+
+		/**
+		 * Cancels the job.
+		 *
+		 * @return Amount of the leading application definitions of the {@link #matcher} all
+		 *         invocation sequences in the buffer are consistent with.
+		 */
+		int cancel() {
+			cancelled = true;
+			if (completed) {
+				return matcher.getApplicationDefinitionCount();
+			} else {
+				return unchangedPrefixLength;
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void compute() {
+			Set<Integer> unchangedApplicationDefinitionIds = matcher.getApplicationDefinitionIds(unchangedPrefixLength);
+
+			invocationDataDao.processInvocationSequences(0, null, null, invocations -> {
+				if (!cancelled) {
+					total.addAndGet(invocations.size());
+					new ReassignmentTask(this, invocations, 0, invocations.size(), unchangedApplicationDefinitionIds).invoke();
+				}
+			});
+
+			if (!cancelled) {
+				completed = true;
+			}
+		}
+	}
+
+	/**
+	 * Task re-assigning the business context of the invocation sequences in the given range of the
+	 * list of one indexing tree leaf. Splits itself until the range is not bigger than the
+	 * {@link #REASSIGNMENT_CHUNK_SIZE}.
+	 */
+	private class ReassignmentTask extends RecursiveAction {
+
+		/**
+		 * Generated UID.
+		 */
+		private static final long serialVersionUID = -6113467040640806541L;
+
+		/**
+		 * Job this task belongs to.
+		 */
+		private final ReassignmentJob job;
+
+		/**
+		 * Invocation sequences of the leaf.
+		 */
+		private final List<InvocationSequenceData> invocations;
+
+		/**
+		 * Start index (inclusive).
+		 */
+		private final int fromIndex;
+
+		/**
+		 * End index (exclusive).
+		 */
+		private final int toIndex;
+
+		/**
+		 * Ids of the application definitions that did not change.
+		 */
+		private final Set<Integer> unchangedApplicationDefinitionIds;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param job
+		 *            Job this task belongs to.
+		 * @param invocations
+		 *            Invocation sequences of the leaf.
+		 * @param fromIndex
+		 *            Start index (inclusive).
+		 * @param toIndex
+		 *            End index (exclusive).
+		 * @param unchangedApplicationDefinitionIds
+		 *            Ids of the application definitions that did not change.
+		 */
+		ReassignmentTask(ReassignmentJob job, List<InvocationSequenceData> invocations, int fromIndex, int toIndex, Set<Integer> unchangedApplicationDefinitionIds) {
+			this.job = job;
+			this.invocations = invocations;
+			this.fromIndex = fromIndex;
+			this.toIndex = toIndex;
+			this.unchangedApplicationDefinitionIds = unchangedApplicationDefinitionIds;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void compute() {
+			if (job.cancelled) {
+				return;
+			}
+
+			if ((toIndex - fromIndex) > REASSIGNMENT_CHUNK_SIZE) {
+				int middle = (fromIndex + toIndex) >>> 1;
+				invokeAll(new ReassignmentTask(job, invocations, fromIndex, middle, unchangedApplicationDefinitionIds),
+						new ReassignmentTask(job, invocations, middle, toIndex, unchangedApplicationDefinitionIds));
+				return;
+			}
+
+			for (int i = fromIndex; i < toIndex; i++) {
+				if (job.cancelled) {
+					return;
+				}
+				InvocationSequenceData invocation = invocations.get(i);
+				if (!isUnchanged(invocation)) {
+					assignBusinessContext(invocation);
+				}
+			}
+			job.processed.addAndGet(toIndex - fromIndex);
+		}
+
+		/**
+		 * Checks if the invocation sequence is assigned to the application which definition did
+		 * not change.
+		 *
+		 * @param invocation
+		 *            Invocation sequence.
+		 * @return <code>true</code> if the assignment of the invocation does not need to be
+		 *         updated.
+		 */
+		private boolean isUnchanged(InvocationSequenceData invocation) {
+			if (unchangedApplicationDefinitionIds.isEmpty()) {
+				return false;
+			}
+			ApplicationData application = cachedDataService.getApplicationForId(invocation.getApplicationId());
+			return (null != application) && unchangedApplicationDefinitionIds.contains(application.getApplicationDefinitionId());
+		}
+	}
+
 }
@@ -1,25 +1,66 @@
 package rocks.inspectit.server.processor.impl;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.persistence.EntityManager;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
 
 /**
- * Processor that connects error messages in the {@link ExceptionSensorData}.
+ * Processor that connects error messages in the {@link ExceptionSensorData}. The processor also
+ * resolves the stack traces of the data that carry only the stack trace fingerprint, because the
+ * agent already sent the same stack trace before.
  *
  * @author Ivan Senic
  *
  */
 public class ExceptionMessageCmrProcessor extends AbstractCmrDataProcessor {
 
+	/**
+	 * Maximum amount of stack traces kept per agent for the resolving of the fingerprints. Twice
+	 * the amount the agent remembers as sent, as the eviction order of the caches on both sides is
+	 * only approximately the same.
+	 */
+	private static final int MAX_STACK_TRACES_PER_PLATFORM = 2 * ExceptionSensorData.MAX_SENT_STACK_TRACES;
+
+	/**
+	 * Hours after which the stack traces of an agent that did not send any exception data are
+	 * removed. The agent sends the stack traces again long before that.
+	 */
+	private static final int PLATFORM_EXPIRE_HOURS = 1;
+
+	/**
+	 * Marks the end of the first line in the stack trace.
+	 */
+	private static final String FIRST_FRAME = "\n\tat";
+
+	/**
+	 * Stack traces by the fingerprint, per platform ident. Each agent remembers its own sent stack
+	 * traces, thus one agent can not cause eviction of the stack traces of another one.
+	 */
+	private final LoadingCache<Long, Cache<Long, String>> stackTraces = CacheBuilder.newBuilder().expireAfterAccess(PLATFORM_EXPIRE_HOURS, TimeUnit.HOURS)
+			.build(new CacheLoader<Long, Cache<Long, String>>() {
+				@Override
+				public Cache<Long, String> load(Long platformIdent) {
+					return CacheBuilder.newBuilder().maximumSize(MAX_STACK_TRACES_PER_PLATFORM).build();
+				}
+			});
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	protected void processData(DefaultData defaultData, EntityManager entityManager) {
-		connectErrorMessagesInExceptionData((ExceptionSensorData) defaultData);
+		ExceptionSensorData exceptionSensorData = (ExceptionSensorData) defaultData;
+		resolveStackTrace(exceptionSensorData);
+		connectErrorMessagesInExceptionData(exceptionSensorData);
 	}
 
 	/**
@@ -30,6 +71,55 @@ public class ExceptionMessageCmrProcessor extends AbstractCmrDataProcessor {
 		return defaultData instanceof ExceptionSensorData;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean canProcessType(Class<? extends DefaultData> dataClass) {
+		return ExceptionSensorData.class.isAssignableFrom(dataClass);
+	}
+
+	/**
+	 * Remembers the stack trace of the data if it has one, otherwise sets the remembered stack
+	 * trace with the same fingerprint. The first line of the remembered stack trace is replaced with
+	 * the throwable type and error message of the given data, as the message is not part of the
+	 * fingerprint.
+	 *
+	 * @param exceptionSensorData
+	 *            Exception data.
+	 */
+	private void resolveStackTrace(ExceptionSensorData exceptionSensorData) {
+		long fingerprint = exceptionSensorData.getStackTraceFingerprint();
+		if (0 == fingerprint) {
+			return;
+		}
+
+		Cache<Long, String> platformStackTraces = stackTraces.getUnchecked(exceptionSensorData.getPlatformIdent());
+
+		String stackTrace = exceptionSensorData.getStackTrace();
+		if (null != stackTrace) {
+			platformStackTraces.put(fingerprint, stackTrace);
+			return;
+		}
+
+		String knownStackTrace = platformStackTraces.getIfPresent(fingerprint);
+		if (null != knownStackTrace) {
+			int index = knownStackTrace.indexOf(FIRST_FRAME);
+			if ((index > 0) && (null != exceptionSensorData.getThrowableType())) {
+				if ('\r' == knownStackTrace.charAt(index - 1)) {
+					index--;
+				}
+				StringBuilder firstLine = new StringBuilder(exceptionSensorData.getThrowableType());
+				if (null != exceptionSensorData.getErrorMessage()) {
+					firstLine.append(": ").append(exceptionSensorData.getErrorMessage());
+				}
+				exceptionSensorData.setStackTrace(firstLine.append(knownStackTrace, index, knownStackTrace.length()).toString());
+			} else {
+				exceptionSensorData.setStackTrace(knownStackTrace);
+			}
+		}
+	}
+
 	/**
 	 * Connects exception message between linked exception data.
 	 *
@@ -57,6 +57,14 @@ public class IndexerCmrProcessor extends AbstractCmrDataProcessor {
 		return false;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean canProcessType(Class<? extends DefaultData> dataClass) {
+		return InvocationAwareData.class.isAssignableFrom(dataClass);
+	}
+
 	/**
 	 * Sets {@link #indexingTree}.
 	 *
@@ -83,6 +83,14 @@ public class InfluxProcessor extends AbstractCmrDataProcessor {
 		return influxDbDao.isConnected() && builderMap.containsKey(defaultData.getClass()) && isValidData(defaultData);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean canProcessType(Class<? extends DefaultData> dataClass) {
+		return builderMap.containsKey(dataClass);
+	}
+
 	/**
 	 * Check if the data if valid. We currently have following constraints:
 	 *
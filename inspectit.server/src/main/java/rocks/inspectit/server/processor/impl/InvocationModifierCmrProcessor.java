@@ -1,5 +1,8 @@
 package rocks.inspectit.server.processor.impl;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.persistence.EntityManager;
@@ -71,9 +74,23 @@ public class InvocationModifierCmrProcessor extends AbstractChainedCmrDataProces
 		return defaultData instanceof InvocationSequenceData;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean canProcessType(Class<? extends DefaultData> dataClass) {
+		return InvocationSequenceData.class.isAssignableFrom(dataClass);
+	}
+
 	/**
 	 * Extract data from the invocation in the way that timer data is saved to the Db, while SQL
 	 * statements and Exceptions are indexed into the root branch.
+	 * <p>
+	 * The tree is traversed iteratively in a single post-order pass, thus deep invocations can not
+	 * overflow the stack. Each child is passed to the chained processors when first reached, while
+	 * the SQL, timer and exception data of an element is processed after all its children, when
+	 * the exclusive duration of the element is known. The durations of the children are
+	 * accumulated on the way up, so no sub-tree is walked more than once.
 	 *
 	 * @param entityManager
 	 *            {@link EntityManager} needed for DB persistence.
@@ -84,32 +101,50 @@ public class InvocationModifierCmrProcessor extends AbstractChainedCmrDataProces
 	 *
 	 */
 	private void extractDataFromInvocation(EntityManager entityManager, InvocationSequenceData invData, InvocationSequenceData topInvocationParent) {
-		double exclusiveDurationDelta = 0d;
-
-		for (InvocationSequenceData child : invData.getNestedSequences()) {
-			// pass child to chained processors
-			passToChainedProcessors(child, entityManager);
-
-			// include times from timer, sql or invocation itself
-			if (null != child.getTimerData()) {
-				exclusiveDurationDelta += child.getTimerData().getDuration();
-			} else if (null != child.getSqlStatementData()) {
-				// I don't know if the situation that both timer and sql are set in one
-				// invocation, but just to be sure I only include the time of the sql, if i did
-				// not already included the time of the timer before
-				exclusiveDurationDelta += child.getSqlStatementData().getDuration();
-			} else {
-				exclusiveDurationDelta += InvocationSequenceDataHelper.computeNestedDuration(child);
+		Deque<TraversalFrame> stack = new ArrayDeque<>();
+		stack.push(new TraversalFrame(invData));
+
+		while (!stack.isEmpty()) {
+			TraversalFrame frame = stack.peek();
+			if (frame.children.hasNext()) {
+				InvocationSequenceData child = frame.children.next();
+				// pass child to chained processors
+				passToChainedProcessors(child, entityManager);
+				stack.push(new TraversalFrame(child));
+				continue;
 			}
 
-			// go to the recursion
-			extractDataFromInvocation(entityManager, child, topInvocationParent);
-		}
+			stack.pop();
+			InvocationSequenceData data = frame.invocation;
+
+			// process the SQL Statement and Timer
+			processSqlStatementData(entityManager, data, topInvocationParent);
+			processTimerData(entityManager, data, topInvocationParent, frame.exclusiveDurationDelta);
+			processExceptionSensorData(entityManager, data, topInvocationParent);
 
-		// process the SQL Statement and Timer
-		processSqlStatementData(entityManager, invData, topInvocationParent);
-		processTimerData(entityManager, invData, topInvocationParent, exclusiveDurationDelta);
-		processExceptionSensorData(entityManager, invData, topInvocationParent);
+			TraversalFrame parentFrame = stack.peek();
+			if (null != parentFrame) {
+				// include times from timer, sql or invocation itself
+				if (null != data.getTimerData()) {
+					parentFrame.exclusiveDurationDelta += data.getTimerData().getDuration();
+				} else if (null != data.getSqlStatementData()) {
+					// I don't know if the situation that both timer and sql are set in one
+					// invocation, but just to be sure I only include the time of the sql, if i did
+					// not already included the time of the timer before
+					parentFrame.exclusiveDurationDelta += data.getSqlStatementData().getDuration();
+				} else {
+					parentFrame.exclusiveDurationDelta += frame.nestedDuration;
+				}
+
+				// same rules as InvocationSequenceDataHelper.computeNestedDuration(...)
+				double duration = InvocationSequenceDataHelper.calculateDuration(data);
+				if (-1.0d != duration) {
+					parentFrame.nestedDuration += duration;
+				} else {
+					parentFrame.nestedDuration += frame.nestedDuration;
+				}
+			}
+		}
 	}
 
 	/**
@@ -189,4 +224,43 @@ public class InvocationModifierCmrProcessor extends AbstractChainedCmrDataProces
 		}
 	}
 
+	/**
+	 * State of one invocation element during the traversal.
+	 */
+	private static final class TraversalFrame {
+
+		/**
+		 * Invocation element.
+		 */
+		private final InvocationSequenceData invocation;
+
+		/**
+		 * Children not yet traversed.
+		 */
+		private final Iterator<InvocationSequenceData> children;
+
+		/**
+		 * Duration to subtract from the timer duration of the element to get the exclusive
+		 * duration.
+		 */
+		private double exclusiveDurationDelta;
+
+		/**
+		 * Duration of the nested elements as computed by
+		 * {@link InvocationSequenceDataHelper#computeNestedDuration(InvocationSequenceData)}.
+		 */
+		private double nestedDuration;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param invocation
+		 *            Invocation element.
+		 */
+		TraversalFrame(InvocationSequenceData invocation) {
+			this.invocation = invocation;
+			this.children = invocation.getNestedSequences().iterator();
+		}
+	}
+
 }
@@ -63,4 +63,12 @@ public class PersistingCmrProcessor extends AbstractCmrDataProcessor {
 		return false;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean canProcessType(Class<? extends DefaultData> dataClass) {
+		return classes.contains(dataClass);
+	}
+
 }
\ No newline at end of file
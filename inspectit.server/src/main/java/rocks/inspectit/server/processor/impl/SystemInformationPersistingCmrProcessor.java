@@ -29,4 +29,12 @@ public class SystemInformationPersistingCmrProcessor extends PersistingCmrProces
 		return defaultData instanceof SystemInformationData;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean canProcessType(Class<? extends DefaultData> dataClass) {
+		return SystemInformationData.class.isAssignableFrom(dataClass);
+	}
+
 }
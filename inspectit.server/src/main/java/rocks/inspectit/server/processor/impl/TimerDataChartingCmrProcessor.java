@@ -1,9 +1,14 @@
 package rocks.inspectit.server.processor.impl;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
 
-import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
@@ -13,6 +18,11 @@ import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import rocks.inspectit.server.dao.impl.TimerDataAggregator;
 import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
@@ -28,12 +38,23 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 /**
  * Processor that saves {@link TimerData} or {@link HttpTimerData} to database correctly if the
  * charting is on.
+ * <p>
+ * The ids of the {@link HttpInfo} objects existing in the database are cached, thus the database
+ * is queried only for the unknown combinations of uri, tag and request method. The
+ * {@link HttpInfo} objects created in the current transaction are remembered until the commit, so
+ * that the lookup query does not have to flush the pending inserts, which can then be executed in
+ * JDBC batches.
  *
  * @author Ivan Senic
  *
  */
 public class TimerDataChartingCmrProcessor extends AbstractCmrDataProcessor {
 
+	/**
+	 * Maximum amount of cached {@link HttpInfo} ids.
+	 */
+	private static final int MAX_HTTP_INFOS = 10000;
+
 	/**
 	 * Log for this class.
 	 */
@@ -50,7 +71,7 @@ public class TimerDataChartingCmrProcessor extends AbstractCmrDataProcessor {
 	 * Serialization manager provider for getting the {@link SerializationManager}.
 	 */
 	@Autowired
-	private SerializationManagerProvider serializationManagerProvider;
+	SerializationManagerProvider serializationManagerProvider;
 
 	/**
 	 * If writing to the influxDB is active. In that case we will not persist anything to the
@@ -60,9 +81,15 @@ public class TimerDataChartingCmrProcessor extends AbstractCmrDataProcessor {
 	boolean influxActive;
 
 	/**
-	 * {@link SerializationManager} for cloning.
+	 * {@link SerializationManager} for cloning, one per processing thread as the kryo is not thread
+	 * safe.
 	 */
-	SerializationManager serializationManager;
+	private final ThreadLocal<SerializationManager> serializationManager = ThreadLocal.withInitial(() -> serializationManagerProvider.createSerializer());
+
+	/**
+	 * Ids of the persisted {@link HttpInfo} objects.
+	 */
+	private final Cache<HttpInfoKey, Long> httpInfoIds = CacheBuilder.newBuilder().maximumSize(MAX_HTTP_INFOS).build();
 
 	/**
 	 * {@inheritDoc}
@@ -93,8 +120,16 @@ public class TimerDataChartingCmrProcessor extends AbstractCmrDataProcessor {
 	}
 
 	/**
-	 * Creates the cloned {@link HttpTimerData} by using the kryo and {@link #serializationManager}.
-	 * Sets id of the clone to zero.
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean canProcessType(Class<? extends DefaultData> dataClass) {
+		return TimerData.class.isAssignableFrom(dataClass);
+	}
+
+	/**
+	 * Creates the cloned {@link HttpTimerData} by using the kryo and the
+	 * {@link #serializationManager} of the current thread. Sets id of the clone to zero.
 	 *
 	 * @param original
 	 *            Data to be cloned.
@@ -102,8 +137,8 @@ public class TimerDataChartingCmrProcessor extends AbstractCmrDataProcessor {
 	 * @throws SerializationException
 	 *             If serialization fails.
 	 */
-	private synchronized HttpTimerData getClone(HttpTimerData original) throws SerializationException {
-		HttpTimerData httpTimerData = serializationManager.copy(original);
+	private HttpTimerData getClone(HttpTimerData original) throws SerializationException {
+		HttpTimerData httpTimerData = serializationManager.get().copy(original);
 		httpTimerData.setId(0L);
 		return httpTimerData;
 	}
@@ -122,6 +157,20 @@ public class TimerDataChartingCmrProcessor extends AbstractCmrDataProcessor {
 		String uri = httpInfo.isUriDefined() ? httpInfo.getUri() : null; // NOPMD
 		String tag = httpInfo.hasInspectItTaggingHeader() ? httpInfo.getInspectItTaggingHeaderValue() : null; // NOPMD
 		String requestMethod = httpInfo.getRequestMethod();
+		HttpInfoKey key = new HttpInfoKey(uri, tag, requestMethod);
+
+		Long id = httpInfoIds.getIfPresent(key);
+		if (null != id) {
+			return entityManager.getReference(HttpInfo.class, id);
+		}
+
+		Map<HttpInfoKey, HttpInfo> transactionHttpInfos = getTransactionHttpInfos();
+		if (null != transactionHttpInfos) {
+			HttpInfo created = transactionHttpInfos.get(key);
+			if (null != created) {
+				return created;
+			}
+		}
 
 		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
 		CriteriaQuery<HttpInfo> criteria = builder.createQuery(HttpInfo.class);
@@ -143,21 +192,124 @@ public class TimerDataChartingCmrProcessor extends AbstractCmrDataProcessor {
 
 		criteria.where(uriPredicate, tagPredicate, requestMethodPredicate);
 
-		List<?> httpInfoList = entityManager.createQuery(criteria).getResultList();
+		TypedQuery<HttpInfo> query = entityManager.createQuery(criteria);
+		if (null != transactionHttpInfos) {
+			// infos created in this transaction are known, no need to flush the pending inserts
+			query.setFlushMode(FlushModeType.COMMIT);
+		}
+		List<?> httpInfoList = query.getResultList();
 
 		if (CollectionUtils.isNotEmpty(httpInfoList)) {
-			return (HttpInfo) httpInfoList.get(0);
+			HttpInfo existing = (HttpInfo) httpInfoList.get(0);
+			if (0 != existing.getId()) {
+				httpInfoIds.put(key, existing.getId());
+			}
+			return existing;
 		} else {
-			return new HttpInfo(uri, requestMethod, tag);
+			HttpInfo created = new HttpInfo(uri, requestMethod, tag);
+			if (null != transactionHttpInfos) {
+				transactionHttpInfos.put(key, created);
+			}
+			return created;
 		}
 	}
 
 	/**
-	 * Post construct.
+	 * Returns the {@link HttpInfo} objects created in the current transaction. On the first call
+	 * in the transaction the map is bound to the transaction and the ids of the created objects are
+	 * cached after the commit.
+	 *
+	 * @return Map of the created {@link HttpInfo} objects or <code>null</code> if there is no
+	 *         transaction synchronization active.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<HttpInfoKey, HttpInfo> getTransactionHttpInfos() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return null;
+		}
+
+		Map<HttpInfoKey, HttpInfo> transactionHttpInfos = (Map<HttpInfoKey, HttpInfo>) TransactionSynchronizationManager.getResource(this);
+		if (null == transactionHttpInfos) {
+			final Map<HttpInfoKey, HttpInfo> createdHttpInfos = new HashMap<>();
+			TransactionSynchronizationManager.bindResource(this, createdHttpInfos);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					for (Entry<HttpInfoKey, HttpInfo> entry : createdHttpInfos.entrySet()) {
+						if (0 != entry.getValue().getId()) {
+							httpInfoIds.put(entry.getKey(), entry.getValue().getId());
+						}
+					}
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(TimerDataChartingCmrProcessor.this);
+				}
+			});
+			transactionHttpInfos = createdHttpInfos;
+		}
+		return transactionHttpInfos;
+	}
+
+	/**
+	 * Identity of the {@link HttpInfo} in the database.
 	 */
-	@PostConstruct
-	protected void init() {
-		serializationManager = serializationManagerProvider.createSerializer();
+	private static final class HttpInfoKey {
+
+		/**
+		 * Uri, can be <code>null</code>.
+		 */
+		private final String uri;
+
+		/**
+		 * Tag, can be <code>null</code>.
+		 */
+		private final String tag;
+
+		/**
+		 * Request method.
+		 */
+		private final String requestMethod;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param uri
+		 *            Uri, can be <code>null</code>.
+		 * @param tag
+		 *            Tag, can be <code>null</code>.
+		 * @param requestMethod
+		 *            Request method.
+		 */
+		HttpInfoKey(String uri, String tag, String requestMethod) {
+			this.uri = uri;
+			this.tag = tag;
+			this.requestMethod = requestMethod;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			return Objects.hash(uri, tag, requestMethod);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			HttpInfoKey other = (HttpInfoKey) obj;
+			return Objects.equals(uri, other.uri) && Objects.equals(tag, other.tag) && Objects.equals(requestMethod, other.requestMethod);
+		}
 	}
 
 }
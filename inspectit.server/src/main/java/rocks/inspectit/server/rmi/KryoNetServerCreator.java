@@ -45,6 +45,12 @@ public class KryoNetServerCreator {
 	@Value("${cmr.port}")
 	private int port;
 
+	/**
+	 * If compression should be offered to the agents.
+	 */
+	@Value("${cmr.kryonetCompression}")
+	private boolean compression;
+
 	/**
 	 * Serialization manager to provide {@link Kryo} instance.
 	 */
@@ -75,11 +81,12 @@ public class KryoNetServerCreator {
 		IExtendedSerialization serialization = new ExtendedSerializationImpl(serializationManagerProvider);
 
 		Server server = new Server(serialization, streamProvider);
+		server.setCompressionEnabled(compression);
 		server.start();
 
 		try {
 			server.bind(port);
-			log.info("|-Kryonet server successfully started and running on port " + port);
+			log.info("|-Kryonet server successfully started and running on port " + port + (compression ? " (compression offered)" : ""));
 		} catch (IOException e) {
 			throw new BeanInitializationException("Could not bind the kryonet server to the specified port (" + port + ").", e);
 		}
@@ -1,8 +1,10 @@
 package rocks.inspectit.server.service;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import javax.annotation.PostConstruct;
 
@@ -13,6 +15,7 @@ import org.springframework.stereotype.Service;
 import rocks.inspectit.server.instrumentation.NextGenInstrumentationManager;
 import rocks.inspectit.server.messaging.AgentMessageProvider;
 import rocks.inspectit.server.spring.aop.MethodLog;
+import rocks.inspectit.server.util.AgentStatusDataProvider;
 import rocks.inspectit.shared.all.cmr.service.IAgentService;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
 import rocks.inspectit.shared.all.exception.BusinessException;
@@ -49,6 +52,12 @@ public class AgentService implements IAgentService {
 	@Autowired
 	AgentMessageProvider messageProvider;
 
+	/**
+	 * {@link AgentStatusDataProvider}.
+	 */
+	@Autowired
+	AgentStatusDataProvider agentStatusDataProvider;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -76,6 +85,22 @@ public class AgentService implements IAgentService {
 		return nextGenInstrumentationManager.analyze(platformIdent, hash, sentType);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@MethodLog
+	public Map<String, InstrumentationDefinition> analyze(long platformIdent, Map<String, Type> hashAndTypes) throws BusinessException {
+		Map<String, InstrumentationDefinition> result = new HashMap<>();
+		for (Entry<String, Type> entry : hashAndTypes.entrySet()) {
+			InstrumentationDefinition instrumentationDefinition = nextGenInstrumentationManager.analyze(platformIdent, entry.getKey(), entry.getValue());
+			if (null != instrumentationDefinition) {
+				result.put(entry.getKey(), instrumentationDefinition);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -85,6 +110,15 @@ public class AgentService implements IAgentService {
 		nextGenInstrumentationManager.instrumentationApplied(platformId, methodToSensorMap);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@MethodLog
+	public void reportDroppedData(long platformId, long droppedCount, long aggregatedCount) {
+		agentStatusDataProvider.registerDroppedData(platformId, droppedCount, aggregatedCount);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -20,6 +20,7 @@ import rocks.inspectit.server.util.Converter;
 import rocks.inspectit.shared.all.cmr.property.spring.PropertyUpdate;
 import rocks.inspectit.shared.all.cmr.service.IAgentStorageService;
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
 import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.cs.cmr.service.ICmrManagementService;
 
@@ -47,6 +48,12 @@ public class AgentStorageService implements IAgentStorageService {
 	 */
 	private static final long DATA_THROW_TIMEOUT_MILLIS = 10;
 
+	/**
+	 * Amount of milliseconds after the last drop of the data in which the
+	 * {@link CmrLoad#OVERLOADED} is reported to all agents.
+	 */
+	private static final long OVERLOAD_REPORT_TIME_MILLIS = 1000;
+
 	/**
 	 * The default data DAO.
 	 */
@@ -68,7 +75,12 @@ public class AgentStorageService implements IAgentStorageService {
 	/**
 	 * Queue to store and remove list of data that has to be processed.
 	 */
-	private ArrayBlockingQueue<SoftReference<List<? extends DefaultData>>> dataObjectsBlockingQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private ArrayBlockingQueue<DataReference> dataObjectsBlockingQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+	/**
+	 * Time in milliseconds when the data was dropped the last time.
+	 */
+	private volatile long lastDropTime;
 
 	/**
 	 * Count of thread to process data.
@@ -93,32 +105,64 @@ public class AgentStorageService implements IAgentStorageService {
 	 * @param dataObjectsBlockingQueue
 	 *            Queue.
 	 */
-	AgentStorageService(ArrayBlockingQueue<SoftReference<List<? extends DefaultData>>> dataObjectsBlockingQueue) {
+	AgentStorageService(ArrayBlockingQueue<DataReference> dataObjectsBlockingQueue) {
 		this.dataObjectsBlockingQueue = dataObjectsBlockingQueue;
 	}
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * The {@link CmrLoad#OVERLOADED} is returned if data was dropped in the last
+	 * {@link #OVERLOAD_REPORT_TIME_MILLIS}, and the {@link CmrLoad#HIGH} if the queue is at least
+	 * half full.
 	 */
 	@Override
 	@MethodLog
-	public void addDataObjects(final List<? extends DefaultData> dataObjects) {
-		SoftReference<List<? extends DefaultData>> softReference = new SoftReference<List<? extends DefaultData>>(dataObjects);
+	public CmrLoad addDataObjects(final List<? extends DefaultData> dataObjects) {
+		DataReference dataReference = new DataReference(dataObjects);
 		if (!dataObjects.isEmpty()) {
 			platformIdentDateSaver.registerDataSent(dataObjects.get(0).getPlatformIdent());
 		}
 		try {
-			boolean added = dataObjectsBlockingQueue.offer(softReference, DATA_THROW_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			boolean added = dataObjectsBlockingQueue.offer(dataReference, DATA_THROW_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
 			if (!added) {
 				int droppedSize = dataObjects.size();
 				if (log.isTraceEnabled()) {
 					log.trace("Data dropped on the CMR due to the high volume of incoming data from Agent(s). Dropped data objects count: " + droppedSize);
 				}
-				cmrManagementService.addDroppedDataCount(droppedSize);
+				dataDropped(droppedSize);
 			}
 		} catch (InterruptedException e) {
-			return;
+			Thread.currentThread().interrupt();
 		}
+		return getLoad();
+	}
+
+	/**
+	 * Returns the current load based on the queue occupancy and the last drop time.
+	 *
+	 * @return {@link CmrLoad}
+	 */
+	private CmrLoad getLoad() {
+		if ((System.currentTimeMillis() - lastDropTime) < OVERLOAD_REPORT_TIME_MILLIS) {
+			return CmrLoad.OVERLOADED;
+		}
+		int queueSize = dataObjectsBlockingQueue.size();
+		if ((queueSize * 2) >= (queueSize + dataObjectsBlockingQueue.remainingCapacity())) {
+			return CmrLoad.HIGH;
+		}
+		return CmrLoad.NORMAL;
+	}
+
+	/**
+	 * Reports the dropped data and remembers the drop time.
+	 *
+	 * @param droppedSize
+	 *            Amount of dropped data objects.
+	 */
+	private void dataDropped(int droppedSize) {
+		lastDropTime = System.currentTimeMillis();
+		cmrManagementService.addDroppedDataCount(droppedSize);
 	}
 
 	/**
@@ -202,16 +246,22 @@ public class AgentStorageService implements IAgentStorageService {
 					break;
 				}
 
-				SoftReference<List<? extends DefaultData>> softReference = null;
+				DataReference dataReference = null;
 				try {
-					softReference = dataObjectsBlockingQueue.take();
+					dataReference = dataObjectsBlockingQueue.take();
 				} catch (InterruptedException e) {
 					this.interrupt();
 					return;
 				}
 
-				List<? extends DefaultData> defaultDataList = softReference.get();
-				if (defaultDataList != null) {
+				List<? extends DefaultData> defaultDataList = dataReference.get();
+				if (null == defaultDataList) {
+					// cleared by the garbage collector due to the memory shortage
+					if (log.isTraceEnabled()) {
+						log.trace("Data dropped on the CMR due to the memory shortage. Dropped data objects count: " + dataReference.size);
+					}
+					dataDropped(dataReference.size);
+				} else {
 					long time = 0;
 					if (log.isDebugEnabled()) {
 						time = System.nanoTime();
@@ -226,4 +276,27 @@ public class AgentStorageService implements IAgentStorageService {
 			}
 		}
 	}
+
+	/**
+	 * Soft reference to the list of data that remembers the amount of data objects, so that the
+	 * data lost due to the memory shortage can be reported.
+	 */
+	static class DataReference extends SoftReference<List<? extends DefaultData>> {
+
+		/**
+		 * Amount of data objects in the list.
+		 */
+		private final int size;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param dataObjects
+		 *            List of data.
+		 */
+		DataReference(List<? extends DefaultData> dataObjects) {
+			super(dataObjects);
+			this.size = dataObjects.size();
+		}
+	}
 }
@@ -7,11 +7,13 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
 
 import org.apache.commons.lang.mutable.MutableLong;
 import org.slf4j.Logger;
@@ -20,11 +22,14 @@ import org.springframework.stereotype.Service;
 
 import rocks.inspectit.server.cache.IBuffer;
 import rocks.inspectit.server.externalservice.IExternalService;
+import rocks.inspectit.server.processor.CmrProcessorStage;
+import rocks.inspectit.server.processor.impl.BusinessContextRecognitionProcessor;
 import rocks.inspectit.server.property.PropertyManager;
 import rocks.inspectit.server.spring.aop.MethodLog;
 import rocks.inspectit.server.util.ShutdownService;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.cmr.CmrStatusData;
+import rocks.inspectit.shared.all.communication.data.cmr.ProcessorStageData;
 import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.cs.cmr.property.configuration.PropertySection;
 import rocks.inspectit.shared.cs.cmr.property.update.configuration.ConfigurationUpdate;
@@ -72,6 +77,13 @@ public class CmrManagementService implements ICmrManagementService {
 	 */
 	private int droppedDataCount = 0;
 
+	/**
+	 * {@link BusinessContextRecognitionProcessor} for the progress of the business context
+	 * re-assignment.
+	 */
+	@Autowired
+	private BusinessContextRecognitionProcessor businessContextRecognitionProcessor;
+
 	/**
 	 * {@link ShutdownService}.
 	 */
@@ -84,6 +96,13 @@ public class CmrManagementService implements ICmrManagementService {
 	@Autowired
 	private List<IExternalService> services;
 
+	/**
+	 * List of the data processing stages.
+	 */
+	@Autowired
+	@Resource(name = "cmrProcessorStageList")
+	private List<CmrProcessorStage> cmrProcessorStages;
+
 	/**
 	 * Time in milliseconds when the CMR has started.
 	 */
@@ -138,6 +157,8 @@ public class CmrManagementService implements ICmrManagementService {
 		cmrStatusData.setUpTime(System.currentTimeMillis() - timeStarted);
 		cmrStatusData.setDateStarted(dateStarted);
 		cmrStatusData.setDatabaseSize(getDatabaseSize());
+		cmrStatusData.setBusinessContextReassignmentProcessed(businessContextRecognitionProcessor.getReassignmentProcessedCount());
+		cmrStatusData.setBusinessContextReassignmentTotal(businessContextRecognitionProcessor.getReassignmentTotalCount());
 
 		for (IExternalService service : services) {
 			cmrStatusData.getExternalServiceStatusMap().put(service.getServiceType(), service.getServiceStatus());
@@ -165,6 +186,19 @@ public class CmrManagementService implements ICmrManagementService {
 		return droppedDataCount;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@MethodLog
+	public List<ProcessorStageData> getProcessorStageData() {
+		List<ProcessorStageData> processorStageData = new ArrayList<>(cmrProcessorStages.size());
+		for (CmrProcessorStage stage : cmrProcessorStages) {
+			processorStageData.add(stage.getProcessorStageData());
+		}
+		return processorStageData;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
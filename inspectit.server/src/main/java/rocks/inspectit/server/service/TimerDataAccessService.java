@@ -2,6 +2,7 @@ package rocks.inspectit.server.service;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Service;
 import rocks.inspectit.server.dao.TimerDataDao;
 import rocks.inspectit.server.spring.aop.MethodLog;
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.communication.data.TimerHistogram;
 import rocks.inspectit.shared.cs.cmr.service.ITimerDataAccessService;
 
 /**
@@ -46,4 +48,13 @@ public class TimerDataAccessService implements ITimerDataAccessService {
 		return result;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@MethodLog
+	public Map<Long, double[]> getDurationPercentiles(TimerData timerData, Date fromDate, Date toDate, double... percentiles) {
+		return TimerHistogram.getDurationPercentiles(getAggregatedTimerData(timerData, fromDate, toDate), percentiles);
+	}
+
 }
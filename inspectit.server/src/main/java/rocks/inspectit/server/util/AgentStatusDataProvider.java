@@ -139,6 +139,30 @@ public class AgentStatusDataProvider implements InitializingBean, ApplicationLis
 		}
 	}
 
+	/**
+	 * Registers the data dropped or aggregated on the agent due to the overflow of its buffer.
+	 *
+	 * @param platformIdent
+	 *            ID of the platform ident.
+	 * @param droppedCount
+	 *            Amount of data objects dropped since the last report.
+	 * @param aggregatedCount
+	 *            Amount of data objects aggregated since the last report.
+	 */
+	public void registerDroppedData(long platformIdent, long droppedCount, long aggregatedCount) {
+		AgentStatusData agentStatusData = agentStatusDataMap.get(platformIdent);
+		if (null != agentStatusData) {
+			synchronized (agentStatusData) {
+				agentStatusData.setDroppedDataCount(agentStatusData.getDroppedDataCount() + droppedCount);
+				agentStatusData.setAggregatedDataCount(agentStatusData.getAggregatedDataCount() + aggregatedCount);
+			}
+
+			if ((droppedCount > 0) && log.isWarnEnabled()) {
+				log.warn("Platform " + platformIdent + " dropped " + droppedCount + " data objects due to the overflow of its buffer (total dropped: " + agentStatusData.getDroppedDataCount() + ").");
+			}
+		}
+	}
+
 	/**
 	 * Registers the time when the last keep-alive was received for a given platform ident.
 	 *
@@ -61,7 +61,9 @@ import rocks.inspectit.shared.cs.ci.Profile;
 import rocks.inspectit.shared.cs.ci.assignment.impl.ExceptionSensorAssignment;
 import rocks.inspectit.shared.cs.ci.assignment.impl.MethodSensorAssignment;
 import rocks.inspectit.shared.cs.ci.business.impl.ApplicationDefinition;
+import rocks.inspectit.shared.cs.ci.export.ConfigurationInterfaceImportData;
 import rocks.inspectit.shared.cs.ci.profile.data.SensorAssignmentProfileData;
+import rocks.inspectit.shared.cs.ci.sensor.exception.impl.ExceptionSensorConfig;
 import rocks.inspectit.shared.cs.storage.util.DeleteFileVisitor;
 
 /**
@@ -881,6 +883,35 @@ public class ConfigurationInterfaceManagerTest extends TestBase {
 		}
 	}
 
+	public class ExportImportData extends ConfigurationInterfaceManagerTest {
+
+		/**
+		 * Validates the exported data against the shipped schema.
+		 */
+		@BeforeMethod
+		public void useShippedSchema() {
+			ConfigurationInterfacePathResolver resolverHelper = new ConfigurationInterfacePathResolver();
+			resolverHelper.init();
+			assertThat(Files.exists(resolverHelper.getSchemaPath()), is(true));
+			when(pathResolver.getSchemaPath()).thenReturn(resolverHelper.getSchemaPath());
+		}
+
+		@Test
+		public void exceptionSensorConfigMaxPerTypePerSecond() throws Exception {
+			Environment environment = new Environment();
+			environment.setName("test");
+			((ExceptionSensorConfig) environment.getExceptionSensorConfig()).setMaxPerTypePerSecond(25);
+			environment = manager.createEnvironment(environment);
+
+			byte[] data = manager.getExportData(Collections.singleton(environment), Collections.<Profile> emptyList());
+			ConfigurationInterfaceImportData importData = manager.getImportData(data);
+
+			assertThat(importData.getEnvironments(), hasSize(1));
+			Environment imported = importData.getEnvironments().iterator().next();
+			assertThat(((ExceptionSensorConfig) imported.getExceptionSensorConfig()).getMaxPerTypePerSecond(), is(25));
+		}
+	}
+
 	/**
 	 * Clean test folder after each test.
 	 */
@@ -0,0 +1,215 @@
+package rocks.inspectit.server.ci.business;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mockito.Mock;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.cmr.service.ICachedDataService;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.testbase.TestBase;
+import rocks.inspectit.shared.cs.ci.business.expression.AbstractExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.AndExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.BooleanExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.NotExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.OrExpression;
+import rocks.inspectit.shared.cs.ci.business.expression.impl.StringMatchingExpression;
+import rocks.inspectit.shared.cs.ci.business.impl.ApplicationDefinition;
+import rocks.inspectit.shared.cs.ci.business.impl.BusinessTransactionDefinition;
+import rocks.inspectit.shared.cs.ci.business.valuesource.PatternMatchingType;
+import rocks.inspectit.shared.cs.ci.business.valuesource.StringValueSource;
+
+/**
+ * Tests the {@link BusinessContextMatcher}.
+ */
+@SuppressWarnings("PMD")
+public class BusinessContextMatcherTest extends TestBase {
+
+	@Mock
+	StringValueSource stringValueSource;
+
+	@Mock
+	StringValueSource otherValueSource;
+
+	@Mock
+	ICachedDataService cachedDataService;
+
+	InvocationSequenceData root;
+
+	InvocationSequenceData child;
+
+	List<ApplicationDefinition> applicationDefinitions;
+
+	@BeforeMethod
+	public void init() {
+		root = new InvocationSequenceData();
+		root.setId(1);
+		child = new InvocationSequenceData();
+		child.setId(2);
+		root.getNestedSequences().add(child);
+		applicationDefinitions = new ArrayList<>();
+
+		when(stringValueSource.getStringValues(root, cachedDataService)).thenReturn(new String[] { "/shop/cart" });
+		when(stringValueSource.getStringValues(child, cachedDataService)).thenReturn(new String[] { "checkout" });
+		when(otherValueSource.getStringValues(any(InvocationSequenceData.class), any(ICachedDataService.class))).thenReturn(new String[] { "GET" });
+	}
+
+	StringMatchingExpression matching(StringValueSource source, PatternMatchingType matchingType, String snippet, boolean searchInTrace) {
+		StringMatchingExpression expression = new StringMatchingExpression(matchingType, snippet);
+		expression.setStringValueSource(source);
+		expression.setSearchNodeInTrace(searchInTrace);
+		return expression;
+	}
+
+	ApplicationDefinition application(int id, AbstractExpression expression, AbstractExpression... businessTransactionExpressions) throws BusinessException {
+		ApplicationDefinition applicationDefinition = new ApplicationDefinition(id, "app" + id, expression);
+		int txId = id * 100;
+		for (AbstractExpression businessTransactionExpression : businessTransactionExpressions) {
+			txId++;
+			applicationDefinition.addBusinessTransactionDefinition(new BusinessTransactionDefinition(txId, "tx" + txId, businessTransactionExpression));
+		}
+		applicationDefinitions.add(applicationDefinition);
+		return applicationDefinition;
+	}
+
+	BusinessTransactionDefinition identify(ApplicationDefinition expectedApplication) {
+		BusinessContextMatcher matcher = BusinessContextMatcher.compile(applicationDefinitions);
+		EvaluationContext context = matcher.createContext(root, cachedDataService);
+		BusinessContextMatcher.ApplicationMatcher applicationMatcher = matcher.identifyApplication(context);
+		assertThat(applicationMatcher.getApplicationDefinition(), is(expectedApplication));
+		return applicationMatcher.identifyBusinessTransaction(context);
+	}
+
+	/**
+	 * Tests the identification of the application and business transaction.
+	 */
+	public static class Identify extends BusinessContextMatcherTest {
+
+		@Test
+		public void firstMatchingApplicationAndBusinessTransaction() throws BusinessException {
+			application(1, matching(stringValueSource, PatternMatchingType.STARTS_WITH, "/admin", false));
+			ApplicationDefinition shop = application(2, matching(stringValueSource, PatternMatchingType.STARTS_WITH, "/shop", false),
+					matching(stringValueSource, PatternMatchingType.EQUALS, "/shop/list", false), matching(stringValueSource, PatternMatchingType.ENDS_WITH, "cart", false));
+			application(3, new BooleanExpression(true));
+
+			BusinessTransactionDefinition businessTransaction = identify(shop);
+
+			assertThat(businessTransaction, is(shop.getBusinessTransactionDefinitions().get(1)));
+		}
+
+		@Test
+		public void defaultApplicationAndBusinessTransaction() throws BusinessException {
+			application(1, matching(stringValueSource, PatternMatchingType.CONTAINS, "admin", false));
+
+			BusinessTransactionDefinition businessTransaction = identify(ApplicationDefinition.DEFAULT_APPLICATION_DEFINITION);
+
+			assertThat(businessTransaction, is(BusinessTransactionDefinition.DEFAULT_BUSINESS_TRANSACTION_DEFINITION));
+		}
+
+		@Test
+		public void defaultBusinessTransaction() throws BusinessException {
+			ApplicationDefinition shop = application(1, matching(stringValueSource, PatternMatchingType.CONTAINS, "shop", false),
+					matching(stringValueSource, PatternMatchingType.CONTAINS, "admin", false));
+
+			BusinessTransactionDefinition businessTransaction = identify(shop);
+
+			assertThat(businessTransaction, is(BusinessTransactionDefinition.DEFAULT_BUSINESS_TRANSACTION_DEFINITION));
+		}
+
+		@Test
+		public void regex() throws BusinessException {
+			ApplicationDefinition shop = application(1, matching(stringValueSource, PatternMatchingType.REGEX, "/sh.p/.*", false));
+
+			identify(shop);
+		}
+
+		@Test
+		public void invalidRegexNeverMatches() throws BusinessException {
+			application(1, matching(stringValueSource, PatternMatchingType.REGEX, "/shop/[", false));
+
+			identify(ApplicationDefinition.DEFAULT_APPLICATION_DEFINITION);
+
+			verify(stringValueSource, never()).getStringValues(any(InvocationSequenceData.class), any(ICachedDataService.class));
+		}
+
+		@Test
+		public void searchInTrace() throws BusinessException {
+			ApplicationDefinition checkout = application(1, matching(stringValueSource, PatternMatchingType.EQUALS, "checkout", true));
+
+			identify(checkout);
+		}
+
+		@Test
+		public void searchInTraceMaxDepth() throws BusinessException {
+			StringMatchingExpression expression = matching(stringValueSource, PatternMatchingType.EQUALS, "checkout", true);
+			expression.setMaxSearchDepth(0);
+			application(1, expression);
+
+			identify(ApplicationDefinition.DEFAULT_APPLICATION_DEFINITION);
+		}
+
+		@Test
+		public void notWithoutOperand() throws BusinessException {
+			application(1, new NotExpression());
+
+			identify(ApplicationDefinition.DEFAULT_APPLICATION_DEFINITION);
+		}
+
+		@Test
+		public void not() throws BusinessException {
+			ApplicationDefinition shop = application(1, new NotExpression(matching(stringValueSource, PatternMatchingType.CONTAINS, "admin", false)));
+
+			identify(shop);
+		}
+	}
+
+	/**
+	 * Tests the optimizations done by the compilation.
+	 */
+	public static class Optimization extends BusinessContextMatcherTest {
+
+		@Test
+		public void valuesExtractedOncePerNode() throws BusinessException {
+			application(1, matching(stringValueSource, PatternMatchingType.STARTS_WITH, "/admin", false));
+			ApplicationDefinition shop = application(2, matching(stringValueSource, PatternMatchingType.STARTS_WITH, "/shop", true),
+					matching(stringValueSource, PatternMatchingType.EQUALS, "/shop/list", false), matching(stringValueSource, PatternMatchingType.EQUALS, "checkout", true));
+
+			identify(shop);
+
+			verify(stringValueSource, times(1)).getStringValues(root, cachedDataService);
+			verify(stringValueSource, times(1)).getStringValues(child, cachedDataService);
+		}
+
+		@Test
+		public void constantFolding() throws BusinessException {
+			application(1, new AndExpression(new BooleanExpression(false), matching(stringValueSource, PatternMatchingType.STARTS_WITH, "/shop", false)));
+			ApplicationDefinition shop = application(2, new OrExpression(matching(stringValueSource, PatternMatchingType.STARTS_WITH, "/admin", false), new BooleanExpression(true)));
+
+			identify(shop);
+
+			verify(stringValueSource, never()).getStringValues(any(InvocationSequenceData.class), any(ICachedDataService.class));
+		}
+
+		@Test
+		public void cheaperOperandFirst() throws BusinessException {
+			application(1, new AndExpression(matching(stringValueSource, PatternMatchingType.REGEX, "checkout", true),
+					matching(otherValueSource, PatternMatchingType.EQUALS, "POST", false)));
+
+			identify(ApplicationDefinition.DEFAULT_APPLICATION_DEFINITION);
+
+			verify(otherValueSource, times(1)).getStringValues(root, cachedDataService);
+			verify(stringValueSource, never()).getStringValues(any(InvocationSequenceData.class), any(ICachedDataService.class));
+		}
+	}
+}
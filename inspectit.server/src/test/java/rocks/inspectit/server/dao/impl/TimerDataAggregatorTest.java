@@ -8,6 +8,7 @@ import static org.mockito.Matchers.anyDouble;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
@@ -16,9 +17,15 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.persistence.EntityManager;
 
@@ -129,6 +136,71 @@ public class TimerDataAggregatorTest extends AbstractTestNGLogSupport {
 		assertThat(argument.getValue().getMethodIdent(), is(timerData1.getMethodIdent()));
 	}
 
+	/**
+	 * Tests that different methods are never aggregated together, even if the hash of the keys is
+	 * same.
+	 */
+	@Test
+	public void sameHashNotAggregated() {
+		Timestamp timestamp = new Timestamp(0L);
+		TimerData timerData1 = new TimerData(timestamp, 1L, 20L, 0L);
+		TimerData timerData2 = new TimerData(timestamp, 0L, 20L, 31L);
+
+		aggregator.processTimerData(timerData1);
+		aggregator.processTimerData(timerData2);
+
+		assertThat(aggregator.getElementCount(), is(2));
+		aggregator.removeAndPersistAll();
+		ArgumentCaptor<TimerData> argument = ArgumentCaptor.forClass(TimerData.class);
+		verify(entityManager, times(2)).persist(argument.capture());
+		assertThat(argument.getAllValues().get(0).getMethodIdent(), is(0L));
+		assertThat(argument.getAllValues().get(1).getMethodIdent(), is(31L));
+		assertThat(aggregator.getElementCount(), is(0));
+	}
+
+	/**
+	 * Tests that no aggregated count is lost when many threads aggregate and evict concurrently.
+	 */
+	@Test
+	public void concurrentAggregation() throws Exception {
+		aggregator.maxElements = 5;
+		final int threads = 16;
+		final int perThread = 10000;
+		final Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			futures.add(executorService.submit(() -> {
+				start.await();
+				for (int i = 0; i < perThread; i++) {
+					TimerData timerData = new TimerData(timestamp, 1L, 2L, i % 20);
+					timerData.setCount(1L);
+					timerData.setDuration(1d);
+					aggregator.processTimerData(timerData);
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executorService.shutdown();
+
+		aggregator.saveAllInPersistList();
+		aggregator.removeAndPersistAll();
+
+		ArgumentCaptor<TimerData> argument = ArgumentCaptor.forClass(TimerData.class);
+		verify(entityManager, atLeastOnce()).persist(argument.capture());
+		long count = 0;
+		for (TimerData persisted : argument.getAllValues()) {
+			count += persisted.getCount();
+		}
+		assertThat(count, is((long) threads * perThread));
+		assertThat(aggregator.getElementCount(), is(0));
+	}
+
 	/**
 	 * Test for the validity of aggregation.
 	 */
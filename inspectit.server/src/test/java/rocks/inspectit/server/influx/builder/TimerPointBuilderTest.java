@@ -99,6 +99,49 @@ public class TimerPointBuilderTest extends AbstractPointBuilderTest {
 			assertThat(getFields(pointBuilder), hasEntry(Series.Methods.FIELD_MAX_CPU_TIME, (Object) data.getCpuMax()));
 		}
 
+		@Test
+		public void percentiles() throws Exception {
+			when(cachedDataService.getPlatformIdentForId(PLATFORM_ID)).thenReturn(platformIdent);
+			when(cachedDataService.getMethodIdentForId(METHOD_ID)).thenReturn(methodIdent);
+
+			long time = RandomUtils.nextLong();
+			when(data.getPlatformIdent()).thenReturn(PLATFORM_ID);
+			when(data.getMethodIdent()).thenReturn(METHOD_ID);
+			when(data.getTimeStamp()).thenReturn(new Timestamp(time));
+			when(data.isPercentileDataAvailable()).thenReturn(true);
+			when(data.getPercentile(50)).thenReturn(1d);
+			when(data.getPercentile(95)).thenReturn(2d);
+			when(data.getPercentile(99)).thenReturn(3d);
+
+			Collection<Builder> pointBuilderCol = builder.createBuilders(data);
+			assertThat(pointBuilderCol.size(), is(1));
+			Builder pointBuilder = pointBuilderCol.iterator().next();
+
+			assertThat(getFields(pointBuilder), hasEntry(Series.Methods.FIELD_P50_DURATION, (Object) 1d));
+			assertThat(getFields(pointBuilder), hasEntry(Series.Methods.FIELD_P95_DURATION, (Object) 2d));
+			assertThat(getFields(pointBuilder), hasEntry(Series.Methods.FIELD_P99_DURATION, (Object) 3d));
+		}
+
+		@Test
+		public void noPercentiles() throws Exception {
+			when(cachedDataService.getPlatformIdentForId(PLATFORM_ID)).thenReturn(platformIdent);
+			when(cachedDataService.getMethodIdentForId(METHOD_ID)).thenReturn(methodIdent);
+
+			long time = RandomUtils.nextLong();
+			when(data.getPlatformIdent()).thenReturn(PLATFORM_ID);
+			when(data.getMethodIdent()).thenReturn(METHOD_ID);
+			when(data.getTimeStamp()).thenReturn(new Timestamp(time));
+			when(data.isPercentileDataAvailable()).thenReturn(false);
+
+			Collection<Builder> pointBuilderCol = builder.createBuilders(data);
+			assertThat(pointBuilderCol.size(), is(1));
+			Builder pointBuilder = pointBuilderCol.iterator().next();
+
+			assertThat(getFields(pointBuilder), not(hasKey(Series.Methods.FIELD_P50_DURATION)));
+			assertThat(getFields(pointBuilder), not(hasKey(Series.Methods.FIELD_P95_DURATION)));
+			assertThat(getFields(pointBuilder), not(hasKey(Series.Methods.FIELD_P99_DURATION)));
+		}
+
 		@Test
 		public void noPlatform() throws Exception {
 			when(cachedDataService.getPlatformIdentForId(PLATFORM_ID)).thenReturn(null);
@@ -6,6 +6,8 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -565,4 +567,55 @@ public class ConfigurationResolverTest extends TestBase {
 
 	}
 
+	public static class GetConfigurationRevision extends ConfigurationResolverTest {
+
+		@Test
+		public void nullEnvironment() {
+			String revision = configurationResolver.getConfigurationRevision(null);
+
+			assertThat(revision, is(nullValue()));
+			verifyZeroInteractions(configurationInterfaceManager);
+		}
+
+		@Test
+		public void revision() throws BusinessException {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(3);
+			when(environment.getProfileIds()).thenReturn(Collections.singleton(PROFILE_ID));
+			when(configurationInterfaceManager.getProfile(PROFILE_ID)).thenReturn(profile);
+			when(profile.getRevision()).thenReturn(5);
+
+			String revision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(revision, is("env:3;id:5"));
+		}
+
+		@Test
+		public void profileChanged() throws BusinessException {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(3);
+			when(environment.getProfileIds()).thenReturn(Collections.singleton(PROFILE_ID));
+			when(configurationInterfaceManager.getProfile(PROFILE_ID)).thenReturn(profile);
+			when(profile.getRevision()).thenReturn(5);
+			String before = configurationResolver.getConfigurationRevision(environment);
+			when(profile.getRevision()).thenReturn(6);
+
+			String after = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(after, is(not(before)));
+		}
+
+		@Test
+		public void profileDoesNotExists() throws BusinessException {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(3);
+			when(environment.getProfileIds()).thenReturn(Collections.singleton(PROFILE_ID));
+			when(configurationInterfaceManager.getProfile(PROFILE_ID)).thenThrow(new BusinessException(null));
+
+			String revision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(revision, is("env:3;id:-"));
+		}
+	}
+
 }
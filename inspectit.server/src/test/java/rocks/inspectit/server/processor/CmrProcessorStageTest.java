@@ -0,0 +1,238 @@
+package rocks.inspectit.server.processor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import javax.persistence.EntityManager;
+
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.slf4j.Logger;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.communication.data.cmr.ProcessorStageData;
+
+/**
+ * Tests the {@link CmrProcessorStage}.
+ */
+@SuppressWarnings("PMD")
+public class CmrProcessorStageTest {
+
+	/**
+	 * Class under test.
+	 */
+	private CmrProcessorStage stage;
+
+	@Mock
+	private AbstractCmrDataProcessor firstProcessor;
+
+	@Mock
+	private AbstractCmrDataProcessor secondProcessor;
+
+	@Mock
+	private EntityManager entityManager;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private Logger log;
+
+	@BeforeMethod
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		stage = new CmrProcessorStage("test", Arrays.asList(firstProcessor, secondProcessor));
+		stage.log = log;
+		stage.setTransactionManager(transactionManager);
+	}
+
+	@AfterMethod
+	public void shutdown() {
+		stage.shutdown();
+	}
+
+	@Test
+	public void dispatchByType() {
+		when(firstProcessor.canProcessType(TimerData.class)).thenReturn(true);
+		when(secondProcessor.canProcessType(SqlStatementData.class)).thenReturn(true);
+		stage.init();
+		TimerData timerData = new TimerData();
+		SqlStatementData sqlStatementData = new SqlStatementData();
+
+		stage.process(Arrays.asList(timerData, sqlStatementData, timerData), entityManager);
+
+		verify(firstProcessor, times(2)).process(timerData, entityManager);
+		verify(firstProcessor, never()).process(sqlStatementData, entityManager);
+		verify(secondProcessor).process(sqlStatementData, entityManager);
+		verify(secondProcessor, never()).process(timerData, entityManager);
+		// dispatch table is computed once per class
+		verify(firstProcessor, times(1)).canProcessType(TimerData.class);
+		verify(secondProcessor, times(1)).canProcessType(TimerData.class);
+	}
+
+	@Test
+	public void processingOrder() {
+		when(firstProcessor.canProcessType(TimerData.class)).thenReturn(true);
+		when(secondProcessor.canProcessType(TimerData.class)).thenReturn(true);
+		stage.init();
+		TimerData first = new TimerData();
+		TimerData second = new TimerData();
+
+		stage.process(Arrays.asList(first, null, second), entityManager);
+
+		InOrder inOrder = inOrder(firstProcessor, secondProcessor);
+		inOrder.verify(firstProcessor).process(first, entityManager);
+		inOrder.verify(firstProcessor).process(second, entityManager);
+		inOrder.verify(secondProcessor).process(first, entityManager);
+		inOrder.verify(secondProcessor).process(second, entityManager);
+		ProcessorStageData processorStageData = stage.getProcessorStageData();
+		assertThat(processorStageData.getName(), is("test"));
+		assertThat(processorStageData.getProcessedCount(), is(3L));
+		assertThat(processorStageData.getBatchCount(), is(1L));
+		assertThat(processorStageData.getThreadCount(), is(0));
+	}
+
+	@Test
+	public void processingFailureContained() {
+		when(firstProcessor.canProcessType(TimerData.class)).thenReturn(true);
+		when(secondProcessor.canProcessType(TimerData.class)).thenReturn(true);
+		stage.init();
+		TimerData timerData = new TimerData();
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				throw new RuntimeException();
+			}
+		}).when(firstProcessor).process(timerData, entityManager);
+
+		stage.process(Collections.singletonList(timerData), entityManager);
+
+		verify(secondProcessor, never()).process(timerData, entityManager);
+		assertThat(stage.getProcessorStageData().getBatchCount(), is(1L));
+	}
+
+	@Test
+	public void asynchronousProcessing() {
+		when(firstProcessor.canProcessType(TimerData.class)).thenReturn(true);
+		stage.setQueueCapacity(10);
+		stage.setThreadCount(2);
+		stage.init();
+		TimerData timerData = new TimerData();
+
+		stage.process(Collections.singletonList(timerData), entityManager);
+
+		verify(firstProcessor, timeout(5000)).process(timerData, entityManager);
+		stage.shutdown();
+		verify(transactionManager).commit(any());
+		ProcessorStageData processorStageData = stage.getProcessorStageData();
+		assertThat(processorStageData.getProcessedCount(), is(1L));
+		assertThat(processorStageData.getDroppedCount(), is(0L));
+		assertThat(processorStageData.getThreadCount(), is(2));
+		assertThat(processorStageData.getQueueCapacity(), is(10));
+	}
+
+	@Test
+	public void dropWhenQueueFull() throws Exception {
+		when(firstProcessor.canProcessType(TimerData.class)).thenReturn(true);
+		stage.setQueueCapacity(1);
+		stage.setDroppable(true);
+		stage.init();
+		final CountDownLatch processingStarted = new CountDownLatch(1);
+		final CountDownLatch processingReleased = new CountDownLatch(1);
+		TimerData blocking = new TimerData();
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				processingStarted.countDown();
+				processingReleased.await();
+				return null;
+			}
+		}).when(firstProcessor).process(blocking, entityManager);
+		List<TimerData> dropped = Arrays.asList(new TimerData(), new TimerData());
+
+		stage.process(Collections.singletonList(blocking), entityManager);
+		processingStarted.await();
+		stage.process(Collections.singletonList(new TimerData()), entityManager);
+		stage.process(dropped, entityManager);
+
+		ProcessorStageData processorStageData = stage.getProcessorStageData();
+		assertThat(processorStageData.getQueueSize(), is(1));
+		assertThat(processorStageData.getDroppedCount(), is(2L));
+
+		processingReleased.countDown();
+		stage.shutdown();
+		assertThat(stage.getProcessorStageData().getProcessedCount(), is(2L));
+		verify(firstProcessor, never()).process(dropped.get(0), entityManager);
+	}
+
+	@Test
+	public void waitWhenQueueFull() throws Exception {
+		when(firstProcessor.canProcessType(TimerData.class)).thenReturn(true);
+		when(secondProcessor.canProcessType(TimerData.class)).thenReturn(true);
+		stage.setQueueCapacity(1);
+		stage.init();
+		final CountDownLatch processingStarted = new CountDownLatch(1);
+		final CountDownLatch processingReleased = new CountDownLatch(1);
+		TimerData blocking = new TimerData();
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				processingStarted.countDown();
+				processingReleased.await();
+				return null;
+			}
+		}).when(firstProcessor).process(blocking, entityManager);
+		final TimerData queued = new TimerData();
+		final List<TimerData> waiting = Arrays.asList(new TimerData(), new TimerData());
+
+		stage.process(Collections.singletonList(blocking), entityManager);
+		processingStarted.await();
+		stage.process(Collections.singletonList(queued), entityManager);
+		Thread waitingThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				stage.process(waiting, entityManager);
+			}
+		});
+		waitingThread.start();
+		waitingThread.join(500);
+
+		assertThat(waitingThread.isAlive(), is(true));
+		assertThat(stage.getProcessorStageData().getQueueSize(), is(1));
+
+		processingReleased.countDown();
+		waitingThread.join(5000);
+		stage.shutdown();
+		ProcessorStageData processorStageData = stage.getProcessorStageData();
+		assertThat(processorStageData.getProcessedCount(), is(4L));
+		assertThat(processorStageData.getDroppedCount(), is(0L));
+		// last processor sees every element
+		verify(secondProcessor).process(blocking, entityManager);
+		verify(secondProcessor).process(queued, entityManager);
+		verify(secondProcessor).process(waiting.get(0), entityManager);
+		verify(secondProcessor).process(waiting.get(1), entityManager);
+	}
+
+}
@@ -4,17 +4,25 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import javax.persistence.EntityManager;
 
@@ -269,6 +277,7 @@ public class BusinessContextRecognitionProcessorTest extends TestBase {
 		 */
 		@AfterMethod
 		public void cleanUp() throws IOException {
+			forkJoinPool.shutdownNow();
 			root.setApplicationId(-1);
 			root.setBusinessTransactionId(-1);
 		}
@@ -301,8 +310,7 @@ public class BusinessContextRecognitionProcessorTest extends TestBase {
 		@Mock
 		BusinessContextDefinitionUpdateEvent event;
 
-		@Mock
-		ScheduledExecutorService executorService;
+		ForkJoinPool forkJoinPool;
 
 		InvocationSequenceData root;
 		InvocationSequenceData level_1_1;
@@ -352,20 +360,23 @@ public class BusinessContextRecognitionProcessorTest extends TestBase {
 			when(businessContextManagementService.registerApplication(applicationDefinition)).thenReturn(application);
 			when(businessContextManagementService.registerBusinessTransaction(application, businessTxDefinition_1, businessTxDefinition_1.getBusinessTransactionDefinitionName()))
 			.thenReturn(businessTx_1);
-			when(invocationDataDao.getInvocationSequenceDetail(0, 0, -1, null, null, null)).thenReturn(Collections.singletonList(root));
-			doAnswer(new Answer<Object>() {
+			doAnswer(new Answer<Void>() {
 				@Override
-				public Object answer(InvocationOnMock invocation) throws Exception {
-					Object[] arguments = invocation.getArguments();
-					Runnable runnable = (Runnable) arguments[0];
-					runnable.run();
+				public Void answer(InvocationOnMock invocation) throws Throwable {
+					((Consumer<List<InvocationSequenceData>>) invocation.getArguments()[3]).accept(Collections.singletonList(root));
 					return null;
 				}
-			}).when(executorService).execute(any(Runnable.class));
+			}).when(invocationDataDao).processInvocationSequences(eq(0L), isNull(Date.class), isNull(Date.class), any(Consumer.class));
+			forkJoinPool = new ForkJoinPool(2);
+			processor.forkJoinPool = forkJoinPool;
 		}
 
-		@Test
-		public void businessContextChanged() throws InterruptedException {
+		void publishEvent() {
+			processor.onApplicationEvent(event);
+			forkJoinPool.awaitQuiescence(10, TimeUnit.SECONDS);
+		}
+
+		void initMatchingRules() {
 			StringMatchingExpression stringMatchingExpression = new StringMatchingExpression(PatternMatchingType.CONTAINS, "root");
 			stringMatchingExpression.setStringValueSource(stringValueSource);
 			stringMatchingExpression.setSearchNodeInTrace(false);
@@ -376,13 +387,64 @@ public class BusinessContextRecognitionProcessorTest extends TestBase {
 
 			applicationDefinition.setMatchingRuleExpression(stringMatchingExpression);
 			businessTxDefinition_1.setMatchingRuleExpression(stringMatchingExpression_2);
+		}
 
-			processor.onApplicationEvent(event);
+		@Test
+		public void businessContextChanged() throws InterruptedException {
+			initMatchingRules();
+
+			publishEvent();
 
 			assertThat(root.getApplicationId(), equalTo(application.getId()));
 			assertThat(root.getBusinessTransactionId(), equalTo(businessTx_1.getId()));
 		}
 
+		@Test
+		public void progressReported() {
+			initMatchingRules();
+
+			publishEvent();
+
+			assertThat(processor.getReassignmentProcessedCount(), equalTo(1L));
+			assertThat(processor.getReassignmentTotalCount(), equalTo(1L));
+		}
+
+		@Test
+		public void unchangedApplicationNotReassigned() {
+			initMatchingRules();
+			publishEvent();
+			when(cachedDataService.getApplicationForId(application.getId())).thenReturn(application);
+			ApplicationDefinition newApplicationDefinition = new ApplicationDefinition(idGenerator.getAndIncrement(), "NewApplication", null);
+			when(ciService.getApplicationDefinitions()).thenReturn(Arrays.asList(applicationDefinition, newApplicationDefinition));
+
+			publishEvent();
+
+			verify(businessContextManagementService, times(1)).registerApplication(applicationDefinition);
+			assertThat(root.getApplicationId(), equalTo(application.getId()));
+		}
+
+		@Test
+		public void changedApplicationReassigned() {
+			initMatchingRules();
+			publishEvent();
+			when(cachedDataService.getApplicationForId(application.getId())).thenReturn(application);
+			applicationDefinition.setRevision(applicationDefinition.getRevision() + 1);
+
+			publishEvent();
+
+			verify(businessContextManagementService, times(2)).registerApplication(applicationDefinition);
+		}
+
+		@Test
+		public void noChangeNoReassignment() {
+			initMatchingRules();
+			publishEvent();
+
+			publishEvent();
+
+			verify(invocationDataDao, times(1)).processInvocationSequences(eq(0L), isNull(Date.class), isNull(Date.class), any(Consumer.class));
+		}
+
 		/**
 		 * Clean test folder after each test.
 		 */
@@ -7,6 +7,7 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.RETURNS_SMART_NULLS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -18,6 +19,7 @@ import static org.mockito.Mockito.when;
 import java.util.Collections;
 
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -28,6 +30,8 @@ import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.slf4j.Logger;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -51,6 +55,7 @@ import rocks.inspectit.shared.all.communication.data.SystemInformationData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
 import rocks.inspectit.shared.all.serializer.SerializationException;
 import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.serializer.provider.SerializationManagerProvider;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 import rocks.inspectit.shared.cs.indexing.impl.IndexingException;
 import rocks.inspectit.shared.cs.storage.recording.RecordingState;
@@ -85,6 +90,9 @@ public class CmrDataProcessorsTest {
 	@Mock
 	private SerializationManager serializationManager;
 
+	@Mock
+	private SerializationManagerProvider serializationManagerProvider;
+
 	@Mock
 	private AbstractCmrDataProcessor chainedProcessor;
 
@@ -94,6 +102,7 @@ public class CmrDataProcessorsTest {
 	@BeforeMethod
 	public void init() {
 		MockitoAnnotations.initMocks(this);
+		when(serializationManagerProvider.createSerializer()).thenReturn(serializationManager);
 	}
 
 	/**
@@ -181,6 +190,76 @@ public class CmrDataProcessorsTest {
 		assertThat(child.getErrorMessage(), is("parentMsg"));
 	}
 
+	/**
+	 * Tests that the {@link ExceptionMessageCmrProcessor} resolves the stack traces sent only as
+	 * fingerprint.
+	 */
+	@Test
+	public void exceptionMessageProcessorStackTraceFingerprint() {
+		ExceptionMessageCmrProcessor processor = new ExceptionMessageCmrProcessor();
+
+		ExceptionSensorData first = new ExceptionSensorData();
+		first.setThrowableType("java.lang.Exception");
+		first.setErrorMessage("first");
+		first.setStackTrace("java.lang.Exception: first\n\tat Test.method(Test.java:1)\n");
+		first.setStackTraceFingerprint(10L);
+		ExceptionSensorData second = new ExceptionSensorData();
+		second.setThrowableType("java.lang.Exception");
+		second.setErrorMessage("second");
+		second.setStackTraceFingerprint(10L);
+		ExceptionSensorData unknown = new ExceptionSensorData();
+		unknown.setThrowableType("java.lang.Exception");
+		unknown.setStackTraceFingerprint(20L);
+
+		processor.process(first, entityManager);
+		processor.process(second, entityManager);
+		processor.process(unknown, entityManager);
+
+		assertThat(first.getStackTrace(), is("java.lang.Exception: first\n\tat Test.method(Test.java:1)\n"));
+		assertThat(second.getStackTrace(), is("java.lang.Exception: second\n\tat Test.method(Test.java:1)\n"));
+		assertThat(unknown.getStackTrace(), is(nullValue()));
+	}
+
+	/**
+	 * Tests that the stack traces of one agent do not evict the stack traces of another agent in
+	 * the {@link ExceptionMessageCmrProcessor}.
+	 */
+	@Test
+	public void exceptionMessageProcessorStackTraceFingerprintPerPlatform() {
+		ExceptionMessageCmrProcessor processor = new ExceptionMessageCmrProcessor();
+
+		ExceptionSensorData first = new ExceptionSensorData();
+		first.setPlatformIdent(1L);
+		first.setThrowableType("java.lang.Exception");
+		first.setStackTrace("java.lang.Exception\n\tat Test.method(Test.java:1)\n");
+		first.setStackTraceFingerprint(10L);
+		processor.process(first, entityManager);
+
+		// other agent sends more stack traces than one agent remembers
+		for (int i = 0; i < (ExceptionSensorData.MAX_SENT_STACK_TRACES * 4); i++) {
+			ExceptionSensorData other = new ExceptionSensorData();
+			other.setPlatformIdent(2L);
+			other.setThrowableType("java.lang.Exception");
+			other.setStackTrace("java.lang.Exception\n\tat Test.method" + i + "(Test.java:1)\n");
+			other.setStackTraceFingerprint(100L + i);
+			processor.process(other, entityManager);
+		}
+
+		ExceptionSensorData second = new ExceptionSensorData();
+		second.setPlatformIdent(1L);
+		second.setThrowableType("java.lang.Exception");
+		second.setStackTraceFingerprint(10L);
+		ExceptionSensorData otherPlatform = new ExceptionSensorData();
+		otherPlatform.setPlatformIdent(3L);
+		otherPlatform.setThrowableType("java.lang.Exception");
+		otherPlatform.setStackTraceFingerprint(10L);
+		processor.process(second, entityManager);
+		processor.process(otherPlatform, entityManager);
+
+		assertThat(second.getStackTrace(), is("java.lang.Exception\n\tat Test.method(Test.java:1)\n"));
+		assertThat(otherPlatform.getStackTrace(), is(nullValue()));
+	}
+
 	/**
 	 * Tests the {@link IndexerCmrProcessor}.
 	 */
@@ -341,7 +420,7 @@ public class CmrDataProcessorsTest {
 	public void chartingProcessor() throws CloneNotSupportedException, SerializationException {
 		TimerDataChartingCmrProcessor processor = new TimerDataChartingCmrProcessor();
 		processor.timerDataAggregator = timerDataAggregator;
-		processor.serializationManager = serializationManager;
+		processor.serializationManagerProvider = serializationManagerProvider;
 
 		// set up entity manager for quering
 		CriteriaBuilder build = mock(CriteriaBuilder.class, RETURNS_SMART_NULLS);
@@ -391,6 +470,96 @@ public class CmrDataProcessorsTest {
 		verify(httpTimerData, times(0)).setId(0);
 	}
 
+	/**
+	 * Tests that the {@link TimerDataChartingCmrProcessor} queries the database only once for the
+	 * same {@link HttpInfo}.
+	 */
+	@Test
+	public void chartingProcessorHttpInfoCached() throws SerializationException {
+		TimerDataChartingCmrProcessor processor = new TimerDataChartingCmrProcessor();
+		processor.serializationManagerProvider = serializationManagerProvider;
+		TypedQuery<HttpInfo> query = mockHttpInfoQuery();
+		HttpInfo httpInfo = new HttpInfo("/uri", "GET", null);
+		httpInfo.setId(5L);
+		when(query.getResultList()).thenReturn(Collections.singletonList(httpInfo));
+		HttpInfo reference = new HttpInfo();
+		when(entityManager.getReference(HttpInfo.class, 5L)).thenReturn(reference);
+		HttpTimerData clone = mock(HttpTimerData.class);
+		when(serializationManager.copy(Matchers.<HttpTimerData> any())).thenReturn(clone);
+
+		processor.process(chartingHttpTimerData("/uri", "GET"), entityManager);
+		processor.process(chartingHttpTimerData("/uri", "GET"), entityManager);
+
+		verify(query, times(1)).getResultList();
+		verify(clone, times(1)).setHttpInfo(httpInfo);
+		verify(clone, times(1)).setHttpInfo(reference);
+		verify(entityManager, times(2)).persist(clone);
+		verify(serializationManagerProvider, times(1)).createSerializer();
+	}
+
+	/**
+	 * Tests that the {@link TimerDataChartingCmrProcessor} reuses the {@link HttpInfo} created in
+	 * the same transaction without flushing and caches its id after the commit.
+	 */
+	@Test
+	public void chartingProcessorHttpInfoCreatedInTransaction() throws SerializationException {
+		TimerDataChartingCmrProcessor processor = new TimerDataChartingCmrProcessor();
+		processor.serializationManagerProvider = serializationManagerProvider;
+		TypedQuery<HttpInfo> query = mockHttpInfoQuery();
+		when(query.getResultList()).thenReturn(Collections.<HttpInfo> emptyList());
+		HttpTimerData clone = mock(HttpTimerData.class);
+		when(serializationManager.copy(Matchers.<HttpTimerData> any())).thenReturn(clone);
+		ArgumentCaptor<HttpInfo> captor = ArgumentCaptor.forClass(HttpInfo.class);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			processor.process(chartingHttpTimerData("/uri", "GET"), entityManager);
+			processor.process(chartingHttpTimerData("/uri", "GET"), entityManager);
+
+			verify(query, times(1)).setFlushMode(FlushModeType.COMMIT);
+			verify(query, times(1)).getResultList();
+			verify(clone, times(2)).setHttpInfo(captor.capture());
+			assertThat(captor.getAllValues().get(0), is(sameInstance(captor.getAllValues().get(1))));
+
+			// simulate the id generation and commit
+			captor.getValue().setId(7L);
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCommit();
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			}
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		HttpInfo reference = new HttpInfo();
+		when(entityManager.getReference(HttpInfo.class, 7L)).thenReturn(reference);
+		processor.process(chartingHttpTimerData("/uri", "GET"), entityManager);
+
+		verify(query, times(1)).getResultList();
+		verify(clone, times(1)).setHttpInfo(reference);
+		assertThat(TransactionSynchronizationManager.getResource(processor), is(nullValue()));
+	}
+
+	private TypedQuery<HttpInfo> mockHttpInfoQuery() {
+		CriteriaBuilder build = mock(CriteriaBuilder.class, RETURNS_SMART_NULLS);
+		CriteriaQuery<HttpInfo> criteria = mock(CriteriaQuery.class, RETURNS_SMART_NULLS);
+		Root<? extends HttpInfo> root = mock(Root.class, RETURNS_SMART_NULLS);
+		TypedQuery<HttpInfo> query = mock(TypedQuery.class);
+		when(entityManager.getCriteriaBuilder()).thenReturn(build);
+		when(build.createQuery(HttpInfo.class)).thenReturn(criteria);
+		when(criteria.from(HttpInfo.class)).thenReturn((Root<HttpInfo>) root);
+		when(entityManager.createQuery(criteria)).thenReturn(query);
+		return query;
+	}
+
+	private HttpTimerData chartingHttpTimerData(String uri, String requestMethod) {
+		HttpTimerData httpTimerData = new HttpTimerData();
+		httpTimerData.getHttpInfo().setUri(uri);
+		httpTimerData.getHttpInfo().setRequestMethod(requestMethod);
+		httpTimerData.setCharting(true);
+		return httpTimerData;
+	}
+
 	/**
 	 * Tests the {@link TimerDataChartingCmrProcessor} when influx is active.
 	 */
@@ -398,7 +567,7 @@ public class CmrDataProcessorsTest {
 	public void chartingProcessorInfluxActive() throws CloneNotSupportedException, SerializationException {
 		TimerDataChartingCmrProcessor processor = new TimerDataChartingCmrProcessor();
 		processor.timerDataAggregator = timerDataAggregator;
-		processor.serializationManager = serializationManager;
+		processor.serializationManagerProvider = serializationManagerProvider;
 		processor.influxActive = true;
 
 		// don't write
@@ -456,6 +625,42 @@ public class CmrDataProcessorsTest {
 		assertThat(childTimer.getInvocationParentsIdSet(), hasItem(10L));
 	}
 
+	/**
+	 * Deep invocation without stack overflow and with exclusive time over elements without timer.
+	 */
+	@Test
+	public void invocationProcessorDeepInvocation() {
+		InvocationModifierCmrProcessor processor = new InvocationModifierCmrProcessor(Collections.singletonList(chainedProcessor));
+
+		InvocationSequenceData parent = new InvocationSequenceData();
+		parent.setId(10L);
+		TimerData parentTimer = new TimerData();
+		parentTimer.setCount(1L);
+		parentTimer.setDuration(10d);
+		parent.setTimerData(parentTimer);
+
+		InvocationSequenceData current = parent;
+		for (int i = 0; i < 100000; i++) {
+			InvocationSequenceData child = new InvocationSequenceData();
+			child.setParentSequence(current);
+			current.setNestedSequences(Collections.singletonList(child));
+			current = child;
+		}
+		TimerData leafTimer = new TimerData();
+		leafTimer.setCount(1L);
+		leafTimer.setDuration(4d);
+		current.setTimerData(leafTimer);
+
+		processor.process(parent, entityManager);
+
+		verify(chainedProcessor, times(1)).process(parentTimer, entityManager);
+		verify(chainedProcessor, times(1)).process(leafTimer, entityManager);
+		verify(chainedProcessor, times(1)).process(current, entityManager);
+		assertThat(parentTimer.getExclusiveDuration(), is(6d));
+		assertThat(leafTimer.getExclusiveDuration(), is(4d));
+		assertThat(leafTimer.getInvocationParentsIdSet(), hasItem(10L));
+	}
+
 	/**
 	 * Sql data processing with {@link InvocationModifierCmrProcessor}.
 	 */
@@ -1,6 +1,10 @@
 package rocks.inspectit.server.service;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -8,17 +12,21 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.server.instrumentation.NextGenInstrumentationManager;
 import rocks.inspectit.server.messaging.AgentMessageProvider;
+import rocks.inspectit.server.util.AgentStatusDataProvider;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxAttributeDescriptor;
 import rocks.inspectit.shared.all.testbase.TestBase;
 
@@ -39,6 +47,9 @@ public class AgentServiceTest extends TestBase {
 	@Mock
 	AgentMessageProvider messageProvider;
 
+	@Mock
+	AgentStatusDataProvider agentStatusDataProvider;
+
 	/**
 	 * Tests the {@link AgentService#analyze(long, String, Type)} method.
 	 */
@@ -56,6 +67,33 @@ public class AgentServiceTest extends TestBase {
 		}
 	}
 
+	/**
+	 * Tests the {@link AgentService#analyze(long, Map)} method.
+	 */
+	public static class AnalyzeBatch extends AgentServiceTest {
+
+		@Test
+		public void inOrder() throws Exception {
+			Type type1 = mock(Type.class);
+			Type type2 = mock(Type.class);
+			InstrumentationDefinition definition = mock(InstrumentationDefinition.class);
+			when(instrumentationManager.analyze(10L, "hash2", type2)).thenReturn(definition);
+			Map<String, Type> hashAndTypes = new LinkedHashMap<>();
+			hashAndTypes.put("hash1", type1);
+			hashAndTypes.put("hash2", type2);
+
+			Map<String, InstrumentationDefinition> result = agentService.analyze(10L, hashAndTypes);
+
+			assertThat(result.size(), is(1));
+			assertThat(result, hasEntry("hash2", definition));
+			InOrder inOrder = inOrder(instrumentationManager);
+			inOrder.verify(instrumentationManager).analyze(10L, "hash1", type1);
+			inOrder.verify(instrumentationManager).analyze(10L, "hash2", type2);
+			verifyNoMoreInteractions(instrumentationManager);
+			verifyZeroInteractions(messageProvider);
+		}
+	}
+
 	/**
 	 * Tests the {@link AgentService#analyzeJmxAttributes(long, Collection)} method.
 	 */
@@ -130,6 +168,21 @@ public class AgentServiceTest extends TestBase {
 		}
 	}
 
+	/**
+	 * Tests the {@link AgentService#reportDroppedData(long, long, long)} method.
+	 */
+	public static class ReportDroppedData extends AgentServiceTest {
+
+		@Test
+		public void successful() throws Exception {
+			agentService.reportDroppedData(10L, 5L, 3L);
+
+			verify(agentStatusDataProvider).registerDroppedData(10L, 5L, 3L);
+			verifyNoMoreInteractions(agentStatusDataProvider);
+			verifyZeroInteractions(instrumentationManager, messageProvider);
+		}
+	}
+
 	/**
 	 * Tests the {@link AgentService#unregister(long)} method.
 	 */
@@ -1,6 +1,8 @@
 package rocks.inspectit.server.service;
 
-import java.lang.ref.SoftReference;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
@@ -16,6 +18,7 @@ import rocks.inspectit.server.test.AbstractTestNGLogSupport;
 import rocks.inspectit.server.util.AgentStatusDataProvider;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
 import rocks.inspectit.shared.cs.cmr.service.ICmrManagementService;
 
 /**
@@ -47,7 +50,7 @@ public class AgentStorageServiceTest extends AbstractTestNGLogSupport {
 	@BeforeMethod
 	public void init() {
 		MockitoAnnotations.initMocks(this);
-		agentStorageService = new AgentStorageService(new ArrayBlockingQueue<SoftReference<List<? extends DefaultData>>>(1));
+		agentStorageService = new AgentStorageService(new ArrayBlockingQueue<AgentStorageService.DataReference>(1));
 		agentStorageService.platformIdentDateSaver = agentStatusDataProvider;
 		agentStorageService.cmrManagementService = cmrManagementService;
 		agentStorageService.log = LoggerFactory.getLogger(AgentStorageService.class);
@@ -65,8 +68,9 @@ public class AgentStorageServiceTest extends AbstractTestNGLogSupport {
 		dataList.add(timerData);
 
 		agentStorageService.addDataObjects(dataList);
-		agentStorageService.addDataObjects(dataList);
+		CmrLoad load = agentStorageService.addDataObjects(dataList);
 
+		assertThat(load, is(CmrLoad.OVERLOADED));
 		Mockito.verify(agentStatusDataProvider, Mockito.times(2)).registerDataSent(1L);
 		Mockito.verify(cmrManagementService, Mockito.times(1)).addDroppedDataCount(dataList.size());
 	}
@@ -81,9 +85,26 @@ public class AgentStorageServiceTest extends AbstractTestNGLogSupport {
 		timerData.setPlatformIdent(1L);
 		dataList.add(timerData);
 
-		agentStorageService.addDataObjects(dataList);
+		CmrLoad load = agentStorageService.addDataObjects(dataList);
 
+		assertThat(load, is(CmrLoad.HIGH));
 		Mockito.verify(agentStatusDataProvider, Mockito.times(1)).registerDataSent(1L);
 		Mockito.verifyZeroInteractions(cmrManagementService);
 	}
+
+	/**
+	 * Normal load is reported while the queue is less than half full.
+	 */
+	@Test
+	public void normalLoad() {
+		agentStorageService = new AgentStorageService(new ArrayBlockingQueue<AgentStorageService.DataReference>(4));
+		agentStorageService.platformIdentDateSaver = agentStatusDataProvider;
+		agentStorageService.cmrManagementService = cmrManagementService;
+		agentStorageService.log = LoggerFactory.getLogger(AgentStorageService.class);
+		List<DefaultData> dataList = new ArrayList<>();
+		dataList.add(new TimerData());
+
+		assertThat(agentStorageService.addDataObjects(dataList), is(CmrLoad.NORMAL));
+		assertThat(agentStorageService.addDataObjects(dataList), is(CmrLoad.HIGH));
+	}
 }
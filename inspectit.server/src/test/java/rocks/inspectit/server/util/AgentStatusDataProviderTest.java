@@ -138,6 +138,32 @@ public class AgentStatusDataProviderTest extends TestBase {
 		}
 	}
 
+	public class RegisterDroppedData extends AgentStatusDataProviderTest {
+
+		@Test
+		public void neverConnected() {
+			long platformIdent = 10L;
+
+			agentStatusDataProvider.registerDroppedData(platformIdent, 5L, 3L);
+
+			AgentStatusData agentStatusData = agentStatusDataProvider.getAgentStatusDataMap().get(platformIdent);
+			assertThat(agentStatusData, is(nullValue()));
+		}
+
+		@Test
+		public void summedUp() {
+			long platformIdent = 10L;
+			agentStatusDataProvider.registerConnected(platformIdent);
+
+			agentStatusDataProvider.registerDroppedData(platformIdent, 5L, 3L);
+			agentStatusDataProvider.registerDroppedData(platformIdent, 2L, 0L);
+
+			AgentStatusData agentStatusData = agentStatusDataProvider.getAgentStatusDataMap().get(platformIdent);
+			assertThat(agentStatusData.getDroppedDataCount(), is(7L));
+			assertThat(agentStatusData.getAggregatedDataCount(), is(3L));
+		}
+	}
+
 	public class HandleKeepAliveSignal extends AgentStatusDataProviderTest {
 
 		@Test
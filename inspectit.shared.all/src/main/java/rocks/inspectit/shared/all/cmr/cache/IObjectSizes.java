@@ -178,6 +178,17 @@ public interface IObjectSizes {
 	 */
 	long getSizeOfNonBlockingHashMapLong(int mapSize);
 
+	/**
+	 * Calculates the approximate size of the {@link java.util.concurrent.ConcurrentSkipListSet}
+	 * object. The calculation does not include the size of elements that are in the set. As the
+	 * amount of index nodes in the skip list is random, the expected amount is used.
+	 *
+	 * @param setSize
+	 *            Set size.
+	 * @return Size of set object in bytes.
+	 */
+	long getSizeOfConcurrentSkipListSet(int setSize);
+
 	/**
 	 * Calculates size of the {@link Object} objects.
 	 *
@@ -64,6 +64,21 @@ public interface IAgentService {
 	 */
 	InstrumentationDefinition analyze(long platformIdent, String hash, Type type) throws BusinessException;
 
+	/**
+	 * Analyzes the given types in one call. Types are analyzed in the iteration order of the given
+	 * map, thus depending types should be placed before the types depending on them.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashAndTypes
+	 *            Map of class hash codes to the parsed {@link Type}s.
+	 * @return Map of class hash codes to the instrumentation definitions. Only types that should be
+	 *         instrumented are contained in the map.
+	 * @throws BusinessException
+	 *             If agent with specified id does not exist.
+	 */
+	Map<String, InstrumentationDefinition> analyze(long platformIdent, Map<String, Type> hashAndTypes) throws BusinessException;
+
 	/**
 	 * Informs the CMR that the methods have been instrumented on the agent.
 	 *
@@ -74,6 +89,18 @@ public interface IAgentService {
 	 */
 	void instrumentationApplied(long platformId, Map<Long, long[]> methodToSensorMap);
 
+	/**
+	 * Informs the CMR that the agent dropped or aggregated data due to the overflow of its buffer.
+	 *
+	 * @param platformId
+	 *            Id of the agent.
+	 * @param droppedCount
+	 *            Amount of data objects dropped since the last report.
+	 * @param aggregatedCount
+	 *            Amount of data objects aggregated since the last report.
+	 */
+	void reportDroppedData(long platformId, long droppedCount, long aggregatedCount);
+
 	/**
 	 * Analyzes the given {@link JmxAttributeDescriptor} and decides which ones will be monitored,
 	 * based on the current configuration.
@@ -4,6 +4,7 @@ import java.rmi.Remote;
 import java.util.List;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
 
 /**
  * This service is used by the Agents to send their data objects to and it is used by all the
@@ -21,7 +22,9 @@ public interface IAgentStorageService extends Remote {
 	 *
 	 * @param dataObjects
 	 *            The list containing all the data objects.
+	 * @return The current load of the CMR, so that the agent can adapt the amount of data it
+	 *         sends.
 	 */
-	void addDataObjects(List<? extends DefaultData> dataObjects);
+	CmrLoad addDataObjects(List<? extends DefaultData> dataObjects);
 
 }
@@ -70,5 +70,7 @@ public class DatabaseAggregatedTimerData extends TimerData {
 			this.calculateExclusiveMin(timerData.getExclusiveMin());
 			this.calculateExclusiveMax(timerData.getExclusiveMax());
 		}
+
+		this.aggregateHistogram(timerData);
 	}
 }
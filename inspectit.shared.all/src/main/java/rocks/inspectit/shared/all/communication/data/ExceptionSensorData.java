@@ -19,6 +19,13 @@ public class ExceptionSensorData extends InvocationAwareData {
 	 */
 	private static final long serialVersionUID = -8064862129447036553L;
 
+	/**
+	 * Maximum amount of distinct stack traces an agent remembers as already sent, thus sends only
+	 * the {@link #stackTraceFingerprint} for. The CMR must be able to resolve at least this amount
+	 * of fingerprints per agent.
+	 */
+	public static final int MAX_SENT_STACK_TRACES = 1000;
+
 	/**
 	 * The detailed error message string of this {@link Throwable} object.
 	 */
@@ -55,6 +62,13 @@ public class ExceptionSensorData extends InvocationAwareData {
 	 */
 	private long throwableIdentityHashCode;
 
+	/**
+	 * Fingerprint of the stack trace, thus of the throwable type and the stack frames of the
+	 * throwable and its causes. The {@link #stackTrace} can be <code>null</code> if the fingerprint
+	 * is set, meaning that the same stack trace has already been sent by the agent.
+	 */
+	private long stackTraceFingerprint;
+
 	/**
 	 * Default no-args constructor.
 	 */
@@ -210,6 +224,25 @@ public class ExceptionSensorData extends InvocationAwareData {
 		this.throwableIdentityHashCode = throwableIdentityHashCode;
 	}
 
+	/**
+	 * Gets {@link #stackTraceFingerprint}.
+	 *
+	 * @return {@link #stackTraceFingerprint}
+	 */
+	public long getStackTraceFingerprint() {
+		return stackTraceFingerprint;
+	}
+
+	/**
+	 * Sets {@link #stackTraceFingerprint}.
+	 *
+	 * @param stackTraceFingerprint
+	 *            New value for {@link #stackTraceFingerprint}
+	 */
+	public void setStackTraceFingerprint(long stackTraceFingerprint) {
+		this.stackTraceFingerprint = stackTraceFingerprint;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -224,7 +257,7 @@ public class ExceptionSensorData extends InvocationAwareData {
 	@Override
 	public long getObjectSize(IObjectSizes objectSizes, boolean doAlign) {
 		long size = super.getObjectSize(objectSizes, doAlign);
-		size += objectSizes.getPrimitiveTypesSize(6, 0, 0, 0, 1, 0);
+		size += objectSizes.getPrimitiveTypesSize(6, 0, 0, 0, 2, 0);
 		size += objectSizes.getSizeOf(errorMessage);
 		size += objectSizes.getSizeOf(cause);
 		size += objectSizes.getSizeOf(stackTrace);
@@ -249,6 +282,7 @@ public class ExceptionSensorData extends InvocationAwareData {
 		result = (prime * result) + ((child == null) ? 0 : child.hashCode());
 		result = (prime * result) + ((exceptionEvent == null) ? 0 : exceptionEvent.hashCode());
 		result = (prime * result) + ((stackTrace == null) ? 0 : stackTrace.hashCode());
+		result = (prime * result) + (int) (stackTraceFingerprint ^ (stackTraceFingerprint >>> 32));
 		result = (prime * result) + (int) (throwableIdentityHashCode ^ (throwableIdentityHashCode >>> 32));
 		result = (prime * result) + ((throwableType == null) ? 0 : throwableType.hashCode());
 		return result;
@@ -297,6 +331,9 @@ public class ExceptionSensorData extends InvocationAwareData {
 		} else if (!stackTrace.equals(other.stackTrace)) {
 			return false;
 		}
+		if (stackTraceFingerprint != other.stackTraceFingerprint) {
+			return false;
+		}
 		if (throwableIdentityHashCode != other.throwableIdentityHashCode) {
 			return false;
 		}
@@ -68,6 +68,13 @@ public class HttpTimerData extends TimerData {
 	@Transient
 	private int httpResponseStatus;
 
+	/**
+	 * If the duration percentiles should be calculated. Data of a single request does not carry
+	 * a histogram, the histogram is created once the data is aggregated.
+	 */
+	@Transient
+	private boolean percentiles;
+
 	/**
 	 * Http info for optimizing saving to the DB.
 	 */
@@ -217,13 +224,53 @@ public class HttpTimerData extends TimerData {
 		this.httpResponseStatus = httpResponseStatus;
 	}
 
+	/**
+	 * Gets {@link #percentiles}.
+	 *
+	 * @return {@link #percentiles}
+	 */
+	public boolean isPercentiles() {
+		return percentiles;
+	}
+
+	/**
+	 * Sets {@link #percentiles}.
+	 *
+	 * @param percentiles
+	 *            New value for {@link #percentiles}
+	 */
+	public void setPercentiles(boolean percentiles) {
+		this.percentiles = percentiles;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The duration of the single request data that has no histogram is recorded if the
+	 * percentiles are calculated for it.
+	 */
+	@Override
+	protected void aggregateHistogram(TimerData timerData) {
+		if ((null == timerData.getHistogram()) && (timerData instanceof HttpTimerData) && ((HttpTimerData) timerData).isPercentiles()) {
+			percentiles = true;
+			if (1L == timerData.getCount()) {
+				if (null == getHistogram()) {
+					setHistogram(new TimerHistogram());
+				}
+				getHistogram().recordValue(timerData.getDuration());
+			}
+		} else {
+			super.aggregateHistogram(timerData);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public long getObjectSize(IObjectSizes objectSizes, boolean doAlign) {
 		long size = super.getObjectSize(objectSizes, doAlign);
-		size += objectSizes.getPrimitiveTypesSize(5, 0, 1, 0, 0, 0);
+		size += objectSizes.getPrimitiveTypesSize(5, 1, 1, 0, 0, 0);
 
 		if (null != parameters) {
 			size += objectSizes.getSizeOfHashMap(parameters.size());
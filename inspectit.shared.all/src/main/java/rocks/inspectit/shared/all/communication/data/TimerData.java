@@ -6,6 +6,7 @@ import java.util.List;
 import javax.persistence.Entity;
 import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 
 import org.codehaus.jackson.annotate.JsonAutoDetect;
 import org.codehaus.jackson.annotate.JsonAutoDetect.Visibility;
@@ -112,6 +113,16 @@ public class TimerData extends InvocationAwareData {
 	@JsonIgnore
 	private boolean charting;
 
+	/**
+	 * Histogram of the durations for the percentile calculation (optional parameter). Not
+	 * persisted to the database, thus timer data loaded from the database never has the percentile
+	 * data available. The histogram is kept in the buffer and in the storages, and only the median,
+	 * 95th and 99th percentile are written to the influxDB.
+	 */
+	@Transient
+	@JsonIgnore
+	private TimerHistogram histogram;
+
 	/**
 	 * Default no-args constructor.
 	 */
@@ -527,6 +538,67 @@ public class TimerData extends InvocationAwareData {
 		this.charting = charting;
 	}
 
+	/**
+	 * Gets {@link #histogram}.
+	 *
+	 * @return {@link #histogram}
+	 */
+	public TimerHistogram getHistogram() {
+		return histogram;
+	}
+
+	/**
+	 * Sets {@link #histogram}.
+	 *
+	 * @param histogram
+	 *            New value for {@link #histogram}
+	 */
+	public void setHistogram(TimerHistogram histogram) {
+		this.histogram = histogram;
+	}
+
+	/**
+	 * Whether or not this timer data contains the histogram needed for the percentile calculation.
+	 *
+	 * @return Whether or not this timer data contains the histogram.
+	 */
+	public boolean isPercentileDataAvailable() {
+		return (null != histogram) && !histogram.isEmpty();
+	}
+
+	/**
+	 * Returns the duration at the given percentile.
+	 *
+	 * @param percentile
+	 *            Percentile between 0 and 100.
+	 * @return Duration at the given percentile or <code>-1</code> if the percentile data is not
+	 *         available.
+	 * @see #isPercentileDataAvailable()
+	 */
+	public double getPercentile(double percentile) {
+		if (!isPercentileDataAvailable()) {
+			return -1;
+		}
+		return histogram.getValueAtPercentile(percentile);
+	}
+
+	/**
+	 * Returns the durations at the given percentiles.
+	 *
+	 * @param percentiles
+	 *            Percentiles between 0 and 100.
+	 * @return Durations in the order of the given percentiles, each is <code>-1</code> if the
+	 *         percentile data is not available.
+	 * @see #getPercentile(double)
+	 */
+	public double[] getPercentiles(double... percentiles) {
+		double[] result = new double[percentiles.length];
+		for (int i = 0; i < percentiles.length; i++) {
+			result[i] = getPercentile(percentiles[i]);
+		}
+		return result;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -542,7 +614,10 @@ public class TimerData extends InvocationAwareData {
 	@Override
 	public long getObjectSize(IObjectSizes objectSizes, boolean doAlign) {
 		long size = super.getObjectSize(objectSizes, doAlign);
-		size += objectSizes.getPrimitiveTypesSize(0, 1, 0, 0, 2, 10);
+		size += objectSizes.getPrimitiveTypesSize(1, 1, 0, 0, 2, 10);
+		if (null != histogram) {
+			size += objectSizes.getSizeOf(histogram);
+		}
 		if (doAlign) {
 			return objectSizes.alignTo8Bytes(size);
 		} else {
@@ -614,9 +689,26 @@ public class TimerData extends InvocationAwareData {
 			this.calculateExclusiveMax(timerData.getExclusiveMax());
 			this.calculateExclusiveMin(timerData.getExclusiveMin());
 		}
+		this.aggregateHistogram(timerData);
 		this.charting = this.charting | timerData.isCharting();
 	}
 
+	/**
+	 * Aggregates the histogram of the supplied timer data parameter to the objects histogram. The
+	 * histogram of this object is created if needed.
+	 *
+	 * @param timerData
+	 *            Data which histogram should be aggregated into current object.
+	 */
+	protected void aggregateHistogram(TimerData timerData) {
+		if (null != timerData.getHistogram()) {
+			if (null == histogram) {
+				histogram = new TimerHistogram();
+			}
+			histogram.add(timerData.getHistogram());
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -648,6 +740,7 @@ public class TimerData extends InvocationAwareData {
 		temp = Double.doubleToLongBits(variance);
 		result = (prime * result) + (int) (temp ^ (temp >>> 32));
 		result = (prime * result) + (charting ? 1231 : 1237);
+		result = (prime * result) + ((histogram == null) ? 0 : histogram.hashCode());
 		return result;
 	}
 
@@ -705,6 +798,13 @@ public class TimerData extends InvocationAwareData {
 		if (charting != other.charting) {
 			return false;
 		}
+		if (histogram == null) {
+			if (other.histogram != null) {
+				return false;
+			}
+		} else if (!histogram.equals(other.histogram)) {
+			return false;
+		}
 		return true;
 	}
 
@@ -0,0 +1,280 @@
+package rocks.inspectit.shared.all.communication.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.Sizeable;
+
+/**
+ * Compact log-bucketed histogram of the durations used for calculating the percentiles of the
+ * {@link TimerData}. The memory used by the histogram is fixed and does not depend on the amount of
+ * recorded values.
+ * <p>
+ * Values are given in milliseconds and recorded with microsecond resolution. Values smaller than
+ * {@value #SUB_BUCKET_COUNT} microseconds have own buckets, each bigger power of two range is split
+ * into {@value #SUB_BUCKET_COUNT} linear sub-buckets. Thus the relative error of the reported
+ * percentile is at most one sixteenth of the value. Values bigger than the tracked range (around
+ * 12 days) are recorded in the last bucket.
+ */
+public class TimerHistogram implements Serializable, Sizeable {
+
+	/**
+	 * Generated UID.
+	 */
+	private static final long serialVersionUID = -4518204526436474812L;
+
+	/**
+	 * Amount of bits used for the sub-buckets.
+	 */
+	private static final int SUB_BUCKET_BITS = 3;
+
+	/**
+	 * Amount of sub-buckets in each power of two range.
+	 */
+	public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * Highest tracked power of two of the recorded micro-seconds.
+	 */
+	private static final int MAX_EXPONENT = 39;
+
+	/**
+	 * Total amount of buckets.
+	 */
+	public static final int BUCKET_COUNT = (SUB_BUCKET_COUNT * ((MAX_EXPONENT - SUB_BUCKET_BITS) + 1)) + SUB_BUCKET_COUNT;
+
+	/**
+	 * Counts per bucket.
+	 */
+	private long[] counts = new long[BUCKET_COUNT];
+
+	/**
+	 * Total count of the recorded values.
+	 */
+	private long totalCount;
+
+	/**
+	 * Records one value.
+	 *
+	 * @param value
+	 *            Value in milliseconds.
+	 */
+	public void recordValue(double value) {
+		counts[getBucketIndex(value)]++;
+		totalCount++;
+	}
+
+	/**
+	 * Adds the count to the bucket with given index.
+	 *
+	 * @param index
+	 *            Bucket index as returned by {@link #getBucketIndex(double)}.
+	 * @param count
+	 *            Count to add.
+	 */
+	public void addCountAtIndex(int index, long count) {
+		counts[index] += count;
+		totalCount += count;
+	}
+
+	/**
+	 * Returns the count of the bucket with given index.
+	 *
+	 * @param index
+	 *            Bucket index.
+	 * @return Count of the bucket.
+	 */
+	public long getCountAtIndex(int index) {
+		return counts[index];
+	}
+
+	/**
+	 * Adds all the counts of the given histogram to this histogram.
+	 *
+	 * @param other
+	 *            Histogram to add.
+	 */
+	public void add(TimerHistogram other) {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] += other.counts[i];
+		}
+		totalCount += other.totalCount;
+	}
+
+	/**
+	 * Returns the value at the given percentile. The returned value is the middle of the bucket the
+	 * percentile falls into.
+	 *
+	 * @param percentile
+	 *            Percentile between 0 and 100.
+	 * @return Value in milliseconds or <code>-1</code> if the histogram is empty.
+	 */
+	public double getValueAtPercentile(double percentile) {
+		if (0 == totalCount) {
+			return -1;
+		}
+
+		double boundPercentile = Math.min(Math.max(percentile, 0d), 100d);
+		long targetCount = Math.max(1L, (long) Math.ceil((boundPercentile / 100d) * totalCount));
+		long cumulativeCount = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			cumulativeCount += counts[i];
+			if (cumulativeCount >= targetCount) {
+				return getBucketMiddle(i);
+			}
+		}
+		return getBucketMiddle(BUCKET_COUNT - 1);
+	}
+
+	/**
+	 * Gets {@link #totalCount}.
+	 *
+	 * @return {@link #totalCount}
+	 */
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * Returns if no value has been recorded.
+	 *
+	 * @return Returns if no value has been recorded.
+	 */
+	public boolean isEmpty() {
+		return 0 == totalCount;
+	}
+
+	/**
+	 * Calculates the duration percentiles of the given aggregated timer data per method. Only the
+	 * timer data having the percentile data available is included in the result.
+	 *
+	 * @param aggregatedTimerData
+	 *            Timer data aggregated per method.
+	 * @param percentiles
+	 *            Percentiles between 0 and 100 to calculate.
+	 * @return Map of the method ident to the durations in the order of the given percentiles.
+	 * @see TimerData#getPercentiles(double...)
+	 */
+	public static Map<Long, double[]> getDurationPercentiles(Collection<? extends TimerData> aggregatedTimerData, double... percentiles) {
+		Map<Long, double[]> result = new HashMap<Long, double[]>();
+		for (TimerData timerData : aggregatedTimerData) {
+			if (timerData.isPercentileDataAvailable()) {
+				result.put(timerData.getMethodIdent(), timerData.getPercentiles(percentiles));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the index of the bucket the given value belongs to.
+	 *
+	 * @param value
+	 *            Value in milliseconds.
+	 * @return Bucket index.
+	 */
+	public static int getBucketIndex(double value) {
+		long micros = (long) (value * 1000d);
+		if (micros < SUB_BUCKET_COUNT) {
+			return (micros < 0) ? 0 : (int) micros;
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		if (exponent > MAX_EXPONENT) {
+			return BUCKET_COUNT - 1;
+		}
+		int shift = exponent - SUB_BUCKET_BITS;
+		int subBucket = (int) (micros >>> shift) & (SUB_BUCKET_COUNT - 1);
+		return (SUB_BUCKET_COUNT * (shift + 1)) + subBucket;
+	}
+
+	/**
+	 * Returns the middle value of the bucket with given index.
+	 *
+	 * @param index
+	 *            Bucket index.
+	 * @return Value in milliseconds.
+	 */
+	static double getBucketMiddle(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index / 1000d;
+		}
+
+		int shift = (index / SUB_BUCKET_COUNT) - 1;
+		int subBucket = index & (SUB_BUCKET_COUNT - 1);
+		long lowerBound = ((long) (SUB_BUCKET_COUNT + subBucket)) << shift;
+		long width = 1L << shift;
+		return (lowerBound + ((width - 1) / 2d)) / 1000d;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getObjectSize(IObjectSizes objectSizes) {
+		return getObjectSize(objectSizes, true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getObjectSize(IObjectSizes objectSizes, boolean doAlign) {
+		long size = objectSizes.getSizeOfObjectHeader();
+		size += objectSizes.getPrimitiveTypesSize(1, 0, 0, 0, 1, 0);
+		size += objectSizes.getSizeOfPrimitiveArray(BUCKET_COUNT, objectSizes.getPrimitiveTypesSize(0, 0, 0, 0, 1, 0));
+		if (doAlign) {
+			return objectSizes.alignTo8Bytes(size);
+		} else {
+			return size;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = (prime * result) + Arrays.hashCode(counts);
+		result = (prime * result) + (int) (totalCount ^ (totalCount >>> 32));
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		TimerHistogram other = (TimerHistogram) obj;
+		if (totalCount != other.totalCount) {
+			return false;
+		}
+		if (!Arrays.equals(counts, other.counts)) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "TimerHistogram [totalCount=" + totalCount + ", p50=" + getValueAtPercentile(50) + ", p99=" + getValueAtPercentile(99) + "]";
+	}
+
+}
@@ -98,6 +98,16 @@ public class AgentStatusData implements Serializable {
 	 */
 	private InstrumentationStatus instrumentationStatus;
 
+	/**
+	 * Total amount of data objects dropped on the agent due to the overflow of its buffer.
+	 */
+	private long droppedDataCount;
+
+	/**
+	 * Total amount of data objects aggregated on the agent due to the overflow of its buffer.
+	 */
+	private long aggregatedDataCount;
+
 	/**
 	 * No-arg constructor. Calling {@link #AgentStatusData(AgentConnection)} using
 	 * {@link AgentConnection#NEVER_CONNECTED}.
@@ -249,6 +259,44 @@ public class AgentStatusData implements Serializable {
 		this.instrumentationStatus = instrumentationStatus;
 	}
 
+	/**
+	 * Gets {@link #droppedDataCount}.
+	 *
+	 * @return {@link #droppedDataCount}
+	 */
+	public long getDroppedDataCount() {
+		return this.droppedDataCount;
+	}
+
+	/**
+	 * Sets {@link #droppedDataCount}.
+	 *
+	 * @param droppedDataCount
+	 *            New value for {@link #droppedDataCount}
+	 */
+	public void setDroppedDataCount(long droppedDataCount) {
+		this.droppedDataCount = droppedDataCount;
+	}
+
+	/**
+	 * Gets {@link #aggregatedDataCount}.
+	 *
+	 * @return {@link #aggregatedDataCount}
+	 */
+	public long getAggregatedDataCount() {
+		return this.aggregatedDataCount;
+	}
+
+	/**
+	 * Sets {@link #aggregatedDataCount}.
+	 *
+	 * @param aggregatedDataCount
+	 *            New value for {@link #aggregatedDataCount}
+	 */
+	public void setAggregatedDataCount(long aggregatedDataCount) {
+		this.aggregatedDataCount = aggregatedDataCount;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -257,7 +305,9 @@ public class AgentStatusData implements Serializable {
 		final int prime = 31;
 		int result = 1;
 		result = (prime * result) + ((this.agentConnection == null) ? 0 : this.agentConnection.hashCode());
+		result = (prime * result) + (int) (this.aggregatedDataCount ^ (this.aggregatedDataCount >>> 32));
 		result = (prime * result) + (int) (this.connectionTimestamp ^ (this.connectionTimestamp >>> 32));
+		result = (prime * result) + (int) (this.droppedDataCount ^ (this.droppedDataCount >>> 32));
 		result = (prime * result) + ((this.instrumentationStatus == null) ? 0 : this.instrumentationStatus.hashCode());
 		result = (prime * result) + (int) (this.lastDataSendTimestamp ^ (this.lastDataSendTimestamp >>> 32));
 		result = (prime * result) + (int) (this.lastKeepAliveTimestamp ^ (this.lastKeepAliveTimestamp >>> 32));
@@ -284,9 +334,15 @@ public class AgentStatusData implements Serializable {
 		if (this.agentConnection != other.agentConnection) {
 			return false;
 		}
+		if (this.aggregatedDataCount != other.aggregatedDataCount) {
+			return false;
+		}
 		if (this.connectionTimestamp != other.connectionTimestamp) {
 			return false;
 		}
+		if (this.droppedDataCount != other.droppedDataCount) {
+			return false;
+		}
 		if (this.instrumentationStatus != other.instrumentationStatus) {
 			return false;
 		}
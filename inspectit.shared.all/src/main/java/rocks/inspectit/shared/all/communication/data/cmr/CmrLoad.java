@@ -0,0 +1,50 @@
+package rocks.inspectit.shared.all.communication.data.cmr;
+
+/**
+ * Load indication returned by the CMR to the agents when receiving the data. Agents use it to
+ * adapt the amount of data they send.
+ *
+ */
+public enum CmrLoad {
+
+	/**
+	 * CMR processes the incoming data without delay.
+	 */
+	NORMAL(1),
+
+	/**
+	 * Incoming data is queued on the CMR. Agents should send less often and aggregate more.
+	 */
+	HIGH(2),
+
+	/**
+	 * CMR is dropping the incoming data. Agents should additionally sample the data they can not
+	 * aggregate.
+	 */
+	OVERLOADED(4);
+
+	/**
+	 * Factor by which the agents should prolong the sending intervals.
+	 */
+	private final int slowDownFactor;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param slowDownFactor
+	 *            Factor by which the agents should prolong the sending intervals.
+	 */
+	private CmrLoad(int slowDownFactor) {
+		this.slowDownFactor = slowDownFactor;
+	}
+
+	/**
+	 * Gets {@link #slowDownFactor}.
+	 *
+	 * @return {@link #slowDownFactor}
+	 */
+	public int getSlowDownFactor() {
+		return slowDownFactor;
+	}
+
+}
@@ -77,6 +77,18 @@ public class CmrStatusData implements Serializable {
 	 */
 	private Long databaseSize;
 
+	/**
+	 * Amount of invocation sequences in the buffer the current business context re-assignment has
+	 * to process, <code>0</code> if no re-assignment has been done yet.
+	 */
+	private long businessContextReassignmentTotal;
+
+	/**
+	 * Amount of invocation sequences the current business context re-assignment has already
+	 * processed.
+	 */
+	private long businessContextReassignmentProcessed;
+
 	/**
 	 * The connection status of external services.
 	 */
@@ -300,6 +312,54 @@ public class CmrStatusData implements Serializable {
 		this.databaseSize = databaseSize;
 	}
 
+	/**
+	 * Gets {@link #businessContextReassignmentTotal}.
+	 *
+	 * @return {@link #businessContextReassignmentTotal}
+	 */
+	public long getBusinessContextReassignmentTotal() {
+		return businessContextReassignmentTotal;
+	}
+
+	/**
+	 * Sets {@link #businessContextReassignmentTotal}.
+	 *
+	 * @param businessContextReassignmentTotal
+	 *            New value for {@link #businessContextReassignmentTotal}
+	 */
+	public void setBusinessContextReassignmentTotal(long businessContextReassignmentTotal) {
+		this.businessContextReassignmentTotal = businessContextReassignmentTotal;
+	}
+
+	/**
+	 * Gets {@link #businessContextReassignmentProcessed}.
+	 *
+	 * @return {@link #businessContextReassignmentProcessed}
+	 */
+	public long getBusinessContextReassignmentProcessed() {
+		return businessContextReassignmentProcessed;
+	}
+
+	/**
+	 * Sets {@link #businessContextReassignmentProcessed}.
+	 *
+	 * @param businessContextReassignmentProcessed
+	 *            New value for {@link #businessContextReassignmentProcessed}
+	 */
+	public void setBusinessContextReassignmentProcessed(long businessContextReassignmentProcessed) {
+		this.businessContextReassignmentProcessed = businessContextReassignmentProcessed;
+	}
+
+	/**
+	 * Returns if the business context re-assignment of the invocation sequences in the buffer is
+	 * currently running.
+	 *
+	 * @return Returns if the business context re-assignment is currently running.
+	 */
+	public boolean isBusinessContextReassignmentActive() {
+		return businessContextReassignmentProcessed < businessContextReassignmentTotal;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -309,6 +369,8 @@ public class CmrStatusData implements Serializable {
 		int result = 1;
 		result = (prime * result) + ((bufferNewestElement == null) ? 0 : bufferNewestElement.hashCode());
 		result = (prime * result) + ((bufferOldestElement == null) ? 0 : bufferOldestElement.hashCode());
+		result = (prime * result) + (int) (businessContextReassignmentProcessed ^ (businessContextReassignmentProcessed >>> 32));
+		result = (prime * result) + (int) (businessContextReassignmentTotal ^ (businessContextReassignmentTotal >>> 32));
 		result = (prime * result) + (canWriteMore ? 1231 : 1237);
 		result = (prime * result) + (int) (currentBufferSize ^ (currentBufferSize >>> 32));
 		result = (prime * result) + ((databaseSize == null) ? 0 : databaseSize.hashCode());
@@ -350,6 +412,12 @@ public class CmrStatusData implements Serializable {
 		} else if (!bufferOldestElement.equals(other.bufferOldestElement)) {
 			return false;
 		}
+		if (businessContextReassignmentProcessed != other.businessContextReassignmentProcessed) {
+			return false;
+		}
+		if (businessContextReassignmentTotal != other.businessContextReassignmentTotal) {
+			return false;
+		}
 		if (canWriteMore != other.canWriteMore) {
 			return false;
 		}
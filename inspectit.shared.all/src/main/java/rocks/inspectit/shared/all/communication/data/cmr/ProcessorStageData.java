@@ -0,0 +1,315 @@
+package rocks.inspectit.shared.all.communication.data.cmr;
+
+import java.io.Serializable;
+
+/**
+ * Class that holds the status of one stage of the CMR data processing pipeline.
+ *
+ */
+public class ProcessorStageData implements Serializable {
+
+	/**
+	 * Generated UID.
+	 */
+	private static final long serialVersionUID = -2391660377414318512L;
+
+	/**
+	 * Name of the stage.
+	 */
+	private String name;
+
+	/**
+	 * Amount of threads processing the stage, <code>0</code> if the stage is processed in the
+	 * thread that delivers the data.
+	 */
+	private int threadCount;
+
+	/**
+	 * Amount of batches currently waiting in the stage queue.
+	 */
+	private int queueSize;
+
+	/**
+	 * Capacity of the stage queue in batches.
+	 */
+	private int queueCapacity;
+
+	/**
+	 * Amount of elements processed by the stage.
+	 */
+	private long processedCount;
+
+	/**
+	 * Amount of elements dropped because the stage queue was full.
+	 */
+	private long droppedCount;
+
+	/**
+	 * Amount of batches processed by the stage.
+	 */
+	private long batchCount;
+
+	/**
+	 * Average time in milliseconds from the batch submission until the end of the batch
+	 * processing.
+	 */
+	private double averageLatency;
+
+	/**
+	 * Maximum time in milliseconds from the batch submission until the end of the batch
+	 * processing.
+	 */
+	private double maxLatency;
+
+	/**
+	 * Gets {@link #name}.
+	 *
+	 * @return {@link #name}
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Sets {@link #name}.
+	 *
+	 * @param name
+	 *            New value for {@link #name}
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Gets {@link #threadCount}.
+	 *
+	 * @return {@link #threadCount}
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Sets {@link #threadCount}.
+	 *
+	 * @param threadCount
+	 *            New value for {@link #threadCount}
+	 */
+	public void setThreadCount(int threadCount) {
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Gets {@link #queueSize}.
+	 *
+	 * @return {@link #queueSize}
+	 */
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	/**
+	 * Sets {@link #queueSize}.
+	 *
+	 * @param queueSize
+	 *            New value for {@link #queueSize}
+	 */
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	/**
+	 * Gets {@link #queueCapacity}.
+	 *
+	 * @return {@link #queueCapacity}
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * Sets {@link #queueCapacity}.
+	 *
+	 * @param queueCapacity
+	 *            New value for {@link #queueCapacity}
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Gets {@link #processedCount}.
+	 *
+	 * @return {@link #processedCount}
+	 */
+	public long getProcessedCount() {
+		return processedCount;
+	}
+
+	/**
+	 * Sets {@link #processedCount}.
+	 *
+	 * @param processedCount
+	 *            New value for {@link #processedCount}
+	 */
+	public void setProcessedCount(long processedCount) {
+		this.processedCount = processedCount;
+	}
+
+	/**
+	 * Gets {@link #droppedCount}.
+	 *
+	 * @return {@link #droppedCount}
+	 */
+	public long getDroppedCount() {
+		return droppedCount;
+	}
+
+	/**
+	 * Sets {@link #droppedCount}.
+	 *
+	 * @param droppedCount
+	 *            New value for {@link #droppedCount}
+	 */
+	public void setDroppedCount(long droppedCount) {
+		this.droppedCount = droppedCount;
+	}
+
+	/**
+	 * Gets {@link #batchCount}.
+	 *
+	 * @return {@link #batchCount}
+	 */
+	public long getBatchCount() {
+		return batchCount;
+	}
+
+	/**
+	 * Sets {@link #batchCount}.
+	 *
+	 * @param batchCount
+	 *            New value for {@link #batchCount}
+	 */
+	public void setBatchCount(long batchCount) {
+		this.batchCount = batchCount;
+	}
+
+	/**
+	 * Gets {@link #averageLatency}.
+	 *
+	 * @return {@link #averageLatency}
+	 */
+	public double getAverageLatency() {
+		return averageLatency;
+	}
+
+	/**
+	 * Sets {@link #averageLatency}.
+	 *
+	 * @param averageLatency
+	 *            New value for {@link #averageLatency}
+	 */
+	public void setAverageLatency(double averageLatency) {
+		this.averageLatency = averageLatency;
+	}
+
+	/**
+	 * Gets {@link #maxLatency}.
+	 *
+	 * @return {@link #maxLatency}
+	 */
+	public double getMaxLatency() {
+		return maxLatency;
+	}
+
+	/**
+	 * Sets {@link #maxLatency}.
+	 *
+	 * @param maxLatency
+	 *            New value for {@link #maxLatency}
+	 */
+	public void setMaxLatency(double maxLatency) {
+		this.maxLatency = maxLatency;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		long temp;
+		temp = Double.doubleToLongBits(averageLatency);
+		result = (prime * result) + (int) (temp ^ (temp >>> 32));
+		result = (prime * result) + (int) (batchCount ^ (batchCount >>> 32));
+		result = (prime * result) + (int) (droppedCount ^ (droppedCount >>> 32));
+		temp = Double.doubleToLongBits(maxLatency);
+		result = (prime * result) + (int) (temp ^ (temp >>> 32));
+		result = (prime * result) + ((name == null) ? 0 : name.hashCode());
+		result = (prime * result) + (int) (processedCount ^ (processedCount >>> 32));
+		result = (prime * result) + queueCapacity;
+		result = (prime * result) + queueSize;
+		result = (prime * result) + threadCount;
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		ProcessorStageData other = (ProcessorStageData) obj;
+		if (Double.doubleToLongBits(averageLatency) != Double.doubleToLongBits(other.averageLatency)) {
+			return false;
+		}
+		if (batchCount != other.batchCount) {
+			return false;
+		}
+		if (droppedCount != other.droppedCount) {
+			return false;
+		}
+		if (Double.doubleToLongBits(maxLatency) != Double.doubleToLongBits(other.maxLatency)) {
+			return false;
+		}
+		if (name == null) {
+			if (other.name != null) {
+				return false;
+			}
+		} else if (!name.equals(other.name)) {
+			return false;
+		}
+		if (processedCount != other.processedCount) {
+			return false;
+		}
+		if (queueCapacity != other.queueCapacity) {
+			return false;
+		}
+		if (queueSize != other.queueSize) {
+			return false;
+		}
+		if (threadCount != other.threadCount) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "ProcessorStageData [name=" + name + ", threadCount=" + threadCount + ", queueSize=" + queueSize + ", queueCapacity=" + queueCapacity + ", processedCount=" + processedCount
+				+ ", droppedCount=" + droppedCount + ", batchCount=" + batchCount + ", averageLatency=" + averageLatency + ", maxLatency=" + maxLatency + "]";
+	}
+
+}
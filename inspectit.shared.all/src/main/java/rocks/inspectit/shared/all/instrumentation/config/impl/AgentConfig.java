@@ -91,6 +91,13 @@ public class AgentConfig {
 	 */
 	private String configurationInfo;
 
+	/**
+	 * Revision of the configuration the agent is running with. Changes whenever the assigned
+	 * environment or one of its profiles changes, so that agent can decide if the locally cached
+	 * instrumentation definitions are still valid.
+	 */
+	private String configurationRevision;
+
 	/**
 	 * Gets {@link #platformId}.
 	 *
@@ -359,6 +366,25 @@ public class AgentConfig {
 		this.configurationInfo = configurationInfo;
 	}
 	
+	/**
+	 * Gets {@link #configurationRevision}.
+	 *
+	 * @return {@link #configurationRevision}
+	 */
+	public String getConfigurationRevision() {
+		return this.configurationRevision;
+	}
+
+	/**
+	 * Sets {@link #configurationRevision}.
+	 *
+	 * @param configurationRevision
+	 *            New value for {@link #configurationRevision}
+	 */
+	public void setConfigurationRevision(String configurationRevision) {
+		this.configurationRevision = configurationRevision;
+	}
+
 	/**
 	 * Gets {@link #eumConfig}.
 	 * 
@@ -408,6 +434,7 @@ public class AgentConfig {
 		result = (prime * result) + (this.classCacheExistsOnCmr ? 1231 : 1237);
 		result = (prime * result) + ((eumConfig == null) ? 0 : eumConfig.hashCode());
 		result = (prime * result) + ((this.configurationInfo == null) ? 0 : this.configurationInfo.hashCode());
+		result = (prime * result) + ((this.configurationRevision == null) ? 0 : this.configurationRevision.hashCode());
 		result = (prime * result) + ((this.exceptionSensorTypeConfig == null) ? 0 : this.exceptionSensorTypeConfig.hashCode());
 		result = (prime * result) + ((this.excludeClassesPatterns == null) ? 0 : this.excludeClassesPatterns.hashCode());
 		result = (prime * result) + ((this.initialInstrumentationResults == null) ? 0 : this.initialInstrumentationResults.hashCode());
@@ -461,6 +488,13 @@ public class AgentConfig {
 		} else if (!this.configurationInfo.equals(other.configurationInfo)) {
 			return false;
 		}
+		if (this.configurationRevision == null) {
+			if (other.configurationRevision != null) {
+				return false;
+			}
+		} else if (!this.configurationRevision.equals(other.configurationRevision)) {
+			return false;
+		}
 		if (this.exceptionSensorTypeConfig == null) {
 			if (other.exceptionSensorTypeConfig != null) {
 				return false;
@@ -74,6 +74,11 @@ public class Client extends Connection implements EndPoint {
 	private int connectUdpPort;
 	private boolean isClosed;
 
+	/**
+	 * If compression of the TCP frames offered by the server should be accepted.
+	 */
+	private volatile boolean compressionEnabled;
+
 	// ISE: Removed no-arg and 2-args constructors (not needed)
 
 	// Added by ISE
@@ -345,6 +350,14 @@ public class Client extends Connection implements EndPoint {
 									if (!isConnected) {
 										continue;
 									}
+									if (object instanceof CompressionNegotiation) {
+										// server offers compression, accept if we want it
+										if (compressionEnabled) {
+											tcp.setCompressionEnabled(true);
+											sendTCP(new CompressionNegotiation());
+										}
+										continue;
+									}
 									keepAlive();
 									if (DEBUG) {
 										String objectString = object == null ? "null" : object.getClass().getSimpleName();
@@ -532,6 +545,17 @@ public class Client extends Connection implements EndPoint {
 		udp.keepAliveMillis = keepAliveMillis;
 	}
 
+	/**
+	 * Defines if the compression of the TCP frames offered by the server is accepted. Frames are
+	 * compressed only if the server offers the compression.
+	 *
+	 * @param compressionEnabled
+	 *            If compression should be accepted.
+	 */
+	public void setCompressionEnabled(boolean compressionEnabled) {
+		this.compressionEnabled = compressionEnabled;
+	}
+
 	@Override
 	public Thread getUpdateThread() {
 		return updateThread;
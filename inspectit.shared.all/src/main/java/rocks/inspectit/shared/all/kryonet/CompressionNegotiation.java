@@ -0,0 +1,15 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import com.esotericsoftware.kryonet.FrameworkMessage;
+
+/**
+ * Framework message used to negotiate the compression of the TCP frames. The {@link Server} that
+ * has compression enabled sends this message right after the TCP registration. A {@link Client}
+ * with compression enabled answers with the same message and from then on both sides compress the
+ * frames they send. Reading of the frames does not depend on the negotiation, as each frame is
+ * marked if it's compressed or not.
+ *
+ * @see TcpConnection
+ */
+public class CompressionNegotiation implements FrameworkMessage {
+}
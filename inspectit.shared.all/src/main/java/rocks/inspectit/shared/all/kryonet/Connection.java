@@ -76,6 +76,13 @@ public class Connection {
 		return id;
 	}
 
+	/**
+	 * Returns true if the TCP frames sent by this connection are compressed.
+	 */
+	public boolean isCompressionEnabled() {
+		return tcp.isCompressionEnabled();
+	}
+
 	/**
 	 * Returns true if this connection is connected to the remote end. Note that a connection can
 	 * become disconnected at any time.
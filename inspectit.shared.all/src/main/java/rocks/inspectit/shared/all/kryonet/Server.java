@@ -71,6 +71,11 @@ public class Server implements EndPoint {
 	private Thread updateThread;
 	private ByteBuffer emptyBuffer = ByteBuffer.allocate(0);
 
+	/**
+	 * If compression of the TCP frames is offered to the connecting clients.
+	 */
+	private volatile boolean compressionEnabled;
+
 	private Listener dispatchListener = new Listener() {
 		@Override
 		public void connected(Connection connection) {
@@ -265,6 +270,11 @@ public class Server implements EndPoint {
 												trace("kryonet", fromConnection + " received TCP: " + objectString);
 											}
 										}
+										if (object instanceof CompressionNegotiation) {
+											// client accepted the offered compression
+											fromConnection.tcp.setCompressionEnabled(compressionEnabled);
+											continue;
+										}
 										fromConnection.notifyReceived(object);
 									}
 								} catch (IOException ex) {
@@ -509,6 +519,11 @@ public class Server implements EndPoint {
 			registerConnection.connectionID = id;
 			connection.sendTCP(registerConnection);
 
+			// offer compression to the client
+			if (compressionEnabled) {
+				connection.sendTCP(new CompressionNegotiation());
+			}
+
 			if (udp == null) {
 				connection.notifyConnected();
 			}
@@ -691,6 +706,17 @@ public class Server implements EndPoint {
 		}
 	}
 
+	/**
+	 * Defines if the compression of the TCP frames is offered to the connecting clients. Frames
+	 * are compressed only if the client accepts the offer.
+	 *
+	 * @param compressionEnabled
+	 *            If compression should be offered.
+	 */
+	public void setCompressionEnabled(boolean compressionEnabled) {
+		this.compressionEnabled = compressionEnabled;
+	}
+
 	@Override
 	public Thread getUpdateThread() {
 		return updateThread;
@@ -3,7 +3,10 @@ package rocks.inspectit.shared.all.kryonet;
 import static com.esotericsoftware.minlog.Log.DEBUG;
 import static com.esotericsoftware.minlog.Log.debug;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
@@ -18,6 +21,11 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import com.esotericsoftware.kryonet.KryoNetException;
 
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
 import rocks.inspectit.shared.all.storage.nio.stream.ExtendedByteBufferOutputStream;
 import rocks.inspectit.shared.all.storage.nio.stream.SocketExtendedByteBufferInputStream;
 import rocks.inspectit.shared.all.storage.nio.stream.StreamProvider;
@@ -71,6 +79,64 @@ class TcpConnection {
 	// Added by ISE
 	private SocketExtendedByteBufferInputStream socketInputStream;
 
+	/**
+	 * Flag set in the frame length if the frame content is compressed.
+	 */
+	static final int COMPRESSED_FLAG = 0x40000000;
+
+	/**
+	 * Frames with less bytes than this are never compressed.
+	 */
+	private static final int MIN_COMPRESSION_SIZE = 512;
+
+	/**
+	 * Buffers bigger than this are not kept for the next frame.
+	 */
+	private static final int MAX_RETAINED_BUFFER_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * Maximum ratio of the uncompressed to the compressed length possible in the LZ4 block format.
+	 */
+	private static final int MAX_COMPRESSION_RATIO = 255;
+
+	/**
+	 * LZ4 compressor for the frames sent. We only use the pure Java implementations, so that no
+	 * native library is loaded in the monitored application.
+	 */
+	private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestJavaInstance().fastCompressor();
+
+	/**
+	 * LZ4 decompressor for the frames read. Since the frames come from the network the safe
+	 * decompressor of the implementation not using {@link sun.misc.Unsafe} is used, which never
+	 * reads or writes outside of the given arrays.
+	 */
+	private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.safeInstance().safeDecompressor();
+
+	/**
+	 * If frames sent should be compressed. Set after the negotiation with the remote end.
+	 */
+	private volatile boolean compressionEnabled;
+
+	/**
+	 * Stream to serialize to when compression is active. Guarded by the write lock.
+	 */
+	private ExposedByteArrayOutputStream uncompressedOutput;
+
+	/**
+	 * Array holding the compressed frame. Guarded by the write lock.
+	 */
+	private byte[] compressedOutput;
+
+	/**
+	 * Array holding the compressed frame read. Only used by the reading thread.
+	 */
+	private byte[] compressedInput;
+
+	/**
+	 * Array holding the decompressed frame read. Only used by the reading thread.
+	 */
+	private byte[] uncompressedInput;
+
 	SocketChannel socketChannel;
 	int keepAliveMillis = 8000;
 	final ByteBuffer readBuffer, writeBuffer;
@@ -106,6 +172,7 @@ class TcpConnection {
 		readBuffer.clear();
 		readBuffer.flip();
 		currentObjectLength = 0;
+		compressionEnabled = false;
 		try {
 			this.socketChannel = socketChannel;
 			socketChannel.configureBlocking(false);
@@ -136,6 +203,7 @@ class TcpConnection {
 		readBuffer.clear();
 		readBuffer.flip();
 		currentObjectLength = 0;
+		compressionEnabled = false;
 		try {
 			SocketChannel socketChannel = selector.provider().openSocketChannel();
 			Socket socket = socketChannel.socket();
@@ -191,12 +259,13 @@ class TcpConnection {
 			}
 			currentObjectLength = serialization.readLength(readBuffer);
 
-			if (currentObjectLength <= 0) {
+			if ((currentObjectLength & ~COMPRESSED_FLAG) <= 0) {
 				throw new KryoNetException("Invalid object length: " + currentObjectLength);
 			}
 		}
 
-		int length = currentObjectLength;
+		int length = currentObjectLength & ~COMPRESSED_FLAG;
+		boolean compressed = (currentObjectLength & COMPRESSED_FLAG) != 0;
 		// reset stream
 		socketInputStream.reset(length);
 
@@ -205,7 +274,11 @@ class TcpConnection {
 		// read object
 		Object object;
 		try {
-			object = serialization.read(connection, socketInputStream);
+			InputStream inputStream = socketInputStream;
+			if (compressed) {
+				inputStream = decompress(length);
+			}
+			object = serialization.read(connection, inputStream);
 		} catch (Exception ex) {
 			throw new KryoNetException("Error during deserialization.", ex);
 		}
@@ -296,8 +369,13 @@ class TcpConnection {
 			outputStream.write(new byte[lengthLength]);
 
 			// Write data and flush when done
+			boolean compressed = false;
 			try {
-				serialization.write(connection, outputStream, object);
+				if (compressionEnabled) {
+					compressed = writeCompressed(connection, outputStream, object);
+				} else {
+					serialization.write(connection, outputStream, object);
+				}
 			} catch (KryoNetException ex) { // NOPMD
 				outputStream.close();
 				throw new KryoNetException("Error serializing object of type: " + object.getClass().getName(), ex);
@@ -306,10 +384,14 @@ class TcpConnection {
 
 			// rewrite the size to the first buffer
 			long writeSize = outputStream.getTotalWriteSize() - lengthLength;
+			if (writeSize >= COMPRESSED_FLAG) {
+				outputStream.close();
+				throw new KryoNetException("Serialized object of type " + object.getClass().getName() + " is too big: " + writeSize + " bytes.");
+			}
 			ByteBuffer buffer = outputStream.getAllByteBuffers().iterator().next();
 			int position = buffer.position();
 			buffer.position(0);
-			serialization.writeLength(buffer, (int) writeSize);
+			serialization.writeLength(buffer, compressed ? ((int) writeSize | COMPRESSED_FLAG) : (int) writeSize);
 			buffer.position(position);
 
 			// Write to socket if no data was queued.
@@ -330,6 +412,123 @@ class TcpConnection {
 		}
 	}
 
+	/**
+	 * Serializes the object to the intermediate array and writes it compressed to the output
+	 * stream. The compressed frame holds the uncompressed length as int followed by the LZ4
+	 * block. Small objects and objects that don't compress are written
+	 * uncompressed. Must be called with the write lock held.
+	 *
+	 * @param connection
+	 *            Connection.
+	 * @param outputStream
+	 *            Stream to write the frame to.
+	 * @param object
+	 *            Object to serialize.
+	 * @return If the written frame is compressed.
+	 * @throws IOException
+	 *             If writing to the stream fails.
+	 */
+	private boolean writeCompressed(Connection connection, ExtendedByteBufferOutputStream outputStream, Object object) throws IOException {
+		if (null == uncompressedOutput) {
+			uncompressedOutput = new ExposedByteArrayOutputStream();
+		}
+		uncompressedOutput.reset();
+		serialization.write(connection, uncompressedOutput, object);
+
+		byte[] uncompressed = uncompressedOutput.getBuffer();
+		int uncompressedLength = uncompressedOutput.size();
+		boolean compressed = false;
+		if (uncompressedLength >= MIN_COMPRESSION_SIZE) {
+			int maxLength = COMPRESSOR.maxCompressedLength(uncompressedLength);
+			if ((null == compressedOutput) || (compressedOutput.length < maxLength)) {
+				compressedOutput = new byte[maxLength];
+			}
+			int compressedLength = COMPRESSOR.compress(uncompressed, 0, uncompressedLength, compressedOutput, 0, maxLength);
+			if ((compressedLength + 4) < uncompressedLength) {
+				byte[] header = { (byte) (uncompressedLength >>> 24), (byte) (uncompressedLength >>> 16), (byte) (uncompressedLength >>> 8), (byte) uncompressedLength };
+				outputStream.write(header, 0, header.length);
+				outputStream.write(compressedOutput, 0, compressedLength);
+				compressed = true;
+			}
+		}
+		if (!compressed) {
+			outputStream.write(uncompressed, 0, uncompressedLength);
+		}
+
+		// don't keep the huge buffers around
+		if (uncompressedOutput.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+			uncompressedOutput = null; // NOPMD
+		}
+		if ((null != compressedOutput) && (compressedOutput.length > MAX_RETAINED_BUFFER_SIZE)) {
+			compressedOutput = null; // NOPMD
+		}
+		return compressed;
+	}
+
+	/**
+	 * Reads the compressed frame of the given length from the socket input stream and returns the
+	 * stream of decompressed bytes.
+	 *
+	 * @param length
+	 *            Length of the compressed frame including the uncompressed length.
+	 * @return Stream to read the object from.
+	 * @throws IOException
+	 *             If reading fails or frame is malformed.
+	 */
+	private InputStream decompress(int length) throws IOException {
+		if (length <= 4) {
+			throw new IOException("Compressed frame too short: " + length);
+		}
+		if ((null == compressedInput) || (compressedInput.length < length) || (compressedInput.length > MAX_RETAINED_BUFFER_SIZE)) {
+			compressedInput = new byte[length];
+		}
+		int read = 0;
+		while (read < length) {
+			int count = socketInputStream.read(compressedInput, read, length - read);
+			if (count < 0) {
+				throw new IOException("Compressed frame ended after " + read + " of " + length + " bytes.");
+			}
+			read += count;
+		}
+
+		int uncompressedLength = ((compressedInput[0] & 0xFF) << 24) | ((compressedInput[1] & 0xFF) << 16) | ((compressedInput[2] & 0xFF) << 8) | (compressedInput[3] & 0xFF);
+		if ((uncompressedLength <= 0) || (uncompressedLength > ((long) (length - 4) * MAX_COMPRESSION_RATIO))) {
+			throw new IOException("Invalid uncompressed length of the frame: " + uncompressedLength);
+		}
+		if ((null == uncompressedInput) || (uncompressedInput.length < uncompressedLength) || (uncompressedInput.length > MAX_RETAINED_BUFFER_SIZE)) {
+			uncompressedInput = new byte[uncompressedLength];
+		}
+		int decompressed;
+		try {
+			decompressed = DECOMPRESSOR.decompress(compressedInput, 4, length - 4, uncompressedInput, 0, uncompressedLength);
+		} catch (LZ4Exception e) {
+			throw new IOException("Compressed frame can not be decompressed.", e);
+		}
+		if (decompressed != uncompressedLength) {
+			throw new IOException("Compressed frame decompressed to " + decompressed + " instead of " + uncompressedLength + " bytes.");
+		}
+		return new ByteArrayInputStream(uncompressedInput, 0, decompressed);
+	}
+
+	/**
+	 * Returns if frames sent are compressed.
+	 *
+	 * @return If frames sent are compressed.
+	 */
+	public boolean isCompressionEnabled() {
+		return compressionEnabled;
+	}
+
+	/**
+	 * Sets if frames sent should be compressed.
+	 *
+	 * @param compressionEnabled
+	 *            If frames sent should be compressed.
+	 */
+	public void setCompressionEnabled(boolean compressionEnabled) {
+		this.compressionEnabled = compressionEnabled;
+	}
+
 	/**
 	 * @return Returns if any data is queued for writing.
 	 */
@@ -396,4 +595,27 @@ class TcpConnection {
 			return size;
 		}
 	}
+
+	/**
+	 * {@link ByteArrayOutputStream} that gives access to the internal buffer, so that no copy is
+	 * needed before compressing.
+	 */
+	private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+
+		/**
+		 * Default constructor.
+		 */
+		ExposedByteArrayOutputStream() {
+			super(8192);
+		}
+
+		/**
+		 * Returns the internal buffer, valid up to {@link #size()}.
+		 *
+		 * @return Returns the internal buffer.
+		 */
+		byte[] getBuffer() {
+			return buf;
+		}
+	}
 }
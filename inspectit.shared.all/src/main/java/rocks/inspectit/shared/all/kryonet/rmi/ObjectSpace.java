@@ -17,7 +17,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -379,6 +381,8 @@ public class ObjectSpace {
 		final ReentrantLock lock = new ReentrantLock();
 		final Condition responseCondition = lock.newCondition();
 		final ConcurrentHashMap<Byte, InvokeMethodResult> responseTable = new ConcurrentHashMap();
+		// ISE: ids of the responses nobody waits for anymore, guarded by itself
+		final Set<Byte> discardedResponseIDs = new HashSet<Byte>();
 
 		public RemoteInvocationHandler(Connection connection, final int objectID) {
 			super();
@@ -396,7 +400,14 @@ public class ObjectSpace {
 						return;
 					}
 
-					responseTable.put(invokeMethodResult.responseID, invokeMethodResult);
+					synchronized (discardedResponseIDs) {
+						// ISE: late response to the call that timed out, must not be returned to
+						// the next call with the same id
+						if (discardedResponseIDs.remove(invokeMethodResult.responseID)) {
+							return;
+						}
+						responseTable.put(invokeMethodResult.responseID, invokeMethodResult);
+					}
 
 					lock.lock();
 					try {
@@ -492,6 +503,11 @@ public class ObjectSpace {
 					responseID |= kReturnExMask;
 				}
 				invokeMethod.responseID = responseID;
+				// ISE: the id is reused, forget the old response that was never picked up
+				synchronized (discardedResponseIDs) {
+					discardedResponseIDs.remove(responseID);
+					responseTable.remove(responseID);
+				}
 			} else {
 				invokeMethod.responseID = 0; // A response info of 0 means to not respond
 			}
@@ -566,6 +582,7 @@ public class ObjectSpace {
 					return invokeMethodResult.result;
 				} else {
 					if (remaining <= 0) {
+						discardResponse(responseID);
 						throw new TimeoutException("Response timed out.");
 					}
 
@@ -573,6 +590,7 @@ public class ObjectSpace {
 					try {
 						responseCondition.await(remaining, TimeUnit.MILLISECONDS);
 					} catch (InterruptedException e) {
+						discardResponse(responseID);
 						Thread.currentThread().interrupt();
 						throw new RuntimeException(e);
 					} finally {
@@ -582,6 +600,21 @@ public class ObjectSpace {
 			}
 		}
 
+		/**
+		 * ISE: Discards the response nobody waits for anymore. If the response did not arrive yet
+		 * it will be ignored when it does.
+		 *
+		 * @param responseID
+		 *            Response id.
+		 */
+		private void discardResponse(byte responseID) {
+			synchronized (discardedResponseIDs) {
+				if (null == responseTable.remove(responseID)) {
+					discardedResponseIDs.add(responseID);
+				}
+			}
+		}
+
 		void close() {
 			connection.removeListener(responseListener);
 		}
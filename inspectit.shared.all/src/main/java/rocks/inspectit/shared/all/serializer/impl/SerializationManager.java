@@ -78,12 +78,15 @@ import rocks.inspectit.shared.all.communication.data.SqlStatementData;
 import rocks.inspectit.shared.all.communication.data.SystemInformationData;
 import rocks.inspectit.shared.all.communication.data.ThreadInformationData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.communication.data.TimerHistogram;
 import rocks.inspectit.shared.all.communication.data.VmArgumentData;
 import rocks.inspectit.shared.all.communication.data.cmr.AgentStatusData;
 import rocks.inspectit.shared.all.communication.data.cmr.AgentStatusData.AgentConnection;
 import rocks.inspectit.shared.all.communication.data.cmr.ApplicationData;
 import rocks.inspectit.shared.all.communication.data.cmr.BusinessTransactionData;
+import rocks.inspectit.shared.all.communication.data.cmr.CmrLoad;
 import rocks.inspectit.shared.all.communication.data.cmr.CmrStatusData;
+import rocks.inspectit.shared.all.communication.data.cmr.ProcessorStageData;
 import rocks.inspectit.shared.all.communication.data.eum.AjaxRequest;
 import rocks.inspectit.shared.all.communication.data.eum.ClickAction;
 import rocks.inspectit.shared.all.communication.data.eum.PageLoadAction;
@@ -125,6 +128,7 @@ import rocks.inspectit.shared.all.instrumentation.config.impl.SensorInstrumentat
 import rocks.inspectit.shared.all.instrumentation.config.impl.SpecialInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.StrategyConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.SubstitutionDescriptor;
+import rocks.inspectit.shared.all.kryonet.CompressionNegotiation;
 import rocks.inspectit.shared.all.pattern.EqualsMatchPattern;
 import rocks.inspectit.shared.all.pattern.WildcardMatchPattern;
 import rocks.inspectit.shared.all.serializer.HibernateAwareClassResolver;
@@ -294,6 +298,7 @@ public class SerializationManager implements ISerializer, IKryoProvider, Initial
 		kryo.register(CmrStatusData.class, new FieldSerializer<CmrStatusData>(kryo, CmrStatusData.class));
 		kryo.register(AgentStatusData.class, new FieldSerializer<AgentStatusData>(kryo, AgentStatusData.class));
 		kryo.register(AgentConnection.class, new EnumSerializer(AgentConnection.class));
+		kryo.register(ProcessorStageData.class, new FieldSerializer<ProcessorStageData>(kryo, ProcessorStageData.class));
 
 		// INSPECTIT-849 - Hibernate uses Arrays.asList which does not have no-arg constructor
 		kryo.register(Arrays.asList().getClass(), new CollectionSerializer() {
@@ -414,6 +419,15 @@ public class SerializationManager implements ISerializer, IKryoProvider, Initial
 		kryo.register(ResourceLoadRequest.class, new FieldSerializer<ResourceLoadRequest>(kryo, ResourceLoadRequest.class), nextRegistrationId++);
 		kryo.register(UserAction.class, new FieldSerializer<UserAction>(kryo, UserAction.class), nextRegistrationId++);
 		kryo.register(UserSessionInfo.class, new FieldSerializer<UserSessionInfo>(kryo, UserSessionInfo.class), nextRegistrationId++);	
+
+		// percentile histogram of the timer data
+		kryo.register(TimerHistogram.class, new TimerHistogramSerializer(), nextRegistrationId++);
+
+		// kryonet compression negotiation
+		kryo.register(CompressionNegotiation.class, nextRegistrationId++);
+
+		// load indication returned to the agents
+		kryo.register(CmrLoad.class, new EnumSerializer(CmrLoad.class), nextRegistrationId++);
 	}
 
 	/**
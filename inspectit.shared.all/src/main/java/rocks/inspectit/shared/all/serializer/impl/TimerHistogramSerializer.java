@@ -0,0 +1,67 @@
+package rocks.inspectit.shared.all.serializer.impl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import rocks.inspectit.shared.all.communication.data.TimerHistogram;
+
+/**
+ * Serializes instances of {@link TimerHistogram}. Only the buckets that have a count are written,
+ * each as the distance to the previous written bucket and the count, both as variable length
+ * numbers. Thus the serialized size depends on the amount of filled buckets and not on the size of
+ * the histogram.
+ */
+public class TimerHistogramSerializer extends Serializer<TimerHistogram> {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(Kryo kryo, Output output, TimerHistogram object) {
+		int filledBuckets = 0;
+		for (int i = 0; i < TimerHistogram.BUCKET_COUNT; i++) {
+			if (0 != object.getCountAtIndex(i)) {
+				filledBuckets++;
+			}
+		}
+
+		output.writeInt(filledBuckets, true);
+		int previousIndex = 0;
+		for (int i = 0; i < TimerHistogram.BUCKET_COUNT; i++) {
+			long count = object.getCountAtIndex(i);
+			if (0 != count) {
+				output.writeInt(i - previousIndex, true);
+				output.writeLong(count, true);
+				previousIndex = i;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public TimerHistogram read(Kryo kryo, Input input, Class<TimerHistogram> type) {
+		TimerHistogram histogram = new TimerHistogram();
+		int filledBuckets = input.readInt(true);
+		int index = 0;
+		for (int i = 0; i < filledBuckets; i++) {
+			index += input.readInt(true);
+			histogram.addCountAtIndex(index, input.readLong(true));
+		}
+		return histogram;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public TimerHistogram copy(Kryo kryo, TimerHistogram original) {
+		TimerHistogram copy = new TimerHistogram();
+		copy.add(original);
+		return copy;
+	}
+
+}
@@ -0,0 +1,187 @@
+package rocks.inspectit.shared.all.communication.data;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class TimerHistogramTest extends TestBase {
+
+	TimerHistogram histogram;
+
+	@BeforeMethod
+	public void init() {
+		histogram = new TimerHistogram();
+	}
+
+	public class GetBucketIndex extends TimerHistogramTest {
+
+		@Test
+		public void continuous() {
+			int previousIndex = 0;
+			for (long micros = 0; micros < 100000; micros++) {
+				int index = TimerHistogram.getBucketIndex(micros / 1000d);
+
+				assertThat(index >= previousIndex, is(true));
+				assertThat((index - previousIndex) <= 1, is(true));
+				previousIndex = index;
+			}
+		}
+
+		@Test
+		public void negative() {
+			assertThat(TimerHistogram.getBucketIndex(-1d), is(0));
+		}
+
+		@Test
+		public void outOfRange() {
+			assertThat(TimerHistogram.getBucketIndex(Double.MAX_VALUE), is(TimerHistogram.BUCKET_COUNT - 1));
+		}
+
+		@Test
+		public void relativeError() {
+			for (double value = 0.01d; value < 1000000d; value *= 1.37d) {
+				double middle = TimerHistogram.getBucketMiddle(TimerHistogram.getBucketIndex(value));
+
+				assertThat(middle, is(closeTo(value, value / 16)));
+			}
+		}
+	}
+
+	public class GetValueAtPercentile extends TimerHistogramTest {
+
+		@Test
+		public void empty() {
+			assertThat(histogram.getValueAtPercentile(99), is(-1d));
+			assertThat(histogram.isEmpty(), is(true));
+		}
+
+		@Test
+		public void uniform() {
+			for (int i = 1; i <= 1000; i++) {
+				histogram.recordValue(i);
+			}
+
+			assertThat(histogram.getTotalCount(), is(1000L));
+			assertThat(histogram.getValueAtPercentile(50), is(closeTo(500d, 500d / 16)));
+			assertThat(histogram.getValueAtPercentile(95), is(closeTo(950d, 950d / 16)));
+			assertThat(histogram.getValueAtPercentile(99), is(closeTo(990d, 990d / 16)));
+			assertThat(histogram.getValueAtPercentile(100), is(closeTo(1000d, 1000d / 16)));
+		}
+
+		@Test
+		public void outlier() {
+			for (int i = 0; i < 99; i++) {
+				histogram.recordValue(1d);
+			}
+			histogram.recordValue(1000d);
+
+			assertThat(histogram.getValueAtPercentile(99), is(closeTo(1d, 1d / 16)));
+			assertThat(histogram.getValueAtPercentile(99.5), is(closeTo(1000d, 1000d / 16)));
+		}
+	}
+
+	public class Add extends TimerHistogramTest {
+
+		@Test
+		public void add() {
+			TimerHistogram other = new TimerHistogram();
+			histogram.recordValue(1d);
+			other.recordValue(1d);
+			other.recordValue(100d);
+
+			histogram.add(other);
+
+			assertThat(histogram.getTotalCount(), is(3L));
+			assertThat(histogram.getCountAtIndex(TimerHistogram.getBucketIndex(1d)), is(2L));
+			assertThat(histogram.getCountAtIndex(TimerHistogram.getBucketIndex(100d)), is(1L));
+		}
+
+		@Test
+		public void timerDataAggregation() {
+			TimerData timerData = new TimerData();
+			TimerData other = new TimerData();
+			TimerHistogram otherHistogram = new TimerHistogram();
+			otherHistogram.recordValue(5d);
+			other.setHistogram(otherHistogram);
+
+			timerData.aggregateTimerData(other);
+			timerData.aggregateTimerData(other);
+
+			assertThat(timerData.isPercentileDataAvailable(), is(true));
+			assertThat(timerData.getHistogram().getTotalCount(), is(2L));
+			assertThat(otherHistogram.getTotalCount(), is(1L));
+		}
+
+		@Test
+		public void httpTimerDataAggregation() {
+			AggregatedHttpTimerData aggregatedData = new AggregatedHttpTimerData();
+			HttpTimerData first = new HttpTimerData();
+			first.setPercentiles(true);
+			first.setCount(1L);
+			first.setDuration(5d);
+			HttpTimerData second = new HttpTimerData();
+			second.setPercentiles(true);
+			second.setCount(1L);
+			second.setDuration(100d);
+
+			aggregatedData.aggregate(first);
+			aggregatedData.aggregate(second);
+
+			assertThat(aggregatedData.isPercentiles(), is(true));
+			assertThat(aggregatedData.getHistogram().getTotalCount(), is(2L));
+			assertThat(aggregatedData.getHistogram().getCountAtIndex(TimerHistogram.getBucketIndex(5d)), is(1L));
+			assertThat(aggregatedData.getHistogram().getCountAtIndex(TimerHistogram.getBucketIndex(100d)), is(1L));
+			assertThat(first.getHistogram(), is(nullValue()));
+		}
+
+		@Test
+		public void httpTimerDataNoPercentiles() {
+			AggregatedHttpTimerData aggregatedData = new AggregatedHttpTimerData();
+			HttpTimerData data = new HttpTimerData();
+			data.setCount(1L);
+			data.setDuration(5d);
+
+			aggregatedData.aggregate(data);
+
+			assertThat(aggregatedData.getHistogram(), is(nullValue()));
+		}
+	}
+
+	public class GetDurationPercentiles extends TimerHistogramTest {
+
+		@Test
+		public void onlyWithPercentileData() {
+			TimerData withHistogram = new TimerData();
+			withHistogram.setMethodIdent(1L);
+			withHistogram.setHistogram(histogram);
+			histogram.recordValue(10d);
+			histogram.recordValue(20d);
+			TimerData withoutHistogram = new TimerData();
+			withoutHistogram.setMethodIdent(2L);
+
+			Map<Long, double[]> result = TimerHistogram.getDurationPercentiles(Arrays.asList(withHistogram, withoutHistogram), 50d, 100d);
+
+			assertThat(result.size(), is(1));
+			assertThat(result.get(1L)[0], is(closeTo(10d, 10d / TimerHistogram.SUB_BUCKET_COUNT)));
+			assertThat(result.get(1L)[1], is(closeTo(20d, 20d / TimerHistogram.SUB_BUCKET_COUNT)));
+		}
+
+		@Test
+		public void empty() {
+			Map<Long, double[]> result = TimerHistogram.getDurationPercentiles(Collections.<TimerData> emptyList(), 50d);
+
+			assertThat(result.isEmpty(), is(true));
+		}
+	}
+}
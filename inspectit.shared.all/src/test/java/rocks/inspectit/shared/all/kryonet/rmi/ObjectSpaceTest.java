@@ -0,0 +1,118 @@
+package rocks.inspectit.shared.all.kryonet.rmi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.esotericsoftware.kryonet.rmi.RemoteObject;
+import com.esotericsoftware.kryonet.rmi.TimeoutException;
+
+import rocks.inspectit.shared.all.kryonet.Connection;
+import rocks.inspectit.shared.all.kryonet.EndPoint;
+import rocks.inspectit.shared.all.kryonet.Listener;
+import rocks.inspectit.shared.all.kryonet.rmi.ObjectSpace.InvokeMethodResult;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class ObjectSpaceTest extends TestBase {
+
+	static final int OBJECT_ID = 1;
+
+	@Mock
+	Connection connection;
+
+	@Mock
+	EndPoint endPoint;
+
+	/**
+	 * Interface of the remote object.
+	 */
+	public interface Service {
+
+		void call();
+
+	}
+
+	public static class RemoteInvocation extends ObjectSpaceTest {
+
+		Service service;
+
+		RemoteObject remoteObject;
+
+		Listener responseListener;
+
+		@BeforeMethod
+		public void init() {
+			when(connection.getEndPoint()).thenReturn(endPoint);
+			service = ObjectSpace.getRemoteObject(connection, OBJECT_ID, Service.class);
+			remoteObject = (RemoteObject) service;
+			remoteObject.setNonBlocking(true);
+			remoteObject.setResponseTimeout(10);
+			ArgumentCaptor<Listener> captor = ArgumentCaptor.forClass(Listener.class);
+			verify(connection).addListener(captor.capture());
+			responseListener = captor.getValue();
+		}
+
+		@Test
+		public void response() {
+			service.call();
+			byte responseId = remoteObject.getLastResponseID();
+
+			responseListener.received(connection, result(responseId, "result"));
+			Object result = remoteObject.waitForResponse(responseId);
+
+			assertThat(result, is((Object) "result"));
+		}
+
+		@Test
+		public void lateResponseDiscarded() {
+			service.call();
+			byte responseId = remoteObject.getLastResponseID();
+			try {
+				remoteObject.waitForResponse(responseId);
+			} catch (TimeoutException e) {
+				responseListener.received(connection, result(responseId, "late"));
+			}
+
+			// call until the response id is used again
+			do {
+				service.call();
+			} while (remoteObject.getLastResponseID() != responseId);
+			responseListener.received(connection, result(responseId, "result"));
+			Object result = remoteObject.waitForResponse(responseId);
+
+			assertThat(result, is((Object) "result"));
+		}
+
+		@Test(expectedExceptions = TimeoutException.class)
+		public void lateResponseNotReturnedForReusedId() {
+			service.call();
+			byte responseId = remoteObject.getLastResponseID();
+			try {
+				remoteObject.waitForResponse(responseId);
+			} catch (TimeoutException e) {
+				responseListener.received(connection, result(responseId, "late"));
+			}
+
+			do {
+				service.call();
+			} while (remoteObject.getLastResponseID() != responseId);
+			remoteObject.waitForResponse(responseId);
+		}
+
+		InvokeMethodResult result(byte responseId, Object result) {
+			InvokeMethodResult invokeMethodResult = new InvokeMethodResult();
+			invokeMethodResult.objectID = OBJECT_ID;
+			invokeMethodResult.responseID = responseId;
+			invokeMethodResult.result = result;
+			return invokeMethodResult;
+		}
+	}
+
+}
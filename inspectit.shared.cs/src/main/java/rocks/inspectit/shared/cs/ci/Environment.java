@@ -32,6 +32,7 @@ import rocks.inspectit.shared.cs.ci.sensor.platform.AbstractPlatformSensorConfig
 import rocks.inspectit.shared.cs.ci.sensor.platform.IPlatformSensorConfig;
 import rocks.inspectit.shared.cs.ci.strategy.IStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.ListSendingStrategyConfig;
+import rocks.inspectit.shared.cs.ci.strategy.impl.RingBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.SimpleBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.SizeBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.TimeSendingStrategyConfig;
@@ -67,7 +68,7 @@ public class Environment extends AbstractCiData {
 	 * <p>
 	 * Default is {@link SimpleBufferStrategyConfig}.
 	 */
-	@XmlElementRefs({ @XmlElementRef(type = SimpleBufferStrategyConfig.class), @XmlElementRef(type = SizeBufferStrategyConfig.class) })
+	@XmlElementRefs({ @XmlElementRef(type = SimpleBufferStrategyConfig.class), @XmlElementRef(type = SizeBufferStrategyConfig.class), @XmlElementRef(type = RingBufferStrategyConfig.class) })
 	private IStrategyConfig bufferStrategyConfig = ConfigurationDefaultsFactory.getDefaultBufferStrategy();
 
 	/**
@@ -32,6 +32,12 @@ public class ChartingMethodSensorAssignment extends MethodSensorAssignment {
 	@XmlAttribute(name = "charting")
 	private Boolean charting = Boolean.FALSE;
 
+	/**
+	 * If the histogram for the percentile calculation should be collected.
+	 */
+	@XmlAttribute(name = "percentiles")
+	private Boolean percentiles = Boolean.FALSE;
+
 	/**
 	 * No arg-constructor.
 	 */
@@ -68,6 +74,11 @@ public class ChartingMethodSensorAssignment extends MethodSensorAssignment {
 			settings.put("charting", Boolean.TRUE);
 		}
 
+		// percentiles
+		if (isPercentiles()) {
+			settings.put("percentiles", Boolean.TRUE);
+		}
+
 		return settings;
 	}
 
@@ -90,6 +101,26 @@ public class ChartingMethodSensorAssignment extends MethodSensorAssignment {
 		this.charting = Boolean.valueOf(charting);
 	}
 
+	/**
+	 * Gets {@link #percentiles}.
+	 *
+	 * @return {@link #percentiles}
+	 */
+	public boolean isPercentiles() {
+		// can be null when loaded from the configuration not having the attribute
+		return Boolean.TRUE.equals(percentiles);
+	}
+
+	/**
+	 * Sets {@link #percentiles}.
+	 *
+	 * @param percentiles
+	 *            New value for {@link #percentiles}
+	 */
+	public void setPercentiles(boolean percentiles) {
+		this.percentiles = Boolean.valueOf(percentiles);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -98,6 +129,7 @@ public class ChartingMethodSensorAssignment extends MethodSensorAssignment {
 		final int prime = 31;
 		int result = super.hashCode();
 		result = (prime * result) + ((this.charting == null) ? 0 : this.charting.hashCode());
+		result = (prime * result) + ((this.percentiles == null) ? 0 : this.percentiles.hashCode());
 		return result;
 	}
 
@@ -123,6 +155,13 @@ public class ChartingMethodSensorAssignment extends MethodSensorAssignment {
 		} else if (!this.charting.equals(other.charting)) {
 			return false;
 		}
+		if (this.percentiles == null) {
+			if (other.percentiles != null) {
+				return false;
+			}
+		} else if (!this.percentiles.equals(other.percentiles)) {
+			return false;
+		}
 		return true;
 	}
 
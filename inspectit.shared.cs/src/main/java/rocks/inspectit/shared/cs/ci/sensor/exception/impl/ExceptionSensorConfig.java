@@ -1,5 +1,7 @@
 package rocks.inspectit.shared.cs.ci.sensor.exception.impl;
 
+import java.util.Map;
+
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -37,6 +39,15 @@ public class ExceptionSensorConfig extends StringConstraintSensorConfig implemen
 	@XmlAttribute(name = "enhanced", required = true)
 	private boolean enhanced = false;
 
+	/**
+	 * Maximum amount of created throwable objects per throwable type and second captured by the
+	 * sensor. Value of <code>0</code> means no limit.
+	 * <p>
+	 * Default value is {@value #maxPerTypePerSecond}.
+	 */
+	@XmlAttribute(name = "max-per-type-per-second")
+	private int maxPerTypePerSecond = 0;
+
 	/**
 	 * No-args constructor.
 	 */
@@ -68,6 +79,18 @@ public class ExceptionSensorConfig extends StringConstraintSensorConfig implemen
 		return enhanced;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Object> getParameters() {
+		Map<String, Object> params = super.getParameters();
+		if (maxPerTypePerSecond > 0) {
+			params.put("maxPerTypePerSecond", String.valueOf(maxPerTypePerSecond));
+		}
+		return params;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -94,6 +117,25 @@ public class ExceptionSensorConfig extends StringConstraintSensorConfig implemen
 		this.enhanced = enhanced;
 	}
 
+	/**
+	 * Gets {@link #maxPerTypePerSecond}.
+	 *
+	 * @return {@link #maxPerTypePerSecond}
+	 */
+	public int getMaxPerTypePerSecond() {
+		return maxPerTypePerSecond;
+	}
+
+	/**
+	 * Sets {@link #maxPerTypePerSecond}.
+	 *
+	 * @param maxPerTypePerSecond
+	 *            New value for {@link #maxPerTypePerSecond}
+	 */
+	public void setMaxPerTypePerSecond(int maxPerTypePerSecond) {
+		this.maxPerTypePerSecond = maxPerTypePerSecond;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -102,6 +144,7 @@ public class ExceptionSensorConfig extends StringConstraintSensorConfig implemen
 		final int prime = 31;
 		int result = super.hashCode();
 		result = (prime * result) + (enhanced ? 1231 : 1237);
+		result = (prime * result) + maxPerTypePerSecond;
 		return result;
 	}
 
@@ -123,6 +166,9 @@ public class ExceptionSensorConfig extends StringConstraintSensorConfig implemen
 		if (enhanced != other.enhanced) {
 			return false;
 		}
+		if (maxPerTypePerSecond != other.maxPerTypePerSecond) {
+			return false;
+		}
 		return true;
 	}
 
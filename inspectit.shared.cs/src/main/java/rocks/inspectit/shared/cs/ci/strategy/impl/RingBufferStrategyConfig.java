@@ -0,0 +1,205 @@
+package rocks.inspectit.shared.cs.ci.strategy.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import rocks.inspectit.shared.cs.ci.strategy.IStrategyConfig;
+
+/**
+ * Configuration for the ring buffer strategy.
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlRootElement(name = "ring-buffer-strategy-config")
+public class RingBufferStrategyConfig implements IStrategyConfig {
+
+	/**
+	 * Implementing class name.
+	 */
+	private static final String CLASS_NAME = "rocks.inspectit.agent.java.buffer.impl.RingBufferStrategy";
+
+	/**
+	 * Names of the available overflow policies.
+	 */
+	public static final String[] OVERFLOW_POLICIES = { "DROP_OLDEST", "DROP_NEWEST", "SAMPLE", "AGGREGATE" };
+
+	/**
+	 * Amount of elements the buffer can hold.
+	 * <p>
+	 * Default capacity is {@value #capacity}.
+	 */
+	@XmlAttribute(name = "capacity", required = true)
+	private int capacity = 10000;
+
+	/**
+	 * Policy applied when the buffer is full, one of the {@link #OVERFLOW_POLICIES}.
+	 */
+	@XmlAttribute(name = "overflow-policy")
+	private String overflowPolicy = "DROP_OLDEST";
+
+	/**
+	 * Every n-th element is accepted with the sample policy when buffer is more than half full.
+	 * <p>
+	 * Default sample rate is {@value #sampleRate}.
+	 */
+	@XmlAttribute(name = "sample-rate")
+	private int sampleRate = 10;
+
+	/**
+	 * Maximum amount of bytes in one sent batch.
+	 * <p>
+	 * Default is {@value #maxBatchBytes}.
+	 */
+	@XmlAttribute(name = "max-batch-bytes")
+	private long maxBatchBytes = 1048576;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, String> getSettings() {
+		Map<String, String> settings = new HashMap<>(4);
+		settings.put("capacity", String.valueOf(capacity));
+		settings.put("overflowPolicy", overflowPolicy);
+		settings.put("sampleRate", String.valueOf(sampleRate));
+		settings.put("maxBatchBytes", String.valueOf(maxBatchBytes));
+		return settings;
+	}
+
+	/**
+	 * Gets {@link #capacity}.
+	 *
+	 * @return {@link #capacity}
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Sets {@link #capacity}.
+	 *
+	 * @param capacity
+	 *            New value for {@link #capacity}
+	 */
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Gets {@link #overflowPolicy}.
+	 *
+	 * @return {@link #overflowPolicy}
+	 */
+	public String getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * Sets {@link #overflowPolicy}.
+	 *
+	 * @param overflowPolicy
+	 *            New value for {@link #overflowPolicy}
+	 */
+	public void setOverflowPolicy(String overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Gets {@link #sampleRate}.
+	 *
+	 * @return {@link #sampleRate}
+	 */
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * Sets {@link #sampleRate}.
+	 *
+	 * @param sampleRate
+	 *            New value for {@link #sampleRate}
+	 */
+	public void setSampleRate(int sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Gets {@link #maxBatchBytes}.
+	 *
+	 * @return {@link #maxBatchBytes}
+	 */
+	public long getMaxBatchBytes() {
+		return maxBatchBytes;
+	}
+
+	/**
+	 * Sets {@link #maxBatchBytes}.
+	 *
+	 * @param maxBatchBytes
+	 *            New value for {@link #maxBatchBytes}
+	 */
+	public void setMaxBatchBytes(long maxBatchBytes) {
+		this.maxBatchBytes = maxBatchBytes;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = (prime * result) + capacity;
+		result = (prime * result) + ((overflowPolicy == null) ? 0 : overflowPolicy.hashCode());
+		result = (prime * result) + sampleRate;
+		result = (prime * result) + (int) (maxBatchBytes ^ (maxBatchBytes >>> 32));
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		RingBufferStrategyConfig other = (RingBufferStrategyConfig) obj;
+		if (capacity != other.capacity) {
+			return false;
+		}
+		if (overflowPolicy == null) {
+			if (other.overflowPolicy != null) {
+				return false;
+			}
+		} else if (!overflowPolicy.equals(other.overflowPolicy)) {
+			return false;
+		}
+		if (sampleRate != other.sampleRate) {
+			return false;
+		}
+		if (maxBatchBytes != other.maxBatchBytes) {
+			return false;
+		}
+		return true;
+	}
+
+}
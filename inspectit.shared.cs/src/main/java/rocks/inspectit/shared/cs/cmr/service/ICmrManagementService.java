@@ -1,10 +1,12 @@
 package rocks.inspectit.shared.cs.cmr.service;
 
 import java.util.Collection;
+import java.util.List;
 
 import rocks.inspectit.shared.all.cmr.service.ServiceExporterType;
 import rocks.inspectit.shared.all.cmr.service.ServiceInterface;
 import rocks.inspectit.shared.all.communication.data.cmr.CmrStatusData;
+import rocks.inspectit.shared.all.communication.data.cmr.ProcessorStageData;
 import rocks.inspectit.shared.cs.cmr.property.configuration.PropertySection;
 import rocks.inspectit.shared.cs.cmr.property.update.configuration.ConfigurationUpdate;
 
@@ -56,6 +58,14 @@ public interface ICmrManagementService {
 	 */
 	int getDroppedDataCount();
 
+	/**
+	 * Returns the status of the CMR data processing stages, including the queue occupancy,
+	 * processing latency and amount of data dropped by each stage.
+	 *
+	 * @return Returns the list of {@link ProcessorStageData}, one for each processing stage.
+	 */
+	List<ProcessorStageData> getProcessorStageData();
+
 	/**
 	 * Returns the currently existing {@link PropertySection} in the CMR configuration.
 	 *
@@ -2,6 +2,7 @@ package rocks.inspectit.shared.cs.cmr.service;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import rocks.inspectit.shared.all.cmr.service.ServiceExporterType;
 import rocks.inspectit.shared.all.cmr.service.ServiceInterface;
@@ -39,4 +40,22 @@ public interface ITimerDataAccessService {
 	 * @return The list of the timer data object.
 	 */
 	List<TimerData> getAggregatedTimerData(TimerData timerData, Date fromDate, Date toDate);
+
+	/**
+	 * Returns the duration percentiles of the methods for a given template for a time frame. In
+	 * this template, only the platform id is extracted. Only methods that have the percentile data
+	 * available are included in the result. The percentile data is available only for the timer
+	 * data in the buffer or in the storage, as the histogram is not persisted to the database.
+	 *
+	 * @param timerData
+	 *            The template containing the platform id.
+	 * @param fromDate
+	 *            Date to include data from.
+	 * @param toDate
+	 *            Date to include data to.
+	 * @param percentiles
+	 *            Percentiles between 0 and 100 to calculate.
+	 * @return Map of the method ident to the durations in the order of the given percentiles.
+	 */
+	Map<Long, double[]> getDurationPercentiles(TimerData timerData, Date fromDate, Date toDate, double... percentiles);
 }
@@ -17,6 +17,9 @@ public interface IAggregator<E extends DefaultData> {
 	/**
 	 * Performs the aggregation. The aggregation should be done in the aggregatedObject, and
 	 * objectToAdd should not be changed.
+	 * <p>
+	 * The objectToAdd can also be an object already aggregated by this aggregator, when the
+	 * partial aggregation results are combined.
 	 *
 	 * @param aggregatedObject
 	 *            Object to hold aggregated values.
@@ -102,6 +102,28 @@ public class AggregationPerformer<E extends DefaultData> {
 
 	}
 
+	/**
+	 * Combines the results of the other performer into this one. Aggregated objects of the other
+	 * performer are added by the key they were created with, thus keys are not calculated again
+	 * for the already aggregated objects. Both performers must use the same {@link IAggregator}.
+	 * <p>
+	 * Aggregated objects of the other performer can be taken over by this performer, so the other
+	 * performer should not be used after the combine.
+	 *
+	 * @param other
+	 *            Performer holding the partial aggregation results.
+	 */
+	public void combine(AggregationPerformer<E> other) {
+		for (Map.Entry<Object, IAggregatedData<E>> entry : other.aggregationMap.entrySet()) {
+			IAggregatedData<E> aggregatedObject = aggregationMap.get(entry.getKey());
+			if (null != aggregatedObject) {
+				aggregator.aggregate(aggregatedObject, entry.getValue().getData());
+			} else {
+				aggregationMap.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
 	/**
 	 * Returns aggregation results.
 	 *
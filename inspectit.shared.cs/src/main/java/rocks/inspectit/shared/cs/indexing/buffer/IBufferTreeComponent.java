@@ -1,8 +1,18 @@
 package rocks.inspectit.shared.cs.indexing.buffer;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
 
 /**
@@ -13,7 +23,7 @@ import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
  * @param <E>
  *            Type of the elements indexed.
  */
-public interface IBufferTreeComponent<E> extends ITreeComponent<E, E> {
+public interface IBufferTreeComponent<E extends DefaultData> extends ITreeComponent<E, E> {
 
 	/**
 	 * Cleans the indexing tree by submitting the {@link Runnable} to the provided
@@ -54,4 +64,116 @@ public interface IBufferTreeComponent<E> extends ITreeComponent<E, E> {
 	 */
 	long getNumberOfElements();
 
+	/**
+	 * Returns the first elements that fulfill the query in the order defined by the comparator.
+	 * Only the wanted amount of elements is kept while querying, thus the result does not have to
+	 * be sorted and limited afterwards.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param comparator
+	 *            Comparator defining the order of the results.
+	 * @param limit
+	 *            Max amount of results, negative for no limit.
+	 * @return Sorted list of results.
+	 */
+	List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit);
+
+	/**
+	 * Returns the first elements that fulfill the query in the order defined by the comparator,
+	 * querying the tree components in parallel with the given {@link ForkJoinPool}.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param comparator
+	 *            Comparator defining the order of the results.
+	 * @param limit
+	 *            Max amount of results, negative for no limit.
+	 * @param forkJoinPool
+	 *            Pool to execute the query in.
+	 * @return Sorted list of results.
+	 * @see #query(IIndexQuery, Comparator, int)
+	 */
+	List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit, ForkJoinPool forkJoinPool);
+
+	/**
+	 * Returns the task for the fork join query that returns the first elements in the order
+	 * defined by the comparator.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param comparator
+	 *            Comparator defining the order of the results.
+	 * @param limit
+	 *            Max amount of results, negative for no limit.
+	 * @return Task returning the sorted list of results.
+	 */
+	RecursiveTask<List<E>> getTaskForForkJoinQuery(IIndexQuery query, Comparator<? super E> comparator, int limit);
+
+	/**
+	 * Aggregates all elements that fulfill the query with the given {@link AggregationPerformer}.
+	 * Only the aggregated objects are kept in the performer, the elements are not collected in a
+	 * list first.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param aggregationPerformer
+	 *            Performer to add the elements to.
+	 */
+	void query(IIndexQuery query, AggregationPerformer<E> aggregationPerformer);
+
+	/**
+	 * Returns the aggregated elements that fulfill the query, querying the tree components in
+	 * parallel with the given {@link ForkJoinPool}. Each leaf aggregates its elements in own task
+	 * and the partial results are combined on the way up the tree.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param aggregator
+	 *            Aggregator to use.
+	 * @param forkJoinPool
+	 *            Pool to execute the query in.
+	 * @return Aggregated results.
+	 * @see #query(IIndexQuery, AggregationPerformer)
+	 */
+	List<E> query(IIndexQuery query, IAggregator<E> aggregator, ForkJoinPool forkJoinPool);
+
+	/**
+	 * Returns the task for the fork join query that aggregates the elements fulfilling the query.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param aggregator
+	 *            Aggregator to use.
+	 * @return Task returning the performer holding the partial aggregation results.
+	 */
+	RecursiveTask<AggregationPerformer<E>> getTaskForForkJoinQuery(IIndexQuery query, IAggregator<E> aggregator);
+
+	/**
+	 * Passes the elements that fulfill the query to the given consumer, one list for each leaf.
+	 * The tree components are processed in parallel with the given {@link ForkJoinPool}, thus the
+	 * consumer must be thread-safe. The elements of the whole tree are never collected in one
+	 * list.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param consumer
+	 *            Consumer of the elements of one leaf. Called from the fork join tasks.
+	 * @param forkJoinPool
+	 *            Pool to execute the processing in.
+	 */
+	void process(IIndexQuery query, Consumer<List<E>> consumer, ForkJoinPool forkJoinPool);
+
+	/**
+	 * Returns the task for the fork join processing of the elements fulfilling the query.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param consumer
+	 *            Consumer of the elements of one leaf.
+	 * @return Task passing the elements to the consumer.
+	 * @see #process(IIndexQuery, Consumer, ForkJoinPool)
+	 */
+	RecursiveAction getTaskForForkJoinProcessing(IIndexQuery query, Consumer<List<E>> consumer);
+
 }
@@ -0,0 +1,62 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import java.util.concurrent.RecursiveTask;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+
+/**
+ * Aggregates the elements of one leaf.
+ *
+ * @param <E>
+ *            Type of the element.
+ */
+@SuppressWarnings("serial")
+public class AggregationLeafTask<E extends DefaultData> extends RecursiveTask<AggregationPerformer<E>> {
+
+	/**
+	 * The given leaf.
+	 */
+	private IBufferTreeComponent<E> leaf;
+
+	/**
+	 * The given query.
+	 */
+	private IIndexQuery query;
+
+	/**
+	 * Aggregator to use.
+	 */
+	private IAggregator<E> aggregator;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param leaf
+	 *            leaf
+	 * @param query
+	 *            query
+	 * @param aggregator
+	 *            aggregator to use
+	 */
+	public AggregationLeafTask(IBufferTreeComponent<E> leaf, IIndexQuery query, IAggregator<E> aggregator) {
+		this.leaf = leaf;
+		this.query = query;
+		this.aggregator = aggregator;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Aggregates the elements of the Leaf.
+	 */
+	@Override
+	protected AggregationPerformer<E> compute() {
+		AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+		leaf.query(query, aggregationPerformer);
+		return aggregationPerformer;
+	}
+}
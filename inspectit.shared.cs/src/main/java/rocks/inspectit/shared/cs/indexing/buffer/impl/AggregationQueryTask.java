@@ -0,0 +1,86 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+
+/**
+ * Queries the branches in parallel and combines the partial aggregation results returned by each
+ * branch.
+ *
+ * @param <E>
+ *            Type of the element.
+ */
+@SuppressWarnings("serial")
+public class AggregationQueryTask<E extends DefaultData> extends RecursiveTask<AggregationPerformer<E>> {
+
+	/**
+	 * The branches, which have to be queried.
+	 */
+	private Collection<? extends ITreeComponent<E, E>> branchesToQuery;
+
+	/**
+	 * The given query.
+	 */
+	private IIndexQuery query;
+
+	/**
+	 * Aggregator to use.
+	 */
+	private IAggregator<E> aggregator;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param branchesToQuery
+	 *            The branches, which have to be queried.
+	 * @param query
+	 *            query
+	 * @param aggregator
+	 *            aggregator to use
+	 */
+	public AggregationQueryTask(Collection<? extends ITreeComponent<E, E>> branchesToQuery, IIndexQuery query, IAggregator<E> aggregator) {
+		this.branchesToQuery = branchesToQuery;
+		this.query = query;
+		this.aggregator = aggregator;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Forks and queries all sub-branches.
+	 */
+	@Override
+	protected AggregationPerformer<E> compute() {
+		List<RecursiveTask<AggregationPerformer<E>>> aggregationForks = new ArrayList<>();
+		List<RecursiveTask<List<E>>> queryForks = new ArrayList<>();
+		for (ITreeComponent<E, E> component : branchesToQuery) {
+			if (component instanceof IBufferTreeComponent) {
+				RecursiveTask<AggregationPerformer<E>> task = ((IBufferTreeComponent<E>) component).getTaskForForkJoinQuery(query, aggregator);
+				aggregationForks.add(task);
+				task.fork();
+			} else {
+				RecursiveTask<List<E>> task = component.getTaskForForkJoinQuery(query);
+				queryForks.add(task);
+				task.fork();
+			}
+		}
+
+		AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+		for (RecursiveTask<AggregationPerformer<E>> fork : aggregationForks) {
+			aggregationPerformer.combine(fork.join());
+		}
+		for (RecursiveTask<List<E>> fork : queryForks) {
+			aggregationPerformer.processCollection(fork.join());
+		}
+		return aggregationPerformer;
+	}
+}
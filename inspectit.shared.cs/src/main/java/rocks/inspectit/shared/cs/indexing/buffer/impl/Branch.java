@@ -1,14 +1,24 @@
 package rocks.inspectit.shared.cs.indexing.buffer.impl;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.AbstractBranch;
 import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferBranchIndexer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+import rocks.inspectit.shared.cs.indexing.util.TopKCollector;
 
 /**
  * {@link Branch} is a {@link ITreeComponent} that holds references to other {@link ITreeComponent}
@@ -119,6 +129,84 @@ public class Branch<E extends DefaultData> extends AbstractBranch<E, E> implemen
 		return sum;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		TopKCollector<E> collector = new TopKCollector<>(comparator, limit);
+		for (ITreeComponent<E, E> treeComponent : getBranchesToQuery(query)) {
+			if (treeComponent instanceof IBufferTreeComponent) {
+				collector.addAll(((IBufferTreeComponent<E>) treeComponent).query(query, comparator, limit));
+			} else {
+				collector.addAll(treeComponent.query(query));
+			}
+		}
+		return collector.getResults();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit, ForkJoinPool forkJoinPool) {
+		return forkJoinPool.invoke(getTaskForForkJoinQuery(query, comparator, limit));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RecursiveTask<List<E>> getTaskForForkJoinQuery(IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		return new TopKQueryTask<>(getBranchesToQuery(query), query, comparator, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void query(IIndexQuery query, AggregationPerformer<E> aggregationPerformer) {
+		for (ITreeComponent<E, E> treeComponent : getBranchesToQuery(query)) {
+			if (treeComponent instanceof IBufferTreeComponent) {
+				((IBufferTreeComponent<E>) treeComponent).query(query, aggregationPerformer);
+			} else {
+				aggregationPerformer.processCollection(treeComponent.query(query));
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, IAggregator<E> aggregator, ForkJoinPool forkJoinPool) {
+		return forkJoinPool.invoke(getTaskForForkJoinQuery(query, aggregator)).getResultList();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RecursiveTask<AggregationPerformer<E>> getTaskForForkJoinQuery(IIndexQuery query, IAggregator<E> aggregator) {
+		return new AggregationQueryTask<>(getBranchesToQuery(query), query, aggregator);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void process(IIndexQuery query, Consumer<List<E>> consumer, ForkJoinPool forkJoinPool) {
+		forkJoinPool.invoke(getTaskForForkJoinProcessing(query, consumer));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RecursiveAction getTaskForForkJoinProcessing(IIndexQuery query, Consumer<List<E>> consumer) {
+		return new ProcessingQueryTask<>(getBranchesToQuery(query), query, consumer);
+	}
+
 	/**
 	 * @return the bufferBranchIndexer
 	 */
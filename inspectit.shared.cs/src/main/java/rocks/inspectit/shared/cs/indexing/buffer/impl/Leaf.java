@@ -2,13 +2,18 @@ package rocks.inspectit.shared.cs.indexing.buffer.impl;
 
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
@@ -17,10 +22,16 @@ import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.LeafTask;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+import rocks.inspectit.shared.cs.indexing.util.TopKCollector;
 
 /**
  * Leaf class is the one that holds the weak references to objects, thus last in tree structure.
+ * <p>
+ * Next to the map by id, the references are kept sorted by the element time-stamp, so that queries
+ * with the time interval only check the elements in the interval.
  *
  * @author Ivan Senic
  *
@@ -34,6 +45,11 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	 */
 	private NonBlockingHashMapLong<CustomWeakReference<E>> map;
 
+	/**
+	 * Same weak references as in the {@link #map} sorted by time-stamp of the referent.
+	 */
+	private ConcurrentSkipListSet<CustomWeakReference<E>> timestampIndex;
+
 	/**
 	 * Reference queue where cleared Weak references are queued by garbage collection.
 	 */
@@ -59,6 +75,7 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	 */
 	public Leaf() {
 		map = new NonBlockingHashMapLong<>();
+		timestampIndex = new ConcurrentSkipListSet<>(CustomWeakReference.TIMESTAMP_COMPARATOR);
 		referenceQueue = new ReferenceQueue<>();
 	}
 
@@ -67,8 +84,17 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	 */
 	@Override
 	public E put(E element) {
+		long id = element.getId();
 		CustomWeakReference<E> weakReference = new CustomWeakReference<>(element, referenceQueue);
-		map.put(element.getId(), weakReference);
+		CustomWeakReference<E> old = map.put(id, weakReference);
+		if (null != old) {
+			timestampIndex.remove(old);
+		}
+		timestampIndex.add(weakReference);
+		if (map.get(id) != weakReference) {
+			// removed in the meantime, remover could miss the index entry we just added
+			timestampIndex.remove(weakReference);
+		}
 		return element;
 	}
 
@@ -81,7 +107,7 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		WeakReference<E> weakReference = map.get(id);
 		if (null != weakReference) {
 			if (null == weakReference.get()) {
-				map.remove(id);
+				remove(id);
 				return null;
 			}
 			return weakReference.get();
@@ -99,11 +125,11 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		WeakReference<E> weakReference = map.get(id);
 		if (null != weakReference) {
 			if (null == weakReference.get()) {
-				map.remove(id);
+				remove(id);
 				return null;
 			} else {
 				E result = weakReference.get();
-				map.remove(id);
+				remove(id);
 				return result;
 			}
 		} else {
@@ -117,19 +143,93 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	@Override
 	public List<E> query(IIndexQuery query) {
 		List<E> results = new ArrayList<>();
-		Iterator<CustomWeakReference<E>> iterator = map.values().iterator();
+		Iterator<CustomWeakReference<E>> iterator = getReferences(query);
 		while (iterator.hasNext()) {
 			WeakReference<E> weakReference = iterator.next();
 			if (null != weakReference) {
 				E element = weakReference.get();
 				if ((null != element) && element.isQueryComplied(query)) {
-					results.add(weakReference.get());
+					results.add(element);
 				}
 			}
 		}
 		return results;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		TopKCollector<E> collector = new TopKCollector<>(comparator, limit);
+		Iterator<CustomWeakReference<E>> iterator = getReferences(query);
+		while (iterator.hasNext()) {
+			WeakReference<E> weakReference = iterator.next();
+			if (null != weakReference) {
+				E element = weakReference.get();
+				if ((null != element) && element.isQueryComplied(query)) {
+					collector.add(element);
+				}
+			}
+		}
+		return collector.getResults();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit, ForkJoinPool forkJoinPool) {
+		return forkJoinPool.invoke(getTaskForForkJoinQuery(query, comparator, limit));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void query(IIndexQuery query, AggregationPerformer<E> aggregationPerformer) {
+		Iterator<CustomWeakReference<E>> iterator = getReferences(query);
+		while (iterator.hasNext()) {
+			WeakReference<E> weakReference = iterator.next();
+			if (null != weakReference) {
+				E element = weakReference.get();
+				if ((null != element) && element.isQueryComplied(query)) {
+					aggregationPerformer.processElement(element);
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, IAggregator<E> aggregator, ForkJoinPool forkJoinPool) {
+		return forkJoinPool.invoke(getTaskForForkJoinQuery(query, aggregator)).getResultList();
+	}
+
+	/**
+	 * Returns the iterator over the references that can fulfill the query.
+	 *
+	 * @param query
+	 *            Query.
+	 * @return Iterator over all references or only over the ones in the interval of the query.
+	 */
+	private Iterator<CustomWeakReference<E>> getReferences(IIndexQuery query) {
+		if (query.isIntervalSet()) {
+			// only elements in the interval, exact check is done with the query
+			Timestamp fromDate = query.getFromDate();
+			Timestamp toDate = query.getToDate();
+			long from = (null != fromDate) ? fromDate.getTime() : Long.MIN_VALUE;
+			long to = (null != toDate) ? toDate.getTime() : Long.MAX_VALUE;
+			CustomWeakReference<E> fromBound = new CustomWeakReference<>(from, Long.MIN_VALUE);
+			CustomWeakReference<E> toBound = new CustomWeakReference<>(to, Long.MAX_VALUE);
+			return timestampIndex.subSet(fromBound, true, toBound, true).iterator();
+		} else {
+			return map.values().iterator();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -152,6 +252,8 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		size += objectSizes.getSizeOfNonBlockingHashMapLong(mapSize);
 		// for each CustomWeakReference in a map
 		size += map.size() * objectSizes.getSizeOfCustomWeakReference();
+		// time-stamp index
+		size += objectSizes.getSizeOfConcurrentSkipListSet(timestampIndex.size());
 
 		return size;
 		// the size of the reference queue, runnable and future and not included, because they are
@@ -171,8 +273,8 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 			toClean.add(customWeakReference.getReferentId());
 			customWeakReference = (CustomWeakReference<E>) referenceQueue.poll();
 		}
-		for (Object key : toClean) {
-			map.remove(key);
+		for (Long key : toClean) {
+			remove(key.longValue());
 		}
 		if (map.isEmpty()) {
 			return true;
@@ -194,6 +296,7 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	@Override
 	public void clearAll() {
 		map.clear();
+		timestampIndex.clear();
 	}
 
 	/**
@@ -215,8 +318,21 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	}
 
 	/**
-	 * Custom extension of {@link WeakReference} that will additionally hold the id of the referent
-	 * {@link DefaultData} object.
+	 * Removes the reference with given id from the map and the time-stamp index.
+	 *
+	 * @param id
+	 *            Id of the element.
+	 */
+	private void remove(long id) {
+		CustomWeakReference<E> weakReference = map.remove(id);
+		if (null != weakReference) {
+			timestampIndex.remove(weakReference);
+		}
+	}
+
+	/**
+	 * Custom extension of {@link WeakReference} that will additionally hold the id and time-stamp
+	 * of the referent {@link DefaultData} object.
 	 *
 	 * @author Ivan Senic
 	 *
@@ -224,11 +340,32 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	 */
 	private static class CustomWeakReference<T extends DefaultData> extends WeakReference<T> {
 
+		/**
+		 * Orders references by time-stamp and then by id of the referent.
+		 */
+		@SuppressWarnings("rawtypes")
+		private static final Comparator<CustomWeakReference> TIMESTAMP_COMPARATOR = new Comparator<CustomWeakReference>() {
+			@Override
+			public int compare(CustomWeakReference o1, CustomWeakReference o2) {
+				int result = Long.compare(o1.referentTimestamp, o2.referentTimestamp);
+				if (0 == result) {
+					result = Long.compare(o1.referentId, o2.referentId);
+				}
+				return result;
+			}
+		};
+
 		/**
 		 * Id of referring object.
 		 */
 		private long referentId;
 
+		/**
+		 * Time-stamp of the referring object in milliseconds or {@link Long#MIN_VALUE} if it has
+		 * none.
+		 */
+		private long referentTimestamp;
+
 		/**
 		 * Default constructor.
 		 *
@@ -241,6 +378,23 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		public CustomWeakReference(T referent, ReferenceQueue<? super T> q) {
 			super(referent, q);
 			referentId = referent.getId();
+			Timestamp timeStamp = referent.getTimeStamp();
+			referentTimestamp = (null != timeStamp) ? timeStamp.getTime() : Long.MIN_VALUE;
+		}
+
+		/**
+		 * Creates reference to nothing that is used as a bound for the look-up in the time-stamp
+		 * index.
+		 *
+		 * @param referentTimestamp
+		 *            Time-stamp in milliseconds.
+		 * @param referentId
+		 *            Id.
+		 */
+		public CustomWeakReference(long referentTimestamp, long referentId) {
+			super(null);
+			this.referentTimestamp = referentTimestamp;
+			this.referentId = referentId;
 		}
 
 		/**
@@ -269,4 +423,36 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	public RecursiveTask<List<E>> getTaskForForkJoinQuery(IIndexQuery query) {
 		return new LeafTask<>(this, query);
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RecursiveTask<List<E>> getTaskForForkJoinQuery(IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		return new TopKLeafTask<>(this, query, comparator, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RecursiveTask<AggregationPerformer<E>> getTaskForForkJoinQuery(IIndexQuery query, IAggregator<E> aggregator) {
+		return new AggregationLeafTask<>(this, query, aggregator);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void process(IIndexQuery query, Consumer<List<E>> consumer, ForkJoinPool forkJoinPool) {
+		forkJoinPool.invoke(getTaskForForkJoinProcessing(query, consumer));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RecursiveAction getTaskForForkJoinProcessing(IIndexQuery query, Consumer<List<E>> consumer) {
+		return new ProcessingLeafTask<>(this, query, consumer);
+	}
 }
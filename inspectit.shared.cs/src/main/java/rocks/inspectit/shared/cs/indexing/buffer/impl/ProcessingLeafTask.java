@@ -0,0 +1,63 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+
+/**
+ * Passes the elements of one leaf to the consumer.
+ *
+ * @param <E>
+ *            Type of the element.
+ */
+@SuppressWarnings("serial")
+public class ProcessingLeafTask<E extends DefaultData> extends RecursiveAction {
+
+	/**
+	 * The given leaf.
+	 */
+	private IBufferTreeComponent<E> leaf;
+
+	/**
+	 * The given query.
+	 */
+	private IIndexQuery query;
+
+	/**
+	 * Consumer of the elements.
+	 */
+	private Consumer<List<E>> consumer;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param leaf
+	 *            leaf
+	 * @param query
+	 *            query
+	 * @param consumer
+	 *            consumer of the elements
+	 */
+	public ProcessingLeafTask(IBufferTreeComponent<E> leaf, IIndexQuery query, Consumer<List<E>> consumer) {
+		this.leaf = leaf;
+		this.query = query;
+		this.consumer = consumer;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Queries the Leaf and passes the results to the consumer.
+	 */
+	@Override
+	protected void compute() {
+		List<E> elements = leaf.query(query);
+		if (!elements.isEmpty()) {
+			consumer.accept(elements);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+
+/**
+ * Queries the branches in parallel and passes the elements of each leaf to the consumer.
+ *
+ * @param <E>
+ *            Type of the element.
+ */
+@SuppressWarnings("serial")
+public class ProcessingQueryTask<E extends DefaultData> extends RecursiveAction {
+
+	/**
+	 * The branches, which have to be queried.
+	 */
+	private Collection<? extends ITreeComponent<E, E>> branchesToQuery;
+
+	/**
+	 * The given query.
+	 */
+	private IIndexQuery query;
+
+	/**
+	 * Consumer of the elements.
+	 */
+	private Consumer<List<E>> consumer;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param branchesToQuery
+	 *            The branches, which have to be queried.
+	 * @param query
+	 *            query
+	 * @param consumer
+	 *            consumer of the elements
+	 */
+	public ProcessingQueryTask(Collection<? extends ITreeComponent<E, E>> branchesToQuery, IIndexQuery query, Consumer<List<E>> consumer) {
+		this.branchesToQuery = branchesToQuery;
+		this.query = query;
+		this.consumer = consumer;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Forks and processes all sub-branches.
+	 */
+	@Override
+	protected void compute() {
+		List<RecursiveAction> processingForks = new ArrayList<>();
+		List<RecursiveTask<List<E>>> queryForks = new ArrayList<>();
+		for (ITreeComponent<E, E> component : branchesToQuery) {
+			if (component instanceof IBufferTreeComponent) {
+				RecursiveAction task = ((IBufferTreeComponent<E>) component).getTaskForForkJoinProcessing(query, consumer);
+				processingForks.add(task);
+				task.fork();
+			} else {
+				RecursiveTask<List<E>> task = component.getTaskForForkJoinQuery(query);
+				queryForks.add(task);
+				task.fork();
+			}
+		}
+
+		for (RecursiveAction fork : processingForks) {
+			fork.join();
+		}
+		for (RecursiveTask<List<E>> fork : queryForks) {
+			List<E> elements = fork.join();
+			if (!elements.isEmpty()) {
+				consumer.accept(elements);
+			}
+		}
+	}
+}
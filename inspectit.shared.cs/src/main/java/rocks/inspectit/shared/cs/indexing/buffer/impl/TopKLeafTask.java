@@ -0,0 +1,68 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+
+/**
+ * Queries the first elements in the given order from one leaf.
+ *
+ * @param <E>
+ *            Type of the element.
+ */
+@SuppressWarnings("serial")
+public class TopKLeafTask<E extends DefaultData> extends RecursiveTask<List<E>> {
+
+	/**
+	 * The given leaf.
+	 */
+	private IBufferTreeComponent<E> leaf;
+
+	/**
+	 * The given query.
+	 */
+	private IIndexQuery query;
+
+	/**
+	 * Comparator defining the order.
+	 */
+	private Comparator<? super E> comparator;
+
+	/**
+	 * Max amount of elements to return.
+	 */
+	private int limit;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param leaf
+	 *            leaf
+	 * @param query
+	 *            query
+	 * @param comparator
+	 *            comparator defining the order
+	 * @param limit
+	 *            max amount of elements to return
+	 */
+	public TopKLeafTask(IBufferTreeComponent<E> leaf, IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		this.leaf = leaf;
+		this.query = query;
+		this.comparator = comparator;
+		this.limit = limit;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Queries the Leaf.
+	 */
+	@Override
+	protected List<E> compute() {
+		return leaf.query(query, comparator, limit);
+	}
+}
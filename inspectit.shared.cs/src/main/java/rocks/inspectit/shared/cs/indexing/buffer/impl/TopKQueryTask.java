@@ -0,0 +1,89 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+import rocks.inspectit.shared.cs.indexing.util.TopKCollector;
+
+/**
+ * Queries the branches in parallel and merges the first elements in the given order returned by
+ * each branch.
+ *
+ * @param <E>
+ *            Type of the element.
+ */
+@SuppressWarnings("serial")
+public class TopKQueryTask<E extends DefaultData> extends RecursiveTask<List<E>> {
+
+	/**
+	 * The branches, which have to be queried.
+	 */
+	private Collection<? extends ITreeComponent<E, E>> branchesToQuery;
+
+	/**
+	 * The given query.
+	 */
+	private IIndexQuery query;
+
+	/**
+	 * Comparator defining the order.
+	 */
+	private Comparator<? super E> comparator;
+
+	/**
+	 * Max amount of elements to return.
+	 */
+	private int limit;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param branchesToQuery
+	 *            The branches, which have to be queried.
+	 * @param query
+	 *            query
+	 * @param comparator
+	 *            comparator defining the order
+	 * @param limit
+	 *            max amount of elements to return
+	 */
+	public TopKQueryTask(Collection<? extends ITreeComponent<E, E>> branchesToQuery, IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		this.branchesToQuery = branchesToQuery;
+		this.query = query;
+		this.comparator = comparator;
+		this.limit = limit;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Forks and queries all sub-branches.
+	 */
+	@Override
+	protected List<E> compute() {
+		List<RecursiveTask<List<E>>> forks = new ArrayList<>();
+		for (ITreeComponent<E, E> component : branchesToQuery) {
+			RecursiveTask<List<E>> task;
+			if (component instanceof IBufferTreeComponent) {
+				task = ((IBufferTreeComponent<E>) component).getTaskForForkJoinQuery(query, comparator, limit);
+			} else {
+				task = component.getTaskForForkJoinQuery(query);
+			}
+			forks.add(task);
+			task.fork();
+		}
+
+		TopKCollector<E> collector = new TopKCollector<>(comparator, limit);
+		for (RecursiveTask<List<E>> fork : forks) {
+			collector.addAll(fork.join());
+		}
+		return collector.getResults();
+	}
+}
@@ -1,5 +1,11 @@
 package rocks.inspectit.shared.cs.indexing.storage.impl;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
 import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.cs.indexing.AbstractBranch;
@@ -60,6 +66,53 @@ public class StorageBranch<E extends DefaultData> extends AbstractBranch<IStorag
 		}
 	}
 
+	/**
+	 * Splits the branch into independent branches, each holding one of the components of this
+	 * branch under the same key and with the same indexer. If this branch has only one component
+	 * that is a branch itself, the split is done on the first level that has more components. The
+	 * returned branches together hold all descriptors of this branch and can be saved and queried
+	 * separately.
+	 *
+	 * @return Independent branches, or list containing only this branch if it can not be split.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<StorageBranch<E>> split() {
+		Map<Object, ITreeComponent<IStorageDescriptor, E>> componentMap = getComponentMap();
+		List<StorageBranch<E>> branches = new ArrayList<>(componentMap.size());
+		if (1 == componentMap.size()) {
+			Entry<Object, ITreeComponent<IStorageDescriptor, E>> entry = componentMap.entrySet().iterator().next();
+			if (entry.getValue() instanceof StorageBranch) {
+				for (StorageBranch<E> component : ((StorageBranch<E>) entry.getValue()).split()) {
+					branches.add(createBranch(entry.getKey(), component));
+				}
+				return branches;
+			}
+		}
+
+		if (componentMap.size() <= 1) {
+			return Collections.singletonList(this);
+		}
+		for (Entry<Object, ITreeComponent<IStorageDescriptor, E>> entry : componentMap.entrySet()) {
+			branches.add(createBranch(entry.getKey(), entry.getValue()));
+		}
+		return branches;
+	}
+
+	/**
+	 * Creates the branch with the same indexer as this branch that holds only the given component.
+	 *
+	 * @param key
+	 *            Key of the component.
+	 * @param component
+	 *            Component.
+	 * @return New branch.
+	 */
+	private StorageBranch<E> createBranch(Object key, ITreeComponent<IStorageDescriptor, E> component) {
+		StorageBranch<E> branch = new StorageBranch<>(storageBranchIndexer);
+		branch.getComponentMap().put(key, component);
+		return branch;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,110 @@
+package rocks.inspectit.shared.cs.indexing.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Collects the first K elements in the order defined by the comparator. Elements are kept in a
+ * heap bounded to K, thus memory and time needed depend on K and not on the number of offered
+ * elements. Collector with negative limit keeps all elements.
+ * <p>
+ * The class is not thread safe, collectors filled by different threads should be merged with
+ * {@link #addAll(Collection)}.
+ *
+ * @param <E>
+ *            Type of elements.
+ */
+public class TopKCollector<E> {
+
+	/**
+	 * Comparator defining the order.
+	 */
+	private final Comparator<? super E> comparator;
+
+	/**
+	 * Max amount of elements to keep, negative for no limit.
+	 */
+	private final int limit;
+
+	/**
+	 * Heap with the last element in the order on top, used when limit is set.
+	 */
+	private final PriorityQueue<E> heap;
+
+	/**
+	 * All elements, used when limit is not set.
+	 */
+	private final List<E> elements;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param comparator
+	 *            Comparator defining the order.
+	 * @param limit
+	 *            Max amount of elements to keep, negative for no limit.
+	 */
+	public TopKCollector(Comparator<? super E> comparator, int limit) {
+		if (null == comparator) {
+			throw new IllegalArgumentException("Comparator must not be null.");
+		}
+		this.comparator = comparator;
+		this.limit = limit;
+		if (limit >= 0) {
+			this.heap = new PriorityQueue<>(Math.max(1, limit + 1), Collections.reverseOrder(comparator));
+			this.elements = null;
+		} else {
+			this.heap = null;
+			this.elements = new ArrayList<>();
+		}
+	}
+
+	/**
+	 * Offers the element to the collector.
+	 *
+	 * @param element
+	 *            Element.
+	 */
+	public void add(E element) {
+		if (null == heap) {
+			elements.add(element);
+		} else if (heap.size() < limit) {
+			heap.offer(element);
+		} else if ((limit > 0) && (comparator.compare(element, heap.peek()) < 0)) {
+			heap.poll();
+			heap.offer(element);
+		}
+	}
+
+	/**
+	 * Offers all elements to the collector.
+	 *
+	 * @param elements
+	 *            Elements.
+	 */
+	public void addAll(Collection<? extends E> elements) {
+		for (E element : elements) {
+			add(element);
+		}
+	}
+
+	/**
+	 * Returns the collected elements sorted by the comparator.
+	 *
+	 * @return Returns the collected elements sorted by the comparator.
+	 */
+	public List<E> getResults() {
+		List<E> results;
+		if (null == heap) {
+			results = new ArrayList<>(elements);
+		} else {
+			results = new ArrayList<>(heap);
+		}
+		Collections.sort(results, comparator);
+		return results;
+	}
+}
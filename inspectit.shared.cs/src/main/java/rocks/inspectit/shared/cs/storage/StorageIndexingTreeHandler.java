@@ -1,13 +1,18 @@
 package rocks.inspectit.shared.cs.storage;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -29,6 +34,7 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.cs.indexing.impl.IndexingException;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
+import rocks.inspectit.shared.cs.indexing.storage.impl.StorageBranch;
 import rocks.inspectit.shared.cs.storage.StorageWriter.WriteTask;
 import rocks.inspectit.shared.cs.storage.util.StorageIndexTreeProvider;
 
@@ -68,11 +74,10 @@ public class StorageIndexingTreeHandler {
 	private static final long WAITING_FOR_TREE_TO_BE_READY = 1000;
 
 	/**
-	 * Number of sleeps that will be executed at the {@link #finish()} method. This actually means
-	 * that the {@link #finish()} method will maximally wait for
-	 * {@value #WAITING_FOR_TREE_TO_BE_READY} * {@value #FINISH_WAITING_ITERATIONS} milliseconds.
+	 * Maximum time in milliseconds the {@link #finish()} method will wait for the write tasks in
+	 * process to be finished.
 	 */
-	private static final int FINISH_WAITING_ITERATIONS = 30;
+	private static final long FINISH_WAITING_TIME = 30000;
 
 	/**
 	 * Delay of rescheduling check tree size task.
@@ -102,6 +107,14 @@ public class StorageIndexingTreeHandler {
 	@Resource(name = "scheduledExecutorService")
 	ScheduledExecutorService executorService;
 
+	/**
+	 * {@link ExecutorService} for the parallel saving of the indexing tree parts. Dedicated one,
+	 * as the saving blocks on the file writes.
+	 */
+	@Autowired
+	@Resource(name = "indexingTreeSavingExecutorService")
+	ExecutorService savingExecutorService;
+
 	/**
 	 * Indexing tree of the Storage.
 	 */
@@ -112,6 +125,11 @@ public class StorageIndexingTreeHandler {
 	 */
 	private Map<WriteTask, TreeDescriptorPair> writeTasksInProcess = new ConcurrentHashMap<>(16, 0.75f, 2);
 
+	/**
+	 * Monitor notified when the {@link #writeTasksInProcess} becomes empty.
+	 */
+	private final Object writeTasksMonitor = new Object();
+
 	/**
 	 * Object size for indexing tree size calculation.
 	 */
@@ -200,7 +218,7 @@ public class StorageIndexingTreeHandler {
 			}
 		}
 		// remove the entry in map after the data has been updated in indexing tree
-		writeTasksInProcess.remove(writeTask);
+		removeWriteTaskInProcess(writeTask);
 	}
 
 	/**
@@ -224,7 +242,23 @@ public class StorageIndexingTreeHandler {
 			}
 		}
 		// remove the entry in map after the indexing tree was informed
+		removeWriteTaskInProcess(writeTask);
+	}
+
+	/**
+	 * Removes the write task from the tasks in process and notifies the ones waiting for all tasks
+	 * to be finished.
+	 *
+	 * @param writeTask
+	 *            Write task that is finished.
+	 */
+	private void removeWriteTaskInProcess(WriteTask writeTask) {
 		writeTasksInProcess.remove(writeTask);
+		if (writeTasksInProcess.isEmpty()) {
+			synchronized (writeTasksMonitor) {
+				writeTasksMonitor.notifyAll();
+			}
+		}
 	}
 
 	/**
@@ -254,28 +288,79 @@ public class StorageIndexingTreeHandler {
 
 		if (null != currentIndexingTree) {
 			// wait until no more data is there
-			int sleepCount = 0;
+			waitForWriteTasksInProcess();
+			saveIndexingTree(currentIndexingTree);
+		}
+	}
+
+	/**
+	 * Blocks until all write tasks in process are finished or the {@link #FINISH_WAITING_TIME}
+	 * passes.
+	 */
+	private void waitForWriteTasksInProcess() {
+		long waitingStart = System.currentTimeMillis();
+		synchronized (writeTasksMonitor) {
 			while (!writeTasksInProcess.isEmpty()) {
-				log.info("Indexing tree handler still waiting for " + writeTasksInProcess.size() + " task(s) to be finished. Going for sleep " + (sleepCount + 1) + " out of "
-						+ FINISH_WAITING_ITERATIONS + ".");
-				if (sleepCount > FINISH_WAITING_ITERATIONS) {
-					log.warn("Indexing tree handler waited " + (sleepCount * WAITING_FOR_TREE_TO_BE_READY) + " milliseconds for all tasks to be finished. There are " + writeTasksInProcess.size()
+				long waitingTime = System.currentTimeMillis() - waitingStart;
+				if (waitingTime >= FINISH_WAITING_TIME) {
+					log.warn("Indexing tree handler waited " + waitingTime + " milliseconds for all tasks to be finished. There are " + writeTasksInProcess.size()
 							+ " tasks still in-progress. Saving of the indexing tree will continue without waiting for these tasks.");
-					break;
+					return;
 				}
+				log.info("Indexing tree handler still waiting for " + writeTasksInProcess.size() + " task(s) to be finished.");
 				try {
-					Thread.sleep(WAITING_FOR_TREE_TO_BE_READY);
-					sleepCount++;
+					writeTasksMonitor.wait(FINISH_WAITING_TIME - waitingTime);
 				} catch (InterruptedException e) {
 					Thread.interrupted();
 				}
 			}
-			currentIndexingTree.preWriteFinalization();
-			boolean written = storageWriter.writeNonDefaultDataObject(currentIndexingTree, getRandomFileName() + StorageFileType.INDEX_FILE.getExtension());
-			if (!written) {
-				log.error("Indexing tree saving failed. Indexing tree might be lost.");
+		}
+	}
+
+	/**
+	 * Saves the indexing tree. The tree is split into the independent parts that are finalized and
+	 * written to separate index files in parallel. This method blocks until all parts are written.
+	 *
+	 * @param indexingTree
+	 *            Indexing tree to save.
+	 */
+	@SuppressWarnings("unchecked")
+	private void saveIndexingTree(IStorageTreeComponent<DefaultData> indexingTree) {
+		List<? extends IStorageTreeComponent<DefaultData>> indexingTreeParts;
+		if (indexingTree instanceof StorageBranch) {
+			indexingTreeParts = ((StorageBranch<DefaultData>) indexingTree).split();
+		} else {
+			indexingTreeParts = Collections.singletonList(indexingTree);
+		}
+
+		List<Future<Boolean>> tasks = new ArrayList<>(indexingTreeParts.size());
+		for (final IStorageTreeComponent<DefaultData> indexingTreePart : indexingTreeParts) {
+			tasks.add(savingExecutorService.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					indexingTreePart.preWriteFinalization();
+					return storageWriter.writeNonDefaultDataObject(indexingTreePart, getRandomFileName() + StorageFileType.INDEX_FILE.getExtension());
+				}
+			}));
+		}
+
+		int failed = 0;
+		for (Future<Boolean> task : tasks) {
+			try {
+				if (!task.get().booleanValue()) {
+					failed++;
+				}
+			} catch (InterruptedException e) {
+				Thread.interrupted();
+				failed++;
+			} catch (ExecutionException e) {
+				log.error("Exception occurred saving the indexing tree.", e.getCause());
+				failed++;
 			}
 		}
+		if (failed > 0) {
+			log.error("Indexing tree saving failed for " + failed + " out of " + tasks.size() + " part(s). Indexing tree might be partly lost.");
+		}
 	}
 
 	/**
@@ -334,11 +419,7 @@ public class StorageIndexingTreeHandler {
 									public void run() {
 										boolean safeToSave = Collections.disjoint(writeTasksToWait, writeTasksInProcess.keySet());
 										if (safeToSave) {
-											currentIndexingTree.preWriteFinalization();
-											boolean written = storageWriter.writeNonDefaultDataObject(currentIndexingTree, getRandomFileName() + StorageFileType.INDEX_FILE.getExtension());
-											if (!written) {
-												log.error("Indexing tree saving failed. Indexing tree might be lost.");
-											}
+											saveIndexingTree(currentIndexingTree);
 										} else {
 											executorService.schedule(this, WAITING_FOR_TREE_TO_BE_READY, TimeUnit.MILLISECONDS);
 										}
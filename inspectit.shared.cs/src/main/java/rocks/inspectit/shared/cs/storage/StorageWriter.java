@@ -10,12 +10,15 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
@@ -31,6 +34,7 @@ import javax.annotation.Resource;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import com.esotericsoftware.kryo.io.Output;
 
@@ -65,9 +69,9 @@ public class StorageWriter implements IWriter {
 	Logger log;
 
 	/**
-	 * Amount of time to re-check if the writing tasks are done and finalization can start.
+	 * Delay in milliseconds after which the not completely filled batch is submitted for writing.
 	 */
-	private static final int FINALIZATION_TASKS_SLEEP_TIME = 500;
+	private static final long BATCH_FLUSH_DELAY = 1000;
 
 	/**
 	 * Total amount of tasks submitted to {@link #writingExecutorService}.
@@ -144,6 +148,34 @@ public class StorageWriter implements IWriter {
 	@Autowired
 	List<AbstractWriteDataProcessor> writeDataProcessors;
 
+	/**
+	 * Amount of data elements grouped in one {@link BatchWriteTask}. If the value is not bigger
+	 * than one, each element is written by a separate {@link WriteTask}.
+	 */
+	@Value(value = "${storage.writeBatchSize}")
+	int writeBatchSize = 1;
+
+	/**
+	 * Batch that is currently being filled, <code>null</code> if no data is waiting to be written.
+	 * Guarded by the {@link #batchLock}.
+	 */
+	private BatchWriteTask currentBatch;
+
+	/**
+	 * Future of the {@link #currentBatch}. Guarded by the {@link #batchLock}.
+	 */
+	private WriteFutureTask currentBatchFuture;
+
+	/**
+	 * Lock for the {@link #currentBatch}.
+	 */
+	private final Object batchLock = new Object();
+
+	/**
+	 * Future for the task of submitting the not completely filled batch.
+	 */
+	private ScheduledFuture<?> flushBatchFuture;
+
 	/**
 	 * Opened channels {@link Paths}. These paths need to be closed when writing is finalized.
 	 */
@@ -220,6 +252,9 @@ public class StorageWriter implements IWriter {
 				futureList.add(future);
 			}
 		}
+
+		// don't let the last elements wait for the batch to be filled
+		flushBatch();
 		return futureList;
 	}
 
@@ -235,21 +270,28 @@ public class StorageWriter implements IWriter {
 	 */
 	public void processSynchronously(Collection<? extends DefaultData> defaultDataList, Collection<AbstractDataProcessor> processors) {
 		Collection<Future<Void>> futures = this.process(defaultDataList, processors);
-		while (!futures.isEmpty()) {
-			for (Iterator<Future<Void>> it = futures.iterator(); it.hasNext();) {
-				Future<Void> future = it.next();
-				if (future.isDone()) {
-					it.remove();
-				}
+		for (Future<Void> future : futures) {
+			if (null != future) {
+				waitFor(future);
 			}
+		}
+	}
 
-			// if still are not done sleep
-			if (!futures.isEmpty()) {
-				try {
-					Thread.sleep(FINALIZATION_TASKS_SLEEP_TIME);
-				} catch (InterruptedException e) {
-					Thread.interrupted();
-				}
+	/**
+	 * Blocks until the future is done.
+	 *
+	 * @param future
+	 *            Future to wait for.
+	 */
+	private void waitFor(Future<?> future) {
+		while (!future.isDone()) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.interrupted();
+			} catch (ExecutionException | CancellationException e) {
+				// the future is done, the writing tasks log their own failures
+				return;
 			}
 		}
 	}
@@ -267,7 +309,9 @@ public class StorageWriter implements IWriter {
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * This method is only submitting a new writing task, thus it is thread safe and very fast.
+	 * This method is only submitting a new writing task, thus it is thread safe and very fast. If
+	 * the batched writing is active, the data is added to the current batch and the returned future
+	 * is the one of the complete batch.
 	 */
 	@Override
 	public Future<Void> write(DefaultData defaultData, Map<?, ?> kryoPreferences) {
@@ -280,16 +324,79 @@ public class StorageWriter implements IWriter {
 				}
 			}
 
+			if (writeBatchSize > 1) {
+				return addToBatch(defaultData, kryoPreferences);
+			}
+
 			WriteTask writeTask = new WriteTask(defaultData, kryoPreferences);
 			WriteFutureTask writeFutureTask = new WriteFutureTask(writeTask);
-			activeWritingTasks.add(writeFutureTask);
-			writingExecutorService.submit(writeFutureTask);
+			submitWriteFutureTask(writeFutureTask);
 			return writeFutureTask;
 		} else {
 			return null;
 		}
 	}
 
+	/**
+	 * Adds the data to the current batch. The batch is submitted for writing when it's full.
+	 *
+	 * @param defaultData
+	 *            Data to write.
+	 * @param kryoPreferences
+	 *            Map of preferences to be passed to the serializer.
+	 * @return Future of the batch the data was added to.
+	 */
+	private Future<Void> addToBatch(DefaultData defaultData, Map<?, ?> kryoPreferences) {
+		WriteFutureTask batchFuture;
+		WriteFutureTask fullBatchFuture = null;
+		synchronized (batchLock) {
+			if (null == currentBatch) {
+				currentBatch = new BatchWriteTask(writeBatchSize);
+				currentBatchFuture = new WriteFutureTask(currentBatch);
+			}
+			currentBatch.add(defaultData, kryoPreferences);
+			batchFuture = currentBatchFuture;
+
+			if (currentBatch.size() >= writeBatchSize) {
+				fullBatchFuture = currentBatchFuture;
+				currentBatch = null; // NOPMD
+				currentBatchFuture = null; // NOPMD
+			}
+		}
+
+		if (null != fullBatchFuture) {
+			submitWriteFutureTask(fullBatchFuture);
+		}
+		return batchFuture;
+	}
+
+	/**
+	 * Submits the current batch for writing, even if it's not full.
+	 */
+	void flushBatch() {
+		WriteFutureTask batchFuture;
+		synchronized (batchLock) {
+			batchFuture = currentBatchFuture;
+			currentBatch = null; // NOPMD
+			currentBatchFuture = null; // NOPMD
+		}
+
+		if (null != batchFuture) {
+			submitWriteFutureTask(batchFuture);
+		}
+	}
+
+	/**
+	 * Registers the task as active and submits it to the {@link #writingExecutorService}.
+	 *
+	 * @param writeFutureTask
+	 *            Task to submit.
+	 */
+	private void submitWriteFutureTask(WriteFutureTask writeFutureTask) {
+		activeWritingTasks.add(writeFutureTask);
+		writingExecutorService.submit(writeFutureTask);
+	}
+
 	/**
 	 * Informs the {@link StorageWriter} to prepare for writing. The writer will perform all
 	 * necessary operations so that calls to {@link #write(DefaultData)} can be executed. The
@@ -324,6 +431,15 @@ public class StorageWriter implements IWriter {
 				}
 			}, 30, 30, TimeUnit.SECONDS);
 
+			if (writeBatchSize > 1) {
+				flushBatchFuture = scheduledExecutorService.scheduleWithFixedDelay(new Runnable() {
+					@Override
+					public void run() {
+						flushBatch();
+					}
+				}, BATCH_FLUSH_DELAY, BATCH_FLUSH_DELAY, TimeUnit.MILLISECONDS);
+			}
+
 			for (AbstractWriteDataProcessor processor : writeDataProcessors) {
 				try {
 					processor.onPrepare(storageManager, this, storageData);
@@ -402,6 +518,9 @@ public class StorageWriter implements IWriter {
 
 			// cancel the check writing status task
 			checkWritingStatusFuture.cancel(false);
+			if (null != flushBatchFuture) {
+				flushBatchFuture.cancel(false);
+			}
 
 			// wait for pending tasks
 			waitForPendingWritingTasks();
@@ -460,17 +579,17 @@ public class StorageWriter implements IWriter {
 		boolean logged = false;
 		// check amount of active tasks
 		while (true) {
+			// submit the data that is still waiting in the batch
+			flushBatch();
 			long activeTasks = getQueuedTaskCount();
 			if (activeTasks > 0) {
 				if (log.isDebugEnabled() && !logged) {
 					log.info("Storage: " + storageData + " is waiting for finalization. Still " + activeTasks + " queued tasks need to be processed.");
 					logged = true;
 				}
-				// if still are not done sleep
-				try {
-					Thread.sleep(FINALIZATION_TASKS_SLEEP_TIME);
-				} catch (InterruptedException e) {
-					Thread.interrupted();
+				// wait for the tasks active at this moment, tasks remove themselves when done
+				for (FutureTask<?> writingTask : new ArrayList<>(activeWritingTasks)) {
+					waitFor(writingTask);
 				}
 			} else {
 				break;
@@ -706,6 +825,212 @@ public class StorageWriter implements IWriter {
 
 	}
 
+	/**
+	 * Task for writing a batch of {@link DefaultData} objects to the disk. The storage descriptors
+	 * for all elements are reserved in the indexing tree first, then the elements going to the
+	 * same channel are serialized one after another into one stream, so that only one write is
+	 * issued per channel. Each element gets the descriptor pointing to its part of the written
+	 * region.
+	 * <p>
+	 * The batch holds the strong references to the data, thus the data can not be garbage
+	 * collected before being written.
+	 */
+	public class BatchWriteTask implements Runnable {
+
+		/**
+		 * Data to be written. Keeps the strong references, as the write tasks reference the data
+		 * only softly.
+		 */
+		private final List<DefaultData> dataList;
+
+		/**
+		 * Write task of each element, used as the key in the {@link StorageIndexingTreeHandler}.
+		 */
+		private final List<WriteTask> writeTasks;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param capacity
+		 *            Expected amount of elements in the batch.
+		 */
+		public BatchWriteTask(int capacity) {
+			dataList = new ArrayList<>(capacity);
+			writeTasks = new ArrayList<>(capacity);
+		}
+
+		/**
+		 * Adds the data to the batch.
+		 *
+		 * @param data
+		 *            Data to be written.
+		 * @param kryoPreferences
+		 *            Map of preferences to be passed to the serializer.
+		 */
+		public void add(DefaultData data, Map<?, ?> kryoPreferences) {
+			dataList.add(data);
+			writeTasks.add(new WriteTask(data, kryoPreferences));
+		}
+
+		/**
+		 * Returns amount of elements in the batch.
+		 *
+		 * @return Amount of elements in the batch.
+		 */
+		public int size() {
+			return writeTasks.size();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			if (!storageManager.canWriteMore()) {
+				if (log.isWarnEnabled()) {
+					log.warn("Writing of data canceled because of limited hard disk space left for the storage.");
+				}
+				return;
+			}
+
+			// reserve the descriptors for the complete batch and group by the channel
+			Map<Integer, List<WriteTask>> writeTasksByChannel = new HashMap<>();
+			for (WriteTask writeTask : writeTasks) {
+				int channelId = 0;
+				try {
+					channelId = indexingTreeHandler.startWrite(writeTask);
+				} catch (IndexingException e) {
+					indexingTreeHandler.writeFailed(writeTask);
+					if (log.isDebugEnabled()) {
+						log.debug("Indexing exception occurred while attempting to write data to disk.", e);
+					}
+					continue;
+				}
+
+				if (0 == channelId) {
+					indexingTreeHandler.writeFailed(writeTask);
+					log.error("Channel ID could not be obtained during attempt to write data to disk. Data will be skipped.");
+					continue;
+				}
+
+				List<WriteTask> channelWriteTasks = writeTasksByChannel.get(channelId);
+				if (null == channelWriteTasks) {
+					channelWriteTasks = new ArrayList<>();
+					writeTasksByChannel.put(channelId, channelWriteTasks);
+				}
+				channelWriteTasks.add(writeTask);
+			}
+
+			if (writeTasksByChannel.isEmpty()) {
+				return;
+			}
+
+			ISerializer serializer = null;
+			try {
+				serializer = serializerQueue.take();
+			} catch (InterruptedException e1) {
+				Thread.interrupted();
+			}
+			if (null == serializer) {
+				for (List<WriteTask> channelWriteTasks : writeTasksByChannel.values()) {
+					for (WriteTask writeTask : channelWriteTasks) {
+						indexingTreeHandler.writeFailed(writeTask);
+					}
+				}
+				log.error("Serializer instance could not be obtained.");
+				return;
+			}
+
+			try {
+				for (Entry<Integer, List<WriteTask>> entry : writeTasksByChannel.entrySet()) {
+					writeToChannel(entry.getKey().intValue(), entry.getValue(), serializer);
+				}
+			} finally {
+				serializerQueue.add(serializer);
+			}
+		}
+
+		/**
+		 * Serializes the data of the given write tasks into one stream and writes the stream to the
+		 * channel.
+		 *
+		 * @param channelId
+		 *            Id of the channel to write to.
+		 * @param channelWriteTasks
+		 *            Write tasks that have the descriptor in the channel.
+		 * @param serializer
+		 *            Serializer to use.
+		 */
+		private void writeToChannel(int channelId, List<WriteTask> channelWriteTasks, ISerializer serializer) {
+			ExtendedByteBufferOutputStream extendedByteBufferOutputStream = null;
+			try {
+				extendedByteBufferOutputStream = streamProvider.getExtendedByteBufferOutputStream();
+				Output output = new Output(extendedByteBufferOutputStream);
+
+				// offset and size of each serialized element in the stream
+				final List<WriteTask> serializedWriteTasks = new ArrayList<>(channelWriteTasks.size());
+				final long[] offsets = new long[channelWriteTasks.size()];
+				final long[] sizes = new long[channelWriteTasks.size()];
+				for (WriteTask writeTask : channelWriteTasks) {
+					long offset = extendedByteBufferOutputStream.getTotalWriteSize();
+					try {
+						serializer.serialize(writeTask.getData(), output, writeTask.kryoPreferences);
+					} catch (SerializationException e) {
+						// bytes already passed to the stream are not referenced by any descriptor
+						output.clear();
+						indexingTreeHandler.writeFailed(writeTask);
+						if (log.isWarnEnabled()) {
+							log.warn("Serialization for the object " + writeTask.getData() + " failed. Data will be skipped.", e);
+						}
+						continue;
+					}
+					offsets[serializedWriteTasks.size()] = offset;
+					sizes[serializedWriteTasks.size()] = extendedByteBufferOutputStream.getTotalWriteSize() - offset;
+					serializedWriteTasks.add(writeTask);
+				}
+
+				if (serializedWriteTasks.isEmpty()) {
+					extendedByteBufferOutputStream.close();
+					return;
+				}
+				extendedByteBufferOutputStream.flush(false);
+
+				// final reference needed because of the runnable
+				int buffersToWrite = extendedByteBufferOutputStream.getBuffersCount();
+				final ExtendedByteBufferOutputStream finalOutputStream = extendedByteBufferOutputStream;
+				WriteReadCompletionRunnable completionRunnable = new WriteReadCompletionRunnable(buffersToWrite) {
+					@Override
+					public void run() {
+						finalOutputStream.close();
+						long position = getAttemptedWriteReadPosition();
+						for (int i = 0; i < serializedWriteTasks.size(); i++) {
+							if (isCompleted()) {
+								indexingTreeHandler.writeSuccessful(serializedWriteTasks.get(i), position + offsets[i], sizes[i]);
+							} else {
+								indexingTreeHandler.writeFailed(serializedWriteTasks.get(i));
+							}
+						}
+					}
+				};
+
+				// write to disk
+				Path channelPath = storageManager.getChannelPath(storageData, channelId);
+				openedChannelPaths.add(channelPath);
+				writingChannelManager.write(extendedByteBufferOutputStream, channelPath, completionRunnable);
+			} catch (Throwable t) { // NOPMD
+				// catch any exception
+				if (null != extendedByteBufferOutputStream) {
+					extendedByteBufferOutputStream.close();
+				}
+				for (WriteTask writeTask : channelWriteTasks) {
+					indexingTreeHandler.writeFailed(writeTask);
+				}
+				log.error("Exception occurred while attempting to write data batch to disk", t);
+			}
+		}
+
+	}
+
 	/**
 	 * Writing future task that will remove itself from the {@link StorageWriter#activeWritingTasks}
 	 * set after the completion of runnable it has been assigned.
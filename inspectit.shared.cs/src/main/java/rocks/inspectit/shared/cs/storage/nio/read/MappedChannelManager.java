@@ -0,0 +1,416 @@
+package rocks.inspectit.shared.cs.storage.nio.read;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Manager that provides read-only memory mapped regions of the storage channel files. The files
+ * are mapped in segments of the {@link #segmentSize} and the segments are kept for the subsequent
+ * reads, thus repeated reads of the same storage are served directly from the page cache without
+ * any copying to intermediate buffers.
+ * <p>
+ * The mapped regions are handed out as {@link MappedRegion}s that must be closed when reading is
+ * done. Each mapped file counts the regions open, and its segments are unmapped only when it has
+ * been released with {@link #release(Path)} or {@link #releaseAll()}, or replaced because the
+ * file has grown, and no region of it is open any more. Thus the files can be deleted also on the
+ * systems that do not allow deleting of the mapped files (Windows), without unmapping the memory
+ * that is still being read. If the JVM does not support the explicit unmapping, the segments are
+ * only unmapped when they are garbage collected.
+ */
+public class MappedChannelManager {
+
+	/**
+	 * Default segment size, 1GB.
+	 */
+	private static final long DEFAULT_SEGMENT_SIZE = 1L << 30;
+
+	/**
+	 * Size of the segments the files are mapped in. Must not be bigger than
+	 * {@link Integer#MAX_VALUE}.
+	 */
+	private long segmentSize = DEFAULT_SEGMENT_SIZE;
+
+	/**
+	 * Mapped files by the channel path.
+	 */
+	private final ConcurrentMap<Path, MappedFile> mappedFiles = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the region holding the read-only buffer of the wanted part of the channel file. The
+	 * buffer has the position <code>0</code> and the limit equal to the size, and can be used by
+	 * one thread only. The region must be closed when the buffer is not used any more.
+	 *
+	 * @param channelPath
+	 *            Path of the channel file.
+	 * @param position
+	 *            Position of the region in the file.
+	 * @param size
+	 *            Size of the region.
+	 * @return Region holding the buffer.
+	 * @throws IOException
+	 *             If the file can not be mapped or the region is out of the file bounds.
+	 */
+	public MappedRegion map(Path channelPath, long position, long size) throws IOException {
+		if ((position < 0) || (size < 0) || (size > Integer.MAX_VALUE)) {
+			throw new IllegalArgumentException("Region with position " + position + " and size " + size + " can not be mapped.");
+		}
+
+		int segment = (int) (position / segmentSize);
+		long segmentPosition = segment * segmentSize;
+		if ((position + size) <= (segmentPosition + segmentSize)) {
+			// region in one segment, slice the segment
+			MappedFile mappedFile = acquire(channelPath, position + size);
+			try {
+				ByteBuffer buffer = mappedFile.getSegment(segment).duplicate();
+				buffer.position((int) (position - segmentPosition));
+				buffer.limit((int) ((position - segmentPosition) + size));
+				return new MappedRegion(buffer.slice(), mappedFile);
+			} catch (IOException | RuntimeException e) {
+				mappedFile.releaseReader();
+				throw e;
+			}
+		} else {
+			// region crosses the segments, read it as mapping it separately could not be released
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			try (FileChannel fileChannel = FileChannel.open(channelPath, StandardOpenOption.READ)) {
+				while (buffer.hasRemaining()) {
+					if (fileChannel.read(buffer, position + buffer.position()) < 0) {
+						throw new EOFException("End of the file " + channelPath + " reached before reading the region with position " + position + " and size " + size + ".");
+					}
+				}
+			}
+			buffer.flip();
+			return new MappedRegion(buffer, null);
+		}
+	}
+
+	/**
+	 * Returns the mapped file of the channel that holds the given end of the region and registers
+	 * the reader to it. The file is (re-)created if not mapped yet or if it has grown, and the
+	 * replaced one is released.
+	 *
+	 * @param channelPath
+	 *            Path of the channel file.
+	 * @param regionEnd
+	 *            End position of the region to read.
+	 * @return Mapped file with the reader registered.
+	 * @throws IOException
+	 *             If the file size can not be read or the region is out of the file bounds.
+	 */
+	private MappedFile acquire(Path channelPath, long regionEnd) throws IOException {
+		while (true) {
+			MappedFile mappedFile = mappedFiles.get(channelPath);
+			if ((null == mappedFile) || (regionEnd > mappedFile.fileSize)) {
+				// not mapped yet or the file was changed, thus (re-)create
+				MappedFile newMappedFile = new MappedFile(channelPath);
+				if (regionEnd > newMappedFile.fileSize) {
+					throw new IOException("Region ending at " + regionEnd + " is out of the bounds of the file " + channelPath + " with size " + newMappedFile.fileSize + ".");
+				}
+				boolean published = (null == mappedFile) ? (null == mappedFiles.putIfAbsent(channelPath, newMappedFile)) : mappedFiles.replace(channelPath, mappedFile, newMappedFile);
+				if (!published) {
+					// changed concurrently, try again
+					continue;
+				}
+				if (null != mappedFile) {
+					mappedFile.release();
+				}
+				mappedFile = newMappedFile;
+			}
+			if (mappedFile.addReader()) {
+				return mappedFile;
+			}
+			// released concurrently, try again
+		}
+	}
+
+	/**
+	 * Releases the mapped segments of the channel file, or of all channel files in the directory
+	 * if the directory path is given. The segments are unmapped as soon as all regions of the file
+	 * are closed.
+	 *
+	 * @param path
+	 *            Path of the channel file or directory.
+	 */
+	public void release(Path path) {
+		for (Iterator<Entry<Path, MappedFile>> it = mappedFiles.entrySet().iterator(); it.hasNext();) {
+			Entry<Path, MappedFile> entry = it.next();
+			if (entry.getKey().startsWith(path)) {
+				it.remove();
+				entry.getValue().release();
+			}
+		}
+	}
+
+	/**
+	 * Releases the mapped segments of all channel files. The segments are unmapped as soon as all
+	 * regions of the file are closed.
+	 */
+	public void releaseAll() {
+		for (Iterator<MappedFile> it = mappedFiles.values().iterator(); it.hasNext();) {
+			MappedFile mappedFile = it.next();
+			it.remove();
+			mappedFile.release();
+		}
+	}
+
+	/**
+	 * Unmaps the buffer, as there is no public API for the unmapping. Uses the
+	 * <code>Unsafe.invokeCleaner</code> on Java 9+ and the cleaner of the buffer on Java 8. If
+	 * neither is available, the buffer is unmapped when it is garbage collected.
+	 *
+	 * @param buffer
+	 *            Buffer to unmap.
+	 * @return If the buffer has been unmapped.
+	 */
+	static boolean unmap(MappedByteBuffer buffer) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleanerMethod = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+			unsafeField.setAccessible(true);
+			invokeCleanerMethod.invoke(unsafeField.get(null), buffer);
+			return true;
+		} catch (NoSuchMethodException e) { // NOPMD
+			// Java 8, use the cleaner of the buffer
+		} catch (ReflectiveOperationException | RuntimeException e) { // NOPMD
+			// unmapping not supported, left to the garbage collection
+			return false;
+		}
+
+		try {
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			if (null == cleaner) {
+				return false;
+			}
+			Method cleanMethod = cleaner.getClass().getMethod("clean");
+			cleanMethod.setAccessible(true);
+			cleanMethod.invoke(cleaner);
+			return true;
+		} catch (ReflectiveOperationException | RuntimeException e) { // NOPMD
+			// unmapping not supported, left to the garbage collection
+			return false;
+		}
+	}
+
+	/**
+	 * Sets {@link #segmentSize}.
+	 *
+	 * @param segmentSize
+	 *            New value for {@link #segmentSize}
+	 */
+	public void setSegmentSize(long segmentSize) {
+		if ((segmentSize <= 0) || (segmentSize > Integer.MAX_VALUE)) {
+			throw new IllegalArgumentException("Segment size must be positive and not bigger than " + Integer.MAX_VALUE + ".");
+		}
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * Mapped region of the channel file. Closing the region unregisters the reader from the mapped
+	 * file, after which the buffer must not be used any more.
+	 */
+	public static final class MappedRegion implements AutoCloseable {
+
+		/**
+		 * Buffer holding the region.
+		 */
+		private final ByteBuffer buffer;
+
+		/**
+		 * Mapped file the buffer belongs to, <code>null</code> if the buffer is not mapped.
+		 */
+		private final MappedFile mappedFile;
+
+		/**
+		 * If the region has been closed.
+		 */
+		private boolean closed;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param buffer
+		 *            Buffer holding the region.
+		 * @param mappedFile
+		 *            Mapped file the buffer belongs to, <code>null</code> if the buffer is not
+		 *            mapped.
+		 */
+		MappedRegion(ByteBuffer buffer, MappedFile mappedFile) {
+			this.buffer = buffer;
+			this.mappedFile = mappedFile;
+		}
+
+		/**
+		 * Gets {@link #buffer}.
+		 *
+		 * @return {@link #buffer}
+		 */
+		public ByteBuffer getBuffer() {
+			return buffer;
+		}
+
+		/**
+		 * Returns if the segments of the file the region belongs to are unmapped. Used in tests.
+		 *
+		 * @return If the segments are unmapped, <code>false</code> for the buffer that is not
+		 *         mapped.
+		 */
+		boolean isUnmapped() {
+			return (null != mappedFile) && mappedFile.isUnmapped();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public synchronized void close() {
+			if (!closed && (null != mappedFile)) {
+				mappedFile.releaseReader();
+			}
+			closed = true;
+		}
+	}
+
+	/**
+	 * Mapped segments of one file. The segments are mapped lazily on the first access and
+	 * unmapped when the file is released and has no readers.
+	 */
+	private final class MappedFile {
+
+		/**
+		 * Path of the file.
+		 */
+		private final Path path;
+
+		/**
+		 * Size of the file at the time of the creation.
+		 */
+		private final long fileSize;
+
+		/**
+		 * Mapped segments, <code>null</code> if not mapped yet.
+		 */
+		private final MappedByteBuffer[] segments;
+
+		/**
+		 * Amount of the open regions of the file.
+		 */
+		private int readers;
+
+		/**
+		 * If the file has been released.
+		 */
+		private boolean released;
+
+		/**
+		 * If the segments have been unmapped.
+		 */
+		private boolean unmapped;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param path
+		 *            Path of the file.
+		 * @throws IOException
+		 *             If the file size can not be read.
+		 */
+		MappedFile(Path path) throws IOException {
+			this.path = path;
+			try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+				this.fileSize = fileChannel.size();
+			}
+			this.segments = new MappedByteBuffer[(int) ((fileSize + segmentSize) / segmentSize)];
+		}
+
+		/**
+		 * Returns the mapped segment, maps it if not already mapped.
+		 *
+		 * @param segment
+		 *            Index of the segment.
+		 * @return Mapped segment.
+		 * @throws IOException
+		 *             If the mapping fails.
+		 */
+		synchronized MappedByteBuffer getSegment(int segment) throws IOException {
+			if (null == segments[segment]) {
+				long position = segment * segmentSize;
+				try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+					segments[segment] = fileChannel.map(MapMode.READ_ONLY, position, Math.min(segmentSize, fileSize - position));
+				}
+			}
+			return segments[segment];
+		}
+
+		/**
+		 * Registers the reader of the file.
+		 *
+		 * @return <code>false</code> if the file has already been released and can not be read.
+		 */
+		synchronized boolean addReader() {
+			if (released) {
+				return false;
+			}
+			readers++;
+			return true;
+		}
+
+		/**
+		 * Unregisters the reader of the file, unmaps the segments if the file has been released and
+		 * this was the last reader.
+		 */
+		synchronized void releaseReader() {
+			readers--;
+			if (released && (0 == readers)) {
+				unmap();
+			}
+		}
+
+		/**
+		 * Releases the file, the segments are unmapped now if the file has no readers or when the
+		 * last reader is unregistered.
+		 */
+		synchronized void release() {
+			released = true;
+			if (0 == readers) {
+				unmap();
+			}
+		}
+
+		/**
+		 * Returns if the segments have been unmapped.
+		 *
+		 * @return If the segments have been unmapped.
+		 */
+		synchronized boolean isUnmapped() {
+			return unmapped;
+		}
+
+		/**
+		 * Unmaps all mapped segments.
+		 */
+		private void unmap() {
+			for (int i = 0; i < segments.length; i++) {
+				if (null != segments[i]) {
+					MappedChannelManager.unmap(segments[i]);
+					segments[i] = null; // NOPMD
+				}
+			}
+			unmapped = true;
+		}
+	}
+}
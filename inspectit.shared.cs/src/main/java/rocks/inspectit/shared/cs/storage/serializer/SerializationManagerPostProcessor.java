@@ -80,6 +80,7 @@ import rocks.inspectit.shared.cs.ci.sensor.platform.impl.RuntimeSensorConfig;
 import rocks.inspectit.shared.cs.ci.sensor.platform.impl.SystemSensorConfig;
 import rocks.inspectit.shared.cs.ci.sensor.platform.impl.ThreadSensorConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.ListSendingStrategyConfig;
+import rocks.inspectit.shared.cs.ci.strategy.impl.RingBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.SimpleBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.SizeBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.TimeSendingStrategyConfig;
@@ -445,6 +446,9 @@ public class SerializationManagerPostProcessor implements BeanPostProcessor {
 		
 		// INSPECTIT-1959
 		kryo.register(EndUserMonitoringConfig.class, new FieldSerializer<EndUserMonitoringConfig>(kryo, EndUserMonitoringConfig.class), nextRegistrationId++);
+
+		// ring buffer strategy
+		kryo.register(RingBufferStrategyConfig.class, new FieldSerializer<>(kryo, RingBufferStrategyConfig.class), nextRegistrationId++);
 	}
 
 }
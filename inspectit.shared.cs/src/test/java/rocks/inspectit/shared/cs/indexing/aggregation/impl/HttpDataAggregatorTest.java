@@ -165,4 +165,31 @@ public class HttpDataAggregatorTest {
 		assertThat(output.size(), is(equalTo(2)));
 	}
 
+	@Test
+	public void combineURIRequestMethods() {
+		final HttpTimerData data = new HttpTimerData();
+		data.getHttpInfo().setUri("URI");
+		data.getHttpInfo().setRequestMethod("GET");
+		data.setDuration(100d);
+
+		final HttpTimerData data2 = new HttpTimerData();
+		data2.getHttpInfo().setUri("URI");
+		data2.getHttpInfo().setRequestMethod("POST");
+		data2.setDuration(500d);
+
+		HttpTimerDataAggregator aggregator = new HttpTimerDataAggregator(true, false);
+		AggregationPerformer<HttpTimerData> aggregationPerformer = new AggregationPerformer<>(aggregator);
+		aggregationPerformer.processElement(data);
+		AggregationPerformer<HttpTimerData> otherPerformer = new AggregationPerformer<>(aggregator);
+		otherPerformer.processElement(data2);
+		aggregationPerformer.combine(otherPerformer);
+		final List<HttpTimerData> output = aggregationPerformer.getResultList();
+
+		assertThat(output.size(), is(equalTo(1)));
+		HttpTimerData result = output.get(0);
+		assertThat(result.getHttpInfo().getUri(), is(equalTo("URI")));
+		assertThat(result.getHttpInfo().getRequestMethod(), is(equalTo(HttpTimerData.REQUEST_METHOD_MULTIPLE)));
+		assertThat(result.getDuration(), is(equalTo(600d)));
+	}
+
 }
@@ -0,0 +1,194 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.cs.indexing.impl.IndexQuery;
+import rocks.inspectit.shared.cs.indexing.restriction.IIndexQueryRestrictionProcessor;
+
+/**
+ * Testing of the buffer leaf class.
+ */
+@SuppressWarnings("PMD")
+public class LeafTest {
+
+	/**
+	 * Class under test.
+	 */
+	private Leaf<TimerData> leaf;
+
+	/**
+	 * Index query to use.
+	 */
+	private IndexQuery indexQuery;
+
+	/**
+	 * Init.
+	 */
+	@SuppressWarnings("unchecked")
+	@BeforeMethod
+	public void init() {
+		leaf = new Leaf<>();
+
+		IIndexQueryRestrictionProcessor processor = mock(IIndexQueryRestrictionProcessor.class);
+		when(processor.areAllRestrictionsFulfilled(anyObject(), anyList())).thenReturn(true);
+		indexQuery = new IndexQuery();
+		indexQuery.setRestrictionProcessor(processor);
+	}
+
+	/**
+	 * Query without interval returns all elements.
+	 */
+	@Test
+	public void queryNoInterval() {
+		TimerData data1 = put(1L, 100L);
+		TimerData data2 = put(2L, 200L);
+		TimerData data3 = put(3L, 300L);
+
+		List<TimerData> result = leaf.query(indexQuery);
+
+		assertThat(result, containsInAnyOrder(data1, data2, data3));
+	}
+
+	/**
+	 * Query with interval returns only elements in the interval, including the bounds.
+	 */
+	@Test
+	public void queryInterval() {
+		put(1L, 100L);
+		TimerData data2 = put(2L, 200L);
+		TimerData data3 = put(3L, 200L);
+		TimerData data4 = put(4L, 300L);
+		put(5L, 301L);
+		indexQuery.setFromDate(new Timestamp(200L));
+		indexQuery.setToDate(new Timestamp(300L));
+
+		List<TimerData> result = leaf.query(indexQuery);
+
+		assertThat(result, containsInAnyOrder(data2, data3, data4));
+	}
+
+	/**
+	 * Query with only the from date returns all newer elements.
+	 */
+	@Test
+	public void queryFromDateOnly() {
+		put(1L, 100L);
+		TimerData data2 = put(2L, 200L);
+		indexQuery.setFromDate(new Timestamp(150L));
+
+		List<TimerData> result = leaf.query(indexQuery);
+
+		assertThat(result, containsInAnyOrder(data2));
+	}
+
+	/**
+	 * Elements without time-stamp never fulfill the interval.
+	 */
+	@Test
+	public void queryIntervalNoTimestamp() {
+		TimerData data = new TimerData();
+		data.setId(1L);
+		leaf.put(data);
+		indexQuery.setToDate(new Timestamp(150L));
+
+		List<TimerData> result = leaf.query(indexQuery);
+
+		assertThat(result, is(empty()));
+	}
+
+	/**
+	 * Exact time-stamp check is done with the query, when the time-stamp has nanos.
+	 */
+	@Test
+	public void queryIntervalNanos() {
+		TimerData data = put(1L, 100L);
+		data.getTimeStamp().setNanos(100500000);
+		indexQuery.setFromDate(new Timestamp(100L));
+		indexQuery.getFromDate().setNanos(100600000);
+
+		List<TimerData> result = leaf.query(indexQuery);
+
+		assertThat(result, is(empty()));
+	}
+
+	/**
+	 * Removed elements are not found in the interval any more.
+	 */
+	@Test
+	public void getAndRemove() {
+		TimerData data1 = put(1L, 100L);
+		TimerData data2 = put(2L, 200L);
+		indexQuery.setFromDate(new Timestamp(50L));
+		indexQuery.setToDate(new Timestamp(250L));
+
+		TimerData removed = leaf.getAndRemove(data1);
+		List<TimerData> result = leaf.query(indexQuery);
+
+		assertThat(removed, is(data1));
+		assertThat(result, containsInAnyOrder(data2));
+	}
+
+	/**
+	 * Element put again with same id replaces the old one in the interval.
+	 */
+	@Test
+	public void putSameId() {
+		TimerData data1 = put(1L, 100L);
+		TimerData data2 = put(1L, 200L);
+		indexQuery.setFromDate(new Timestamp(50L));
+		indexQuery.setToDate(new Timestamp(250L));
+
+		List<TimerData> result = leaf.query(indexQuery);
+
+		assertThat(result, hasSize(1));
+		assertThat(result, containsInAnyOrder(data2));
+		assertThat(leaf.get(data1), is(data2));
+	}
+
+	/**
+	 * Clear all removes elements from the interval.
+	 */
+	@Test
+	public void clearAll() {
+		put(1L, 100L);
+		indexQuery.setFromDate(new Timestamp(50L));
+
+		leaf.clearAll();
+		List<TimerData> result = leaf.query(indexQuery);
+
+		assertThat(result, is(empty()));
+		assertThat(leaf.getNumberOfElements(), is(0L));
+	}
+
+	/**
+	 * Creates and puts the timer data to the leaf.
+	 *
+	 * @param id
+	 *            Id.
+	 * @param time
+	 *            Time-stamp in milliseconds.
+	 * @return Created timer data.
+	 */
+	private TimerData put(long id, long time) {
+		TimerData data = new TimerData();
+		data.setId(id);
+		data.setTimeStamp(new Timestamp(time));
+		leaf.put(data);
+		return data;
+	}
+}
@@ -14,8 +14,13 @@ import static org.mockito.Mockito.when;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
 
 import org.testng.annotations.BeforeClass;
@@ -24,8 +29,11 @@ import org.testng.annotations.Test;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.MethodSensorData;
+import rocks.inspectit.shared.all.communication.data.AggregatedTimerData;
 import rocks.inspectit.shared.all.communication.data.SqlStatementData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.cs.indexing.aggregation.Aggregators;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 import rocks.inspectit.shared.cs.indexing.buffer.impl.Branch;
 import rocks.inspectit.shared.cs.indexing.buffer.impl.BufferBranchIndexer;
@@ -278,6 +286,136 @@ public class BufferIndexingTest {
 		}
 	}
 
+	/**
+	 * Test that only the first elements in the order are returned when querying with limit.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryTopK() throws IndexingException {
+		BufferBranchIndexer<DefaultData> objectTypeIndexer = new BufferBranchIndexer<>(new ObjectTypeIndexer<>());
+		IBufferTreeComponent<DefaultData> rootBranch = new Branch<>(new BufferBranchIndexer<>(new PlatformIdentIndexer<>(), objectTypeIndexer));
+		for (int i = 1; i <= 20; i++) {
+			TimerData timerData = new TimerData();
+			timerData.setId(i);
+			timerData.setPlatformIdent(i % 3);
+			timerData.setTimeStamp(new Timestamp(i * 1000L));
+			rootBranch.put(timerData);
+		}
+		Comparator<DefaultData> newestFirst = (o1, o2) -> o2.getTimeStamp().compareTo(o1.getTimeStamp());
+
+		List<DefaultData> results = rootBranch.query(indexQuery, newestFirst, 5);
+		List<DefaultData> resultsForkJoin = rootBranch.query(indexQuery, newestFirst, 5, forkJoinPool);
+
+		for (List<DefaultData> result : Arrays.asList(results, resultsForkJoin)) {
+			assertThat(result.size(), is(equalTo(5)));
+			for (int i = 0; i < 5; i++) {
+				assertThat(result.get(i).getId(), is(equalTo(20L - i)));
+			}
+		}
+	}
+
+	/**
+	 * Test that all elements are returned sorted when querying without limit.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryTopKNoLimit() throws IndexingException {
+		IBufferTreeComponent<DefaultData> rootBranch = new Branch<>(new BufferBranchIndexer<>(new PlatformIdentIndexer<>()));
+		for (int i = 1; i <= 10; i++) {
+			TimerData timerData = new TimerData();
+			timerData.setId(i);
+			timerData.setPlatformIdent(i % 2);
+			timerData.setTimeStamp(new Timestamp(i * 1000L));
+			rootBranch.put(timerData);
+		}
+		Comparator<DefaultData> oldestFirst = (o1, o2) -> o1.getTimeStamp().compareTo(o2.getTimeStamp());
+
+		List<DefaultData> results = rootBranch.query(indexQuery, oldestFirst, -1, forkJoinPool);
+
+		assertThat(results.size(), is(equalTo(10)));
+		for (int i = 0; i < 10; i++) {
+			assertThat(results.get(i).getId(), is(equalTo(i + 1L)));
+		}
+	}
+
+	/**
+	 * Test that the elements from different leafs are aggregated in the tree.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryAggregation() throws IndexingException {
+		BufferBranchIndexer<TimerData> objectTypeIndexer = new BufferBranchIndexer<>(new ObjectTypeIndexer<>());
+		IBufferTreeComponent<TimerData> rootBranch = new Branch<>(new BufferBranchIndexer<>(new PlatformIdentIndexer<>(), objectTypeIndexer));
+		for (int i = 1; i <= 20; i++) {
+			TimerData timerData = new TimerData();
+			timerData.setId(i);
+			timerData.setPlatformIdent(i % 3);
+			timerData.setMethodIdent(i % 2);
+			timerData.setCount(1L);
+			timerData.setDuration(i);
+			timerData.setTimeStamp(new Timestamp(i * 1000L));
+			rootBranch.put(timerData);
+		}
+
+		AggregationPerformer<TimerData> aggregationPerformer = new AggregationPerformer<>(Aggregators.TIMER_DATA_AGGREGATOR);
+		rootBranch.query(indexQuery, aggregationPerformer);
+		List<TimerData> results = aggregationPerformer.getResultList();
+		List<TimerData> resultsForkJoin = rootBranch.query(indexQuery, Aggregators.TIMER_DATA_AGGREGATOR, forkJoinPool);
+
+		for (List<TimerData> result : Arrays.asList(results, resultsForkJoin)) {
+			assertThat(result.size(), is(equalTo(2)));
+			for (TimerData timerData : result) {
+				assertThat(timerData, is(instanceOf(AggregatedTimerData.class)));
+				assertThat(timerData.getCount(), is(equalTo(10L)));
+				assertThat(((AggregatedTimerData) timerData).getAggregatedIds().size(), is(equalTo(10)));
+				if (0 == timerData.getMethodIdent()) {
+					assertThat(timerData.getDuration(), is(equalTo(110d)));
+				} else {
+					assertThat(timerData.getDuration(), is(equalTo(100d)));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test that the elements of each leaf are passed to the consumer separately.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryProcessing() throws IndexingException {
+		BufferBranchIndexer<TimerData> objectTypeIndexer = new BufferBranchIndexer<>(new ObjectTypeIndexer<>());
+		IBufferTreeComponent<TimerData> rootBranch = new Branch<>(new BufferBranchIndexer<>(new PlatformIdentIndexer<>(), objectTypeIndexer));
+		for (int i = 1; i <= 20; i++) {
+			TimerData timerData = new TimerData();
+			timerData.setId(i);
+			timerData.setPlatformIdent(i % 3);
+			timerData.setTimeStamp(new Timestamp(i * 1000L));
+			rootBranch.put(timerData);
+		}
+
+		List<List<TimerData>> processed = Collections.synchronizedList(new ArrayList<List<TimerData>>());
+		rootBranch.process(indexQuery, processed::add, forkJoinPool);
+
+		assertThat(processed.size(), is(equalTo(3)));
+		Set<Long> ids = new HashSet<>();
+		for (List<TimerData> leafElements : processed) {
+			long platformIdent = leafElements.get(0).getPlatformIdent();
+			for (TimerData timerData : leafElements) {
+				assertThat(timerData.getPlatformIdent(), is(equalTo(platformIdent)));
+				ids.add(timerData.getId());
+			}
+		}
+		assertThat(ids.size(), is(equalTo(20)));
+	}
+
 	/**
 	 * Test tree with query that holds platform ident and sensor ident in different levels.
 	 *
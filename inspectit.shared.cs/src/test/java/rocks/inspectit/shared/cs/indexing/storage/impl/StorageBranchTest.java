@@ -0,0 +1,108 @@
+package rocks.inspectit.shared.cs.indexing.storage.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageBranchIndexer;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
+
+/**
+ * Tests the {@link StorageBranch} class.
+ */
+@SuppressWarnings("PMD")
+public class StorageBranchTest {
+
+	/**
+	 * Class under test.
+	 */
+	private StorageBranch<DefaultData> storageBranch;
+
+	@Mock
+	private IStorageBranchIndexer<DefaultData> storageBranchIndexer;
+
+	@Mock
+	private IStorageTreeComponent<DefaultData> firstComponent;
+
+	@Mock
+	private IStorageTreeComponent<DefaultData> secondComponent;
+
+	/**
+	 * Init method.
+	 */
+	@BeforeMethod
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		storageBranch = new StorageBranch<>(storageBranchIndexer);
+	}
+
+	/**
+	 * Every component goes to a separate branch.
+	 */
+	@Test
+	public void splitComponents() {
+		storageBranch.getComponentMap().put(1L, firstComponent);
+		storageBranch.getComponentMap().put(2L, secondComponent);
+
+		List<StorageBranch<DefaultData>> branches = storageBranch.split();
+
+		assertThat(branches, hasSize(2));
+		for (StorageBranch<DefaultData> branch : branches) {
+			assertThat(branch.getStorageBranchIndexer(), is(sameInstance(storageBranchIndexer)));
+			assertThat(branch.getComponentMap().size(), is(1));
+		}
+		assertThat(branches.get(0).getComponentMap().get(1L), is(sameInstance((Object) firstComponent)));
+		assertThat(branches.get(1).getComponentMap().get(2L), is(sameInstance((Object) secondComponent)));
+	}
+
+	/**
+	 * Branch with single child branch is split on the level of the child.
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void splitNestedBranch() {
+		IStorageBranchIndexer<DefaultData> childIndexer = mock(IStorageBranchIndexer.class);
+		StorageBranch<DefaultData> childBranch = new StorageBranch<>(childIndexer);
+		childBranch.getComponentMap().put(1L, firstComponent);
+		childBranch.getComponentMap().put(2L, secondComponent);
+		storageBranch.getComponentMap().put(10L, childBranch);
+
+		List<StorageBranch<DefaultData>> branches = storageBranch.split();
+
+		assertThat(branches, hasSize(2));
+		for (StorageBranch<DefaultData> branch : branches) {
+			assertThat(branch.getStorageBranchIndexer(), is(sameInstance(storageBranchIndexer)));
+			assertThat(branch.getComponentMap().size(), is(1));
+			ITreeComponent<IStorageDescriptor, DefaultData> child = branch.getComponentMap().get(10L);
+			assertThat(child, is(instanceOf(StorageBranch.class)));
+			assertThat(((StorageBranch<DefaultData>) child).getStorageBranchIndexer(), is(sameInstance(childIndexer)));
+			assertThat(((StorageBranch<DefaultData>) child).getComponentMap().size(), is(1));
+		}
+	}
+
+	/**
+	 * Branch with only one leaf can not be split.
+	 */
+	@Test
+	public void splitNotPossible() {
+		storageBranch.getComponentMap().put(1L, firstComponent);
+
+		List<StorageBranch<DefaultData>> branches = storageBranch.split();
+
+		assertThat(branches, contains(storageBranch));
+	}
+}
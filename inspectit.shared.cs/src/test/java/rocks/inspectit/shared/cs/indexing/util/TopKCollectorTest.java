@@ -0,0 +1,95 @@
+package rocks.inspectit.shared.cs.indexing.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class TopKCollectorTest extends TestBase {
+
+	Comparator<Integer> naturalOrder = Comparator.naturalOrder();
+
+	public static class Add extends TopKCollectorTest {
+
+		@Test
+		public void limited() {
+			TopKCollector<Integer> collector = new TopKCollector<>(naturalOrder, 3);
+
+			for (int i : new int[] { 5, 1, 9, 3, 7, 2, 8 }) {
+				collector.add(i);
+			}
+
+			assertThat(collector.getResults(), contains(1, 2, 3));
+		}
+
+		@Test
+		public void lessThanLimit() {
+			TopKCollector<Integer> collector = new TopKCollector<>(naturalOrder, 10);
+
+			collector.add(2);
+			collector.add(1);
+
+			assertThat(collector.getResults(), contains(1, 2));
+		}
+
+		@Test
+		public void noLimit() {
+			TopKCollector<Integer> collector = new TopKCollector<>(naturalOrder, -1);
+
+			for (int i : new int[] { 5, 1, 9, 3 }) {
+				collector.add(i);
+			}
+
+			assertThat(collector.getResults(), contains(1, 3, 5, 9));
+		}
+
+		@Test
+		public void zeroLimit() {
+			TopKCollector<Integer> collector = new TopKCollector<>(naturalOrder, 0);
+
+			collector.add(1);
+
+			assertThat(collector.getResults(), is(empty()));
+		}
+
+		@Test
+		public void reversed() {
+			TopKCollector<Integer> collector = new TopKCollector<>(naturalOrder.reversed(), 2);
+
+			for (int i : new int[] { 5, 1, 9, 3 }) {
+				collector.add(i);
+			}
+
+			assertThat(collector.getResults(), contains(9, 5));
+		}
+	}
+
+	public static class AddAll extends TopKCollectorTest {
+
+		@Test
+		public void merge() {
+			TopKCollector<Integer> collector = new TopKCollector<>(naturalOrder, 3);
+
+			collector.addAll(Arrays.asList(4, 6, 8));
+			collector.addAll(Arrays.asList(1, 5, 7));
+
+			assertThat(collector.getResults(), contains(1, 4, 5));
+		}
+	}
+
+	public static class Constructor extends TopKCollectorTest {
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void nullComparator() {
+			new TopKCollector<Integer>(null, 3);
+		}
+	}
+}
@@ -12,6 +12,8 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -20,6 +22,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -27,7 +30,9 @@ import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.cs.indexing.impl.IndexingException;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageBranchIndexer;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
+import rocks.inspectit.shared.cs.indexing.storage.impl.StorageBranch;
 import rocks.inspectit.shared.cs.storage.StorageWriter.WriteTask;
 import rocks.inspectit.shared.cs.storage.util.StorageIndexTreeProvider;
 
@@ -55,6 +60,8 @@ public class StorageIndexingTreeHandlerTest {
 	@Mock
 	private ScheduledFuture future;
 
+	private ExecutorService savingExecutorService;
+
 	@SuppressWarnings("unchecked")
 	@BeforeMethod
 	public void init() {
@@ -64,6 +71,8 @@ public class StorageIndexingTreeHandlerTest {
 		indexingTreeHandler.executorService = executorService;
 		indexingTreeHandler.objectSizes = objectSizes;
 		indexingTreeHandler.storageIndexTreeProvider = storageIndexTreeProvider;
+		savingExecutorService = Executors.newFixedThreadPool(2);
+		indexingTreeHandler.savingExecutorService = savingExecutorService;
 		when(storageIndexTreeProvider.getStorageIndexingTree()).thenReturn(indexingTree);
 		when(executorService.scheduleWithFixedDelay(Matchers.<Runnable> anyObject(), anyLong(), anyLong(), Matchers.<TimeUnit> anyObject())).thenReturn(future);
 		indexingTreeHandler.prepare();
@@ -131,6 +140,54 @@ public class StorageIndexingTreeHandlerTest {
 		verify(storageWriter, times(1)).writeNonDefaultDataObject(eq(indexingTree), anyString());
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void treeSplitOnFinish() {
+		StorageBranch<DefaultData> storageBranch = new StorageBranch<>(mock(IStorageBranchIndexer.class));
+		storageBranch.getComponentMap().put(1L, mock(IStorageTreeComponent.class));
+		storageBranch.getComponentMap().put(2L, mock(IStorageTreeComponent.class));
+		storageBranch.getComponentMap().put(3L, mock(IStorageTreeComponent.class));
+		when(storageIndexTreeProvider.getStorageIndexingTree()).thenReturn(storageBranch);
+		indexingTreeHandler.prepare();
+		when(future.isDone()).thenReturn(true);
+		when(storageWriter.writeNonDefaultDataObject(Matchers.anyObject(), anyString())).thenReturn(true);
+
+		indexingTreeHandler.finish();
+
+		verify(storageWriter, times(3)).writeNonDefaultDataObject(Matchers.<StorageBranch<DefaultData>> anyObject(), anyString());
+	}
+
+	@Test
+	public void finishWaitsForWriteTasks() throws Exception {
+		IStorageDescriptor storageDescriptor = mock(IStorageDescriptor.class);
+		when(storageDescriptor.getChannelId()).thenReturn(1);
+		DefaultData defaultData = mock(DefaultData.class);
+		when(indexingTree.put(defaultData)).thenReturn(storageDescriptor);
+		final WriteTask writeTask = mock(WriteTask.class);
+		when(writeTask.getData()).thenReturn(defaultData);
+		when(future.isDone()).thenReturn(true);
+		indexingTreeHandler.startWrite(writeTask);
+
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					Thread.interrupted();
+				}
+				indexingTreeHandler.writeSuccessful(writeTask, 0L, 10L);
+			}
+		});
+		thread.start();
+		indexingTreeHandler.finish();
+
+		assertThat(indexingTreeHandler.getWriteTaskInProgressCount(), is(0));
+		verify(storageDescriptor, times(1)).setPositionAndSize(0L, 10L);
+		verify(storageWriter, times(1)).writeNonDefaultDataObject(eq(indexingTree), anyString());
+		thread.join();
+	}
+
 	@Test
 	public void indexingTreeSavingTask() {
 		reset(executorService);
@@ -149,4 +206,9 @@ public class StorageIndexingTreeHandlerTest {
 		captor.getValue().run();
 		verify(storageWriter, times(1)).writeNonDefaultDataObject(eq(indexingTree), anyString());
 	}
+
+	@AfterMethod
+	public void shutdownSavingExecutorService() {
+		savingExecutorService.shutdownNow();
+	}
 }
@@ -6,6 +6,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -27,6 +28,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -44,6 +46,7 @@ import rocks.inspectit.shared.all.serializer.SerializationException;
 import rocks.inspectit.shared.all.storage.nio.stream.ExtendedByteBufferOutputStream;
 import rocks.inspectit.shared.all.storage.nio.stream.StreamProvider;
 import rocks.inspectit.shared.cs.indexing.impl.IndexingException;
+import rocks.inspectit.shared.cs.storage.StorageWriter.BatchWriteTask;
 import rocks.inspectit.shared.cs.storage.StorageWriter.WriteTask;
 import rocks.inspectit.shared.cs.storage.nio.WriteReadCompletionRunnable;
 import rocks.inspectit.shared.cs.storage.nio.write.WritingChannelManager;
@@ -246,6 +249,101 @@ public class StorageWriterTest {
 		verify(serializerQueue, times(1)).add(serializer);
 	}
 
+	@Test
+	public void batchWriteTaskOneWritePerChannel() throws Exception {
+		BatchWriteTask batchWriteTask = storageWriter.new BatchWriteTask(3);
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		when(extendedByteBufferOutputStream.getTotalWriteSize()).thenReturn(0L, 10L, 10L, 25L, 25L, 40L);
+
+		batchWriteTask.run();
+
+		ArgumentCaptor<WriteReadCompletionRunnable> captor = ArgumentCaptor.forClass(WriteReadCompletionRunnable.class);
+		verify(writingChannelManager, times(1)).write(eq(extendedByteBufferOutputStream), Matchers.<Path> anyObject(), captor.capture());
+		verify(serializer, times(3)).serialize(anyObject(), Matchers.<Output> anyObject(), Matchers.<Map<?, ?>> anyObject());
+		verify(serializerQueue, times(1)).add(serializer);
+
+		WriteReadCompletionRunnable completionRunnable = captor.getValue();
+		completionRunnable.setAttemptedWriteReadPosition(100L);
+		completionRunnable.run();
+
+		verify(storageIndexingTreeHandler, times(1)).writeSuccessful(Matchers.<WriteTask> anyObject(), eq(100L), eq(10L));
+		verify(storageIndexingTreeHandler, times(1)).writeSuccessful(Matchers.<WriteTask> anyObject(), eq(110L), eq(15L));
+		verify(storageIndexingTreeHandler, times(1)).writeSuccessful(Matchers.<WriteTask> anyObject(), eq(125L), eq(15L));
+		verify(storageIndexingTreeHandler, times(0)).writeFailed(Matchers.<WriteTask> anyObject());
+		verify(extendedByteBufferOutputStream, times(1)).close();
+	}
+
+	@Test
+	public void batchWriteTaskDifferentChannels() throws Exception {
+		BatchWriteTask batchWriteTask = storageWriter.new BatchWriteTask(2);
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		when(storageIndexingTreeHandler.startWrite(Matchers.<WriteTask> anyObject())).thenReturn(1, 2);
+
+		batchWriteTask.run();
+
+		verify(writingChannelManager, times(2)).write(eq(extendedByteBufferOutputStream), Matchers.<Path> anyObject(), Matchers.<WriteReadCompletionRunnable> anyObject());
+		verify(serializerQueue, times(1)).add(serializer);
+	}
+
+	@Test
+	public void batchWriteTaskFailedIndexing() throws Exception {
+		BatchWriteTask batchWriteTask = storageWriter.new BatchWriteTask(2);
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		when(storageIndexingTreeHandler.startWrite(Matchers.<WriteTask> anyObject())).thenThrow(new IndexingException("Test msg")).thenReturn(1);
+
+		batchWriteTask.run();
+
+		verify(storageIndexingTreeHandler, times(1)).writeFailed(Matchers.<WriteTask> anyObject());
+		verify(serializer, times(1)).serialize(anyObject(), Matchers.<Output> anyObject(), Matchers.<Map<?, ?>> anyObject());
+		verify(writingChannelManager, times(1)).write(eq(extendedByteBufferOutputStream), Matchers.<Path> anyObject(), Matchers.<WriteReadCompletionRunnable> anyObject());
+	}
+
+	@Test
+	public void batchWriteTaskFailedSerialization() throws Exception {
+		BatchWriteTask batchWriteTask = storageWriter.new BatchWriteTask(2);
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		doThrow(SerializationException.class).doNothing().when(serializer).serialize(anyObject(), Matchers.<Output> anyObject(), Matchers.<Map<?, ?>> anyObject());
+
+		batchWriteTask.run();
+
+		verify(storageIndexingTreeHandler, times(1)).writeFailed(Matchers.<WriteTask> anyObject());
+		verify(writingChannelManager, times(1)).write(eq(extendedByteBufferOutputStream), Matchers.<Path> anyObject(), Matchers.<WriteReadCompletionRunnable> anyObject());
+		verify(serializerQueue, times(1)).add(serializer);
+	}
+
+	@Test
+	public void batchWriteTaskNoSerializerAvailable() throws Exception {
+		BatchWriteTask batchWriteTask = storageWriter.new BatchWriteTask(2);
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		when(serializerQueue.take()).thenReturn(null);
+
+		batchWriteTask.run();
+
+		verify(storageIndexingTreeHandler, times(2)).writeFailed(Matchers.<WriteTask> anyObject());
+		verifyZeroInteractions(writingChannelManager, streamProvider, extendedByteBufferOutputStream);
+	}
+
+	@Test
+	public void batchWriteTaskExceptionDuringWrite() throws Exception {
+		BatchWriteTask batchWriteTask = storageWriter.new BatchWriteTask(2);
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		batchWriteTask.add(new TimerData(), Collections.emptyMap());
+		doThrow(IOException.class).when(writingChannelManager).write(Matchers.<ExtendedByteBufferOutputStream> anyObject(), Matchers.<Path> anyObject(),
+				Matchers.<WriteReadCompletionRunnable> anyObject());
+
+		batchWriteTask.run();
+
+		verify(storageIndexingTreeHandler, times(2)).writeFailed(Matchers.<WriteTask> anyObject());
+		verify(extendedByteBufferOutputStream, times(1)).close();
+		verify(serializerQueue, times(1)).add(serializer);
+	}
+
 	@Test
 	public void objectWriteNoSerializerAvailable() throws InterruptedException {
 		when(serializerQueue.take()).thenReturn(null);
@@ -0,0 +1,178 @@
+package rocks.inspectit.shared.cs.storage.nio.read;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.cs.storage.nio.read.MappedChannelManager.MappedRegion;
+
+/**
+ * Tests the {@link MappedChannelManager}.
+ */
+@SuppressWarnings("PMD")
+public class MappedChannelManagerTest {
+
+	/**
+	 * Segment size used in tests.
+	 */
+	private static final int SEGMENT_SIZE = 64;
+
+	/**
+	 * Class under test.
+	 */
+	private MappedChannelManager mappedChannelManager;
+
+	/**
+	 * File to map.
+	 */
+	private Path file;
+
+	/**
+	 * Content of the file.
+	 */
+	private byte[] content;
+
+	@BeforeMethod
+	public void init() throws IOException {
+		mappedChannelManager = new MappedChannelManager();
+		mappedChannelManager.setSegmentSize(SEGMENT_SIZE);
+		content = new byte[(SEGMENT_SIZE * 3) + 10];
+		new Random().nextBytes(content);
+		file = Files.createTempFile("mappedChannelManagerTest", ".itdata");
+		Files.write(file, content);
+	}
+
+	@AfterMethod
+	public void cleanUp() throws IOException {
+		mappedChannelManager.releaseAll();
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void regionInSegment() throws IOException {
+		ByteBuffer buffer = mappedChannelManager.map(file, SEGMENT_SIZE + 5, 20).getBuffer();
+
+		assertThat(buffer.position(), is(0));
+		assertThat(buffer.limit(), is(20));
+		assertThat(getBytes(buffer), is(equalTo(Arrays.copyOfRange(content, SEGMENT_SIZE + 5, SEGMENT_SIZE + 25))));
+	}
+
+	@Test
+	public void regionAcrossSegments() throws IOException {
+		ByteBuffer buffer = mappedChannelManager.map(file, SEGMENT_SIZE - 5, SEGMENT_SIZE + 10).getBuffer();
+
+		assertThat(getBytes(buffer), is(equalTo(Arrays.copyOfRange(content, SEGMENT_SIZE - 5, (2 * SEGMENT_SIZE) + 5))));
+	}
+
+	@Test
+	public void regionAtFileEnd() throws IOException {
+		ByteBuffer buffer = mappedChannelManager.map(file, content.length - 10, 10).getBuffer();
+
+		assertThat(getBytes(buffer), is(equalTo(Arrays.copyOfRange(content, content.length - 10, content.length))));
+	}
+
+	@Test
+	public void repeatedMappingIndependent() throws IOException {
+		ByteBuffer first = mappedChannelManager.map(file, 0, 10).getBuffer();
+		first.get();
+		ByteBuffer second = mappedChannelManager.map(file, 0, 10).getBuffer();
+
+		assertThat(second.position(), is(0));
+		assertThat(getBytes(second), is(equalTo(Arrays.copyOfRange(content, 0, 10))));
+	}
+
+	@Test
+	public void fileGrown() throws IOException {
+		MappedRegion first = mappedChannelManager.map(file, 0, 10);
+		byte[] appended = new byte[] { 1, 2, 3 };
+		Files.write(file, appended, StandardOpenOption.APPEND);
+
+		MappedRegion second = mappedChannelManager.map(file, content.length, appended.length);
+
+		assertThat(getBytes(second.getBuffer()), is(equalTo(appended)));
+		// replaced mapping is released, but still readable until closed
+		assertThat(first.isUnmapped(), is(false));
+		assertThat(getBytes(first.getBuffer()), is(equalTo(Arrays.copyOfRange(content, 0, 10))));
+		first.close();
+		assertThat(first.isUnmapped(), is(true));
+		assertThat(second.isUnmapped(), is(false));
+	}
+
+	@Test(expectedExceptions = IOException.class)
+	public void regionOutOfBounds() throws IOException {
+		mappedChannelManager.map(file, content.length - 5, 10);
+	}
+
+	@Test
+	public void releaseDirectory() throws IOException {
+		MappedRegion released = mappedChannelManager.map(file, 0, 10);
+		released.close();
+		mappedChannelManager.release(file.getParent());
+
+		MappedRegion region = mappedChannelManager.map(file, 0, 10);
+
+		assertThat(released.isUnmapped(), is(true));
+		assertThat(getBytes(region.getBuffer()), is(equalTo(Arrays.copyOfRange(content, 0, 10))));
+	}
+
+	@Test
+	public void releaseWhileReading() throws IOException {
+		MappedRegion region = mappedChannelManager.map(file, 0, 10);
+		mappedChannelManager.release(file);
+
+		assertThat(region.isUnmapped(), is(false));
+		assertThat(getBytes(region.getBuffer()), is(equalTo(Arrays.copyOfRange(content, 0, 10))));
+		region.close();
+		assertThat(region.isUnmapped(), is(true));
+	}
+
+	@Test
+	public void regionAcrossSegmentsNotMapped() throws IOException {
+		MappedRegion region = mappedChannelManager.map(file, SEGMENT_SIZE - 5, SEGMENT_SIZE + 10);
+		region.close();
+		mappedChannelManager.release(file);
+
+		assertThat(region.isUnmapped(), is(false));
+	}
+
+	@Test
+	public void releasedFileDeleted() throws IOException {
+		mappedChannelManager.map(file, 0, 10).close();
+		mappedChannelManager.map(file, SEGMENT_SIZE, 10).close();
+		mappedChannelManager.release(file);
+
+		Files.delete(file);
+
+		assertThat(Files.exists(file), is(false));
+	}
+
+	@Test
+	public void unmap() throws IOException {
+		try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = fileChannel.map(MapMode.READ_ONLY, 0, 10);
+
+			assertThat(MappedChannelManager.unmap(buffer), is(true));
+		}
+	}
+
+	private byte[] getBytes(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+}
@@ -57,9 +57,11 @@ import rocks.inspectit.shared.all.communication.data.SqlStatementData;
 import rocks.inspectit.shared.all.communication.data.SystemInformationData;
 import rocks.inspectit.shared.all.communication.data.ThreadInformationData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.communication.data.TimerHistogram;
 import rocks.inspectit.shared.all.communication.data.VmArgumentData;
 import rocks.inspectit.shared.all.communication.data.cmr.AgentStatusData;
 import rocks.inspectit.shared.all.communication.data.cmr.CmrStatusData;
+import rocks.inspectit.shared.all.communication.data.cmr.ProcessorStageData;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.exception.RemoteException;
 import rocks.inspectit.shared.all.exception.enumeration.StorageErrorCodeEnum;
@@ -123,7 +125,8 @@ public class SerializerTest extends TestBase {
 			{ SqlStringIndexer.class }, { BooleanStorageLabel.class }, { DateStorageLabel.class }, { NumberStorageLabel.class }, { StringStorageLabel.class }, { CustomDateLabelType.class },
 			{ CmrStatusData.class }, { AgentStatusData.class }, { RecordingData.class }, { CustomBooleanLabelType.class }, { CustomNumberLabelType.class }, { CustomStringLabelType.class },
 			{ AssigneeLabelType.class }, { RatingLabelType.class }, { ExploredByLabelType.class }, { CreationDateLabelType.class }, { StatusLabelType.class }, { UseCaseLabelType.class },
-			{ AggregatedHttpTimerData.class }, { AggregatedSqlStatementData.class }, { AggregatedTimerData.class }, { ArrayBasedStorageLeaf.class } };
+			{ AggregatedHttpTimerData.class }, { AggregatedSqlStatementData.class }, { AggregatedTimerData.class }, { ArrayBasedStorageLeaf.class },
+			{ ProcessorStageData.class } };
 
 	/**
 	 * Serializer.
@@ -408,6 +411,41 @@ public class SerializerTest extends TestBase {
 		throw new IOException("Just for testing");
 	}
 
+	/**
+	 * Tests that the timer data with the percentile histogram is correctly serialized.
+	 */
+	@Test
+	public void timerDataWithHistogram() throws SerializationException {
+		TimerHistogram histogram = new TimerHistogram();
+		histogram.recordValue(0.001d);
+		histogram.recordValue(12.5d);
+		histogram.recordValue(12.5d);
+		histogram.recordValue(3600000d);
+		TimerData timerData = new TimerData();
+		timerData.setHistogram(histogram);
+
+		TimerData deserialized = serializeBackAndForth(timerData);
+
+		assertThat(deserialized.getHistogram(), is(equalTo(histogram)));
+		assertThat(deserialized, is(equalTo(timerData)));
+	}
+
+	/**
+	 * Tests that the exception data sent only with the stack trace fingerprint keeps the
+	 * fingerprint.
+	 */
+	@Test
+	public void exceptionDataWithFingerprint() throws SerializationException {
+		ExceptionSensorData exceptionSensorData = new ExceptionSensorData();
+		exceptionSensorData.setThrowableType("java.lang.RuntimeException");
+		exceptionSensorData.setStackTraceFingerprint(0x1234567890abcdefL);
+
+		ExceptionSensorData deserialized = serializeBackAndForth(exceptionSensorData);
+
+		assertThat(deserialized.getStackTraceFingerprint(), is(0x1234567890abcdefL));
+		assertThat(deserialized.getStackTrace(), is(nullValue()));
+	}
+
 	/**
 	 * Performs the serialization of the given object to bytes and then performs de-serialization
 	 * from those bytes and returns the de-serialized object back.
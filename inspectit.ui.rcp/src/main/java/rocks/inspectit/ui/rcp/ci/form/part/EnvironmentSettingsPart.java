@@ -25,6 +25,7 @@ import rocks.inspectit.shared.all.instrumentation.config.impl.RetransformationSt
 import rocks.inspectit.shared.cs.ci.Environment;
 import rocks.inspectit.shared.cs.ci.strategy.IStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.ListSendingStrategyConfig;
+import rocks.inspectit.shared.cs.ci.strategy.impl.RingBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.SimpleBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.SizeBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.TimeSendingStrategyConfig;
@@ -51,6 +52,11 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 	 */
 	private static final String SIMPLE_BUFFER_STRATEGY = "Simple buffer";
 
+	/**
+	 * Display name of the ring buffer strategy.
+	 */
+	private static final String RING_BUFFER_STRATEGY = "Ring buffer";
+
 	/**
 	 * Display name of the list sending strategy.
 	 */
@@ -177,7 +183,7 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 		gd.widthHint = 50;
 		bufferValue.setLayoutData(gd);
 		createInfoLabel(mainComposite, toolkit,
-				"The simple version of a buffer is apparently no buffer at all. It contains exactly one element. This is useful if old data isn't necessary or maybe the memory of the application is very limited.\nThe Size buffer strategy needs specification of the size of this buffer. This buffer works as a FILO stack, so last added elements will be sent first (as they are more important), and old ones are thrown away if this buffer is full");
+				"The simple version of a buffer is apparently no buffer at all. It contains exactly one element. This is useful if old data isn't necessary or maybe the memory of the application is very limited.\nThe Size buffer strategy needs specification of the size of this buffer. This buffer works as a FILO stack, so last added elements will be sent first (as they are more important), and old ones are thrown away if this buffer is full.\nThe Ring buffer strategy needs specification of the capacity in single measurements. When full, the configured overflow policy (drop oldest, drop newest, sample or aggregate) is applied and batches are limited by their size in bytes.");
 
 		toolkit.createLabel(mainComposite, "Retransformation strategy:").setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
 		retransformationCombo = new Combo(mainComposite, SWT.DROP_DOWN | SWT.READ_ONLY);
@@ -204,17 +210,23 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 
 		bufferCombo.add(SIMPLE_BUFFER_STRATEGY);
 		bufferCombo.add(SIZE_BUFFER_STRATEGY);
+		bufferCombo.add(RING_BUFFER_STRATEGY);
 		IStrategyConfig bufferStrategyConfig = environment.getBufferStrategyConfig();
+		bufferCombo.setData(SIMPLE_BUFFER_STRATEGY, new SimpleBufferStrategyConfig());
+		bufferCombo.setData(SIZE_BUFFER_STRATEGY, new SizeBufferStrategyConfig());
+		bufferCombo.setData(RING_BUFFER_STRATEGY, new RingBufferStrategyConfig());
 		if (bufferStrategyConfig instanceof SimpleBufferStrategyConfig) {
 			bufferCombo.setData(SIMPLE_BUFFER_STRATEGY, bufferStrategyConfig);
-			bufferCombo.setData(SIZE_BUFFER_STRATEGY, new SizeBufferStrategyConfig());
 			bufferCombo.select(0);
 			bufferValue.setEnabled(false);
 		} else if (bufferStrategyConfig instanceof SizeBufferStrategyConfig) {
-			bufferCombo.setData(SIMPLE_BUFFER_STRATEGY, new SimpleBufferStrategyConfig());
 			bufferCombo.setData(SIZE_BUFFER_STRATEGY, bufferStrategyConfig);
 			bufferCombo.select(1);
 			bufferValue.setText(String.valueOf(((SizeBufferStrategyConfig) bufferStrategyConfig).getSize()));
+		} else if (bufferStrategyConfig instanceof RingBufferStrategyConfig) {
+			bufferCombo.setData(RING_BUFFER_STRATEGY, bufferStrategyConfig);
+			bufferCombo.select(2);
+			bufferValue.setText(String.valueOf(((RingBufferStrategyConfig) bufferStrategyConfig).getCapacity()));
 		}
 
 		for (RetransformationStrategy strategy : RetransformationStrategy.values()) {
@@ -246,6 +258,9 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 				} else if (data instanceof SizeBufferStrategyConfig) {
 					bufferValue.setEnabled(true);
 					bufferValue.setText(String.valueOf(((SizeBufferStrategyConfig) data).getSize()));
+				} else if (data instanceof RingBufferStrategyConfig) {
+					bufferValue.setEnabled(true);
+					bufferValue.setText(String.valueOf(((RingBufferStrategyConfig) data).getCapacity()));
 				}
 			}
 		});
@@ -379,6 +394,21 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 				showSizeBufferStrategyValidationMessage();
 				valid = false;
 			}
+		} else if (bufferStrategy instanceof RingBufferStrategyConfig) {
+			try {
+				int capacity = Integer.parseInt(bufferValue.getText());
+				if (capacity <= 0) {
+					showRingBufferStrategyValidationMessage();
+					valid = false;
+				} else {
+					if (update) {
+						((RingBufferStrategyConfig) bufferStrategy).setCapacity(capacity);
+					}
+				}
+			} catch (NumberFormatException exception) {
+				showRingBufferStrategyValidationMessage();
+				valid = false;
+			}
 		}
 		if (update) {
 			environment.setBufferStrategyConfig(bufferStrategy);
@@ -408,6 +438,13 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 		bufferValueDecoration.setDescriptionText("Size buffer strategy must define a buffer size greater than zero.");
 	}
 
+	/**
+	 * Shows validation error message for ring buffer strategy.
+	 */
+	private void showRingBufferStrategyValidationMessage() {
+		bufferValueDecoration.setDescriptionText("Ring buffer strategy must define a capacity greater than zero.");
+	}
+
 	/**
 	 * Creates info icon with given text as tool-tip.
 	 *
@@ -400,6 +400,9 @@ public final class TextFormatter {
 				styledString.append("Not connected", StyledString.DECORATIONS_STYLER);
 				break;
 			}
+			if (agentStatusData.getDroppedDataCount() > 0) {
+				styledString.append(" :: " + agentStatusData.getDroppedDataCount() + " data objects dropped on the agent", StyledString.DECORATIONS_STYLER);
+			}
 		} else {
 			styledString.append("Not connected", StyledString.DECORATIONS_STYLER);
 		}
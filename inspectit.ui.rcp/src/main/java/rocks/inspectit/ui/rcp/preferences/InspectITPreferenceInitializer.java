@@ -56,6 +56,9 @@ public class InspectITPreferenceInitializer extends AbstractPreferenceInitialize
 		// auto check new version
 		PreferencesUtils.saveBooleanValue(PreferencesConstants.AUTO_CHECK_NEW_VERSION, true, true);
 
+		// memory mapped reads of the downloaded storages
+		PreferencesUtils.saveBooleanValue(PreferencesConstants.STORAGE_MEMORY_MAPPED_READS, false, true);
+
 		PreferencesUtils.saveObject(PreferencesConstants.INSTRUMENTATION_UPDATED_AUTO_ACTION, OnSaveBehavior.SHOW_DIALOG, true);
 
 		Map<String, PlotDataSolver> dataSolverBeanAssignmentMap = new HashMap<>();
@@ -99,4 +99,13 @@ public interface PreferencesConstants {
 	 * Action when an instrumentation has been updated.
 	 */
 	String INSTRUMENTATION_UPDATED_AUTO_ACTION = "INSTRUMENTATION_UPDATED_AUTO_ACTION";
+
+	/**
+	 * Read the data of the downloaded storages from the memory mapped files.
+	 * <p>
+	 * Note that on Windows the mapped files can not be deleted. The files are unmapped before the
+	 * downloaded storage is deleted, but if the JVM does not support the explicit unmapping they
+	 * stay mapped until garbage collected and the deletion of the storage can fail.
+	 */
+	String STORAGE_MEMORY_MAPPED_READS = "STORAGE_MEMORY_MAPPED_READS";
 }
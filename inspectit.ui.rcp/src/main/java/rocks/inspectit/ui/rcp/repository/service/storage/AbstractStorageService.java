@@ -16,6 +16,7 @@ import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
 import rocks.inspectit.shared.cs.indexing.storage.impl.StorageIndexQuery;
+import rocks.inspectit.shared.cs.indexing.util.TopKCollector;
 import rocks.inspectit.shared.cs.storage.LocalStorageData;
 import rocks.inspectit.shared.cs.storage.StorageData;
 import rocks.inspectit.shared.cs.storage.StorageManager;
@@ -23,6 +24,7 @@ import rocks.inspectit.ui.rcp.InspectIT;
 import rocks.inspectit.ui.rcp.repository.CmrRepositoryDefinition;
 import rocks.inspectit.ui.rcp.repository.StorageRepositoryDefinition;
 import rocks.inspectit.ui.rcp.storage.util.DataRetriever;
+import rocks.inspectit.ui.rcp.storage.util.IDataConsumer;
 
 /**
  * Abstract class for all storage services.
@@ -205,7 +207,7 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 
 				if (null == returnList) {
 					// if not we load data regular way
-					returnList = loadData(storageIndexQuery, aggregator);
+					returnList = loadData(storageIndexQuery, aggregator, null, -1);
 
 					// and cache it on the CMR if we get something
 					if (CollectionUtils.isNotEmpty(returnList)) {
@@ -221,7 +223,7 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 
 				if (null == returnList) {
 					// if not we load data regular way
-					returnList = loadData(storageIndexQuery, aggregator);
+					returnList = loadData(storageIndexQuery, aggregator, null, -1);
 
 					// and cache it locally if we get something
 					if (CollectionUtils.isNotEmpty(returnList)) {
@@ -230,7 +232,7 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 				}
 			}
 		} else {
-			returnList = loadData(storageIndexQuery, aggregator);
+			returnList = loadData(storageIndexQuery, aggregator, comparator, limit);
 		}
 
 		// sort if needed
@@ -290,6 +292,11 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 	 * {@link IAggregator} is provided. If the {@link IAggregator} is not provided, the data will be
 	 * returned not aggregated.
 	 * <P>
+	 * The data is streamed from the storage, thus only the elements passing the restrictions of the
+	 * query are kept. If the limit is given and there is no aggregation, at most limit elements are
+	 * held: without comparator the reading stops as soon as the limit is reached, with comparator
+	 * only the first limit elements in the comparator order are kept.
+	 * <P>
 	 * This method should be used by all subclasses, because it guards against massive data loading
 	 * that can make out of memory exceptions on the UI.
 	 *
@@ -297,9 +304,14 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 	 *            Query.
 	 * @param aggregator
 	 *            {@link IAggregator}
+	 * @param comparator
+	 *            Comparator the results will be sorted with, can be <code>null</code>.
+	 * @param limit
+	 *            Limit the number of results by given number. Value <code>-1</code> means no limit.
+	 *            Ignored if the aggregator is given.
 	 * @return Return results of a query.
 	 */
-	private List<E> loadData(StorageIndexQuery storageIndexQuery, IAggregator<E> aggregator) {
+	private List<E> loadData(StorageIndexQuery storageIndexQuery, IAggregator<E> aggregator, Comparator<? super E> comparator, int limit) {
 		List<IStorageDescriptor> descriptors = getIndexingTree().query(storageIndexQuery);
 		// sort the descriptors to optimize the number of read operations
 		Collections.sort(descriptors, new Comparator<IStorageDescriptor>() {
@@ -314,11 +326,7 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 			}
 		});
 
-		AggregationPerformer<E> aggregationPerformer = null;
-		if (null != aggregator) {
-			aggregationPerformer = new AggregationPerformer<>(aggregator);
-		}
-		List<E> returnList = new ArrayList<>();
+		QueryResultConsumer consumer = new QueryResultConsumer(storageIndexQuery, aggregator, comparator, limit);
 
 		int size = 0;
 		int count = 0;
@@ -331,11 +339,10 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 
 			// if the size is already to big, or we reached end do query
 			if ((size > MAX_QUERY_SIZE) || (count == descriptors.size())) {
-				// load data and filter with restrictions
-				List<E> allData;
+				// stream data to the consumer that filters with restrictions
 				if (localStorageData.isFullyDownloaded()) {
 					try {
-						allData = dataRetriever.getDataLocally(localStorageData, descriptors);
+						dataRetriever.streamDataLocally(localStorageData, limitedDescriptors, consumer);
 					} catch (SerializationException e) {
 						String msg = "Data in the downloaded storage " + localStorageData + " can not be loaded with this version of the inspectIT. Version of the CMR where storage was created is "
 								+ localStorageData.getCmrVersion() + ".";
@@ -347,7 +354,7 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 					}
 				} else {
 					try {
-						allData = dataRetriever.getDataViaHttp(getCmrRepositoryDefinition(), localStorageData, limitedDescriptors);
+						dataRetriever.streamDataViaHttp(getCmrRepositoryDefinition(), localStorageData, limitedDescriptors, consumer);
 					} catch (SerializationException e) {
 						String msg = "Data in the remote storage " + localStorageData + " can not be loaded with this version of the inspectIT. Version of the CMR where storage was created is "
 								+ localStorageData.getCmrVersion() + ".";
@@ -358,13 +365,10 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 						return Collections.emptyList();
 					}
 				}
-				List<E> passedData = getRestrictionsPassedList(allData, storageIndexQuery);
 
-				// if we need to aggregate then do so, otherwise just add to result list
-				if (null != aggregationPerformer) {
-					aggregationPerformer.processCollection(passedData);
-				} else {
-					returnList.addAll(passedData);
+				// no need to read more if the consumer has all it needs
+				if (consumer.isDone()) {
+					break;
 				}
 
 				// reset the size and current list
@@ -373,32 +377,121 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 			}
 		}
 
-		// aggregate if needed
-		if (null != aggregator) {
-			returnList = aggregationPerformer.getResultList();
-		}
-
-		return returnList;
+		return consumer.getResultList();
 	}
 
 	/**
-	 * This utility method is used to create a list of elements that pass all the restrictions in
-	 * the {@link StorageIndexQuery}.
-	 *
-	 * @param notPassedList
-	 *            List of all elements.
-	 * @param storageIndexQuery
-	 *            {@link StorageIndexQuery}.
-	 * @return New list only with elements that are passing all restrictions.
+	 * Consumer of the streamed storage data that keeps only the elements passing the restrictions
+	 * of the query, and aggregates or limits them on the fly.
 	 */
-	private List<E> getRestrictionsPassedList(List<E> notPassedList, StorageIndexQuery storageIndexQuery) {
-		List<E> passedList = new ArrayList<>();
-		for (E element : notPassedList) {
-			if ((null != element) && element.isQueryComplied(storageIndexQuery)) {
-				passedList.add(element);
+	private class QueryResultConsumer implements IDataConsumer<E> {
+
+		/**
+		 * Query to check the restrictions of.
+		 */
+		private final StorageIndexQuery storageIndexQuery;
+
+		/**
+		 * Aggregation performer, <code>null</code> if there is no aggregation.
+		 */
+		private final AggregationPerformer<E> aggregationPerformer;
+
+		/**
+		 * Limit or <code>-1</code> for no limit.
+		 */
+		private final int limit;
+
+		/**
+		 * Results if the results are not aggregated and not limited with the comparator.
+		 */
+		private final List<E> results = new ArrayList<>();
+
+		/**
+		 * Collector of the first limit results in the comparator order. Only used if the limit and
+		 * comparator are given without aggregation.
+		 */
+		private final TopKCollector<E> topResults;
+
+		/**
+		 * If the consumer does not need any more elements.
+		 */
+		private boolean done;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param storageIndexQuery
+		 *            Query to check the restrictions of.
+		 * @param aggregator
+		 *            {@link IAggregator}, can be <code>null</code>.
+		 * @param comparator
+		 *            Comparator of the results, can be <code>null</code>.
+		 * @param limit
+		 *            Limit or <code>-1</code> for no limit.
+		 */
+		QueryResultConsumer(StorageIndexQuery storageIndexQuery, IAggregator<E> aggregator, Comparator<? super E> comparator, int limit) {
+			this.storageIndexQuery = storageIndexQuery;
+			if (null != aggregator) {
+				this.aggregationPerformer = new AggregationPerformer<>(aggregator);
+				this.limit = -1;
+			} else {
+				this.aggregationPerformer = null;
+				this.limit = limit;
+			}
+			if ((null == aggregator) && (null != comparator) && (limit > 0)) {
+				this.topResults = new TopKCollector<>(comparator, limit);
+			} else {
+				this.topResults = null;
+			}
+			this.done = 0 == this.limit;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean consume(E element) {
+			if (done) {
+				return false;
+			}
+			if ((null == element) || !element.isQueryComplied(storageIndexQuery)) {
+				return true;
+			}
+
+			if (null != aggregationPerformer) {
+				aggregationPerformer.processElement(element);
+			} else if (null != topResults) {
+				topResults.add(element);
+			} else {
+				results.add(element);
+				done = (limit > -1) && (results.size() >= limit);
+			}
+			return !done;
+		}
+
+		/**
+		 * Returns if the consumer does not need any more elements.
+		 *
+		 * @return If the consumer does not need any more elements.
+		 */
+		boolean isDone() {
+			return done;
+		}
+
+		/**
+		 * Returns the results.
+		 *
+		 * @return Results.
+		 */
+		List<E> getResultList() {
+			if (null != aggregationPerformer) {
+				return aggregationPerformer.getResultList();
+			} else if (null != topResults) {
+				return topResults.getResults();
+			} else {
+				return results;
 			}
 		}
-		return passedList;
 	}
 
 	/**
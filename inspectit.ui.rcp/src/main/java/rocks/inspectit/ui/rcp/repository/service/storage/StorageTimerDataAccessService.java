@@ -2,8 +2,10 @@ package rocks.inspectit.ui.rcp.repository.service.storage;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.communication.data.TimerHistogram;
 import rocks.inspectit.shared.cs.cmr.service.ITimerDataAccessService;
 import rocks.inspectit.shared.cs.indexing.aggregation.Aggregators;
 import rocks.inspectit.shared.cs.indexing.query.factory.impl.TimerDataQueryFactory;
@@ -45,6 +47,14 @@ public class StorageTimerDataAccessService extends AbstractStorageService<TimerD
 		return super.executeQuery(query, Aggregators.TIMER_DATA_AGGREGATOR);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<Long, double[]> getDurationPercentiles(TimerData timerData, Date fromDate, Date toDate, double... percentiles) {
+		return TimerHistogram.getDurationPercentiles(getAggregatedTimerData(timerData, fromDate, toDate), percentiles);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -292,6 +292,7 @@ public class InspectITStorageManager extends StorageManager implements CmrReposi
 	private void deleteLocalStorageData(LocalStorageData localStorageData, boolean informListeners) throws IOException, SerializationException {
 		localStorageData.setFullyDownloaded(false);
 		downloadedStorages.remove(localStorageData);
+		dataRetriever.releaseMappedData(localStorageData);
 		if (mountedAvailableStorages.containsKey(localStorageData) || mountedNotAvailableStorages.contains(localStorageData)) {
 			super.deleteStorageDataFromDisk(localStorageData, StorageFileType.DATA_FILE);
 			writeLocalStorageDataToDisk(localStorageData);
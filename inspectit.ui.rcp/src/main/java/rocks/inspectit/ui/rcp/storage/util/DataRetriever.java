@@ -35,11 +35,11 @@ import org.apache.http.client.methods.HttpGet;
 import org.apache.http.entity.HttpEntityWrapper;
 import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.protocol.HttpContext;
-import org.apache.http.util.EntityUtils;
 import org.eclipse.core.runtime.SubMonitor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatus.Series;
 
+import com.esotericsoftware.kryo.io.ByteBufferInput;
 import com.esotericsoftware.kryo.io.Input;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
@@ -48,7 +48,6 @@ import rocks.inspectit.shared.all.exception.enumeration.StorageErrorCodeEnum;
 import rocks.inspectit.shared.all.serializer.ISerializer;
 import rocks.inspectit.shared.all.serializer.SerializationException;
 import rocks.inspectit.shared.all.serializer.provider.SerializationManagerProvider;
-import rocks.inspectit.shared.all.serializer.util.KryoUtil;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
 import rocks.inspectit.shared.cs.indexing.storage.impl.StorageDescriptor;
 import rocks.inspectit.shared.cs.storage.IStorageData;
@@ -56,8 +55,12 @@ import rocks.inspectit.shared.cs.storage.LocalStorageData;
 import rocks.inspectit.shared.cs.storage.StorageData;
 import rocks.inspectit.shared.cs.storage.StorageFileType;
 import rocks.inspectit.shared.cs.storage.StorageManager;
+import rocks.inspectit.shared.cs.storage.nio.read.MappedChannelManager;
+import rocks.inspectit.shared.cs.storage.nio.read.MappedChannelManager.MappedRegion;
 import rocks.inspectit.shared.cs.storage.nio.stream.InputStreamProvider;
 import rocks.inspectit.shared.cs.storage.util.RangeDescriptor;
+import rocks.inspectit.ui.rcp.preferences.PreferencesConstants;
+import rocks.inspectit.ui.rcp.preferences.PreferencesUtils;
 import rocks.inspectit.ui.rcp.repository.CmrRepositoryDefinition;
 import rocks.inspectit.ui.rcp.storage.http.TransferDataMonitor;
 
@@ -94,6 +97,12 @@ public class DataRetriever {
 	 */
 	private InputStreamProvider streamProvider;
 
+	/**
+	 * Manager of the memory mapped channel files, used for local data reading if the
+	 * {@link PreferencesConstants#STORAGE_MEMORY_MAPPED_READS} is active.
+	 */
+	private MappedChannelManager mappedChannelManager;
+
 	/**
 	 * Initializes the retriever.
 	 *
@@ -133,12 +142,44 @@ public class DataRetriever {
 	 *             If {@link SerializationException} occurs.
 	 * @throws IOException
 	 *             If {@link IOException} occurs.
+	 * @see #streamDataViaHttp(CmrRepositoryDefinition, IStorageData, List, IDataConsumer)
 	 */
-	@SuppressWarnings("unchecked")
 	public <E extends DefaultData> List<E> getDataViaHttp(CmrRepositoryDefinition cmrRepositoryDefinition, IStorageData storageData, List<IStorageDescriptor> descriptors)
 			throws IOException, SerializationException {
+		ListDataConsumer<E> consumer = new ListDataConsumer<>(descriptors.size());
+		this.streamDataViaHttp(cmrRepositoryDefinition, storageData, descriptors, consumer);
+		return consumer.getList();
+	}
+
+	/**
+	 * Streams the wanted data described in the {@link StorageDescriptor} from the desired
+	 * {@link CmrRepositoryDefinition} to the given consumer. The elements are passed to the
+	 * consumer as they are de-serialized from the HTTP response, thus the memory needed does not
+	 * depend on the amount of data read. If the consumer signals that no more data is needed, the
+	 * current HTTP request is aborted and no further requests are executed.
+	 * <p>
+	 * The method will execute the HTTP requests sequentially.
+	 *
+	 * @param <E>
+	 *            Type of the objects are wanted.
+	 * @param cmrRepositoryDefinition
+	 *            {@link CmrRepositoryDefinition}.
+	 * @param storageData
+	 *            {@link StorageData} that points to the wanted storage.
+	 * @param descriptors
+	 *            Descriptors.
+	 * @param consumer
+	 *            Consumer to pass the de-serialized elements to. Note that if the data described in
+	 *            the descriptor is not of a supplied generic type, there will be a casting exception
+	 *            thrown.
+	 * @throws SerializationException
+	 *             If {@link SerializationException} occurs.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	public <E extends DefaultData> void streamDataViaHttp(CmrRepositoryDefinition cmrRepositoryDefinition, IStorageData storageData, List<IStorageDescriptor> descriptors,
+			IDataConsumer<E> consumer) throws IOException, SerializationException {
 		Map<Integer, List<IStorageDescriptor>> separateFilesGroup = createFilesGroup(descriptors);
-		List<E> receivedData = new ArrayList<>();
 		String serverUri = getServerUri(cmrRepositoryDefinition);
 
 		HttpClient httpClient = new DefaultHttpClient();
@@ -171,37 +212,37 @@ public class DataRetriever {
 			}
 			InputStream inputStream = null;
 			Input input = null;
+			boolean continueReading = true;
 			try {
 				HttpResponse response = httpClient.execute(httpGet);
 				HttpEntity entity = response.getEntity();
+				inputStream = entity.getContent();
 				if (MultipartEntityUtil.isMultipart(entity)) {
-					inputStream = entity.getContent();
 					@SuppressWarnings("deprecation")
 					// all non-deprecated constructors have default modifier
 					MultipartStream multipartStream = new MultipartStream(inputStream, MultipartEntityUtil.getBoundary(entity).getBytes());
+					// one part holds one range, thus only one range is in memory at a time
 					ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
 					boolean nextPart = multipartStream.skipPreamble();
-					while (nextPart) {
+					while (nextPart && continueReading) {
 						multipartStream.readHeaders();
+						byteArrayOutputStream.reset();
 						multipartStream.readBodyData(byteArrayOutputStream);
 						input = new Input(byteArrayOutputStream.toByteArray());
-						while (KryoUtil.hasMoreBytes(input)) {
-							Object object = serializer.deserialize(input);
-							E element = (E) object;
-							receivedData.add(element);
+						continueReading = consumeAll(input, serializer, consumer);
+						if (continueReading) {
+							nextPart = multipartStream.readBoundary();
 						}
-						nextPart = multipartStream.readBoundary();
 					}
 				} else {
-					// when kryo changes the visibility of optional() method, we can really stream
-					input = new Input(EntityUtils.toByteArray(entity));
-					while (KryoUtil.hasMoreBytes(input)) {
-						Object object = serializer.deserialize(input);
-						E element = (E) object;
-						receivedData.add(element);
-					}
+					input = new Input(inputStream);
+					continueReading = consumeAll(input, serializer, consumer);
 				}
 			} finally {
+				if (!continueReading) {
+					// don't read the rest of the response
+					httpGet.abort();
+				}
 				if (null != inputStream) {
 					inputStream.close();
 				}
@@ -210,8 +251,11 @@ public class DataRetriever {
 				}
 				serializerQueue.add(serializer);
 			}
+
+			if (!continueReading) {
+				break;
+			}
 		}
-		return receivedData;
 	}
 
 	/**
@@ -236,9 +280,41 @@ public class DataRetriever {
 	 *             If {@link SerializationException} occurs.
 	 * @throws IOException
 	 *             If {@link IOException} occurs.
+	 * @see #streamDataLocally(LocalStorageData, List, IDataConsumer)
 	 */
-	@SuppressWarnings("unchecked")
 	public <E extends DefaultData> List<E> getDataLocally(LocalStorageData localStorageData, List<IStorageDescriptor> descriptors) throws IOException, SerializationException {
+		ListDataConsumer<E> consumer = new ListDataConsumer<>(descriptors.size());
+		this.streamDataLocally(localStorageData, descriptors, consumer);
+		return consumer.getList();
+	}
+
+	/**
+	 * Streams the wanted data described in the {@link StorageDescriptor} from the desired
+	 * offline-available storage to the given consumer. The data is read with the
+	 * {@link rocks.inspectit.shared.cs.storage.nio.stream.ExtendedByteBufferInputStream} that has
+	 * a fixed amount of buffers, and elements are passed to the consumer as they are
+	 * de-serialized, thus the memory needed does not depend on the amount of data read.
+	 * <p>
+	 * If the {@link PreferencesConstants#STORAGE_MEMORY_MAPPED_READS} is active, the channel files
+	 * are memory mapped instead and the data is de-serialized directly from the mapped regions.
+	 *
+	 * @param <E>
+	 *            Type of the objects are wanted.
+	 * @param localStorageData
+	 *            {@link LocalStorageData} that points to the wanted storage.
+	 * @param descriptors
+	 *            Descriptors.
+	 * @param consumer
+	 *            Consumer to pass the de-serialized elements to. Note that if the data described in
+	 *            the descriptor is not of a supplied generic type, there will be a casting exception
+	 *            thrown.
+	 * @throws SerializationException
+	 *             If {@link SerializationException} occurs.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	public <E extends DefaultData> void streamDataLocally(LocalStorageData localStorageData, List<IStorageDescriptor> descriptors, IDataConsumer<E> consumer)
+			throws IOException, SerializationException {
 		Map<Integer, List<IStorageDescriptor>> separateFilesGroup = createFilesGroup(descriptors);
 		List<IStorageDescriptor> optimizedDescriptors = new ArrayList<>();
 		for (Map.Entry<Integer, List<IStorageDescriptor>> entry : separateFilesGroup.entrySet()) {
@@ -258,32 +334,92 @@ public class DataRetriever {
 			optimizedDescriptors.add(storageDescriptor);
 		}
 
-		List<E> receivedData = new ArrayList<>(descriptors.size());
-
 		ISerializer serializer = null;
 		try {
 			serializer = serializerQueue.take();
 		} catch (InterruptedException e) {
 			Thread.interrupted();
 		}
+
+		if (isMemoryMappedReads()) {
+			try {
+				for (IStorageDescriptor descriptor : optimizedDescriptors) {
+					Path channelPath = storageManager.getChannelPath(localStorageData, descriptor);
+					try (MappedRegion region = mappedChannelManager.map(channelPath, descriptor.getPosition(), descriptor.getSize())) {
+						if (!consumeAll(new ByteBufferInput(region.getBuffer()), serializer, consumer)) {
+							break;
+						}
+					}
+				}
+			} finally {
+				serializerQueue.add(serializer);
+			}
+			return;
+		}
+
 		InputStream inputStream = null;
 		Input input = null;
 		try {
 			inputStream = streamProvider.getExtendedByteBufferInputStream(localStorageData, optimizedDescriptors);
 			input = new Input(inputStream);
-			while (KryoUtil.hasMoreBytes(input)) {
-				Object object = serializer.deserialize(input);
-				E element = (E) object;
-				receivedData.add(element);
-			}
+			consumeAll(input, serializer, consumer);
 		} finally {
 			if (null != input) {
 				input.close();
 			}
 			serializerQueue.add(serializer);
 		}
+	}
+
+	/**
+	 * Returns if the local data should be read from the memory mapped channel files.
+	 *
+	 * @return If the {@link PreferencesConstants#STORAGE_MEMORY_MAPPED_READS} is active.
+	 */
+	boolean isMemoryMappedReads() {
+		return PreferencesUtils.getBooleanValue(PreferencesConstants.STORAGE_MEMORY_MAPPED_READS);
+	}
+
+	/**
+	 * Releases the memory mapped channel files of the local storage. Must be called before the
+	 * local storage data files are deleted. Files that are being read are unmapped when the reading
+	 * finishes.
+	 *
+	 * @param localStorageData
+	 *            {@link LocalStorageData}.
+	 */
+	public void releaseMappedData(LocalStorageData localStorageData) {
+		mappedChannelManager.release(storageManager.getStoragePath(localStorageData));
+	}
 
-		return receivedData;
+	/**
+	 * De-serializes the elements from the input and passes them to the consumer until the input
+	 * has no more bytes or the consumer does not need any more elements.
+	 *
+	 * @param <E>
+	 *            Type of the objects are wanted.
+	 * @param input
+	 *            Input to read from.
+	 * @param serializer
+	 *            Serializer to use.
+	 * @param consumer
+	 *            Consumer.
+	 * @return <code>false</code> if the consumer does not need any more elements,
+	 *         <code>true</code> otherwise.
+	 * @throws SerializationException
+	 *             If {@link SerializationException} occurs.
+	 */
+	@SuppressWarnings("unchecked")
+	private <E extends DefaultData> boolean consumeAll(Input input, ISerializer serializer, IDataConsumer<E> consumer) throws SerializationException {
+		// eof() blocks until the bytes are available, so the stream can be consumed while received
+		while (!input.eof()) {
+			Object object = serializer.deserialize(input);
+			E element = (E) object;
+			if (!consumer.consume(element)) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -701,6 +837,16 @@ public class DataRetriever {
 		this.serializationManagerProvider = serializationManagerProvider;
 	}
 
+	/**
+	 * Sets {@link #mappedChannelManager}.
+	 *
+	 * @param mappedChannelManager
+	 *            New value for {@link #mappedChannelManager}
+	 */
+	public void setMappedChannelManager(MappedChannelManager mappedChannelManager) {
+		this.mappedChannelManager = mappedChannelManager;
+	}
+
 	/**
 	 * Sets {@link #streamProvider}.
 	 *
@@ -775,6 +921,48 @@ public class DataRetriever {
 
 	}
 
+	/**
+	 * Consumer that collects all elements to the list.
+	 *
+	 * @param <E>
+	 *            Type of the data elements.
+	 */
+	private static class ListDataConsumer<E extends DefaultData> implements IDataConsumer<E> {
+
+		/**
+		 * Collected elements.
+		 */
+		private final List<E> list;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param expectedSize
+		 *            Expected amount of elements.
+		 */
+		ListDataConsumer(int expectedSize) {
+			this.list = new ArrayList<>(expectedSize);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean consume(E element) {
+			list.add(element);
+			return true;
+		}
+
+		/**
+		 * Gets {@link #list}.
+		 *
+		 * @return {@link #list}
+		 */
+		List<E> getList() {
+			return list;
+		}
+	}
+
 	/**
 	 * Simple interface to enable multiple operations after file download.
 	 *
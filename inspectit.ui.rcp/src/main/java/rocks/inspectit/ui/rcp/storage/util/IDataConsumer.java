@@ -0,0 +1,25 @@
+package rocks.inspectit.ui.rcp.storage.util;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+
+/**
+ * Consumer of the data elements read from the storage by the {@link DataRetriever}. Elements are
+ * passed to the consumer as soon as they are de-serialized, thus the complete result does not have
+ * to be held in memory.
+ *
+ * @param <E>
+ *            Type of the data elements.
+ */
+public interface IDataConsumer<E extends DefaultData> {
+
+	/**
+	 * Consumes one de-serialized element.
+	 *
+	 * @param element
+	 *            De-serialized element.
+	 * @return <code>true</code> if reading should continue, <code>false</code> if the consumer
+	 *         does not need any more elements, in which case the reading is stopped.
+	 */
+	boolean consume(E element);
+
+}
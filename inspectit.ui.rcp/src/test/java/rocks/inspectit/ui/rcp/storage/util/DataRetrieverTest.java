@@ -0,0 +1,382 @@
+package rocks.inspectit.ui.rcp.storage.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.serializer.ISerializer;
+import rocks.inspectit.shared.all.serializer.provider.SerializationManagerProvider;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
+import rocks.inspectit.shared.cs.indexing.storage.impl.StorageDescriptor;
+import rocks.inspectit.shared.cs.storage.IStorageData;
+import rocks.inspectit.shared.cs.storage.LocalStorageData;
+import rocks.inspectit.shared.cs.storage.StorageManager;
+import rocks.inspectit.shared.cs.storage.nio.read.MappedChannelManager;
+import rocks.inspectit.shared.cs.storage.nio.stream.ExtendedByteBufferInputStream;
+import rocks.inspectit.shared.cs.storage.nio.stream.InputStreamProvider;
+import rocks.inspectit.ui.rcp.repository.CmrRepositoryDefinition;
+
+/**
+ * Tests the streaming of the data in the {@link DataRetriever}. Each element is serialized as the
+ * long holding its id.
+ */
+@SuppressWarnings("PMD")
+public class DataRetrieverTest {
+
+	/**
+	 * Boundary of the multipart responses.
+	 */
+	private static final String BOUNDARY = "THIS_STRING_SEPARATES";
+
+	/**
+	 * Size of one serialized element.
+	 */
+	private static final int ELEMENT_SIZE = 8;
+
+	/**
+	 * Retriever to test.
+	 */
+	private DataRetriever dataRetriever;
+
+	/**
+	 * If the retriever reads the local data from the memory mapped files.
+	 */
+	private boolean memoryMappedReads;
+
+	/**
+	 * Server answering the HTTP requests, <code>null</code> if not started.
+	 */
+	private HttpServer httpServer;
+
+	/**
+	 * Range headers of the received HTTP requests.
+	 */
+	private List<String> receivedRanges;
+
+	/**
+	 * Manager mapping the channel files.
+	 */
+	private MappedChannelManager mappedChannelManager;
+
+	/**
+	 * Channel file of the local tests, <code>null</code> if not created.
+	 */
+	private Path channelFile;
+
+	@Mock
+	private StorageManager storageManager;
+
+	@Mock
+	private SerializationManagerProvider serializationManagerProvider;
+
+	@Mock
+	private ISerializer serializer;
+
+	@Mock
+	private CmrRepositoryDefinition cmrRepositoryDefinition;
+
+	@Mock
+	private IStorageData storageData;
+
+	@Mock
+	private LocalStorageData localStorageData;
+
+	@Mock
+	private InputStreamProvider streamProvider;
+
+	/**
+	 * Init method.
+	 */
+	@BeforeMethod
+	public void init() throws Exception {
+		MockitoAnnotations.initMocks(this);
+
+		when(serializationManagerProvider.createSerializer()).thenReturn(serializer);
+		when(serializer.deserialize(any(Input.class))).thenAnswer(new Answer<Object>() {
+			@Override
+			public Object answer(InvocationOnMock invocation) throws Throwable {
+				Input input = (Input) invocation.getArguments()[0];
+				TimerData timerData = new TimerData();
+				timerData.setId(input.readLong());
+				return timerData;
+			}
+		});
+
+		memoryMappedReads = false;
+		dataRetriever = new DataRetriever() {
+			@Override
+			boolean isMemoryMappedReads() {
+				return memoryMappedReads;
+			}
+		};
+		dataRetriever.setStorageManager(storageManager);
+		dataRetriever.setSerializationManagerProvider(serializationManagerProvider);
+		dataRetriever.setSerializerCount(1);
+		dataRetriever.setStreamProvider(streamProvider);
+		mappedChannelManager = new MappedChannelManager();
+		dataRetriever.setMappedChannelManager(mappedChannelManager);
+		dataRetriever.init();
+
+		receivedRanges = new CopyOnWriteArrayList<>();
+	}
+
+	/**
+	 * Stops the server, unmaps and deletes the channel file.
+	 */
+	@AfterMethod
+	public void cleanUp() throws IOException {
+		mappedChannelManager.releaseAll();
+		if (null != httpServer) {
+			httpServer.stop(0);
+			httpServer = null;
+		}
+		if (null != channelFile) {
+			Files.deleteIfExists(channelFile);
+			channelFile = null;
+		}
+	}
+
+	@Test
+	public void httpSingleRange() throws Exception {
+		startServer(new StaticHandler("application/octet-stream", elements(1, 2)));
+		LimitedDataConsumer consumer = new LimitedDataConsumer(-1);
+
+		dataRetriever.streamDataViaHttp(cmrRepositoryDefinition, storageData, descriptors(new StorageDescriptor(1, 0, 8), new StorageDescriptor(1, 8, 8)), consumer);
+
+		assertThat(consumer.getIds(), contains(1L, 2L));
+		assertThat(receivedRanges, contains("bytes=0-15"));
+	}
+
+	@Test
+	public void httpMultipart() throws Exception {
+		startServer(new StaticHandler("multipart/byteranges; boundary=" + BOUNDARY, multipart(elements(1, 2), elements(3))));
+		LimitedDataConsumer consumer = new LimitedDataConsumer(-1);
+
+		dataRetriever.streamDataViaHttp(cmrRepositoryDefinition, storageData, descriptors(new StorageDescriptor(1, 32, 8), new StorageDescriptor(1, 0, 16)), consumer);
+
+		assertThat(consumer.getIds(), contains(1L, 2L, 3L));
+		assertThat(receivedRanges, contains("bytes=0-15,32-39"));
+	}
+
+	@Test
+	public void httpAbortedByConsumer() throws Exception {
+		startServer(new StaticHandler("multipart/byteranges; boundary=" + BOUNDARY, multipart(elements(1, 2), elements(3))));
+		LimitedDataConsumer consumer = new LimitedDataConsumer(1);
+
+		dataRetriever.streamDataViaHttp(cmrRepositoryDefinition, storageData,
+				descriptors(new StorageDescriptor(1, 0, 16), new StorageDescriptor(1, 32, 8), new StorageDescriptor(2, 0, 8)), consumer);
+
+		assertThat(consumer.getIds(), contains(1L));
+		// rest of the part, next part and next channel are not read
+		verify(serializer, times(1)).deserialize(any(Input.class));
+		assertThat(receivedRanges.size(), is(1));
+	}
+
+	@Test
+	public void httpLimitOverChannels() throws Exception {
+		startServer(new StaticHandler("application/octet-stream", elements(1, 2)));
+		LimitedDataConsumer consumer = new LimitedDataConsumer(3);
+
+		dataRetriever.streamDataViaHttp(cmrRepositoryDefinition, storageData,
+				descriptors(new StorageDescriptor(1, 0, 16), new StorageDescriptor(2, 0, 16), new StorageDescriptor(3, 0, 16)), consumer);
+
+		assertThat(consumer.getIds(), contains(1L, 2L, 1L));
+		assertThat(receivedRanges.size(), is(2));
+	}
+
+	@Test
+	public void locallyMapped() throws Exception {
+		memoryMappedReads = true;
+		createChannelFile(elements(1, 2, 3, 4));
+		LimitedDataConsumer consumer = new LimitedDataConsumer(-1);
+
+		dataRetriever.streamDataLocally(localStorageData, descriptors(new StorageDescriptor(1, 24, 8), new StorageDescriptor(1, 0, 8), new StorageDescriptor(1, 8, 8)), consumer);
+
+		// adjacent descriptors are joined to one region
+		assertThat(consumer.getIds(), contains(1L, 2L, 4L));
+		verify(storageManager, times(2)).getChannelPath(eq(localStorageData), any(IStorageDescriptor.class));
+	}
+
+	@Test
+	public void locallyMappedLimit() throws Exception {
+		memoryMappedReads = true;
+		createChannelFile(elements(1, 2, 3, 4));
+		LimitedDataConsumer consumer = new LimitedDataConsumer(2);
+
+		dataRetriever.streamDataLocally(localStorageData, descriptors(new StorageDescriptor(1, 0, 24), new StorageDescriptor(1, 24, 8), new StorageDescriptor(2, 0, 32)), consumer);
+
+		assertThat(consumer.getIds(), contains(1L, 2L));
+		verify(storageManager, times(1)).getChannelPath(eq(localStorageData), any(IStorageDescriptor.class));
+		verify(serializer, times(2)).deserialize(any(Input.class));
+	}
+
+	@Test
+	public void locallyStreamed() throws Exception {
+		final ByteArrayInputStream data = new ByteArrayInputStream(elements(1, 2, 3));
+		ExtendedByteBufferInputStream inputStream = mock(ExtendedByteBufferInputStream.class);
+		doAnswer(new Answer<Integer>() {
+			@Override
+			public Integer answer(InvocationOnMock invocation) throws Throwable {
+				Object[] args = invocation.getArguments();
+				return data.read((byte[]) args[0], (Integer) args[1], (Integer) args[2]);
+			}
+		}).when(inputStream).read(any(byte[].class), anyInt(), anyInt());
+		when(streamProvider.getExtendedByteBufferInputStream(eq(localStorageData), anyListOf(IStorageDescriptor.class))).thenReturn(inputStream);
+		LimitedDataConsumer consumer = new LimitedDataConsumer(2);
+
+		dataRetriever.streamDataLocally(localStorageData, descriptors(new StorageDescriptor(1, 0, 24)), consumer);
+
+		assertThat(consumer.getIds(), contains(1L, 2L));
+		verify(inputStream).close();
+	}
+
+	/**
+	 * Starts the server answering all requests with the given handler.
+	 *
+	 * @param handler
+	 *            Handler.
+	 */
+	private void startServer(HttpHandler handler) throws IOException {
+		httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		httpServer.createContext("/", handler);
+		httpServer.start();
+
+		when(cmrRepositoryDefinition.getIp()).thenReturn("localhost");
+		when(cmrRepositoryDefinition.getPort()).thenReturn(httpServer.getAddress().getPort());
+		when(storageManager.getHttpFileLocation(eq(storageData), anyInt())).thenReturn("/storage/channel.itdata");
+	}
+
+	/**
+	 * Writes the channel file that is returned for all local descriptors.
+	 *
+	 * @param content
+	 *            Content of the file.
+	 */
+	private void createChannelFile(byte[] content) throws IOException {
+		channelFile = Files.createTempFile("channel", ".itdata");
+		Files.write(channelFile, content);
+		when(storageManager.getChannelPath(eq(localStorageData), any(IStorageDescriptor.class))).thenReturn(channelFile);
+	}
+
+	/**
+	 * Creates the modifiable list of the descriptors.
+	 */
+	private static List<IStorageDescriptor> descriptors(IStorageDescriptor... descriptors) {
+		return new ArrayList<>(Arrays.asList(descriptors));
+	}
+
+	/**
+	 * Serializes the elements with the given ids.
+	 */
+	private static byte[] elements(long... ids) {
+		ByteBuffer buffer = ByteBuffer.allocate(ids.length * ELEMENT_SIZE);
+		for (long id : ids) {
+			buffer.putLong(id);
+		}
+		return buffer.array();
+	}
+
+	/**
+	 * Creates the multipart body with one part for each given range content.
+	 */
+	private static byte[] multipart(byte[]... parts) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		for (byte[] part : parts) {
+			outputStream.write(("--" + BOUNDARY + "\r\nContent-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+			outputStream.write(part);
+			outputStream.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+		}
+		outputStream.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * Handler answering with the same partial content to all requests and remembering the
+	 * requested ranges.
+	 */
+	private class StaticHandler implements HttpHandler {
+
+		private final String contentType;
+
+		private final byte[] content;
+
+		StaticHandler(String contentType, byte[] content) {
+			this.contentType = contentType;
+			this.content = content;
+		}
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			receivedRanges.add(exchange.getRequestHeaders().getFirst("Range"));
+			exchange.getResponseHeaders().add("Content-Type", contentType);
+			exchange.sendResponseHeaders(206, (content.length > 0) ? content.length : -1);
+			try (OutputStream outputStream = exchange.getResponseBody()) {
+				outputStream.write(content);
+			} catch (IOException e) {
+				// client aborted the reading
+			}
+		}
+	}
+
+	/**
+	 * Consumer that collects the ids and stops after the limit is reached.
+	 */
+	private static class LimitedDataConsumer implements IDataConsumer<TimerData> {
+
+		private final int limit;
+
+		private final List<Long> ids = new ArrayList<>();
+
+		LimitedDataConsumer(int limit) {
+			this.limit = limit;
+		}
+
+		@Override
+		public boolean consume(TimerData element) {
+			ids.add(element.getId());
+			return (limit < 0) || (ids.size() < limit);
+		}
+
+		List<Long> getIds() {
+			return ids;
+		}
+	}
+
+}